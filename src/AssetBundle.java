@@ -0,0 +1,291 @@
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import graphics.GameImage;
+import utils.AtomicFiles;
+import utils.GameConfig;
+import utils.Logger;
+
+/**
+ * Pre-decoded images in a single file, so startup does not have to decode,
+ * convert and darken the source images again.
+ *
+ * Every image is stored as a page of raw premultiplied ARGB pixels. Loading
+ * maps the file and copies each page straight into the pixel array of a
+ * TYPE_INT_ARGB_PRE image; nothing is decoded. A bundle records a hash of the
+ * source images it was built from and is ignored once they change.
+ *
+ * Layout (little-endian):
+ * - header: magic "SRTB", version, source hash, sprite rotations, page count
+ * - index: per page its kind, key, path, format, width, height and the file
+ *   offset of its pixels
+ * - pixels: one page after another, width * height ints each
+ */
+public final class AssetBundle {
+	private static final int MAGIC = 0x42545253; // "SRTB" read as a little-endian int
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4;
+
+	// Kinds of pages
+	private static final byte GAME_IMAGE = 0;
+	private static final byte DARK_GAME_IMAGE = 1;
+	private static final byte TILE_IMAGE = 2;
+	private static final byte DARK_TILE_IMAGE = 3;
+	private static final byte ATLAS_FRAME = 4;
+
+	/**
+	 * The images of a bundle, keyed like in {@link ImageService}.
+	 */
+	public static final class Contents {
+		final Map<Integer, GameImage> gameImages = new HashMap<>();
+		final Map<Integer, GameImage> darkGameImages = new HashMap<>();
+		final Map<String, GameImage> tileImages = new HashMap<>();
+		final Map<String, GameImage> darkTileImages = new HashMap<>();
+		int rotations;
+		GameImage[] atlasFrames = new GameImage[0];
+	}
+
+	private AssetBundle() {
+	}
+
+	/**
+	 * Gets the configured bundle file, or null if bundles are disabled.
+	 */
+	public static Path configuredPath() {
+		String path = GameConfig.getAssetBundlePath();
+		return path == null || path.isEmpty() ? null : Paths.get(path);
+	}
+
+	/**
+	 * Writes a bundle.
+	 *
+	 * @param path Target file, replaced when the bundle is complete
+	 * @param sourceHash Hash of the source images the contents were made from
+	 * @param contents Images to store
+	 * @throws IOException If the file could not be written
+	 */
+	public static void write(Path path, long sourceHash, Contents contents) throws IOException {
+		List<Byte> kinds = new ArrayList<>();
+		List<String> keys = new ArrayList<>();
+		List<GameImage> images = new ArrayList<>();
+		collect(kinds, keys, images, GAME_IMAGE, contents.gameImages);
+		collect(kinds, keys, images, DARK_GAME_IMAGE, contents.darkGameImages);
+		collect(kinds, keys, images, TILE_IMAGE, contents.tileImages);
+		collect(kinds, keys, images, DARK_TILE_IMAGE, contents.darkTileImages);
+		for (int i = 0; i < contents.atlasFrames.length; i++) {
+			kinds.add(ATLAS_FRAME);
+			keys.add(Integer.toString(i));
+			images.add(contents.atlasFrames[i]);
+		}
+
+		// Index size first, so the pixel offsets are known while writing it
+		long indexBytes = 0;
+		for (int i = 0; i < images.size(); i++) {
+			indexBytes += 1 + stringBytes(keys.get(i)) + stringBytes(images.get(i).getPath()) + 1 + 4 + 4 + 8;
+		}
+		long dataStart = align(HEADER_BYTES + indexBytes);
+		if (dataStart > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Asset bundle index too large: " + dataStart + " bytes");
+		}
+
+		ByteBuffer header = ByteBuffer.allocate((int) dataStart).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.putLong(sourceHash);
+		header.putInt(contents.rotations);
+		header.putInt(images.size());
+		long offset = dataStart;
+		for (int i = 0; i < images.size(); i++) {
+			GameImage image = images.get(i);
+			header.put(kinds.get(i));
+			putString(header, keys.get(i));
+			putString(header, image.getPath());
+			header.put((byte) image.getFormat().ordinal());
+			header.putInt(image.getWidth());
+			header.putInt(image.getHeight());
+			header.putLong(offset);
+			offset += (long) image.getWidth() * image.getHeight() * Integer.BYTES;
+		}
+		header.position(header.capacity());
+		header.flip();
+
+		if (path.getParent() != null) {
+			Files.createDirectories(path.getParent());
+		}
+		// Pages are converted one at a time rather than all held in memory
+		AtomicFiles.writeAtomically(path, channel -> {
+			AtomicFiles.writeFully(channel, header);
+			for (GameImage image : images) {
+				int[] pixels = premultipliedPixels((Image) image.getBackendImage());
+				ByteBuffer page = ByteBuffer.allocate(pixels.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+				page.asIntBuffer().put(pixels);
+				AtomicFiles.writeFully(channel, page);
+			}
+		});
+	}
+
+	/**
+	 * Reads a bundle if it exists and matches the source images.
+	 *
+	 * @param path Bundle file
+	 * @param sourceHash Hash of the current source images
+	 * @return The images, or null if the file is missing or stale
+	 * @throws IOException If the file could not be read
+	 * @throws IllegalArgumentException If the file is not a valid bundle
+	 */
+	public static Contents read(Path path, long sourceHash) throws IOException {
+		if (!Files.isRegularFile(path)) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			// Check the header before mapping, so a stale bundle is not left mapped
+			// while it is being replaced
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0) {
+					break;
+				}
+			}
+			header.flip();
+			if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+				throw new IllegalArgumentException("Not an asset bundle");
+			}
+			int version = header.getInt();
+			if (version != VERSION || header.getLong() != sourceHash) {
+				return null;
+			}
+
+			Contents contents = new Contents();
+			contents.rotations = header.getInt();
+			int count = header.getInt();
+
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+			buffer.position(HEADER_BYTES);
+			List<GameImage> frames = new ArrayList<>();
+			for (int i = 0; i < count; i++) {
+				byte kind = buffer.get();
+				String key = getString(buffer);
+				String imagePath = getString(buffer);
+				GameImage.ImageFormat format = GameImage.ImageFormat.values()[buffer.get()];
+				int width = buffer.getInt();
+				int height = buffer.getInt();
+				long offset = buffer.getLong();
+				if (offset + (long) width * height * Integer.BYTES > buffer.limit()) {
+					throw new IllegalArgumentException("Asset bundle page out of range: " + key);
+				}
+
+				// A straight copy of the page; the pixels are already in the image's format
+				BufferedImage page = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+				int[] pixels = ((DataBufferInt) page.getRaster().getDataBuffer()).getData();
+				buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).position((int) offset).asIntBuffer().get(pixels);
+				GameImage image = new GameImage(page, imagePath, format);
+
+				switch (kind) {
+					case GAME_IMAGE:
+						contents.gameImages.put(Integer.valueOf(key), image);
+						break;
+					case DARK_GAME_IMAGE:
+						contents.darkGameImages.put(Integer.valueOf(key), image);
+						break;
+					case TILE_IMAGE:
+						contents.tileImages.put(key, image);
+						break;
+					case DARK_TILE_IMAGE:
+						contents.darkTileImages.put(key, image);
+						break;
+					case ATLAS_FRAME:
+						frames.add(image);
+						break;
+					default:
+						throw new IllegalArgumentException("Unknown asset bundle page kind: " + kind);
+				}
+			}
+			contents.atlasFrames = frames.toArray(new GameImage[0]);
+			return contents;
+		}
+	}
+
+	private static <K> void collect(List<Byte> kinds, List<String> keys, List<GameImage> images, byte kind,
+			Map<K, GameImage> source) {
+		for (Map.Entry<K, GameImage> entry : source.entrySet()) {
+			kinds.add(kind);
+			keys.add(String.valueOf(entry.getKey()));
+			images.add(entry.getValue());
+		}
+	}
+
+	private static int[] premultipliedPixels(Image source) {
+		if (source instanceof BufferedImage && ((BufferedImage) source).getType() == BufferedImage.TYPE_INT_ARGB_PRE
+				&& ((BufferedImage) source).getRaster().getParent() == null) {
+			return ((DataBufferInt) ((BufferedImage) source).getRaster().getDataBuffer()).getData();
+		}
+		BufferedImage converted = new BufferedImage(source.getWidth(null), source.getHeight(null),
+				BufferedImage.TYPE_INT_ARGB_PRE);
+		Graphics2D g = converted.createGraphics();
+		g.drawImage(source, 0, 0, null);
+		g.dispose();
+		return ((DataBufferInt) converted.getRaster().getDataBuffer()).getData();
+	}
+
+	private static long align(long offset) {
+		return (offset + 3) & ~3L;
+	}
+
+	private static int stringBytes(String value) {
+		return 2 + (value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length);
+	}
+
+	private static void putString(ByteBuffer buffer, String value) {
+		if (value == null) {
+			buffer.putShort((short) -1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		buffer.putShort((short) bytes.length);
+		buffer.put(bytes);
+	}
+
+	private static String getString(ByteBuffer buffer) {
+		int length = buffer.getShort();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Packs the images into the configured bundle ahead of time.
+	 *
+	 * Usage: AssetBundle [bundle file]
+	 */
+	public static void main(String[] args) throws IOException {
+		GameConfig.initialize();
+		Path path = args.length > 0 ? Paths.get(args[0]) : configuredPath();
+		if (path == null) {
+			Logger.error("No asset bundle path given and assets.bundle is empty");
+			return;
+		}
+		ImageService imageService = new ImageService(new utils.PathResolver());
+		imageService.loadImagesFromSources();
+		imageService.writeBundle(path);
+	}
+}
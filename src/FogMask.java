@@ -0,0 +1,119 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+
+import graphics.GameImage;
+import graphics.IGraphics;
+import managers.FogChangeTracker;
+import managers.GameFogWar;
+import utils.Constants;
+
+/**
+ * Fog of war overlay kept as an image with one pixel per tile.
+ *
+ * Pixels are opaque fog for hidden tiles and fully transparent for visible
+ * ones, one bit each so the overlay stays small on large maps. Only the tiles the fog reports as changed are rewritten, and the whole
+ * overlay is drawn with a single scaled image draw instead of one rectangle
+ * per hidden tile.
+ */
+public class FogMask {
+	private static final int FOG_ARGB = 0xFFE2E2E2; // Color(226, 226, 226)
+	private static final int CLEAR_ARGB = 0x00000000;
+	// Palette index 0 is clear, 1 is fog
+	private static final IndexColorModel PALETTE = new IndexColorModel(1, 2,
+			new byte[] { 0, (byte) (FOG_ARGB >> 16) }, new byte[] { 0, (byte) (FOG_ARGB >> 8) },
+			new byte[] { 0, (byte) FOG_ARGB }, new byte[] { 0, (byte) (FOG_ARGB >>> 24) });
+
+	private GameFogWar boundFog;
+	private FogChangeTracker tracker;
+	private BufferedImage image;
+	private GameImage gameImage;
+	// Rows of packed pixels, most significant bit first
+	private byte[] pixels;
+	private int rowBytes;
+	private int width;
+	private int height;
+	private int fullRebuilds = 0;
+
+	/**
+	 * Draws the fog over the map.
+	 *
+	 * @param g Graphics to draw on
+	 * @param fogWar Fog to draw
+	 * @param cameraX World x of the screen's left edge
+	 * @param cameraY World y of the screen's top edge
+	 */
+	public void render(IGraphics g, GameFogWar fogWar, int cameraX, int cameraY) {
+		update(fogWar);
+		g.drawImage(gameImage, -cameraX, -cameraY, width * Constants.TILE_WIDTH, height * Constants.TILE_HEIGHT);
+	}
+
+	/**
+	 * Brings the mask up to date with the fog.
+	 *
+	 * @param fogWar Fog to mirror
+	 */
+	public void update(GameFogWar fogWar) {
+		int fogWidth = fogWar.getVisibleData().getWidth();
+		int fogHeight = fogWar.getVisibleData().getHeight();
+		boolean resized = image == null || fogWidth != width || fogHeight != height;
+		if (resized) {
+			width = fogWidth;
+			height = fogHeight;
+			image = new BufferedImage(Math.max(1, width), Math.max(1, height), BufferedImage.TYPE_BYTE_BINARY, PALETTE);
+			pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+			rowBytes = (Math.max(1, width) + 7) >> 3;
+			gameImage = new GameImage(image);
+		}
+
+		if (fogWar != boundFog) {
+			if (boundFog != null) {
+				boundFog.stopTracking(tracker);
+			}
+			boundFog = fogWar;
+			tracker = fogWar.trackChanges();
+		}
+		boolean tracked = tracker.drain(this::updateTile);
+		if (!tracked || resized) {
+			rebuild();
+		}
+	}
+
+	/**
+	 * Gets the number of times every pixel was rewritten, for diagnostics.
+	 */
+	public int getFullRebuilds() {
+		return fullRebuilds;
+	}
+
+	/**
+	 * Gets the mask color of a tile.
+	 */
+	int getPixel(int x, int y) {
+		return (pixels[y * rowBytes + (x >> 3)] & (0x80 >> (x & 7))) != 0 ? FOG_ARGB : CLEAR_ARGB;
+	}
+
+	private void updateTile(int index) {
+		if (index >= width * height) {
+			return;
+		}
+		int x = index % width;
+		int y = index / width;
+		setPixel(x, y, !boundFog.isTileVisible(x, y));
+	}
+
+	private void setPixel(int x, int y, boolean fog) {
+		int i = y * rowBytes + (x >> 3);
+		int bit = 0x80 >> (x & 7);
+		pixels[i] = (byte) (fog ? pixels[i] | bit : pixels[i] & ~bit);
+	}
+
+	private void rebuild() {
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				setPixel(x, y, !boundFog.isTileVisible(x, y));
+			}
+		}
+		fullRebuilds++;
+	}
+}
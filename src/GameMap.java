@@ -1,12 +1,17 @@
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import graphics.Point;
+import map.BinaryMapFormat;
 import map.MapParseResult;
 import map.MapDescriptionLoader;
 import map.MapJsonParser;
+import map.TileMap;
+import map.TileNames;
 import utils.Logger;
+import utils.PathResolver;
 
 /*
  * This class basically changes the map array depending on which level needs to be loaded
@@ -16,10 +21,14 @@ public class GameMap {
 	private final ImageService imageService;
 
 	private int mapData[][];
-	private String drawData[][];
+	private TileMap tileMap;
+	private TileNames tileNames;
 
-	public String[][] getDrawData() {
-		return drawData;
+	/**
+	 * Gets the names of the map tiles, which pick the images they are drawn with.
+	 */
+	public TileNames getTileNames() {
+		return tileNames;
 	}
 
 	private Map<Point, Integer> allyUnitPositions;
@@ -47,11 +56,23 @@ public class GameMap {
 		this.numLevel = numLevel;
 	}
 
-	// Getter for mapData
+	/**
+	 * Gets the map tiles as an array.
+	 *
+	 * @return The tiles, or null when the map was opened from a binary file;
+	 *         {@link #getTileMap} works for every map
+	 */
 	public int[][] getMapData() {
 		return mapData;
 	}
 
+	/**
+	 * Gets the map tiles for code that reads them through {@link TileMap}.
+	 */
+	public TileMap getTileMap() {
+		return tileMap;
+	}
+
 	public GameMap(ImageService imageService) {
 		this.imageService = imageService;
 	}
@@ -75,32 +96,42 @@ public class GameMap {
 
 	public void loadMap() {
 		String jsonFilename = "../maps/newmap" + numLevel + ".json";
+		// A binary map is preferred when one was converted for this level
+		String binaryFilename = PathResolver.findPath("../maps/newmap" + numLevel + BinaryMapFormat.EXTENSION, "maps");
 		
 		MapParseResult result = null;
 		
+		long start = System.nanoTime();
 		try {
-			result = MapJsonParser.parseMapDataFromJsonFile(jsonFilename);
-			Logger.info("Loaded JSON map file: " + jsonFilename);
+			if (binaryFilename != null) {
+				// Tiles are read in chunks as they are needed instead of all at once
+				result = BinaryMapFormat.open(Paths.get(binaryFilename));
+				Logger.info("Loaded binary map file: " + binaryFilename + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+			} else {
+				result = MapJsonParser.parseMapDataFromJsonFile(jsonFilename);
+				Logger.info("Loaded JSON map file: " + jsonFilename + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+			}
 		} catch (Exception e) {
-			Logger.error("Failed to load or parse JSON map file: " + jsonFilename);
+			Logger.error("Failed to load or parse map file for level " + numLevel);
 			Logger.error("Error details: " + e.getMessage());
 			e.printStackTrace();
 			return;
 		}
 
-		if (result.mapData == null || result.mapData.length == 0 || result.mapData[0].length == 0) {
+		if (result.tileMap.getHeight() == 0 || result.tileMap.getWidth() == 0) {
 			Logger.error("Parsed map has invalid dimensions.");
 			return;
 		}
 
 		// Apply parsed data
 		mapData = result.mapData;
-		drawData = result.drawData;
+		tileMap = result.tileMap;
+		tileNames = result.tileNames;
 		allyUnitPositions = result.allyUnitPositions;
 		enemyUnitPositions = result.enemyUnitPositions;
 		flagPositions = result.flagPositions;
 
-		Logger.info("Map dimensions: " + mapData.length + " x " + mapData[0].length);
+		Logger.info("Map dimensions: " + tileMap.getHeight() + " x " + tileMap.getWidth());
 		Logger.info("Ally units: " + allyUnitPositions.size());
 		Logger.info("Enemy units: " + enemyUnitPositions.size());
 		Logger.info("Flags: " + flagPositions.size());
@@ -110,6 +141,10 @@ public class GameMap {
 
 
 	public void exportImage() {
+		if (mapData == null) {
+			Logger.error("Map image export needs a JSON map");
+			return;
+		}
 		MapImageExporter.exportImage(mapData, numLevel, imageService);
 	}
 
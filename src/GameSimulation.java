@@ -0,0 +1,426 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+
+import entities.GameFlag;
+import entities.GameFlagManager;
+import entities.GameUnit;
+import entities.GameUnitManager;
+import managers.CombatEffectManager;
+import managers.GameFogWar;
+import managers.GameTimer;
+import managers.LineOfSightCache;
+import graphics.Point;
+import input.PlayerCommand;
+import map.ArrayTileMap;
+import map.TileMap;
+import utils.Constants;
+import utils.Logger;
+import utils.RandomStreams;
+import utils.TileCoordinateConverter;
+
+/**
+ * Game rules for one level, independent of rendering, input and Swing.
+ *
+ * Each call to {@link #step()} advances the match by one tick: fog of war,
+ * flag spawning, unit logic for both factions, flag capture and the game clock.
+ * The game clock runs on simulated time (1 / TICKS_PER_SECOND per step)
+ * so the same match plays out identically whether it is stepped at a fixed
+ * rate by the game loop or as fast as possible by {@link HeadlessSimulation}.
+ * All randomness comes from streams derived from the match seed, so the same
+ * seed and the same player commands reproduce the match exactly.
+ */
+public class GameSimulation {
+	/** Fixed simulation rate used by the game loop. */
+	public static final int TICKS_PER_SECOND = 60;
+	public static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+	private static final int LOS_CACHE_ENTRIES = 1 << 16;
+
+	/** State of the match after the most recent tick. */
+	public enum Outcome {
+		RUNNING,
+		PLAYER_WON,
+		PLAYER_LOST
+	}
+
+	private final TileMap map;
+	private final GameUnitManager unitManager;
+	private final GameFlagManager flagManager;
+	private final GameFogWar fogWar;
+	private final GameFogWar enemyFogWar;
+	private final CombatEffectManager effectManager;
+	private final GameTimer gameTimer;
+	// Owned per match: walls are fixed for its lifetime and the cache is not thread-safe
+	private final LineOfSightCache losCache = new LineOfSightCache(LOS_CACHE_ENTRIES);
+	private long seed;
+
+	private long tickCount = 0;
+	private long simulatedMillis = 0;
+	private Outcome outcome = Outcome.RUNNING;
+
+	/**
+	 * @param map Map data for the level
+	 * @param unitManager Units of both factions
+	 * @param flagManager Flags of the level
+	 * @param fogWar Player fog of war
+	 * @param enemyFogWar Enemy fog of war
+	 * @param effectManager Visual combat effects, or null to skip them (headless)
+	 */
+	public GameSimulation(int[][] map, GameUnitManager unitManager, GameFlagManager flagManager,
+			GameFogWar fogWar, GameFogWar enemyFogWar, CombatEffectManager effectManager) {
+		this(map, unitManager, flagManager, fogWar, enemyFogWar, effectManager, new Random().nextLong());
+	}
+
+	/**
+	 * @param map Map tiles for the level, in any storage
+	 */
+	public GameSimulation(TileMap map, GameUnitManager unitManager, GameFlagManager flagManager,
+			GameFogWar fogWar, GameFogWar enemyFogWar, CombatEffectManager effectManager) {
+		this(map, unitManager, flagManager, fogWar, enemyFogWar, effectManager, new Random().nextLong());
+	}
+
+	/**
+	 * @param seed Match seed, recorded in replays and save games
+	 */
+	public GameSimulation(int[][] map, GameUnitManager unitManager, GameFlagManager flagManager,
+			GameFogWar fogWar, GameFogWar enemyFogWar, CombatEffectManager effectManager, long seed) {
+		this(new ArrayTileMap(map), unitManager, flagManager, fogWar, enemyFogWar, effectManager, seed);
+	}
+
+	/**
+	 * @param map Map tiles for the level, in any storage
+	 * @param seed Match seed, recorded in replays and save games
+	 */
+	public GameSimulation(TileMap map, GameUnitManager unitManager, GameFlagManager flagManager,
+			GameFogWar fogWar, GameFogWar enemyFogWar, CombatEffectManager effectManager, long seed) {
+		this.seed = seed;
+		this.map = map;
+		this.unitManager = unitManager;
+		this.flagManager = flagManager;
+		this.fogWar = fogWar;
+		this.enemyFogWar = enemyFogWar;
+		this.effectManager = effectManager;
+		this.gameTimer = new GameTimer(1, 0, flagManager, () -> simulatedMillis);
+		applyRandomStreams(new RandomStreams(seed));
+		if (effectManager != null) {
+			effectManager.clear(); // Drop effects left over from the previous level
+		}
+	}
+
+	/**
+	 * Advances the match by one tick. Does nothing once the match is decided.
+	 */
+	public void step() {
+		if (outcome != Outcome.RUNNING) {
+			return;
+		}
+
+		// Update what each faction can see
+		fogWar.calculateFogOfWar(unitManager.getPlayerList(), map);
+		enemyFogWar.calculateFogOfWar(unitManager.getEnemyList(), map);
+
+		// Handle flag spawning
+		handleFlagSpawning();
+
+		// Run faction logic
+		runFaction(GameFlag.FACTION_PLAYER);
+		runFaction(GameFlag.FACTION_ENEMY);
+
+		// Apply flag capture pressure gathered from both factions
+		flagManager.applyCapturePressure();
+
+		// Update game timer
+		tickCount++;
+		simulatedMillis = tickCount * 1000 / TICKS_PER_SECOND;
+		gameTimer.update();
+	}
+
+	/**
+	 * Applies a player command before the next tick. Both live input and replay
+	 * playback go through here.
+	 *
+	 * @param command The command to apply
+	 */
+	public void applyCommand(PlayerCommand command) {
+		switch (command.getType()) {
+			case SELECT:
+				ArrayList<GameUnit> playerList = unitManager.getPlayerList();
+				for (GameUnit unit : playerList) {
+					unit.setPlayerSelected(false);
+				}
+				for (int index : command.getUnitIndices()) {
+					if (index < playerList.size()) {
+						playerList.get(index).setPlayerSelected(true);
+					}
+				}
+				break;
+			case MOVE:
+				unitManager.moveSelectedUnits(new Point(command.getX(), command.getY()));
+				break;
+			case STATE_CHANGE:
+				// Informational: the state change follows from the simulation itself
+				break;
+		}
+	}
+
+	/**
+	 * Gets the indices of the selected player units, in ascending order.
+	 */
+	public int[] getSelectedUnitIndices() {
+		ArrayList<GameUnit> playerList = unitManager.getPlayerList();
+		int count = 0;
+		int[] indices = new int[playerList.size()];
+		for (int i = 0; i < playerList.size(); i++) {
+			if (playerList.get(i).isPlayerSelected()) {
+				indices[count++] = i;
+			}
+		}
+		return Arrays.copyOf(indices, count);
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Restores the match clock and seed, e.g. when loading a save game.
+	 * Unit, flag, fog and timer state are restored separately by {@link SaveGame},
+	 * before this is called. The existing random streams are kept so their
+	 * saved states can be set on them; units created from now on get streams
+	 * derived from the restored seed, continuing at the given serial.
+	 *
+	 * @param nextUnitSerial Serial of the next unit to be created
+	 */
+	void restore(long seed, long tickCount, Outcome outcome, long nextUnitSerial) {
+		this.seed = seed;
+		this.tickCount = tickCount;
+		this.simulatedMillis = tickCount * 1000 / TICKS_PER_SECOND;
+		this.outcome = outcome;
+		unitManager.restoreRandomStreams(new RandomStreams(seed), nextUnitSerial);
+	}
+
+	private void applyRandomStreams(RandomStreams randomStreams) {
+		unitManager.setRandomStreams(randomStreams);
+		if (effectManager != null) {
+			effectManager.setRandom(randomStreams.forSubsystem(RandomStreams.Subsystem.EFFECTS));
+		}
+	}
+
+	public long getTickCount() {
+		return tickCount;
+	}
+
+	public Outcome getOutcome() {
+		return outcome;
+	}
+
+	/**
+	 * Gets the visual combat effects, or null when running headless.
+	 */
+	public CombatEffectManager getEffectManager() {
+		return effectManager;
+	}
+
+	/**
+	 * Gets the match's line-of-sight cache, mainly for reading its hit-rate counters.
+	 */
+	public LineOfSightCache getLineOfSightCache() {
+		return losCache;
+	}
+
+	public GameTimer getGameTimer() {
+		return gameTimer;
+	}
+
+	public TileMap getMap() {
+		return map;
+	}
+
+	public GameUnitManager getUnitManager() {
+		return unitManager;
+	}
+
+	public GameFlagManager getFlagManager() {
+		return flagManager;
+	}
+
+	public GameFogWar getFogWar() {
+		return fogWar;
+	}
+
+	public GameFogWar getEnemyFogWar() {
+		return enemyFogWar;
+	}
+
+	private void handleFlagSpawning() {
+		Iterator<GameFlag> itrFlag = flagManager.getFlagList();
+		while (itrFlag.hasNext()) {
+			GameFlag flag = itrFlag.next();
+
+			// Spawn units at 12:00 hours
+			if (gameTimer.getHour() == GameTimer.SPAWN_HOUR && !unitManager.isSpawned()) {
+				unitManager.spawnUnitsNearFlag(map, flag);
+			}
+
+			flag.runLogic();
+		}
+
+		// Update spawn state
+		unitManager.updateSpawnState(gameTimer.getHour());
+
+		// Update combat effects
+		if (effectManager != null) {
+			effectManager.update();
+		}
+	}
+
+	private void runFaction(int factionId) {
+		ArrayList<GameUnit> unitList = unitManager.getUnitList(factionId);
+
+		// Update group destinations to handle collisions (runs once per faction)
+		unitManager.updateGroupDestinations(map);
+
+		// Loop through all units
+		for (int i = 0; i < unitList.size(); i++) {
+			GameUnit unit = unitList.get(i);
+
+			if (factionId == GameFlag.FACTION_PLAYER) {
+				runPlayerLogic(unit);
+			} else if (factionId == GameFlag.FACTION_ENEMY) {
+				runEnemyLogic(unit);
+			}
+
+			updateUnitFacing(unit);
+
+			// Determine whether the unit is near the flag
+			Point unitMapPos = TileCoordinateConverter.screenToMap(unit.getCurrentPosition());
+			flagManager.addCapturePressure(unitMapPos.x, unitMapPos.y, factionId);
+
+			// Remove dead units
+			if (!unit.isAlive()) {
+				unitManager.removeDeadUnits(unitList, i);
+			}
+		}
+
+		// Check terminating conditions
+		checkTerminatingConditions(factionId);
+	}
+
+	private void runPlayerLogic(GameUnit playerUnit) {
+		playerUnit.findPath(map);
+
+		// Update pathfinding failure timer
+		playerUnit.updatePathfindingFailureTimer();
+
+		// Handle battles using GameUnitManager
+		unitManager.handleUnitInteractions(losCache, map);
+
+		// Handle combat effects
+		handleCombatEffects(playerUnit);
+	}
+
+	private void runEnemyLogic(GameUnit enemyUnit) {
+		// Send enemy units to attack the flag every day at around 06:00 hours
+		if (gameTimer.isEnemyAttackTime()) {
+			GameFlag playerFlag = flagManager.getPlayerFlag();
+			if (playerFlag == null) {
+				Logger.warn("No player flag found!");
+				return;
+			}
+			enemyUnit.setDestination(new Point(
+				TileCoordinateConverter.mapToScreen(playerFlag.getMapX() - 1, playerFlag.getMapY()).x,
+				TileCoordinateConverter.mapToScreen(playerFlag.getMapX() - 1, playerFlag.getMapY()).y
+			));
+			enemyUnit.startMoving();
+		}
+
+		// Follow the path towards the flag
+		enemyUnit.findPath(map);
+
+		// Update pathfinding failure timer
+		enemyUnit.updatePathfindingFailureTimer();
+
+		// Handle combat effects
+		handleCombatEffects(enemyUnit);
+	}
+
+	/**
+	 * Turns the unit towards its destination, or towards its target while attacking.
+	 * This used to happen while drawing the unit, which tied turn speed to frame rate.
+	 */
+	private void updateUnitFacing(GameUnit unit) {
+		if (unit.isPathCreated()) {
+			Point mapDest = unit.getMapPoint(unit.getDestination());
+			Point screenDest = TileCoordinateConverter.mapToScreen(mapDest.x, mapDest.y);
+
+			// Calculate 360-degree rotation angle
+			unit.setTargetRotationAngle(calculateRotationAngle(unit.getCurrentPosition(), screenDest));
+
+			// Update rotation smoothly
+			unit.updateRotation();
+
+			// Keep legacy direction for backward compatibility
+			unit.setDirection(calculateDirection(unit.getCurrentPosition(), screenDest));
+		} else if (unit.isAttacking()) {
+			// Update rotation smoothly to face target (target angle was set in handleAttack)
+			unit.updateRotation();
+		}
+	}
+
+	static double calculateRotationAngle(Point current, Point destination) {
+		int deltaX = destination.x - current.x;
+		int deltaY = destination.y - current.y;
+
+		// Math.atan2 gives 0° = east; the base sprite faces east, so just
+		// normalize to a 360-degree angle
+		double angleDeg = Math.toDegrees(Math.atan2(deltaY, deltaX));
+		return (angleDeg + 360) % 360;
+	}
+
+	static int calculateDirection(Point current, Point destination) {
+		int deltaX = destination.x - current.x;
+		int deltaY = destination.y - current.y;
+		if (Math.abs(deltaX) >= Math.abs(deltaY)) {
+			return (deltaX > 0) ? Constants.DIR_EAST : Constants.DIR_WEST;
+		} else {
+			return (deltaY > 0) ? Constants.DIR_SOUTH : Constants.DIR_NORTH;
+		}
+	}
+
+	private void checkTerminatingConditions(int factionId) {
+		if (factionId == GameFlag.FACTION_PLAYER && flagManager.isPlayerFlagsEmpty()) {
+			outcome = Outcome.PLAYER_LOST; // Player loses all flags
+		} else if (factionId == GameFlag.FACTION_ENEMY && flagManager.isEnemyFlagsEmpty()) {
+			outcome = Outcome.PLAYER_WON; // Enemy loses all flags
+		}
+	}
+
+	/**
+	 * Handles combat effects for a unit including attack animations, death
+	 * animations, and particles.
+	 */
+	private void handleCombatEffects(GameUnit unit) {
+		// Clear combat effects without showing damage numbers
+		if (unit.getLastDamageDealt() > 0) {
+			unit.clearCombatEffects();
+		}
+
+		if (effectManager == null) {
+			return;
+		}
+
+		// Create attack animation if unit is attacking
+		if (unit.isAttacking()) {
+			effectManager.createAttackAnimation(unit);
+
+			// Create combat particles
+			effectManager.createCombatParticles(unit.getCurrentPosition(), 5);
+		}
+
+		// Create death animation if unit just died
+		if (!unit.isAlive()) {
+			effectManager.createDeathAnimation(unit);
+		}
+	}
+}
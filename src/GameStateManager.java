@@ -2,18 +2,19 @@ import java.util.Map;
 
 import entities.GameFlag;
 import entities.GameFlagManager;
-import entities.GameUnit;
 import entities.GameUnitManager;
 import managers.CameraManager;
 import managers.CombatEffectManager;
 import managers.GameFogWar;
 import managers.SelectionManager;
 import graphics.Point;
-import utils.TileCoordinateConverter;
+import utils.GameConfig;
 
 public class GameStateManager {
-    private GameState nextState = GameState.STATE_NULL;
-    private StateMachine currentState = null;
+    private volatile GameState nextState = GameState.STATE_NULL;
+    private volatile StateMachine currentState = null;
+    // Held while a state is ticked or drawn so the two threads never interleave
+    private final Object stateLock = new Object();
     private final SimpleRTS simpleRTS;
     private final ImageService imageService;
     private final GameUnitManager unitManager;
@@ -40,6 +41,25 @@ public class GameStateManager {
         this.nextState = newState;
     }
 
+    /**
+     * Gets the lock that guards game state between the game loop thread,
+     * which ticks the current state, and the UI thread, which draws it.
+     */
+    public Object getStateLock() {
+        return stateLock;
+    }
+
+    /**
+     * Advances the current state by one fixed simulation tick and applies any
+     * pending state change. Called on the game loop thread.
+     */
+    public void tick() {
+        synchronized (stateLock) {
+            currentState.update();
+            changeState();
+        }
+    }
+
     public void changeState() {
         if (nextState != GameState.STATE_NULL) {
             switch (nextState) {
@@ -80,9 +100,19 @@ public class GameStateManager {
             gameMap.getEnemyUnitPositions()
         );
         loadFlags(gameMap.getFlagPositions());
-        GameFogWar fogWar = new GameFogWar(gameMap.getMapData().length, gameMap.getMapData()[0].length);
+        GameFogWar fogWar = createFogWar();
+        GameFogWar enemyFogWar = createFogWar();
+        cameraManager.updateCameraBounds(gameMap.getTileMap().getWidth(), gameMap.getTileMap().getHeight());
         GraphicsMain graphicsMain = new GraphicsMain(this, fogWar, cameraManager);
-        return new StateGameMain(this, unitManager, fogWar, graphicsMain);
+        return new StateGameMain(this, unitManager, fogWar, enemyFogWar, graphicsMain);
+    }
+
+    private GameFogWar createFogWar() {
+        GameFogWar fogWar = new GameFogWar(gameMap.getTileMap().getHeight(), gameMap.getTileMap().getWidth());
+        if (GameConfig.isFogShadowcastEnabled()) {
+            fogWar.setFogMode(GameFogWar.FogMode.SHADOWCAST);
+        }
+        return fogWar;
     }
 
     private void loadFlags(Map<Point, Integer> flagPositions) {
@@ -96,13 +126,6 @@ public class GameStateManager {
         }
     }
 
-    public void checkFlagStates(GameUnit unit, int factionId) {
-        Point unitMapPos = TileCoordinateConverter.screenToMap(unit.getCurrentPosition());
-        int unitMapX = unitMapPos.x;
-        int unitMapY = unitMapPos.y;
-        flagManager.checkFlagState(unitMapX, unitMapY, factionId);
-    }
-
     public boolean isFlagsListEmpty(int factionId) {
         if (factionId == GameFlag.FACTION_PLAYER) {
             return flagManager.isPlayerFlagsEmpty();
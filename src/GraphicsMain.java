@@ -9,22 +9,38 @@ import managers.CombatEffectManager;
 import managers.GameFogWar;
 import managers.GameTimer;
 import managers.SelectionManager;
+import managers.VisibleRegion;
 import graphics.Color;
 import graphics.DrawingInstruction;
 import graphics.IGraphics;
 import graphics.Point;
+import graphics.RecordingGraphics;
 import graphics.Rect;
+import map.TileMap;
+import map.TileNames;
 import utils.Constants;
+import utils.GameConfig;
 import utils.TileCoordinateConverter;
 import graphics.GameImage;
 
 public class GraphicsMain {
+	private static final Color FOG_COLOR = new Color(226, 226, 226);
+
 	private static boolean isNight;
 	private GameFogWar fogWar;
 	private GameStateManager stateManager;
 	private CameraManager cameraManager;
 	private RendererUnit rendererUnit;
 	private RendererHUD rendererHud;
+	private TerrainChunkCache terrainCache;
+	private FogMask fogMask = new FogMask();
+	private MinimapRenderer minimapRenderer;
+	// Tiles on screen in the frame being drawn
+	private VisibleRegion visibleRegion;
+
+	// Last two simulation snapshots; units are drawn interpolated between them
+	private SimulationSnapshot previousSnapshot;
+	private SimulationSnapshot currentSnapshot;
 
 	public GraphicsMain(GameStateManager stateManager, GameFogWar fogWar, CameraManager cameraManager) {
 		this.stateManager = stateManager;
@@ -32,6 +48,8 @@ public class GraphicsMain {
 		this.cameraManager = cameraManager;
 		this.rendererUnit = new RendererUnit(this);
 		this.rendererHud = new RendererHUD(stateManager.getImageService());
+		this.terrainCache = new TerrainChunkCache(stateManager.getImageService());
+		this.minimapRenderer = new MinimapRenderer(stateManager);
 	}
 
 	/**
@@ -52,6 +70,19 @@ public class GraphicsMain {
 		return cameraManager.getCameraY();
 	}
 
+	/**
+	 * Gets the map tiles on screen in the current frame. Renderers should only
+	 * draw what falls inside it.
+	 *
+	 * @return The visible region
+	 */
+	public VisibleRegion getVisibleRegion() {
+		if (visibleRegion == null) {
+			visibleRegion = cameraManager.getVisibleRegion(0);
+		}
+		return visibleRegion;
+	}
+
 	public GameStateManager getStateManager() {
 		return stateManager;
 	}
@@ -65,6 +96,32 @@ public class GraphicsMain {
 		return isNight;
 	}
 
+	/**
+	 * Sets the snapshots units are interpolated between. With no current
+	 * snapshot, units are drawn from their live state.
+	 *
+	 * @param previous Snapshot of the tick before, may be null
+	 * @param current Snapshot of the latest tick, may be null
+	 */
+	public void setSnapshots(SimulationSnapshot previous, SimulationSnapshot current) {
+		this.previousSnapshot = previous;
+		this.currentSnapshot = current;
+	}
+
+	/**
+	 * Gets how far the current frame is between the previous and the latest tick,
+	 * based on the time since the latest snapshot was taken.
+	 *
+	 * @return Interpolation factor between 0.0 and 1.0
+	 */
+	public double getInterpolationAlpha() {
+		if (currentSnapshot == null) {
+			return 1.0;
+		}
+		double alpha = (double) (System.nanoTime() - currentSnapshot.getCreatedNanos()) / GameSimulation.TICK_NANOS;
+		return Math.max(0.0, Math.min(1.0, alpha));
+	}
+
 	// helper functions
 
 	public void drawImageOnScreen(IGraphics g, GameImage img, int x, int y, int width, int height) {
@@ -92,11 +149,10 @@ public class GraphicsMain {
 	public void drawGraphics(IGraphics g, GameTimer gameTimer, GameUnitManager unitManager) {
 		// draw according to a day/night cycle
 		isNight = gameTimer.isNight();
-
-		fogWar.calculateFogOfWar(unitManager.getPlayerList(), stateManager.getGameMap().getMapData());
+		visibleRegion = cameraManager.getVisibleRegion(0);
 
 		// Draw the map first
-		drawMapTiles(g, stateManager.getGameMap().getDrawData());
+		drawMapTiles(g, stateManager.getGameMap().getTileNames());
 
 		// Draw the units using the unit renderer
 		renderAllUnits(g, unitManager);
@@ -108,7 +164,7 @@ public class GraphicsMain {
 		renderCombatEffects(g);
 
 		// draw fog (although this should be done before drawing units, not after
-		renderFog(g, stateManager.getGameMap().getDrawData());
+		renderFog(g);
 
 		// Draw everything else
 		drawMouseSelectionBox(g);
@@ -118,35 +174,105 @@ public class GraphicsMain {
 		rendererHud.renderHUD(g, unitManager, gameTimer);
 	}
 
+	/*
+	 * Units are the one part of the frame a recorder may reorder: the renderer
+	 * puts each part of a unit in its own layer, so sprites, health bars, etc.
+	 * of all units can be batched. Everything else keeps its recorded order.
+	 */
 	private void renderAllUnits(IGraphics g, GameUnitManager unitManager) {
+		RecordingGraphics recorder = g instanceof RecordingGraphics ? (RecordingGraphics) g : null;
+		if (recorder == null) {
+			renderUnits(g, unitManager);
+			return;
+		}
+		boolean wasBatching = recorder.isBatching();
+		int layer = recorder.getLayer();
+		recorder.setBatching(true);
+		try {
+			renderUnits(g, unitManager);
+		} finally {
+			recorder.setBatching(wasBatching);
+			recorder.setLayer(layer);
+		}
+	}
+
+	private void renderUnits(IGraphics g, GameUnitManager unitManager) {
+		VisibleRegion region = getVisibleRegion().expand(getUnitMargin());
+
+		if (currentSnapshot != null) {
+			double alpha = getInterpolationAlpha();
+			GameUnit[] units = currentSnapshot.getUnits();
+			currentSnapshot.getSpatialIndex().forEachInRegion(region, i -> rendererUnit.renderUnit(g, units[i],
+					SimulationSnapshot.interpolatePosition(previousSnapshot, currentSnapshot, i, alpha),
+					SimulationSnapshot.interpolateRotation(previousSnapshot, currentSnapshot, i, alpha),
+					currentSnapshot.getHealth(i)));
+			return;
+		}
+
 		for (GameUnit playerUnit : unitManager.getPlayerList()) {
-			rendererUnit.renderUnit(g, playerUnit);
+			renderUnitIfVisible(g, playerUnit, region);
 		}
 		for (GameUnit enemyUnit : unitManager.getEnemyList()) {
-			rendererUnit.renderUnit(g, enemyUnit);
+			renderUnitIfVisible(g, enemyUnit, region);
+		}
+	}
+
+	private void renderUnitIfVisible(IGraphics g, GameUnit unit, VisibleRegion region) {
+		Point position = unit.getCurrentPosition();
+		if (region.intersects(position.x, position.y, Constants.TILE_WIDTH, Constants.TILE_HEIGHT)) {
+			rendererUnit.renderUnit(g, unit);
+		}
+	}
+
+	/*
+	 * How far off screen, in tiles, a unit can be and still draw something
+	 * on screen: its FOV cone, or its path in the pathfinding debug views
+	 */
+	private int getUnitMargin() {
+		if (GameConfig.isShowPaths() || GameConfig.isShowAllMapNodes()) {
+			TileMap map = stateManager.getGameMap().getTileMap();
+			return Math.max(map.getHeight(), map.getWidth());
 		}
+		return GameConfig.isFovRenderingEnabled() ? Constants.FOV_RENDER_RADIUS + 1 : 1;
 	}
 
 	private void renderAllFlags(IGraphics g) {
+		// Flags are drawn with their capture zone around them
+		VisibleRegion region = getVisibleRegion().expand(GameFlag.FLAG_RADIUS + 1);
 		java.util.Iterator<GameFlag> flagIter = stateManager.getFlagManager().getFlagList();
 		while (flagIter.hasNext()) {
 			GameFlag flag = flagIter.next();
-			drawFlag(g, flag);
+			if (region.containsTile(flag.getMapX(), flag.getMapY())) {
+				drawFlag(g, flag);
+			}
 		}
 	}
 
 	public List<DrawingInstruction> getFogInstructions(String[][] mapData) {
+		int rows = mapData.length;
+		int cols = rows == 0 ? 0 : mapData[0].length;
+		return getFogInstructions(VisibleRegion.ofView(0, 0, cols * Constants.TILE_WIDTH,
+				rows * Constants.TILE_HEIGHT, cols, rows));
+	}
+
+	/**
+	 * Gets the fog rectangles for the hidden tiles inside a region.
+	 *
+	 * @param region Tiles to cover
+	 * @return Drawing instructions in world coordinates
+	 */
+	public List<DrawingInstruction> getFogInstructions(VisibleRegion region) {
 		List<DrawingInstruction> fogRects = new ArrayList<>();
 
-		for (int y = 0; y < mapData.length; y++) {
-			for (int x = 0; x < mapData[y].length; x++) {
+		for (int y = region.getMinTileY(); y <= region.getMaxTileY(); y++) {
+			for (int x = region.getMinTileX(); x <= region.getMaxTileX(); x++) {
 				if (!fogWar.isTileVisible(x, y)) {
 					Rect rect = new Rect(
 							x * Constants.TILE_WIDTH,
 							y * Constants.TILE_HEIGHT,
 							Constants.TILE_WIDTH,
 							Constants.TILE_HEIGHT);
-					fogRects.add(new DrawingInstruction(rect, new Color(226, 226, 226), true));
+					fogRects.add(new DrawingInstruction(rect, FOG_COLOR, true));
 				}
 			}
 		}
@@ -154,28 +280,17 @@ public class GraphicsMain {
 		return fogRects;
 	}
 
-	public void renderFog(IGraphics g, String[][] mapData) {
-		for (DrawingInstruction instr : getFogInstructions(mapData)) {
-			drawInstruction(g, instr);
-		}
+	public void renderFog(IGraphics g) {
+		fogMask.render(g, fogWar, getCameraX(), getCameraY());
 	}
 
 	/*
-	 * Draw all the snow, walls, units, etc...
+	 * Draw all the snow, walls, units, etc... from prerendered chunks,
+	 * so the cost depends on the screen size rather than the map size
 	 */
-	public void drawMapTiles(IGraphics g, String[][] mapData) {
-		for (int y = 0; y < mapData.length; y++) {
-			for (int x = 0; x < mapData[y].length; x++) {
-				java.awt.Image tempImg;
-				String tileStr = mapData[y][x];
-				tempImg = (java.awt.Image) stateManager.getImageService().getTileImage(getTileImageKey(tileStr), isNight)
-						.getBackendImage();
-
-				Point screenPos = TileCoordinateConverter.mapToScreen(x, y);
-				drawImageOnScreen(g, new GameImage(tempImg), screenPos.x, screenPos.y,
-						Constants.TILE_WIDTH, Constants.TILE_HEIGHT);
-			}
-		}
+	public void drawMapTiles(IGraphics g, TileNames tileNames) {
+		terrainCache.render(g, tileNames, isNight, getCameraX(), getCameraY(),
+				Constants.SCREEN_WIDTH, Constants.SCREEN_HEIGHT);
 	}
 
 	public DrawingInstruction getMouseSelectionInstruction() {
@@ -217,174 +332,7 @@ public class GraphicsMain {
 	}
 
 	void drawMinimap(IGraphics g) {
-		MinimapRenderer minimapRenderer = new MinimapRenderer(stateManager, fogWar);
-		minimapRenderer.render(g, getCameraX(), getCameraY());
-	}
-
-	/**
-	 * Helper class to break up the large drawMinimap method into smaller, focused methods
-	 */
-	private class MinimapRenderer {
-		private final GameStateManager stateManager;
-		private final GameFogWar fogWar;
-		private final int minimapWidth = 200;
-		private final int minimapHeight = 200;
-		private final int minimapX = 10;
-		private final int minimapY = Constants.SCREEN_HEIGHT - minimapHeight - 10;
-		private int tileWidth, tileHeight;
-
-		public MinimapRenderer(GameStateManager stateManager, GameFogWar fogWar) {
-			this.stateManager = stateManager;
-			this.fogWar = fogWar;
-		}
-
-		public void render(IGraphics g, int cameraX, int cameraY) {
-			calculateTileDimensions();
-			drawBackground(g);
-			drawVisitedAreas(g);
-			drawTerrainFeatures(g);
-			drawFlags(g);
-			drawPlayerUnits(g);
-			drawEnemyUnits(g);
-			drawCameraViewport(g, cameraX, cameraY);
-		}
-
-		private void calculateTileDimensions() {
-			int mapCols = stateManager.getGameMap().getMapData()[0].length;
-			int mapRows = stateManager.getGameMap().getMapData().length;
-			tileWidth = minimapWidth / mapCols;
-			tileHeight = minimapHeight / mapRows;
-		}
-
-		private void drawBackground(IGraphics g) {
-			// Draw background
-			g.setColor(new Color(50, 50, 50));
-			g.fillRect(minimapX, minimapY, minimapWidth, minimapHeight);
-			
-			// Draw border
-			g.setColor(new Color(200, 200, 200));
-			g.drawRect(minimapX, minimapY, minimapWidth, minimapHeight);
-		}
-
-		private void drawVisitedAreas(IGraphics g) {
-			int mapCols = stateManager.getGameMap().getMapData()[0].length;
-			int mapRows = stateManager.getGameMap().getMapData().length;
-
-			for (int y = 0; y < mapRows; y++) {
-				for (int x = 0; x < mapCols; x++) {
-					int drawX = minimapX + x * tileWidth;
-					int drawY = minimapY + y * tileHeight;
-					
-					// Check if this tile has been visited (explored)
-					if (fogWar.isTileVisited(x, y)) {
-						// Draw visited area with a neutral gray color
-						g.setColor(new Color(140, 140, 140)); // Neutral gray for visited areas
-						g.fillRect(drawX, drawY, tileWidth, tileHeight);
-					}
-				}
-			}
-		}
-
-		private void drawTerrainFeatures(IGraphics g) {
-			int mapCols = stateManager.getGameMap().getMapData()[0].length;
-			int mapRows = stateManager.getGameMap().getMapData().length;
-
-			for (int y = 0; y < mapRows; y++) {
-				for (int x = 0; x < mapCols; x++) {
-					if (fogWar.isTileVisited(x, y)) {
-						int tile = stateManager.getGameMap().getMapData()[y][x];
-						int drawX = minimapX + x * tileWidth;
-						int drawY = minimapY + y * tileHeight;
-						
-						// Draw walls
-						if (tile == 1) { // Wall
-							g.setColor(new Color(80, 80, 80)); // Dark gray for walls
-							g.fillRect(drawX, drawY, tileWidth, tileHeight);
-						}
-					}
-				}
-			}
-		}
-
-		private void drawFlags(IGraphics g) {
-			java.util.Iterator<GameFlag> flagIter = stateManager.getFlagManager().getFlagList();
-			while (flagIter.hasNext()) {
-				GameFlag flag = flagIter.next();
-				int flagX = flag.getMapX();
-				int flagY = flag.getMapY();
-				
-				int drawX = minimapX + flagX * tileWidth;
-				int drawY = minimapY + flagY * tileHeight;
-				
-				// Always show flags on minimap for strategic planning
-				Color flagColor = flag.getColorForFaction();
-				g.setColor(flagColor);
-				g.fillRect(drawX, drawY, tileWidth, tileHeight);
-				
-				// Draw flag border
-				g.setColor(new Color(255, 255, 255));
-				g.drawRect(drawX, drawY, tileWidth, tileHeight);
-			}
-		}
-
-		private void drawPlayerUnits(IGraphics g) {
-			for (GameUnit playerUnit : stateManager.getUnitManager().getPlayerList()) {
-				if (playerUnit.isAlive()) {
-					Point unitPos = playerUnit.getCurrentPosition();
-					Point mapPos = playerUnit.getMapPoint(unitPos);
-					
-					// Only show units in visited areas
-					if (fogWar.isTileVisited(mapPos.x, mapPos.y)) {
-						int drawX = minimapX + mapPos.x * tileWidth;
-						int drawY = minimapY + mapPos.y * tileHeight;
-						
-						// Draw player unit as blue dot
-						g.setColor(new Color(0, 100, 255)); // Blue for player units
-						g.fillRect(drawX + 1, drawY + 1, tileWidth - 2, tileHeight - 2);
-					}
-				}
-			}
-		}
-
-		private void drawEnemyUnits(IGraphics g) {
-			for (GameUnit enemyUnit : stateManager.getUnitManager().getEnemyList()) {
-				if (enemyUnit.isAlive()) {
-					Point unitPos = enemyUnit.getCurrentPosition();
-					Point mapPos = enemyUnit.getMapPoint(unitPos);
-					
-					// Only show enemy units if they're currently visible (in fog of war range)
-					if (fogWar.isTileVisible(mapPos.x, mapPos.y)) {
-						int drawX = minimapX + mapPos.x * tileWidth;
-						int drawY = minimapY + mapPos.y * tileHeight;
-						
-						// Draw enemy unit as red dot
-						g.setColor(new Color(255, 100, 100)); // Red for enemy units
-						g.fillRect(drawX + 1, drawY + 1, tileWidth - 2, tileHeight - 2);
-					}
-				}
-			}
-		}
-
-		private void drawCameraViewport(IGraphics g, int cameraX, int cameraY) {
-			int screenWidth = Constants.SCREEN_WIDTH;
-			int screenHeight = Constants.SCREEN_HEIGHT;
-			
-			// Calculate viewport bounds in minimap coordinates
-			int viewportX = minimapX + (cameraX / Constants.TILE_WIDTH) * tileWidth;
-			int viewportY = minimapY + (cameraY / Constants.TILE_HEIGHT) * tileHeight;
-			int viewportWidth = (screenWidth / Constants.TILE_WIDTH) * tileWidth;
-			int viewportHeight = (screenHeight / Constants.TILE_HEIGHT) * tileHeight;
-			
-			// Constrain viewport to minimap bounds
-			viewportX = Math.max(minimapX, Math.min(minimapX + minimapWidth - viewportWidth, viewportX));
-			viewportY = Math.max(minimapY, Math.min(minimapY + minimapHeight - viewportHeight, viewportY));
-			viewportWidth = Math.min(viewportWidth, minimapWidth);
-			viewportHeight = Math.min(viewportHeight, minimapHeight);
-			
-			// Draw viewport outline
-			g.setColor(new Color(255, 255, 0)); // Yellow for viewport
-			g.drawRect(viewportX, viewportY, viewportWidth, viewportHeight);
-		}
+		minimapRenderer.render(g, fogWar, getCameraX(), getCameraY());
 	}
 
 	public void resetFogOfWar(int mapHeight, int mapWidth) {
@@ -482,10 +430,16 @@ public class GraphicsMain {
 	
 	/**
 	 * Renders all combat effects including damage numbers, attack animations,
-	 * death animations, and particles.
+	 * death animations, and particles. They are drawn from the current
+	 * snapshot, or from the live effects when there is none.
 	 */
 	private void renderCombatEffects(IGraphics g) {
+		VisibleRegion region = getVisibleRegion().expand(1);
+		if (currentSnapshot != null) {
+			currentSnapshot.getEffects().render(g, getCameraX(), getCameraY(), region);
+			return;
+		}
 		CombatEffectManager effectManager = stateManager.getCombatEffectManager();
-		effectManager.render(g, getCameraX(), getCameraY());
+		effectManager.render(g, getCameraX(), getCameraY(), region);
 	}
 }
@@ -0,0 +1,131 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Random;
+
+import entities.GameFlag;
+import entities.GameFlagManager;
+import entities.GameUnitManager;
+import managers.GameFogWar;
+import graphics.Point;
+import map.TileMap;
+import utils.GameConfig;
+import utils.Logger;
+
+/*
+ * Runs a level without Swing, image loading or rendering, stepping the simulation
+ * as fast as possible and reporting ticks per second. Useful for AI testing,
+ * balance sweeps and performance checks on machines without a display.
+ * Given a save file instead of a level, the saved match is resumed.
+ *
+ * Usage: HeadlessSimulation [level | save file] [maxTicks]
+ */
+public class HeadlessSimulation {
+	private static final int DEFAULT_MAX_TICKS = 100000;
+
+	private final GameSimulation simulation;
+
+	public HeadlessSimulation(int level) {
+		this(level, new Random().nextLong());
+	}
+
+	/**
+	 * @param level Level number
+	 * @param seed Match seed, e.g. from a recorded replay
+	 */
+	public HeadlessSimulation(int level, long seed) {
+		GameMap gameMap = new GameMap(null);
+		gameMap.setNumLevel(level);
+		gameMap.loadMap();
+		TileMap map = gameMap.getTileMap();
+		if (map == null) {
+			throw new IllegalStateException("Could not load level " + level);
+		}
+
+		GameUnitManager unitManager = new GameUnitManager();
+		unitManager.init(gameMap.getAllyUnitPositions(), gameMap.getEnemyUnitPositions());
+
+		GameFlagManager flagManager = new GameFlagManager();
+		for (Map.Entry<Point, Integer> entry : gameMap.getFlagPositions().entrySet()) {
+			Point position = entry.getKey();
+			if (entry.getValue() == GameFlag.FACTION_PLAYER)
+				flagManager.addPlayerFlag(position.x, position.y);
+			else if (entry.getValue() == GameFlag.FACTION_ENEMY)
+				flagManager.addEnemyFlag(position.x, position.y);
+		}
+
+		this.simulation = new GameSimulation(map, unitManager, flagManager,
+				createFogWar(map), createFogWar(map), null, seed);
+	}
+
+	/**
+	 * Resumes a saved match, e.g. to reproduce a problem from its last autosave.
+	 *
+	 * @param file Save file written by {@link SaveGame}
+	 * @return The headless simulation at the saved tick
+	 * @throws IOException If the save could not be read
+	 */
+	public static HeadlessSimulation fromSave(Path file) throws IOException {
+		HeadlessSimulation headless = new HeadlessSimulation(SaveGame.readLevel(file));
+		SaveGame.load(file, headless.getSimulation());
+		return headless;
+	}
+
+	private static GameFogWar createFogWar(TileMap map) {
+		GameFogWar fogWar = new GameFogWar(map.getHeight(), map.getWidth());
+		if (GameConfig.isFogShadowcastEnabled()) {
+			fogWar.setFogMode(GameFogWar.FogMode.SHADOWCAST);
+		}
+		return fogWar;
+	}
+
+	public GameSimulation getSimulation() {
+		return simulation;
+	}
+
+	/**
+	 * Steps the simulation until the match is decided or maxTicks is reached.
+	 *
+	 * @param maxTicks Upper bound on the number of ticks
+	 * @return Number of ticks that were run
+	 */
+	public long run(long maxTicks) {
+		long ticks = 0;
+		while (ticks < maxTicks && simulation.getOutcome() == GameSimulation.Outcome.RUNNING) {
+			simulation.step();
+			ticks++;
+		}
+		return ticks;
+	}
+
+	public static void main(String[] args) throws IOException {
+		System.setProperty("java.awt.headless", "true");
+		GameConfig.initialize();
+		Logger.setLevel(Logger.Level.valueOf(GameConfig.getString("debug.log_level")));
+
+		String source = args.length > 0 ? args[0] : "1";
+		long maxTicks = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_MAX_TICKS;
+
+		HeadlessSimulation headless;
+		int level;
+		if (source.matches("\\d+")) {
+			level = Integer.parseInt(source);
+			headless = new HeadlessSimulation(level);
+		} else {
+			level = SaveGame.readLevel(Paths.get(source));
+			headless = fromSave(Paths.get(source));
+		}
+		long start = System.nanoTime();
+		long ticks = headless.run(maxTicks);
+		double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+		GameSimulation simulation = headless.getSimulation();
+		System.out.println("Level " + level + ": " + ticks + " ticks in " + String.format("%.3f", seconds) + " s ("
+				+ String.format("%.0f", ticks / Math.max(seconds, 1e-9)) + " ticks/s)");
+		System.out.println("Outcome: " + simulation.getOutcome()
+				+ ", day " + simulation.getGameTimer().getDay() + " " + simulation.getGameTimer().getHour() + ":00"
+				+ ", player units " + simulation.getUnitManager().getPlayerList().size()
+				+ ", enemy units " + simulation.getUnitManager().getEnemyList().size());
+	}
+}
@@ -1,33 +1,291 @@
 import java.io.File;
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32C;
 import javax.imageio.ImageIO;
 
 import graphics.GameImage;
 import graphics.ImageUtils;
 import map.TileConverter;
+import utils.GameConfig;
 import utils.PathResolver;
 import utils.Logger;
 
 public class ImageService {
-    private final Map<Integer, GameImage> gameImages = new HashMap<>();
-    private final Map<String, GameImage> tileImages = new HashMap<>();
-    private final Map<Integer, GameImage> darkGameImages = new HashMap<>();
-    private final Map<String, GameImage> darkTileImages = new HashMap<>();
+    // Decoding is mostly I/O and inflate work; a few threads are enough
+    private static final int LOADER_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    // Image ID -> filename pairs for menus and the HUD, loaded first
+    private static final Object[][] GAME_IMAGE_FILES = {
+        { ImageConstants.IMGID_BG_MENU, "bg-menu.png" },
+        { ImageConstants.IMGID_BG_DESK, "bg-desk.jpg" },
+        { ImageConstants.IMGID_BG_BOOK, "bg-book.jpg" },
+        { ImageConstants.IMGID_ICON_CAMPAIGN, "icon-campaign.png" },
+        { ImageConstants.IMGID_ICON_INSTRUCT, "icon-instruct.png" },
+        { ImageConstants.IMGID_ICON_RETURN, "icon-return.png" },
+        { ImageConstants.IMGID_ICON_START, "icon-start.png" },
+        { ImageConstants.IMGID_MENU_TITLE, "menu-title.png" },
+        { ImageConstants.IMGID_MENU_INSTRUCT, "menu-instruct.png" },
+        { ImageConstants.IMGID_MENU_START, "menu-start.png" },
+        { ImageConstants.IMGID_MENU_VICTORY, "menu-victory.png" },
+        { ImageConstants.IMGID_MENU_DEFEAT, "menu-defeat.png" },
+        { ImageConstants.IMGID_SUPPLY_PLAYER, "game-supply-player.png" },
+        { ImageConstants.IMGID_SUPPLY_ENEMY, "game-supply-enemy.png" },
+        { ImageConstants.IMGID_GAME_TIMER, "game-timer.png" }
+    };
+
+    // Tile name -> filename pairs for the map and units
+    private static final String[][] TILE_FILES = {
+        { TileConverter.STR_LAND, "tile-snow.png" },
+        { TileConverter.STR_WALL, "tile-tree.png" },
+        { TileConverter.STR_FLAG, "tile-flag.png" },
+        { TileConverter.STR_UNIT_LIGHT_PLAYER, "unit-infantry-player.png" },
+        { TileConverter.STR_UNIT_LIGHT_ENEMY, "unit-infantry-enemy.png" },
+        { TileConverter.STR_UNIT_MEDIUM_PLAYER, "unit-antiarmor-player.png" },
+        { TileConverter.STR_UNIT_MEDIUM_ENEMY, "unit-antiarmor-enemy.png" },
+        { TileConverter.STR_UNIT_HEAVY_PLAYER, "unit-tank-player.png" },
+        { TileConverter.STR_UNIT_HEAVY_ENEMY, "unit-tank-enemy.png" }
+    };
+
+    private final Map<Integer, GameImage> gameImages = new ConcurrentHashMap<>();
+    private final Map<String, GameImage> tileImages = new ConcurrentHashMap<>();
+    private final Map<Integer, GameImage> darkGameImages = new ConcurrentHashMap<>();
+    private final Map<String, GameImage> darkTileImages = new ConcurrentHashMap<>();
     
     private final PathResolver pathResolver;
+    private SpriteAtlas spriteAtlas;
+
+    // Loading phases, null until loading starts
+    private volatile CompletableFuture<Void> menuImagesReady;
+    private volatile CompletableFuture<Void> tileImagesReady;
+    private volatile CompletableFuture<SpriteAtlas> spriteAtlasReady;
+
+    // Pre-decoded images, or null to always decode the source images
+    private Path bundlePath;
     
     public ImageService(PathResolver pathResolver) {
         this.pathResolver = pathResolver;
     }
     
+    /**
+     * Loads every image and waits until all of them, including the sprite
+     * atlas, are ready.
+     */
     public void loadImages() {
-        loadGameImages();
-        loadTileImages();
-        generateDarkImages();
+        startLoading();
+        spriteAtlasReady.join();
+    }
+
+    /**
+     * Loads every image from the source files, ignoring any bundle, and waits
+     * until all of them are ready.
+     */
+    public void loadImagesFromSources() {
+        synchronized (this) {
+            if (menuImagesReady == null) {
+                startDecoding(null);
+            }
+        }
+        spriteAtlasReady.join();
+    }
+
+    /**
+     * Sets the bundle of pre-decoded images to load from. When it is missing
+     * or was built from other source images, the images are decoded and the
+     * bundle is written again in the background.
+     *
+     * @param bundlePath Bundle file, or null to always decode
+     */
+    public synchronized void setBundlePath(Path bundlePath) {
+        this.bundlePath = bundlePath;
+    }
+
+    /**
+     * Starts loading all images and returns at once. Images come from the
+     * bundle if it is up to date; otherwise they are decoded on a small pool.
+     * Menu images are queued first, then tiles and unit sprites, then the
+     * sprite atlas; each getter waits for the phase its image belongs to.
+     */
+    public synchronized void startLoading() {
+        if (menuImagesReady != null) {
+            return;
+        }
+        if (bundlePath == null) {
+            startDecoding(null);
+            return;
+        }
+
+        long start = System.nanoTime();
+        long sourceHash = sourceHash();
+        try {
+            AssetBundle.Contents contents = AssetBundle.read(bundlePath, sourceHash);
+            if (contents != null && contents.rotations == spriteRotations()) {
+                useBundle(contents);
+                Logger.info("All assets loaded from " + bundlePath + " in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+                return;
+            }
+            Logger.info("Asset bundle " + bundlePath + " is missing or stale, decoding images");
+        } catch (IOException | RuntimeException e) {
+            Logger.warn("Could not read asset bundle " + bundlePath + ": " + e.getMessage());
+        }
+        startDecoding(sourceHash);
+    }
+
+    /**
+     * Writes all loaded images, their night variants and the sprite atlas
+     * into a bundle, waiting for loading to finish first.
+     *
+     * @param path Bundle file
+     * @throws IOException If the file could not be written
+     */
+    public void writeBundle(Path path) throws IOException {
+        writeBundle(path, sourceHash());
+    }
+
+    private void writeBundle(Path path, long sourceHash) throws IOException {
+        long start = System.nanoTime();
+        AssetBundle.Contents contents = new AssetBundle.Contents();
+        contents.atlasFrames = getSpriteAtlas().getFrames();
+        contents.rotations = getSpriteAtlas().getRotations();
+        contents.gameImages.putAll(gameImages);
+        contents.darkGameImages.putAll(darkGameImages);
+        contents.tileImages.putAll(tileImages);
+        contents.darkTileImages.putAll(darkTileImages);
+        AssetBundle.write(path, sourceHash, contents);
+        Logger.info("Asset bundle written to " + path + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private void useBundle(AssetBundle.Contents contents) {
+        gameImages.putAll(contents.gameImages);
+        darkGameImages.putAll(contents.darkGameImages);
+        tileImages.putAll(contents.tileImages);
+        darkTileImages.putAll(contents.darkTileImages);
+        menuImagesReady = CompletableFuture.completedFuture(null);
+        tileImagesReady = CompletableFuture.completedFuture(null);
+        spriteAtlasReady = CompletableFuture.completedFuture(
+                SpriteAtlas.fromFrames(contents.rotations, contents.atlasFrames));
+    }
+
+    /**
+     * Hashes the names and contents of all source images, so a bundle built
+     * from other images is recognized.
+     */
+    private long sourceHash() {
+        CRC32C crc = new CRC32C();
+        List<String> filenames = new ArrayList<>();
+        for (Object[] entry : GAME_IMAGE_FILES) {
+            filenames.add((String) entry[1]);
+        }
+        for (String[] entry : TILE_FILES) {
+            filenames.add(entry[1]);
+        }
+        long hash = 0;
+        for (String filename : filenames) {
+            crc.update(filename.getBytes(StandardCharsets.UTF_8));
+            try {
+                crc.update(Files.readAllBytes(Paths.get(PathResolver.resolveImagePath(filename))));
+            } catch (IOException e) {
+                // A missing image hashes as its name only
+            }
+            hash = hash * 31 + crc.getValue();
+        }
+        return hash;
+    }
+
+    /**
+     * Decodes all images on a small pool.
+     *
+     * @param bundleHash Source hash to write a bundle with once done, or null
+     */
+    private void startDecoding(Long bundleHash) {
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(LOADER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "Asset-Loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<CompletableFuture<Void>> menuTasks = new ArrayList<>();
+        for (Object[] entry : GAME_IMAGE_FILES) {
+            int id = (Integer) entry[0];
+            String filename = (String) entry[1];
+            menuTasks.add(CompletableFuture.runAsync(() -> loadImage(gameImages, darkGameImages, id, filename), pool));
+        }
+        List<CompletableFuture<Void>> tileTasks = new ArrayList<>();
+        for (String[] entry : TILE_FILES) {
+            tileTasks.add(CompletableFuture.runAsync(
+                    () -> loadImage(tileImages, darkTileImages, entry[0], entry[1]), pool));
+        }
+
+        menuImagesReady = logPhase(CompletableFuture.allOf(menuTasks.toArray(new CompletableFuture<?>[0])),
+                "Menu images", start);
+        tileImagesReady = logPhase(CompletableFuture.allOf(tileTasks.toArray(new CompletableFuture<?>[0])),
+                "Tile images", start);
+        spriteAtlasReady = tileImagesReady.thenApplyAsync(ignored -> SpriteAtlas.build(this, spriteRotations()), pool);
+        Path bundle = bundlePath;
+        spriteAtlasReady.whenCompleteAsync((atlas, error) -> {
+            Logger.info("All assets loaded in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            if (error == null && bundleHash != null && bundle != null) {
+                // First run or changed images: pack them for the next start
+                try {
+                    writeBundle(bundle, bundleHash);
+                } catch (IOException | RuntimeException e) {
+                    Logger.warn("Could not write asset bundle " + bundle + ": " + e.getMessage());
+                }
+            }
+            pool.shutdown();
+        }, pool);
+    }
+
+    /**
+     * Waits until the menu and HUD images are loaded.
+     */
+    public void awaitMenuImages() {
+        await(menuImagesReady);
+    }
+
+    /**
+     * Waits until the tile and unit images are loaded.
+     */
+    public void awaitTileImages() {
+        await(tileImagesReady);
+    }
+    
+    /**
+     * Gets the pre-rotated unit sprites, waiting for them while they are
+     * being loaded, or building them on first use if loading never started.
+     */
+    public SpriteAtlas getSpriteAtlas() {
+        CompletableFuture<SpriteAtlas> ready = spriteAtlasReady;
+        if (ready != null) {
+            return ready.join();
+        }
+        synchronized (this) {
+            if (spriteAtlas == null) {
+                spriteAtlas = SpriteAtlas.build(this, spriteRotations());
+            }
+            return spriteAtlas;
+        }
+    }
+    
+    private static int spriteRotations() {
+        int rotations = GameConfig.getSpriteRotations();
+        return rotations > 0 ? rotations : SpriteAtlas.DEFAULT_ROTATIONS;
     }
     
     public GameImage getGameImage(int imageId) {
+        awaitMenuImages();
         GameImage image = gameImages.get(imageId);
         if (image == null) {
             // Try to provide a fallback image instead of throwing an exception
@@ -38,6 +296,7 @@ public class ImageService {
     }
     
     public GameImage getTileImage(String tileName) {
+        awaitTileImages();
         GameImage image = tileImages.get(tileName);
         if (image == null) {
             utils.Logger.warn("Tile image not found: " + tileName + ". Using fallback.");
@@ -48,75 +307,37 @@ public class ImageService {
     
     public GameImage getTileImage(String tileName, boolean isDark) {
         if (isDark) {
+            awaitTileImages();
             return darkTileImages.getOrDefault(tileName, getTileImage(tileName));
         }
         return getTileImage(tileName);
     }
-    
-    private void loadGameImages() {
-        // Define image ID -> filename pairs
-        Object[][] imageList = {
-            { ImageConstants.IMGID_BG_MENU, "bg-menu.png" },
-            { ImageConstants.IMGID_BG_DESK, "bg-desk.jpg" },
-            { ImageConstants.IMGID_BG_BOOK, "bg-book.jpg" },
-            { ImageConstants.IMGID_ICON_CAMPAIGN, "icon-campaign.png" },
-            { ImageConstants.IMGID_ICON_INSTRUCT, "icon-instruct.png" },
-            { ImageConstants.IMGID_ICON_RETURN, "icon-return.png" },
-            { ImageConstants.IMGID_ICON_START, "icon-start.png" },
-            { ImageConstants.IMGID_MENU_TITLE, "menu-title.png" },
-            { ImageConstants.IMGID_MENU_INSTRUCT, "menu-instruct.png" },
-            { ImageConstants.IMGID_MENU_START, "menu-start.png" },
-            { ImageConstants.IMGID_MENU_VICTORY, "menu-victory.png" },
-            { ImageConstants.IMGID_MENU_DEFEAT, "menu-defeat.png" },
-            { ImageConstants.IMGID_SUPPLY_PLAYER, "game-supply-player.png" },
-            { ImageConstants.IMGID_SUPPLY_ENEMY, "game-supply-enemy.png" },
-            { ImageConstants.IMGID_GAME_TIMER, "game-timer.png" }
-        };
-        
-        for (Object[] entry : imageList) {
-            int id = (Integer) entry[0];
-            String filename = (String) entry[1];
-            loadImage(gameImages, id, filename);
-        }
-    }
-    
-    private void loadTileImages() {
-        String[][] tileList = {
-            { TileConverter.STR_LAND, "tile-snow.png" },
-            { TileConverter.STR_WALL, "tile-tree.png" },
-            { TileConverter.STR_FLAG, "tile-flag.png" },
-            { TileConverter.STR_UNIT_LIGHT_PLAYER, "unit-infantry-player.png" },
-            { TileConverter.STR_UNIT_LIGHT_ENEMY, "unit-infantry-enemy.png" },
-            { TileConverter.STR_UNIT_MEDIUM_PLAYER, "unit-antiarmor-player.png" },
-            { TileConverter.STR_UNIT_MEDIUM_ENEMY, "unit-antiarmor-enemy.png" },
-            { TileConverter.STR_UNIT_HEAVY_PLAYER, "unit-tank-player.png" },
-            { TileConverter.STR_UNIT_HEAVY_ENEMY, "unit-tank-enemy.png" }
-        };
-        
-        for (String[] entry : tileList) {
-            loadTile(tileImages, entry[0], entry[1]);
+
+    private static void await(CompletableFuture<?> phase) {
+        if (phase != null) {
+            phase.join();
         }
     }
-    
-    private void loadImage(Map<Integer, GameImage> imgData, int imageId, String filename) {
-        GameImage newImage = loadGameImage(filename);
-        if (newImage != null) {
-            imgData.put(imageId, newImage);
-            Logger.debug("Loaded image: ID=" + imageId + ", filename=" + filename);
-        } else {
-            Logger.error("Failed to load image: ID=" + imageId + ", filename=" + filename);
-            // Don't add to map - let getGameImage handle the fallback
-        }
+
+    private static CompletableFuture<Void> logPhase(CompletableFuture<Void> phase, String name, long start) {
+        return phase.whenComplete((ignored, error) ->
+                Logger.info(name + " loaded in " + (System.nanoTime() - start) / 1_000_000 + " ms"));
     }
     
-    private void loadTile(Map<String, GameImage> tileData, String imageStr, String filename) {
+    /**
+     * Decodes one image and its night variant. Runs on a loader thread.
+     */
+    private <K> void loadImage(Map<K, GameImage> images, Map<K, GameImage> darkImages, K key, String filename) {
+        long start = System.nanoTime();
         GameImage newImage = loadGameImage(filename);
         if (newImage != null) {
-            tileData.put(imageStr, newImage);
-            Logger.debug("Loaded tile: " + imageStr + ", filename=" + filename);
+            images.put(key, newImage);
+            darkImages.put(key, ImageUtils.darken(newImage));
+            Logger.debug("Loaded image: " + key + ", filename=" + filename + " in "
+                    + (System.nanoTime() - start) / 1_000 / 1000.0 + " ms");
         } else {
-            Logger.error("Failed to load tile: " + imageStr + ", filename=" + filename);
-            // Don't add to map - let getTileImage handle the fallback
+            Logger.error("Failed to load image: " + key + ", filename=" + filename);
+            // Don't add to map - let getGameImage/getTileImage handle the fallback
         }
     }
     
@@ -152,15 +373,6 @@ public class ImageService {
         return GameImage.ImageFormat.UNKNOWN;
     }
     
-    private void generateDarkImages() {
-        for (Map.Entry<Integer, GameImage> entry : gameImages.entrySet()) {
-            darkGameImages.put(entry.getKey(), ImageUtils.darken(entry.getValue()));
-        }
-        for (Map.Entry<String, GameImage> entry : tileImages.entrySet()) {
-            darkTileImages.put(entry.getKey(), ImageUtils.darken(entry.getValue()));
-        }
-    }
-
     /**
      * Provides a fallback image when the requested image is not found
      */
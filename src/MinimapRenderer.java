@@ -0,0 +1,283 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Iterator;
+
+import entities.GameFlag;
+import entities.GameUnit;
+import graphics.Color;
+import graphics.GameImage;
+import graphics.IGraphics;
+import graphics.Point;
+import managers.FogBitGrid;
+import managers.FogChangeTracker;
+import managers.GameFogWar;
+import map.ArrayTileMap;
+import map.TileConverter;
+import map.TileMap;
+import utils.Constants;
+
+/**
+ * Draws the minimap in the bottom-left corner of the screen.
+ *
+ * Explored terrain is kept in an image the size of the minimap, so its memory
+ * does not grow with the map. Tiles are mapped to minimap pixels with
+ * fractional scaling: on small maps a tile covers several pixels, on large
+ * maps a pixel covers a block of tiles and shows it explored if any of its
+ * visited tiles is open ground. The image is built once per map and afterwards
+ * only the pixels of tiles the fog reports as changed are recolored, so each
+ * frame is one blit of that image plus the flags, units and camera viewport
+ * drawn on top. Full rebuilds peek at the terrain, so a chunked map does not
+ * load every explored chunk to bake the image.
+ */
+public class MinimapRenderer {
+	private static final int MINIMAP_WIDTH = 200;
+	private static final int MINIMAP_HEIGHT = 200;
+	private static final int MINIMAP_X = 10;
+	private static final int MINIMAP_Y = Constants.SCREEN_HEIGHT - MINIMAP_HEIGHT - 10;
+
+	private static final int UNEXPLORED_ARGB = 0xFF323232; // Color(50, 50, 50)
+	private static final int EXPLORED_ARGB = 0xFF8C8C8C; // Neutral gray for visited areas
+	private static final int WALL_ARGB = 0xFF505050; // Dark gray for walls
+
+	private static final Color BACKGROUND_COLOR = new Color(50, 50, 50);
+	private static final Color BORDER_COLOR = new Color(200, 200, 200);
+	private static final Color FLAG_BORDER_COLOR = new Color(255, 255, 255);
+	private static final Color PLAYER_UNIT_COLOR = new Color(0, 100, 255); // Blue for player units
+	private static final Color ENEMY_UNIT_COLOR = new Color(255, 100, 100); // Red for enemy units
+	private static final Color VIEWPORT_COLOR = new Color(255, 255, 0); // Yellow for viewport
+
+	private final GameStateManager stateManager;
+
+	// Terrain layer and what it was built from
+	private TileMap boundMap;
+	private Object boundTiles;
+	private GameFogWar boundFog;
+	private FogChangeTracker tracker;
+	private GameImage gameImage;
+	private int[] pixels;
+	private int mapCols;
+	private int mapRows;
+	private int fullRebuilds = 0;
+
+	public MinimapRenderer(GameStateManager stateManager) {
+		this.stateManager = stateManager;
+	}
+
+	public void render(IGraphics g, GameFogWar fogWar, int cameraX, int cameraY) {
+		updateTerrain(fogWar);
+
+		g.setColor(BACKGROUND_COLOR);
+		g.fillRect(MINIMAP_X, MINIMAP_Y, MINIMAP_WIDTH, MINIMAP_HEIGHT);
+		g.setColor(BORDER_COLOR);
+		g.drawRect(MINIMAP_X, MINIMAP_Y, MINIMAP_WIDTH, MINIMAP_HEIGHT);
+		g.drawImage(gameImage, MINIMAP_X, MINIMAP_Y, MINIMAP_WIDTH, MINIMAP_HEIGHT);
+
+		drawFlags(g);
+		drawUnits(g, fogWar);
+		drawCameraViewport(g, cameraX, cameraY);
+	}
+
+	/**
+	 * Gets the number of times the terrain layer was built from scratch, for diagnostics.
+	 */
+	public int getFullRebuilds() {
+		return fullRebuilds;
+	}
+
+	/**
+	 * Gets the terrain layer color of the first minimap pixel covering a tile.
+	 */
+	int getPixel(int x, int y) {
+		return pixels[firstPixel(y, mapRows, MINIMAP_HEIGHT) * MINIMAP_WIDTH + firstPixel(x, mapCols, MINIMAP_WIDTH)];
+	}
+
+	/**
+	 * Brings the terrain layer up to date with the map and the explored area.
+	 */
+	void updateTerrain(GameFogWar fogWar) {
+		TileMap map = stateManager.getGameMap().getTileMap();
+		// Adapters may be made per call, so an array map is recognised by its array
+		Object tiles = map instanceof ArrayTileMap ? ((ArrayTileMap) map).getTiles() : map;
+		boolean rebuild = false;
+		if (tiles != boundTiles) {
+			// A new map: bake the terrain again
+			boundTiles = tiles;
+			boundMap = map;
+			mapRows = map.getHeight();
+			mapCols = map.getWidth();
+			if (pixels == null) {
+				BufferedImage image = new BufferedImage(MINIMAP_WIDTH, MINIMAP_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+				pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+				gameImage = new GameImage(image);
+			}
+			rebuild = true;
+		}
+		if (fogWar != boundFog) {
+			if (boundFog != null) {
+				boundFog.stopTracking(tracker);
+			}
+			boundFog = fogWar;
+			tracker = fogWar.trackChanges();
+		}
+
+		if (!tracker.drain(this::updateTile) || rebuild) {
+			for (int py = 0; py < MINIMAP_HEIGHT; py++) {
+				for (int px = 0; px < MINIMAP_WIDTH; px++) {
+					updatePixel(px, py);
+				}
+			}
+			fullRebuilds++;
+		}
+	}
+
+	private void updateTile(int index) {
+		int x = index % mapCols;
+		int y = index / mapCols;
+		if (y >= mapRows) {
+			return;
+		}
+		int pxEnd = endPixel(x, mapCols, MINIMAP_WIDTH);
+		int pyEnd = endPixel(y, mapRows, MINIMAP_HEIGHT);
+		for (int py = firstPixel(y, mapRows, MINIMAP_HEIGHT); py < pyEnd; py++) {
+			for (int px = firstPixel(x, mapCols, MINIMAP_WIDTH); px < pxEnd; px++) {
+				updatePixel(px, py);
+			}
+		}
+	}
+
+	/**
+	 * Recolors a minimap pixel from the block of tiles it covers.
+	 */
+	private void updatePixel(int px, int py) {
+		int x0 = firstTile(px, mapCols, MINIMAP_WIDTH);
+		int x1 = endTile(px, mapCols, MINIMAP_WIDTH);
+		int y0 = firstTile(py, mapRows, MINIMAP_HEIGHT);
+		int y1 = endTile(py, mapRows, MINIMAP_HEIGHT);
+		FogBitGrid visited = boundFog.getVisitedData();
+		int color;
+		// Whole unexplored blocks are skipped a word at a time
+		if (!visited.anySet(x0, y0, x1 - x0, y1 - y0)) {
+			color = UNEXPLORED_ARGB;
+		} else if (hasVisitedGround(visited, x0, y0, x1, y1)) {
+			color = EXPLORED_ARGB;
+		} else {
+			color = WALL_ARGB;
+		}
+		pixels[py * MINIMAP_WIDTH + px] = color;
+	}
+
+	private boolean hasVisitedGround(FogBitGrid visited, int x0, int y0, int x1, int y1) {
+		for (int y = y0; y < y1; y++) {
+			for (int x = x0; x < x1; x++) {
+				if (visited.get(x, y) && boundMap.peekTile(x, y) != TileConverter.TILE_WALL) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	// Tile to pixel mapping along one axis. The coarser side's cells each cover
+	// the range [ceil(i * fine / coarse), ceil((i + 1) * fine / coarse)) of the
+	// finer side, and a fine cell j lies in coarse cell floor(j * coarse / fine).
+
+	private static int firstPixel(int tile, int tiles, int size) {
+		return tiles >= size ? tile * size / tiles : ceilDiv(tile * size, tiles);
+	}
+
+	private static int endPixel(int tile, int tiles, int size) {
+		return tiles >= size ? tile * size / tiles + 1 : ceilDiv((tile + 1) * size, tiles);
+	}
+
+	private static int firstTile(int pixel, int tiles, int size) {
+		return tiles >= size ? ceilDiv(pixel * tiles, size) : pixel * tiles / size;
+	}
+
+	private static int endTile(int pixel, int tiles, int size) {
+		return tiles >= size ? ceilDiv((pixel + 1) * tiles, size) : pixel * tiles / size + 1;
+	}
+
+	private static int ceilDiv(int a, int b) {
+		return (a + b - 1) / b;
+	}
+
+	/**
+	 * Gets the minimap rectangle of a tile: x, y, width and height, at least
+	 * one pixel each.
+	 */
+	private int[] tileRect(int tileX, int tileY) {
+		int x = MINIMAP_X + tileX * MINIMAP_WIDTH / mapCols;
+		int y = MINIMAP_Y + tileY * MINIMAP_HEIGHT / mapRows;
+		int width = Math.max(1, MINIMAP_X + (tileX + 1) * MINIMAP_WIDTH / mapCols - x);
+		int height = Math.max(1, MINIMAP_Y + (tileY + 1) * MINIMAP_HEIGHT / mapRows - y);
+		return new int[] { x, y, width, height };
+	}
+
+	private void drawFlags(IGraphics g) {
+		Iterator<GameFlag> flagIter = stateManager.getFlagManager().getFlagList();
+		while (flagIter.hasNext()) {
+			GameFlag flag = flagIter.next();
+			int[] rect = tileRect(flag.getMapX(), flag.getMapY());
+
+			// Always show flags on minimap for strategic planning
+			g.setColor(flag.getColorForFaction());
+			g.fillRect(rect[0], rect[1], rect[2], rect[3]);
+
+			// Draw flag border
+			g.setColor(FLAG_BORDER_COLOR);
+			g.drawRect(rect[0], rect[1], rect[2], rect[3]);
+		}
+	}
+
+	private void drawUnits(IGraphics g, GameFogWar fogWar) {
+		g.setColor(PLAYER_UNIT_COLOR);
+		for (GameUnit playerUnit : stateManager.getUnitManager().getPlayerList()) {
+			// Only show units in visited areas
+			drawUnit(g, playerUnit, fogWar, false);
+		}
+		g.setColor(ENEMY_UNIT_COLOR);
+		for (GameUnit enemyUnit : stateManager.getUnitManager().getEnemyList()) {
+			// Only show enemy units if they're currently visible (in fog of war range)
+			drawUnit(g, enemyUnit, fogWar, true);
+		}
+	}
+
+	private void drawUnit(IGraphics g, GameUnit unit, GameFogWar fogWar, boolean needsVisible) {
+		if (!unit.isAlive()) {
+			return;
+		}
+		Point mapPos = unit.getMapPoint(unit.getCurrentPosition());
+		boolean shown = needsVisible ? fogWar.isTileVisible(mapPos.x, mapPos.y)
+				: fogWar.isTileVisited(mapPos.x, mapPos.y);
+		if (shown) {
+			int[] rect = tileRect(mapPos.x, mapPos.y);
+			// Inset by a pixel where tiles are large enough to leave a gap between units
+			if (rect[2] > 2 && rect[3] > 2) {
+				g.fillRect(rect[0] + 1, rect[1] + 1, rect[2] - 2, rect[3] - 2);
+			} else {
+				g.fillRect(rect[0], rect[1], rect[2], rect[3]);
+			}
+		}
+	}
+
+	private void drawCameraViewport(IGraphics g, int cameraX, int cameraY) {
+		int screenWidth = Constants.SCREEN_WIDTH;
+		int screenHeight = Constants.SCREEN_HEIGHT;
+
+		// Calculate viewport bounds in minimap coordinates
+		int viewportX = MINIMAP_X + (cameraX / Constants.TILE_WIDTH) * MINIMAP_WIDTH / mapCols;
+		int viewportY = MINIMAP_Y + (cameraY / Constants.TILE_HEIGHT) * MINIMAP_HEIGHT / mapRows;
+		int viewportWidth = Math.max(1, (screenWidth / Constants.TILE_WIDTH) * MINIMAP_WIDTH / mapCols);
+		int viewportHeight = Math.max(1, (screenHeight / Constants.TILE_HEIGHT) * MINIMAP_HEIGHT / mapRows);
+
+		// Constrain viewport to minimap bounds
+		viewportX = Math.max(MINIMAP_X, Math.min(MINIMAP_X + MINIMAP_WIDTH - viewportWidth, viewportX));
+		viewportY = Math.max(MINIMAP_Y, Math.min(MINIMAP_Y + MINIMAP_HEIGHT - viewportHeight, viewportY));
+		viewportWidth = Math.min(viewportWidth, MINIMAP_WIDTH);
+		viewportHeight = Math.min(viewportHeight, MINIMAP_HEIGHT);
+
+		// Draw viewport outline
+		g.setColor(VIEWPORT_COLOR);
+		g.drawRect(viewportX, viewportY, viewportWidth, viewportHeight);
+	}
+}
@@ -11,7 +11,7 @@ import input.MouseListenerRegistrar;
 import utils.Constants;
 import graphics.Point;
 
-import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Handles all mouse input for the game, converting AWT mouse events
@@ -19,18 +19,22 @@ import java.util.ArrayList;
  */
 public class MouseHandler implements MouseListener, MouseMotionListener {
     
-    private final List<GameMouseListener> mouseListeners = new ArrayList<>();
+    // States change on the game loop and render threads while events arrive on the UI thread
+    private final List<GameMouseListener> mouseListeners = new CopyOnWriteArrayList<>();
     private final MouseListenerRegistrar registrar;
     private final GameStateManager stateManager;
     private final CameraManager cameraManager;
     
     // Direct state registration
-    private StateMachine currentState = null;
+    private volatile StateMachine currentState = null;
+    // Held while an event touches game state so the game loop never ticks halfway through it
+    private final Object stateLock;
     
     public MouseHandler(MouseListenerRegistrar registrar, GameStateManager stateManager, CameraManager cameraManager) {
         this.registrar = registrar;
         this.stateManager = stateManager;
         this.cameraManager = cameraManager;
+        this.stateLock = stateManager.getStateLock();
     }
     
     // MouseListener implementation
@@ -43,11 +47,13 @@ public class MouseHandler implements MouseListener, MouseMotionListener {
     public void mousePressed(MouseEvent e) {
         GameMouseEvent gameEvent = createGameMouseEvent(e, GameMouseEvent.Type.PRESSED);
         if (gameEvent != null) {
-            handleMouseEvent(gameEvent);
+            synchronized (stateLock) {
+                handleMouseEvent(gameEvent);
             
-            // Handle selection box creation in game state
-            if (currentState instanceof StateGameMain) {
-                stateManager.getSelectionManager().createSelectBox(gameEvent);
+                // Handle selection box creation in game state
+                if (currentState instanceof StateGameMain) {
+                    stateManager.getSelectionManager().createSelectBox(gameEvent);
+                }
             }
         }
     }
@@ -56,11 +62,13 @@ public class MouseHandler implements MouseListener, MouseMotionListener {
     public void mouseReleased(MouseEvent e) {
         GameMouseEvent gameEvent = createGameMouseEvent(e, GameMouseEvent.Type.RELEASED);
         if (gameEvent != null) {
-            handleMouseEvent(gameEvent);
+            synchronized (stateLock) {
+                handleMouseEvent(gameEvent);
             
-            // Handle selection box release in game state
-            if (currentState instanceof StateGameMain) {
-                stateManager.getSelectionManager().releaseSelectBox();
+                // Handle selection box release in game state
+                if (currentState instanceof StateGameMain) {
+                    stateManager.getSelectionManager().releaseSelectBox();
+                }
             }
         }
     }
@@ -80,11 +88,13 @@ public class MouseHandler implements MouseListener, MouseMotionListener {
     public void mouseDragged(MouseEvent e) {
         GameMouseEvent gameEvent = createGameMouseEvent(e, GameMouseEvent.Type.DRAGGED);
         if (gameEvent != null) {
-            handleMouseEvent(gameEvent);
+            synchronized (stateLock) {
+                handleMouseEvent(gameEvent);
             
-            // Handle selection box dragging in game state
-            if (currentState instanceof StateGameMain) {
-                stateManager.getSelectionManager().dragSelectBox(gameEvent);
+                // Handle selection box dragging in game state
+                if (currentState instanceof StateGameMain) {
+                    stateManager.getSelectionManager().dragSelectBox(gameEvent);
+                }
             }
         }
     }
@@ -93,14 +103,16 @@ public class MouseHandler implements MouseListener, MouseMotionListener {
     public void mouseMoved(MouseEvent e) {
         GameMouseEvent gameEvent = createGameMouseEvent(e, GameMouseEvent.Type.MOVED);
         if (gameEvent != null) {
-            handleMouseEvent(gameEvent);
+            synchronized (stateLock) {
+                handleMouseEvent(gameEvent);
             
-            // Handle camera scrolling in game state
-            if (currentState instanceof StateGameMain) {
-                cameraManager.handleCameraScrolling(gameEvent.x, gameEvent.y);
+                // Handle camera scrolling in game state
+                if (currentState instanceof StateGameMain) {
+                    cameraManager.handleCameraScrolling(gameEvent.x, gameEvent.y);
                 
-                // Handle unit hover detection
-                handleUnitHover(gameEvent);
+                    // Handle unit hover detection
+                    handleUnitHover(gameEvent);
+                }
             }
         }
     }
@@ -0,0 +1,240 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import graphics.AwtGraphicsAdapter;
+import graphics.Color;
+import graphics.RecordingGraphics;
+import utils.Logger;
+
+/*
+ * Draws frames on a thread of its own so the UI thread only has to blit them.
+ *
+ * A frame is first recorded into a command list while the game state is
+ * locked, which only copies draw calls, and then rasterized into a back
+ * buffer with the lock released. Finished frames are handed to the UI thread
+ * through a lock-free triple buffer: the worker and the UI thread each own one
+ * image and swap it with the shared one, so neither ever waits for the other
+ * and the UI thread never sees a frame that is still being drawn.
+ *
+ * Replay is sorted, so the draws the renderers mark for batching (the units)
+ * are grouped by layer, image and color; everything else keeps its order.
+ *
+ * Optionally the back buffer is split into horizontal bands that replay the
+ * same command list concurrently, each through its own graphics clipped to
+ * its rows, and are joined before the frame is published. Every band replays
+ * the whole list, so banding only pays off where filling pixels dominates and
+ * spare cores exist; it is off by default.
+ */
+public class RenderWorker implements Runnable {
+	private static final int DIRTY = 4;
+	private static final int INDEX_MASK = 3;
+
+	private final GameStateManager stateManager;
+	private final Runnable frameListener;
+	private final BufferedImage[] buffers = new BufferedImage[3];
+	private final RecordingGraphics recorder = new RecordingGraphics();
+	private final int bands;
+	private final ExecutorService bandPool;
+
+	// Index of the shared buffer, plus DIRTY if it holds a frame the UI thread has not taken
+	private final AtomicInteger shared = new AtomicInteger(1);
+	private final AtomicBoolean frameRequested = new AtomicBoolean(false);
+	private int backIndex = 0; // Owned by the worker
+	private int frontIndex = 2; // Owned by the UI thread
+	private boolean hasFrame = false;
+
+	private volatile boolean isRunning = false;
+	private Thread renderThread;
+
+	/**
+	 * @param stateManager Game state to draw
+	 * @param width Frame width in pixels
+	 * @param height Frame height in pixels
+	 * @param frameListener Called on the render thread after each finished frame
+	 */
+	public RenderWorker(GameStateManager stateManager, int width, int height, Runnable frameListener) {
+		this(stateManager, width, height, 1, frameListener);
+	}
+
+	/**
+	 * @param stateManager Game state to draw
+	 * @param width Frame width in pixels
+	 * @param height Frame height in pixels
+	 * @param bands Number of horizontal bands rasterized in parallel
+	 * @param frameListener Called on the render thread after each finished frame
+	 */
+	public RenderWorker(GameStateManager stateManager, int width, int height, int bands, Runnable frameListener) {
+		this.stateManager = stateManager;
+		this.frameListener = frameListener;
+		this.bands = Math.max(1, Math.min(bands, height));
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		}
+		// The render thread draws the last band itself
+		if (this.bands > 1) {
+			bandPool = Executors.newFixedThreadPool(this.bands - 1, runnable -> {
+				Thread thread = new Thread(runnable, "Render-Band");
+				thread.setDaemon(true);
+				return thread;
+			});
+		} else {
+			bandPool = null;
+		}
+	}
+
+	public void start() {
+		if (!isRunning) {
+			isRunning = true;
+			renderThread = new Thread(this, "Render-Thread");
+			renderThread.setDaemon(true);
+			renderThread.start();
+		}
+	}
+
+	public void stop() {
+		isRunning = false;
+		if (renderThread != null) {
+			LockSupport.unpark(renderThread);
+			try {
+				renderThread.join(1000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (bandPool != null) {
+			bandPool.shutdown();
+		}
+	}
+
+	/**
+	 * Asks for a new frame. Requests made while a frame is being drawn are
+	 * merged into one.
+	 */
+	public void requestFrame() {
+		frameRequested.set(true);
+		Thread thread = renderThread;
+		if (thread != null) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	@Override
+	public void run() {
+		while (isRunning) {
+			if (!frameRequested.getAndSet(false)) {
+				LockSupport.park(this);
+				continue;
+			}
+			try {
+				renderFrame();
+			} catch (RuntimeException e) {
+				// Keep drawing later frames; the next state may be fine
+				Logger.error("Render failed", e);
+			}
+			frameListener.run();
+		}
+	}
+
+	/**
+	 * Draws the current state into the back buffer and publishes it. If the
+	 * render thread is interrupted meanwhile, the unfinished frame is dropped
+	 * and the previous one stays on screen.
+	 * Called on the render thread.
+	 */
+	void renderFrame() {
+		recorder.reset();
+		// Only the parts of the frame that opt in are reordered on replay
+		recorder.setBatching(false);
+		recorder.clear(Color.BLACK);
+		synchronized (stateManager.getStateLock()) {
+			stateManager.getCurrentState().run(recorder);
+			stateManager.changeState();
+		}
+
+		if (rasterize(buffers[backIndex])) {
+			backIndex = shared.getAndSet(backIndex | DIRTY) & INDEX_MASK;
+		}
+	}
+
+	/**
+	 * @return Whether the frame was drawn completely
+	 */
+	private boolean rasterize(BufferedImage target) {
+		if (bandPool == null) {
+			drawBand(target, 0, target.getHeight());
+			return !Thread.currentThread().isInterrupted();
+		}
+
+		List<Future<?>> pending = new ArrayList<>(bands - 1);
+		for (int band = 0; band < bands - 1; band++) {
+			int top = target.getHeight() * band / bands;
+			int bottom = target.getHeight() * (band + 1) / bands;
+			pending.add(bandPool.submit(() -> drawBand(target, top, bottom)));
+		}
+		drawBand(target, target.getHeight() * (bands - 1) / bands, target.getHeight());
+
+		// Every band has to be finished before the frame is published, and
+		// before the buffer is drawn into again, even when interrupted
+		boolean interrupted = false;
+		for (Future<?> band : pending) {
+			while (true) {
+				try {
+					band.get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					throw new IllegalStateException("Render band failed", e.getCause());
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		return !Thread.currentThread().isInterrupted();
+	}
+
+	private void drawBand(BufferedImage target, int top, int bottom) {
+		Graphics2D g2d = target.createGraphics();
+		try {
+			g2d.clipRect(0, top, target.getWidth(), bottom - top);
+			recorder.replay(new AwtGraphicsAdapter(g2d), true);
+		} finally {
+			g2d.dispose();
+		}
+	}
+
+	public int getBands() {
+		return bands;
+	}
+
+	/**
+	 * Gets the latest finished frame. Called on the UI thread; the image stays
+	 * untouched by the worker until the next call.
+	 *
+	 * @return The frame, or null if none was drawn yet
+	 */
+	public BufferedImage getFrame() {
+		if ((shared.get() & DIRTY) != 0) {
+			frontIndex = shared.getAndSet(frontIndex) & INDEX_MASK;
+			hasFrame = true;
+		}
+		return hasFrame ? buffers[frontIndex] : null;
+	}
+
+	/**
+	 * Gets the number of draw calls in the last recorded frame, for diagnostics.
+	 */
+	public int getDrawCount() {
+		return recorder.getDrawCount();
+	}
+}
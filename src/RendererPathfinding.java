@@ -6,7 +6,10 @@ import entities.GameUnit;
 import graphics.Color;
 import graphics.Point;
 import graphics.IGraphics;
+import managers.VisibleRegion;
+import map.ArrayTileMap;
 import map.TileConverter;
+import map.TileMap;
 import pathfinding.PathNode;
 import utils.Constants;
 import utils.GameConfig;
@@ -27,6 +30,13 @@ public class RendererPathfinding {
      * Renders all pathfinding debug information for a unit
      */
     public void renderPathfindingDebug(IGraphics g, GameUnit unit, int[][] mapData) {
+        renderPathfindingDebug(g, unit, new ArrayTileMap(mapData));
+    }
+    
+    /**
+     * Renders all pathfinding debug information for a unit, reading tiles from any tile storage
+     */
+    public void renderPathfindingDebug(IGraphics g, GameUnit unit, TileMap mapData) {
         if (!GameConfig.isShowPaths() && !GameConfig.isShowAllMapNodes()) {
             return;
         }
@@ -53,16 +63,15 @@ public class RendererPathfinding {
     }
     
     /**
-     * Renders all map nodes with color coding for occupancy
+     * Renders the map nodes on screen with color coding for occupancy
      */
-    private void renderAllMapNodes(IGraphics g, int[][] mapData) {
-        int mapHeight = mapData.length;
-        int mapWidth = mapData[0].length;
+    private void renderAllMapNodes(IGraphics g, TileMap mapData) {
+        VisibleRegion region = graphicsMain.getVisibleRegion().clampTo(mapData.getWidth(), mapData.getHeight());
         
-        for (int y = 0; y < mapHeight; y++) {
-            for (int x = 0; x < mapWidth; x++) {
+        for (int y = region.getMinTileY(); y <= region.getMaxTileY(); y++) {
+            for (int x = region.getMinTileX(); x <= region.getMaxTileX(); x++) {
                 Point screenPos = TileCoordinateConverter.mapToScreen(x, y);
-                int tileType = mapData[y][x];
+                int tileType = mapData.getTile(x, y);
                 
                 // Determine node color based on tile type
                 Color nodeColor = getNodeColor(tileType);
@@ -119,7 +128,11 @@ public class RendererPathfinding {
             }
         }
         
+        VisibleRegion region = graphicsMain.getVisibleRegion();
         for (PathNode node : exploredNodes) {
+            if (!region.containsTile(node.getX(), node.getY())) {
+                continue;
+            }
             Point screenPos = TileCoordinateConverter.mapToScreen(node.getX(), node.getY());
             
             // Use different color for nodes that are part of the final path
@@ -1,14 +1,10 @@
-import java.awt.Graphics2D;
-import java.awt.image.BufferedImage;
-import java.util.HashMap;
-import java.util.Map;
 import entities.GameUnit;
 import graphics.GameImage;
 import graphics.Color;
 import graphics.Point;
 import graphics.Rect;
 import graphics.IGraphics;
-import map.TileConverter;
+import graphics.RecordingGraphics;
 import utils.Constants;
 import utils.GameConfig;
 import utils.TileCoordinateConverter;
@@ -17,12 +13,18 @@ import utils.TileCoordinateConverter;
  * Handles rendering of game units.
  */
 public class RendererUnit {
+    // Each part of a unit has its own layer, so a recorder that batches the
+    // units (see GraphicsMain) can group e.g. all sprites or all health bars
+    // while every part still lands above the previous one
+    private static final int LAYER_SELECTION = 1;
+    private static final int LAYER_SPRITE = 2;
+    private static final int LAYER_HEALTH_BAR = 3;
+    private static final int LAYER_FOV = 4;
+    private static final int LAYER_INDICATOR = 5;
+    private static final int LAYER_DEBUG = 6;
+
     private final GraphicsMain graphicsMain;
     
-    // Cache for rotated sprites to improve performance
-    private final Map<String, BufferedImage> rotationCache = new HashMap<>();
-    private static final int ROTATION_CACHE_SIZE = 100; // Limit cache size
-    
     // Pathfinding renderer for enhanced visualization
     private final RendererPathfinding pathfindingRenderer;
 
@@ -42,16 +44,41 @@ public class RendererUnit {
             return;
         }
 
-        renderUnitSelection(g, unit);
-        renderUnitSprite(g, unit);
-        renderUnitHealthBar(g, unit);
-        renderUnitFOV(g, unit);
-        renderPathfindingFailureIndicator(g, unit);
+        renderUnit(g, unit, unit.getCurrentPosition(), unit.getRotationAngle(), unit.getHealth());
+    }
+
+    /**
+     * Renders a single unit using position, rotation and health taken from
+     * simulation snapshots instead of the live unit.
+     *
+     * @param g        The graphics context
+     * @param unit     The unit to render
+     * @param position Position to draw the unit at
+     * @param rotation Rotation angle in degrees
+     * @param health   Health to show in the health bar
+     */
+    public void renderUnit(IGraphics g, GameUnit unit, Point position, double rotation, int health) {
+        setLayer(g, LAYER_SELECTION);
+        renderUnitSelection(g, unit, position);
+        setLayer(g, LAYER_SPRITE);
+        renderUnitSprite(g, unit, position, rotation);
+        setLayer(g, LAYER_HEALTH_BAR);
+        renderUnitHealthBar(g, position, health);
+        setLayer(g, LAYER_FOV);
+        renderUnitFOV(g, unit, position, rotation);
+        setLayer(g, LAYER_INDICATOR);
+        renderPathfindingFailureIndicator(g, unit, position);
+        setLayer(g, LAYER_DEBUG);
         renderPathfindingDebug(g, unit); // Add debug rendering
     }
 
-    private void renderUnitSelection(IGraphics g, GameUnit unit) {
-        Point unitPos = unit.getCurrentPosition();
+    private static void setLayer(IGraphics g, int layer) {
+        if (g instanceof RecordingGraphics) {
+            ((RecordingGraphics) g).setLayer(layer);
+        }
+    }
+
+    private void renderUnitSelection(IGraphics g, GameUnit unit, Point unitPos) {
         int x = unitPos.x;
         int y = unitPos.y;
         
@@ -94,104 +121,15 @@ public class RendererUnit {
         }
     }
 
-    private void renderUnitSprite(IGraphics g, GameUnit unit) {
-        // Update unit direction if moving
-        if (unit.isPathCreated()) {
-            Point mapDest = unit.getMapPoint(unit.getDestination());
-            Point screenDest = TileCoordinateConverter.mapToScreen(mapDest.x, mapDest.y);
-            
-            // Calculate 360-degree rotation angle
-            double targetAngle = calculateRotationAngle(unit.getCurrentPosition(), screenDest);
-            unit.setTargetRotationAngle(targetAngle);
-            
-            // Update rotation smoothly
-            unit.updateRotation();
-            
-            // Keep legacy direction for backward compatibility
-            unit.setDirection(calculateDirection(unit.getCurrentPosition(), screenDest));
-        }
-        // Also update rotation when attacking (even if not moving)
-        else if (unit.isAttacking()) {
-            // Update rotation smoothly to face target (target angle was set in handleAttack)
-            unit.updateRotation();
-        }
-
-        // Draw the unit sprite with rotation
-        BufferedImage unitSprite = getUnitSprite(unit);
-        BufferedImage rotatedSprite = createRotatedSprite(unitSprite, unit.getRotationAngle());
-        drawImageOnScreen(g, rotatedSprite, unit.getCurrentPosition().x, unit.getCurrentPosition().y,
+    private void renderUnitSprite(IGraphics g, GameUnit unit, Point position, double rotation) {
+        // Draw the pre-rotated sprite closest to the unit's facing (updated by GameSimulation)
+        GameImage sprite = graphicsMain.getStateManager().getImageService().getSpriteAtlas()
+                .getFrame(unit.getClassType(), unit.isPlayerUnit(), graphicsMain.isNight(), rotation);
+        g.drawImage(sprite, position.x - graphicsMain.getCameraX(), position.y - graphicsMain.getCameraY(),
                 Constants.TILE_WIDTH, Constants.TILE_HEIGHT);
     }
 
-    BufferedImage getUnitSprite(GameUnit unit) {
-        int classType = unit.getClassType();
-        boolean isPlayerUnit = unit.isPlayerUnit();
-
-        BufferedImage sprite = null;
-
-        switch (classType) {
-            case Constants.UNIT_ID_LIGHT:
-                sprite = getLightUnitSprite(isPlayerUnit);
-                break;
-            case Constants.UNIT_ID_MEDIUM:
-                sprite = getMediumUnitSprite(isPlayerUnit);
-                break;
-            case Constants.UNIT_ID_HEAVY:
-                sprite = getHeavyUnitSprite(isPlayerUnit);
-                break;
-        }
-
-        return sprite;
-    }
-
-    private BufferedImage getLightUnitSprite(boolean isPlayerUnit) {
-        BufferedImage sprite;
-        if (isPlayerUnit) {
-            sprite = (BufferedImage) graphicsMain.getStateManager().getImageService()
-                    .getTileImage(TileConverter.STR_UNIT_LIGHT_PLAYER, graphicsMain.isNight())
-                    .getBackendImage();
-        } else {
-            sprite = (BufferedImage) graphicsMain.getStateManager().getImageService()
-                    .getTileImage(TileConverter.STR_UNIT_LIGHT_ENEMY, graphicsMain.isNight())
-                    .getBackendImage();
-        }
-        // Use the east-facing frame (index 2) as base for rotation, which should be more naturally oriented
-        // Frame 0 = North, Frame 1 = South, Frame 2 = East, Frame 3 = West
-        return sprite.getSubimage(Constants.TILE_WIDTH * 2, 0, Constants.TILE_WIDTH, Constants.TILE_HEIGHT);
-    }
-
-    private BufferedImage getMediumUnitSprite(boolean isPlayerUnit) {
-        BufferedImage sprite;
-        if (isPlayerUnit) {
-            sprite = (BufferedImage) graphicsMain.getStateManager().getImageService()
-                    .getTileImage(TileConverter.STR_UNIT_MEDIUM_PLAYER, graphicsMain.isNight())
-                    .getBackendImage();
-        } else {
-            sprite = (BufferedImage) graphicsMain.getStateManager().getImageService()
-                    .getTileImage(TileConverter.STR_UNIT_MEDIUM_ENEMY, graphicsMain.isNight())
-                    .getBackendImage();
-        }
-        return sprite.getSubimage(0, 0, Constants.TILE_WIDTH, Constants.TILE_HEIGHT);
-    }
-
-    private BufferedImage getHeavyUnitSprite(boolean isPlayerUnit) {
-        BufferedImage sprite;
-        if (isPlayerUnit) {
-            sprite = (BufferedImage) graphicsMain.getStateManager().getImageService()
-                    .getTileImage(TileConverter.STR_UNIT_HEAVY_PLAYER, graphicsMain.isNight())
-                    .getBackendImage();
-        } else {
-            sprite = (BufferedImage) graphicsMain.getStateManager().getImageService()
-                    .getTileImage(TileConverter.STR_UNIT_HEAVY_ENEMY, graphicsMain.isNight())
-                    .getBackendImage();
-        }
-        // Use the east-facing frame (index 2) as base for rotation, which should be more naturally oriented
-        // Frame 0 = North, Frame 1 = South, Frame 2 = East, Frame 3 = West
-        return sprite.getSubimage(Constants.TILE_WIDTH * 2, 0, Constants.TILE_WIDTH, Constants.TILE_HEIGHT);
-    }
-
-    private void renderUnitHealthBar(IGraphics g, GameUnit unit) {
-        int health = unit.getHealth();
+    private void renderUnitHealthBar(IGraphics g, Point current, int health) {
         if (health <= 0)
             return;
 
@@ -199,7 +137,6 @@ public class RendererUnit {
         if (healthColor == null)
             return;
 
-        Point current = unit.getCurrentPosition();
         int barWidth = (int) ((double) (Constants.TILE_WIDTH - 2) / 100.0 * health);
         int barHeight = Constants.TILE_HEIGHT / 8;
 
@@ -244,97 +181,16 @@ public class RendererUnit {
         }
     }
 
-    private void drawImageOnScreen(IGraphics g, java.awt.Image img, int x, int y, int width, int height) {
-        g.drawImage(new GameImage(img), x - graphicsMain.getCameraX(), y - graphicsMain.getCameraY(), width, height);
-    }
-
-    private int calculateDirection(Point current, Point destination) {
-        int deltaX = destination.x - current.x;
-        int deltaY = destination.y - current.y;
-        if (Math.abs(deltaX) >= Math.abs(deltaY)) {
-            return (deltaX > 0) ? Constants.DIR_EAST : Constants.DIR_WEST;
-        } else {
-            return (deltaY > 0) ? Constants.DIR_SOUTH : Constants.DIR_NORTH;
-        }
-    }
-
-    private double calculateRotationAngle(Point current, Point destination) {
-        int deltaX = destination.x - current.x;
-        int deltaY = destination.y - current.y;
-        
-        // Calculate the angle in radians
-        double angleRad = Math.atan2(deltaY, deltaX);
-        
-        // Convert radians to degrees
-        double angleDeg = Math.toDegrees(angleRad);
-        
-        // Since we're using the east-facing sprite as base:
-        // Math.atan2 gives 0° = east, 90° = north
-        // Our base sprite faces east (0°), so we don't need to subtract 90°
-        // Just normalize to a 360-degree angle
-        return (angleDeg + 360) % 360;
-    }
-
-    private BufferedImage createRotatedSprite(BufferedImage original, double angle) {
-        // Round angle to nearest degree for caching
-        int roundedAngle = (int) Math.round(angle);
-        
-        // Create cache key
-        String cacheKey = original.hashCode() + "_" + roundedAngle;
-        
-        // Check cache first
-        BufferedImage cached = rotationCache.get(cacheKey);
-        if (cached != null) {
-            return cached;
-        }
-        
-        // Create new rotated sprite
-        int width = original.getWidth();
-        int height = original.getHeight();
-        BufferedImage rotated = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = rotated.createGraphics();
-        
-        // Set rendering hints for better quality
-        g2d.setRenderingHint(java.awt.RenderingHints.KEY_INTERPOLATION, 
-                            java.awt.RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g2d.setRenderingHint(java.awt.RenderingHints.KEY_RENDERING, 
-                            java.awt.RenderingHints.VALUE_RENDER_QUALITY);
-        g2d.setRenderingHint(java.awt.RenderingHints.KEY_ANTIALIASING, 
-                            java.awt.RenderingHints.VALUE_ANTIALIAS_ON);
-        
-        // Rotate around center
-        g2d.rotate(Math.toRadians(angle), width / 2.0, height / 2.0);
-        g2d.drawImage(original, 0, 0, null);
-        g2d.dispose();
-        
-        // Cache the result
-        cacheRotatedSprite(cacheKey, rotated);
-        
-        return rotated;
-    }
-    
-    private void cacheRotatedSprite(String key, BufferedImage sprite) {
-        // Limit cache size
-        if (rotationCache.size() >= ROTATION_CACHE_SIZE) {
-            // Clear half the cache when it gets too large
-            rotationCache.clear();
-        }
-        rotationCache.put(key, sprite);
-    }
-    
-    // Method to clear rotation cache (call when sprites change)
-    public void clearRotationCache() {
-        rotationCache.clear();
-    }
-    
     /**
      * Renders the Field of View (FOV) cone for a unit.
      * Configurable to show FOV for different unit types and selection states.
      * 
      * @param g The graphics context
      * @param unit The unit whose FOV to render
+     * @param unitPos Position the unit is drawn at
+     * @param rotationAngle Rotation the unit is drawn with
      */
-    private void renderUnitFOV(IGraphics g, GameUnit unit) {
+    private void renderUnitFOV(IGraphics g, GameUnit unit, Point unitPos, double rotationAngle) {
         // Master toggle check
         if (!GameConfig.isFovRenderingEnabled()) {
             return;
@@ -355,9 +211,6 @@ public class RendererUnit {
             return;
         }
         
-        Point unitPos = unit.getCurrentPosition();
-        double rotationAngle = unit.getRotationAngle();
-        
         // Calculate FOV cone points
         int[] xPoints = new int[Constants.FOV_RENDER_SEGMENTS + 2];
         int[] yPoints = new int[Constants.FOV_RENDER_SEGMENTS + 2];
@@ -421,12 +274,11 @@ public class RendererUnit {
     /**
      * Renders a visual indicator when pathfinding fails
      */
-    private void renderPathfindingFailureIndicator(IGraphics g, GameUnit unit) {
+    private void renderPathfindingFailureIndicator(IGraphics g, GameUnit unit, Point unitPos) {
         if (!unit.isPathfindingFailed()) {
             return;
         }
 
-        Point unitPos = unit.getCurrentPosition();
         int x = unitPos.x;
         int y = unitPos.y;
         
@@ -448,7 +300,7 @@ public class RendererUnit {
      */
     public void renderPathfindingDebug(IGraphics g, GameUnit unit) {
         // Use the new enhanced pathfinding renderer
-        pathfindingRenderer.renderPathfindingDebug(g, unit, graphicsMain.getStateManager().getGameMap().getMapData());
+        pathfindingRenderer.renderPathfindingDebug(g, unit, graphicsMain.getStateManager().getGameMap().getTileMap());
     }
     
 
@@ -0,0 +1,100 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+import input.PlayerCommand;
+import input.ReplayLog;
+import utils.GameConfig;
+import utils.Logger;
+
+/*
+ * Plays a recorded replay back against the headless simulation as fast as
+ * possible. Recorded matches double as a performance regression corpus: the
+ * ticks per second of a replay can be compared between builds, and the
+ * recorded outcome checks that the simulation still behaves the same.
+ *
+ * Usage: ReplayPlayer <replay file> [maxTicks]
+ */
+public class ReplayPlayer {
+	private static final int DEFAULT_MAX_TICKS = 1000000;
+
+	private final ReplayLog replayLog;
+	private final GameSimulation simulation;
+
+	public ReplayPlayer(ReplayLog replayLog) {
+		this.replayLog = replayLog;
+		this.simulation = new HeadlessSimulation(replayLog.getLevel(), replayLog.getSeed()).getSimulation();
+	}
+
+	public GameSimulation getSimulation() {
+		return simulation;
+	}
+
+	/**
+	 * Applies every command on the tick it was recorded for and steps the
+	 * simulation until the commands are used up and the match is decided,
+	 * or maxTicks is reached.
+	 *
+	 * @param maxTicks Upper bound on the number of ticks
+	 * @return Number of ticks that were run
+	 */
+	public long run(long maxTicks) {
+		List<PlayerCommand> commands = replayLog.getCommands();
+		int next = 0;
+		long ticks = 0;
+		while (ticks < maxTicks) {
+			while (next < commands.size() && commands.get(next).getTick() <= simulation.getTickCount()) {
+				simulation.applyCommand(commands.get(next++));
+			}
+			if (simulation.getOutcome() != GameSimulation.Outcome.RUNNING) {
+				break;
+			}
+			simulation.step();
+			ticks++;
+		}
+		return ticks;
+	}
+
+	/**
+	 * Gets the outcome the replay recorded, or null if the match was not finished.
+	 */
+	public GameSimulation.Outcome getRecordedOutcome() {
+		for (PlayerCommand command : replayLog.getCommands()) {
+			if (command.getType() == PlayerCommand.Type.STATE_CHANGE) {
+				if (command.getState() == GameState.STATE_GAMEOVER.ordinal()) {
+					return GameSimulation.Outcome.PLAYER_LOST;
+				} else if (command.getState() == GameState.STATE_NEXTLVL.ordinal()) {
+					return GameSimulation.Outcome.PLAYER_WON;
+				}
+			}
+		}
+		return null;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: ReplayPlayer <replay file> [maxTicks]");
+			System.exit(1);
+		}
+
+		System.setProperty("java.awt.headless", "true");
+		GameConfig.initialize();
+		Logger.setLevel(Logger.Level.valueOf(GameConfig.getString("debug.log_level")));
+
+		ReplayLog replayLog = ReplayLog.read(Paths.get(args[0]));
+		long maxTicks = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_MAX_TICKS;
+
+		ReplayPlayer player = new ReplayPlayer(replayLog);
+		long start = System.nanoTime();
+		long ticks = player.run(maxTicks);
+		double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+		GameSimulation.Outcome outcome = player.getSimulation().getOutcome();
+		GameSimulation.Outcome recorded = player.getRecordedOutcome();
+		System.out.println("Level " + replayLog.getLevel() + ", " + replayLog.getCommandCount() + " commands ("
+				+ replayLog.getSizeInBytes() + " bytes): " + ticks + " ticks in " + String.format("%.3f", seconds)
+				+ " s (" + String.format("%.0f", ticks / Math.max(seconds, 1e-9)) + " ticks/s)");
+		System.out.println("Outcome: " + outcome + (recorded == null ? ""
+				: outcome == recorded ? " (matches recording)" : " (recorded " + recorded + ")"));
+	}
+}
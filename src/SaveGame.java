@@ -0,0 +1,451 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import entities.GameFlag;
+import entities.GameFlagManager;
+import entities.GameUnit;
+import entities.GameUnitManager;
+import graphics.Point;
+import managers.CombatEffectManager;
+import managers.FogBitGrid;
+import managers.GameFogWar;
+import managers.GameTimer;
+import map.TileMap;
+import pathfinding.MovementController;
+import pathfinding.MovementPhysics;
+import pathfinding.PathNode;
+import utils.AtomicFiles;
+
+/**
+ * Binary save games holding the full state of a running match.
+ *
+ * The file is written in one pass into a buffer sized up front; loading maps
+ * the file and reads it in place. Saves are written with
+ * {@link AtomicFiles#writeAtomically}, so a crash while saving leaves the
+ * previous save intact.
+ *
+ * Layout (little-endian):
+ * - header: magic "SRTS", version, level, seed, tick, outcome, map width and height
+ * - timer: day, hour, start time, previous running time, started flag
+ * - random streams: spawn and effect stream states, serial of the next unit
+ * - spawn state and flags: per-faction flag counts, then x, y, health and
+ *   controlling faction of each flag
+ * - units: player and enemy counts, then one record per unit, including its
+ *   random stream state, followed by its path as tile coordinates
+ * - fog: the visited grid of the player and the enemy fog, as raw 64-bit words
+ *
+ * Current visibility is not saved; it is recomputed on the next tick. Random
+ * streams are saved exactly, so a loaded match draws the same numbers as the
+ * match it was saved from and continues the same way.
+ */
+public final class SaveGame {
+	private static final int MAGIC = 0x53545253; // "SRTS" read as a little-endian int
+	private static final int VERSION = 2;
+
+	private static final int HEADER_BYTES = 4 + 4 + 4 + 8 + 8 + 1 + 4 + 4;
+	private static final int TIMER_BYTES = 4 + 4 + 8 + 8 + 1;
+	private static final int RANDOM_BYTES = 8 * 3;
+	private static final int FLAG_BYTES = 4 * 4;
+	private static final int UNIT_BYTES = 4 * 5 + 1 + 4 * 4 + 8 * 2 + 1 + 8 * 7 + 4 * 3 + 8 + 4;
+
+	// Bits of the per-unit state byte
+	private static final int SELECTED = 1;
+	private static final int CLICKED_ON = 1 << 1;
+	private static final int ATTACKING = 1 << 2;
+	private static final int PATH_CREATED = 1 << 3;
+	private static final int MOVING = 1 << 4;
+
+	private SaveGame() {
+	}
+
+	/**
+	 * Writes the state of a match.
+	 *
+	 * @param simulation The match to save
+	 * @param level Level number the match is played on
+	 * @param path Target file, replaced when the save is complete
+	 * @throws IOException If the file could not be written
+	 */
+	public static void write(GameSimulation simulation, int level, Path path) throws IOException {
+		AtomicFiles.writeAtomically(path, encode(simulation, level));
+	}
+
+	/**
+	 * Reads the level number of a save, so the matching level can be set up
+	 * before calling {@link #load(Path, GameSimulation)}.
+	 *
+	 * @param path Save file
+	 * @return The level number
+	 * @throws IOException If the file could not be read
+	 */
+	public static int readLevel(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+					.order(ByteOrder.LITTLE_ENDIAN);
+			readHeader(buffer);
+			return buffer.getInt();
+		}
+	}
+
+	/**
+	 * Restores a saved match into a simulation set up for the same level.
+	 *
+	 * @param path Save file
+	 * @param simulation Simulation to restore into
+	 * @throws IOException If the file could not be read
+	 * @throws IllegalArgumentException If the file is not a valid save for the simulation's map
+	 */
+	public static void load(Path path, GameSimulation simulation) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			decode(mapped.order(ByteOrder.LITTLE_ENDIAN), simulation);
+		}
+	}
+
+	static ByteBuffer encode(GameSimulation simulation, int level) {
+		GameUnitManager unitManager = simulation.getUnitManager();
+		ArrayList<GameUnit> playerList = unitManager.getPlayerList();
+		ArrayList<GameUnit> enemyList = unitManager.getEnemyList();
+		List<GameFlag> flags = flagList(simulation.getFlagManager());
+		FogBitGrid playerVisited = simulation.getFogWar().getVisitedData();
+		FogBitGrid enemyVisited = simulation.getEnemyFogWar().getVisitedData();
+		TileMap map = simulation.getMap();
+
+		// Size the buffer exactly so the whole save is a single write
+		long size = HEADER_BYTES + TIMER_BYTES + RANDOM_BYTES + 1 + 4 * 3 + (long) flags.size() * FLAG_BYTES + 4 * 2
+				+ unitBytes(playerList) + unitBytes(enemyList)
+				+ fogBytes(playerVisited) + fogBytes(enemyVisited);
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Match state too large to save: " + size + " bytes");
+		}
+		ByteBuffer buffer = ByteBuffer.allocateDirect((int) size).order(ByteOrder.LITTLE_ENDIAN);
+
+		// Header
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putInt(level);
+		buffer.putLong(simulation.getSeed());
+		buffer.putLong(simulation.getTickCount());
+		buffer.put((byte) simulation.getOutcome().ordinal());
+		buffer.putInt(map.getWidth());
+		buffer.putInt(map.getHeight());
+
+		// Timer
+		GameTimer timer = simulation.getGameTimer();
+		buffer.putInt(timer.getDay());
+		buffer.putInt(timer.getHour());
+		buffer.putLong(timer.getStartTime());
+		buffer.putLong(timer.getPrevRunningTime());
+		buffer.put((byte) (timer.isStarted() ? 1 : 0));
+
+		// Random streams
+		CombatEffectManager effectManager = simulation.getEffectManager();
+		buffer.putLong(unitManager.getSpawnRandom().getState());
+		buffer.putLong(effectManager != null ? effectManager.getRandom().getState() : 0L);
+		buffer.putLong(unitManager.getNextUnitSerial());
+
+		// Spawn state and flags
+		GameFlagManager flagManager = simulation.getFlagManager();
+		buffer.put((byte) (unitManager.isSpawned() ? 1 : 0));
+		buffer.putInt(flagManager.getNumFlagsPlayer());
+		buffer.putInt(flagManager.getNumFlagsEnemy());
+		buffer.putInt(flags.size());
+		for (GameFlag flag : flags) {
+			buffer.putInt(flag.getMapX());
+			buffer.putInt(flag.getMapY());
+			buffer.putInt(flag.getHealth());
+			buffer.putInt(flag.getControlFaction());
+		}
+
+		// Units
+		buffer.putInt(playerList.size());
+		buffer.putInt(enemyList.size());
+		for (GameUnit unit : playerList) {
+			writeUnit(buffer, unit);
+		}
+		for (GameUnit unit : enemyList) {
+			writeUnit(buffer, unit);
+		}
+
+		// Fog of war
+		writeFog(buffer, playerVisited);
+		writeFog(buffer, enemyVisited);
+
+		buffer.flip();
+		return buffer;
+	}
+
+	static void decode(ByteBuffer buffer, GameSimulation simulation) {
+		readHeader(buffer);
+		buffer.getInt(); // level, see readLevel
+		long seed = buffer.getLong();
+		long tickCount = buffer.getLong();
+		int outcomeOrdinal = buffer.get();
+		if (outcomeOrdinal < 0 || outcomeOrdinal >= GameSimulation.Outcome.values().length) {
+			throw new IllegalArgumentException("Invalid outcome in save game: " + outcomeOrdinal);
+		}
+		GameSimulation.Outcome outcome = GameSimulation.Outcome.values()[outcomeOrdinal];
+		int width = buffer.getInt();
+		int height = buffer.getInt();
+		TileMap map = simulation.getMap();
+		if (width != map.getWidth() || height != map.getHeight()) {
+			throw new IllegalArgumentException("Save is for a " + width + "x" + height + " map, not "
+					+ map.getWidth() + "x" + map.getHeight());
+		}
+
+		// Timer
+		require(buffer, TIMER_BYTES + RANDOM_BYTES + 1 + 4 * 3, "timer");
+		int day = buffer.getInt();
+		int hour = buffer.getInt();
+		long startTime = buffer.getLong();
+		long prevRunningTime = buffer.getLong();
+		boolean started = buffer.get() != 0;
+
+		// Random streams
+		long spawnRandomState = buffer.getLong();
+		long effectsRandomState = buffer.getLong();
+		long nextUnitSerial = buffer.getLong();
+
+		// Spawn state and flags
+		boolean spawned = buffer.get() != 0;
+		int numFlagsPlayer = buffer.getInt();
+		int numFlagsEnemy = buffer.getInt();
+		int flagCount = buffer.getInt();
+		requireEntries(buffer, flagCount, FLAG_BYTES, "flags");
+		ArrayList<GameFlag> flags = new ArrayList<>(flagCount);
+		for (int i = 0; i < flagCount; i++) {
+			GameFlag flag = new GameFlag(buffer.getInt(), buffer.getInt(), GameFlag.FACTION_NEUTRAL);
+			int health = buffer.getInt();
+			flag.restoreState(health, buffer.getInt());
+			flags.add(flag);
+		}
+
+		// Units
+		require(buffer, 4 * 2, "units");
+		int playerCount = buffer.getInt();
+		int enemyCount = buffer.getInt();
+		requireEntries(buffer, playerCount, UNIT_BYTES, "units");
+		requireEntries(buffer, enemyCount, UNIT_BYTES, "units");
+		require(buffer, ((long) playerCount + enemyCount) * UNIT_BYTES, "units");
+		ArrayList<GameUnit> units = new ArrayList<>(playerCount + enemyCount);
+		long[] unitRandomStates = new long[playerCount + enemyCount];
+		for (int i = 0; i < playerCount + enemyCount; i++) {
+			units.add(readUnit(buffer, unitRandomStates, i));
+		}
+
+		// Fog of war
+		FogBitGrid playerVisited = readFog(buffer, simulation.getFogWar());
+		FogBitGrid enemyVisited = readFog(buffer, simulation.getEnemyFogWar());
+
+		// Everything parsed, apply it to the simulation
+		simulation.getGameTimer().restore(day, hour, startTime, prevRunningTime, started);
+		simulation.getFlagManager().restoreFlags(flags, numFlagsPlayer, numFlagsEnemy);
+		restoreFog(simulation.getFogWar(), playerVisited);
+		restoreFog(simulation.getEnemyFogWar(), enemyVisited);
+		GameUnitManager unitManager = simulation.getUnitManager();
+		unitManager.setSpawned(spawned);
+		unitManager.clearUnits();
+		for (GameUnit unit : units) {
+			unitManager.addUnit(unit);
+		}
+		simulation.restore(seed, tickCount, outcome, nextUnitSerial);
+
+		// Streams last, so they continue exactly where the saved match stopped
+		unitManager.getSpawnRandom().setState(spawnRandomState);
+		if (simulation.getEffectManager() != null) {
+			simulation.getEffectManager().getRandom().setState(effectsRandomState);
+		}
+		for (int i = 0; i < units.size(); i++) {
+			units.get(i).getCombatSystem().getRandom().setState(unitRandomStates[i]);
+		}
+	}
+
+	private static void readHeader(ByteBuffer buffer) {
+		if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+			throw new IllegalArgumentException("Not a save game");
+		}
+		int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported save game version: " + version);
+		}
+	}
+
+	/**
+	 * Checks that a part of the save is not cut off.
+	 */
+	private static void require(ByteBuffer buffer, long bytes, String part) {
+		if (bytes > buffer.remaining()) {
+			throw new IllegalArgumentException("Save game truncated in " + part);
+		}
+	}
+
+	/**
+	 * Checks a count read from the save against the bytes its entries need.
+	 */
+	private static void requireEntries(ByteBuffer buffer, int count, int entryBytes, String part) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Invalid count of " + part + " in save game: " + count);
+		}
+		require(buffer, (long) count * entryBytes, part);
+	}
+
+	private static List<GameFlag> flagList(GameFlagManager flagManager) {
+		List<GameFlag> flags = new ArrayList<>();
+		Iterator<GameFlag> it = flagManager.getFlagList();
+		while (it.hasNext()) {
+			flags.add(it.next());
+		}
+		return flags;
+	}
+
+	private static long unitBytes(List<GameUnit> units) {
+		long bytes = 0;
+		for (GameUnit unit : units) {
+			ArrayList<PathNode> path = unit.getPath();
+			bytes += UNIT_BYTES + (path == null ? 0 : path.size() * 8L);
+		}
+		return bytes;
+	}
+
+	private static long fogBytes(FogBitGrid grid) {
+		return 4 * 2 + (long) grid.getWordsPerRow() * grid.getHeight() * 8;
+	}
+
+	private static void writeUnit(ByteBuffer buffer, GameUnit unit) {
+		MovementController movement = unit.getMovementController();
+		MovementPhysics physics = movement.getPhysics();
+		Point position = unit.getCurrentPosition();
+		Point destination = unit.getDestination();
+
+		buffer.putInt(unit.getClassType());
+		buffer.putInt(unit.getFactionId());
+		buffer.putInt(unit.getHealth());
+		buffer.putInt(unit.getDirection());
+		buffer.putInt(movement.getNodeCounter());
+		buffer.put((byte) (unit.isPlayerUnit() ? 1 : 0));
+		buffer.putInt(position.x);
+		buffer.putInt(position.y);
+		buffer.putInt(destination.x);
+		buffer.putInt(destination.y);
+		buffer.putDouble(unit.getRotationAngle());
+		buffer.putDouble(unit.getTargetRotationAngle());
+		buffer.put((byte) ((unit.isPlayerSelected() ? SELECTED : 0)
+				| (unit.isClickedOn() ? CLICKED_ON : 0)
+				| (unit.isAttacking() ? ATTACKING : 0)
+				| (movement.getIsPathCreated() ? PATH_CREATED : 0)
+				| (movement.getIsMoving() ? MOVING : 0)));
+		buffer.putDouble(physics.getCurrentX());
+		buffer.putDouble(physics.getCurrentY());
+		buffer.putDouble(physics.getVelocityX());
+		buffer.putDouble(physics.getVelocityY());
+		buffer.putDouble(physics.getMaxVelocity());
+		buffer.putDouble(physics.getMaxForce());
+		buffer.putDouble(physics.getMass());
+		buffer.putInt(movement.getCurrentMapEndX());
+		buffer.putInt(movement.getCurrentMapEndY());
+		buffer.putInt(movement.getFailureTimer());
+		buffer.putLong(unit.getCombatSystem().getRandom().getState());
+
+		ArrayList<PathNode> path = movement.getPath();
+		buffer.putInt(path == null ? -1 : path.size());
+		if (path != null) {
+			for (PathNode node : path) {
+				buffer.putInt(node.getX());
+				buffer.putInt(node.getY());
+			}
+		}
+	}
+
+	/**
+	 * Reads one unit. Its random stream state goes to randomStates[index], to be
+	 * set once the unit has been given its stream.
+	 */
+	private static GameUnit readUnit(ByteBuffer buffer, long[] randomStates, int index) {
+		require(buffer, UNIT_BYTES, "units");
+		int classType = buffer.getInt();
+		int factionId = buffer.getInt();
+		int health = buffer.getInt();
+		int direction = buffer.getInt();
+		int nodeCounter = buffer.getInt();
+		boolean isPlayerUnit = buffer.get() != 0;
+		Point position = new Point(buffer.getInt(), buffer.getInt());
+		Point destination = new Point(buffer.getInt(), buffer.getInt());
+		double rotation = buffer.getDouble();
+		double targetRotation = buffer.getDouble();
+		int state = buffer.get();
+
+		GameUnit unit = new GameUnit(position.x, position.y, isPlayerUnit, classType);
+		unit.setFactionId(factionId);
+		unit.setHealth(health);
+		unit.setDirection(direction);
+		unit.setDestination(destination);
+		unit.setRotationAngle(rotation);
+		unit.setTargetRotationAngle(targetRotation);
+		unit.setPlayerSelected((state & SELECTED) != 0);
+		unit.setClickedOn((state & CLICKED_ON) != 0);
+		unit.setAttacking((state & ATTACKING) != 0);
+
+		MovementController movement = unit.getMovementController();
+		MovementPhysics physics = movement.getPhysics();
+		physics.setPosition(buffer.getDouble(), buffer.getDouble());
+		physics.setVelocity(buffer.getDouble(), buffer.getDouble());
+		physics.setPhysicsProperties(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+		movement.setCurrentMapEnd(buffer.getInt(), buffer.getInt());
+		int failureTimer = buffer.getInt();
+		randomStates[index] = buffer.getLong();
+
+		int pathLength = buffer.getInt();
+		if (pathLength < -1) {
+			throw new IllegalArgumentException("Invalid path length in save game: " + pathLength);
+		}
+		require(buffer, pathLength * 8L, "unit paths");
+		ArrayList<PathNode> path = null;
+		if (pathLength >= 0) {
+			path = new ArrayList<>(pathLength);
+			for (int i = 0; i < pathLength; i++) {
+				path.add(new PathNode(buffer.getInt(), buffer.getInt(), 0, 0, null));
+			}
+		}
+		movement.restoreState(path, nodeCounter, (state & PATH_CREATED) != 0, (state & MOVING) != 0, failureTimer);
+		return unit;
+	}
+
+	private static void writeFog(ByteBuffer buffer, FogBitGrid visited) {
+		buffer.putInt(visited.getWidth());
+		buffer.putInt(visited.getHeight());
+		LongBuffer words = buffer.asLongBuffer();
+		visited.writeTo(words);
+		buffer.position(buffer.position() + words.position() * 8);
+	}
+
+	private static FogBitGrid readFog(ByteBuffer buffer, GameFogWar fogWar) {
+		require(buffer, 4 * 2, "fog of war");
+		int width = buffer.getInt();
+		int height = buffer.getInt();
+		FogBitGrid current = fogWar.getVisitedData();
+		if (width != current.getWidth() || height != current.getHeight()) {
+			throw new IllegalArgumentException("Saved fog of war does not match the map size");
+		}
+		FogBitGrid visited = new FogBitGrid(width, height);
+		require(buffer, (long) visited.getWordsPerRow() * height * 8, "fog of war");
+		LongBuffer words = buffer.asLongBuffer();
+		visited.readFrom(words);
+		buffer.position(buffer.position() + words.position() * 8);
+		return visited;
+	}
+
+	private static void restoreFog(GameFogWar fogWar, FogBitGrid visited) {
+		// Drop current visibility; it is recomputed from the restored units
+		fogWar.reset(visited.getHeight(), visited.getWidth());
+		fogWar.getVisitedData().copyFrom(visited);
+	}
+}
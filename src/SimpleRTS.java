@@ -13,18 +13,16 @@ import utils.Constants;
  */
 
 public class SimpleRTS extends JFrame implements MouseListenerRegistrar, Runnable {
-	// Backbuffer data
-	private Image offscreenImage;
-	private Graphics offscr;
-	private int width, height;
 	private static final int GAME_WIDTH = Constants.SCREEN_WIDTH;
 	private static final int GAME_HEIGHT = Constants.SCREEN_HEIGHT;
+	private static final long MAX_FRAME_NANOS = 250_000_000L;
 
 	// Game logic components (separated from UI)
 	private GameStateManager stateManager;
 	private MouseHandler mouseHandler;
 	private CameraManager cameraManager;
 	private ImageService imageService;
+	private RenderWorker renderWorker;
 
 	// UI components
 	private JPanel gamePanel;
@@ -41,12 +39,6 @@ public class SimpleRTS extends JFrame implements MouseListenerRegistrar, Runnabl
 		setLocationRelativeTo(null);
 		setMinimumSize(new Dimension(800, 600));
 
-		// Initialize backbuffer
-		width = GAME_WIDTH;
-		height = GAME_HEIGHT;
-		offscreenImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-		offscr = offscreenImage.getGraphics();
-
 		// Initialize game logic (separated from UI)
 		initializeGameLogic();
 
@@ -62,12 +54,20 @@ public class SimpleRTS extends JFrame implements MouseListenerRegistrar, Runnabl
 		// Initialize core services
 		PathResolver pathResolver = new PathResolver();
 		this.imageService = new ImageService(pathResolver);
-		imageService.loadImages();
+		// Only menu images are needed to show the window; tiles and unit
+		// sprites keep loading in the background until the first game starts
+		imageService.setBundlePath(AssetBundle.configuredPath());
+		imageService.startLoading();
+		imageService.awaitMenuImages();
 
 		// Initialize game managers
 		this.cameraManager = new CameraManager(this);
 		this.stateManager = new GameStateManager(this, cameraManager, imageService);
 		this.mouseHandler = new MouseHandler(this, stateManager, cameraManager);
+
+		// Frames are drawn off the UI thread; the panel only shows the latest one
+		this.renderWorker = new RenderWorker(stateManager, GAME_WIDTH, GAME_HEIGHT,
+				utils.GameConfig.getRenderBands(), () -> gamePanel.repaint());
 	}
 
 	private void createGamePanel() {
@@ -92,15 +92,11 @@ public class SimpleRTS extends JFrame implements MouseListenerRegistrar, Runnabl
 	}
 
 	private void renderGame(Graphics g) {
-		// Create graphics adapter
-		graphics.IGraphics ig = new graphics.AwtGraphicsAdapter(offscr);
-		
-		// Clear back buffer to black using abstraction
-		ig.clear(graphics.Color.BLACK);
-
-		// Render game state
-		stateManager.getCurrentState().run(ig);
-		stateManager.changeState();
+		// Latest frame finished by the render thread
+		BufferedImage frame = renderWorker.getFrame();
+		if (frame == null) {
+			return;
+		}
 
 		// Calculate scaling to fit the panel while maintaining aspect ratio
 		int panelWidth = getWidth();
@@ -118,7 +114,7 @@ public class SimpleRTS extends JFrame implements MouseListenerRegistrar, Runnabl
 		int y = (panelHeight - scaledHeight) / 2;
 
 		// Send back buffer to front buffer with scaling
-		g.drawImage(offscreenImage, x, y, scaledWidth, scaledHeight, this);
+		g.drawImage(frame, x, y, scaledWidth, scaledHeight, this);
 	}
 	
 
@@ -126,29 +122,40 @@ public class SimpleRTS extends JFrame implements MouseListenerRegistrar, Runnabl
 	// Game loop - separated from UI thread
 	@Override
 	public void run() {
+		final long tickNanos = GameSimulation.TICK_NANOS;
 		long lastTime = System.nanoTime();
+		long accumulator = 0;
 		long currentTime;
 		float deltaTime;
 
 		while (isRunning) {
 			currentTime = System.nanoTime();
-			deltaTime = (currentTime - lastTime) / 1_000_000_000.0f;
+			long elapsed = currentTime - lastTime;
 			lastTime = currentTime;
 
-			// Cap delta time to prevent large jumps
-			if (deltaTime > 0.1f) {
-				deltaTime = 0.1f;
+			// Cap elapsed time so a long stall does not trigger a burst of catch-up ticks
+			if (elapsed > MAX_FRAME_NANOS) {
+				elapsed = MAX_FRAME_NANOS;
 			}
+			deltaTime = elapsed / 1_000_000_000.0f;
+			accumulator += elapsed;
 
 			// Update game logic (separated from rendering)
 			updateGameLogic(deltaTime);
 
-			// Trigger UI update on UI thread
-			SwingUtilities.invokeLater(() -> gamePanel.repaint());
+			// Run as many fixed ticks as real time requires; slow frames are made
+			// up here instead of slowing the game down
+			while (accumulator >= tickNanos) {
+				stateManager.tick();
+				accumulator -= tickNanos;
+			}
+
+			// Draw the new state on the render thread, which repaints the panel when done
+			renderWorker.requestFrame();
 
 			try {
-				// Target 60 FPS
-				long sleepTime = 16 - (System.nanoTime() - currentTime) / 1_000_000;
+				// Sleep until the next tick is due
+				long sleepTime = (tickNanos - accumulator) / 1_000_000;
 				if (sleepTime > 0) {
 					Thread.sleep(sleepTime);
 				}
@@ -161,14 +168,12 @@ public class SimpleRTS extends JFrame implements MouseListenerRegistrar, Runnabl
 	private void updateGameLogic(float deltaTime) {
 		// Update camera
 		cameraManager.update(deltaTime);
-
-		// Game state updates happen in the render method
-		// This separation allows for future expansion of game logic
 	}
 
 	public void start() {
 		if (!isRunning) {
 			isRunning = true;
+			renderWorker.start();
 			gameThread = new Thread(this, "GameLoop-Thread");
 			gameThread.start();
 		}
@@ -183,6 +188,7 @@ public class SimpleRTS extends JFrame implements MouseListenerRegistrar, Runnabl
 				Thread.currentThread().interrupt();
 			}
 		}
+		renderWorker.stop();
 	}
 
 	// Input abstraction support
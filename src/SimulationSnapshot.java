@@ -0,0 +1,202 @@
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import entities.GameUnit;
+import entities.UnitSpatialIndex;
+import graphics.Point;
+import managers.EffectSnapshot;
+
+/**
+ * Immutable copy of the per-tick unit state the renderer needs.
+ *
+ * The game loop thread captures one snapshot after every simulation tick.
+ * The renderer keeps the last two and interpolates between them, so units move
+ * smoothly whether frames are drawn faster or slower than the tick rate.
+ * Values are stored as parallel arrays indexed by the unit's position in
+ * {@link #getUnits()}, and indexed by position so the renderer can look up
+ * just the units on screen. Combat effects are captured alongside, so the
+ * renderer does not read the live effect pools either.
+ */
+public final class SimulationSnapshot {
+	private final long tick;
+	private final long createdNanos;
+	private final GameUnit[] units;
+	private final int[] x;
+	private final int[] y;
+	private final double[] rotation;
+	private final int[] health;
+	private final Map<GameUnit, Integer> indexByUnit;
+	private final UnitSpatialIndex spatialIndex;
+	private final EffectSnapshot effects;
+
+	private SimulationSnapshot(long tick, long createdNanos, GameUnit[] units, EffectSnapshot effects) {
+		this.tick = tick;
+		this.createdNanos = createdNanos;
+		this.units = units;
+		this.effects = effects;
+		this.x = new int[units.length];
+		this.y = new int[units.length];
+		this.rotation = new double[units.length];
+		this.health = new int[units.length];
+		this.indexByUnit = new IdentityHashMap<>(units.length * 2);
+
+		for (int i = 0; i < units.length; i++) {
+			GameUnit unit = units[i];
+			Point position = unit.getCurrentPosition();
+			x[i] = position.x;
+			y[i] = position.y;
+			rotation[i] = unit.getRotationAngle();
+			health[i] = unit.getHealth();
+			indexByUnit.put(unit, i);
+		}
+		this.spatialIndex = new UnitSpatialIndex(x, y, units.length, UnitSpatialIndex.DEFAULT_CELL_TILES);
+	}
+
+	/**
+	 * Captures the state of all living units.
+	 *
+	 * @param tick Simulation tick the snapshot belongs to
+	 * @param playerUnits Player units
+	 * @param enemyUnits Enemy units
+	 * @return The snapshot
+	 */
+	public static SimulationSnapshot capture(long tick, List<GameUnit> playerUnits, List<GameUnit> enemyUnits) {
+		return capture(tick, playerUnits, enemyUnits, EffectSnapshot.EMPTY);
+	}
+
+	/**
+	 * Captures the state of all living units and the combat effects.
+	 *
+	 * @param tick Simulation tick the snapshot belongs to
+	 * @param playerUnits Player units
+	 * @param enemyUnits Enemy units
+	 * @param effects Effects captured on the same tick
+	 * @return The snapshot
+	 */
+	public static SimulationSnapshot capture(long tick, List<GameUnit> playerUnits, List<GameUnit> enemyUnits,
+			EffectSnapshot effects) {
+		GameUnit[] units = new GameUnit[playerUnits.size() + enemyUnits.size()];
+		int count = 0;
+		for (GameUnit unit : playerUnits) {
+			if (unit.isAlive()) {
+				units[count++] = unit;
+			}
+		}
+		for (GameUnit unit : enemyUnits) {
+			if (unit.isAlive()) {
+				units[count++] = unit;
+			}
+		}
+		if (count < units.length) {
+			units = Arrays.copyOf(units, count);
+		}
+		return new SimulationSnapshot(tick, System.nanoTime(), units, effects);
+	}
+
+	public long getTick() {
+		return tick;
+	}
+
+	public long getCreatedNanos() {
+		return createdNanos;
+	}
+
+	public int getUnitCount() {
+		return units.length;
+	}
+
+	/**
+	 * Gets the units in this snapshot. The array must not be modified.
+	 */
+	public GameUnit[] getUnits() {
+		return units;
+	}
+
+	/**
+	 * Gets the grid of unit positions; its indices are indices into this snapshot.
+	 */
+	public UnitSpatialIndex getSpatialIndex() {
+		return spatialIndex;
+	}
+
+	/**
+	 * Gets the combat effects of this tick.
+	 */
+	public EffectSnapshot getEffects() {
+		return effects;
+	}
+
+	/**
+	 * Gets the index of a unit in this snapshot.
+	 *
+	 * @param unit The unit
+	 * @return The index, or -1 if the unit is not part of the snapshot
+	 */
+	public int indexOf(GameUnit unit) {
+		Integer index = indexByUnit.get(unit);
+		return index == null ? -1 : index;
+	}
+
+	public int getX(int index) {
+		return x[index];
+	}
+
+	public int getY(int index) {
+		return y[index];
+	}
+
+	public double getRotation(int index) {
+		return rotation[index];
+	}
+
+	public int getHealth(int index) {
+		return health[index];
+	}
+
+	/**
+	 * Interpolates a unit's position between two snapshots.
+	 *
+	 * @param previous Older snapshot, may be null
+	 * @param current Newer snapshot
+	 * @param index Index of the unit in the current snapshot
+	 * @param alpha 0.0 for the previous tick, 1.0 for the current tick
+	 * @return The interpolated position
+	 */
+	public static Point interpolatePosition(SimulationSnapshot previous, SimulationSnapshot current, int index,
+			double alpha) {
+		int prevIndex = previous == null ? -1 : previous.indexOf(current.units[index]);
+		if (prevIndex < 0) {
+			return new Point(current.x[index], current.y[index]);
+		}
+		return new Point(
+			(int) Math.round(previous.x[prevIndex] + (current.x[index] - previous.x[prevIndex]) * alpha),
+			(int) Math.round(previous.y[prevIndex] + (current.y[index] - previous.y[prevIndex]) * alpha));
+	}
+
+	/**
+	 * Interpolates a unit's rotation between two snapshots along the shorter arc.
+	 *
+	 * @param previous Older snapshot, may be null
+	 * @param current Newer snapshot
+	 * @param index Index of the unit in the current snapshot
+	 * @param alpha 0.0 for the previous tick, 1.0 for the current tick
+	 * @return The interpolated angle in degrees, 0 to 360
+	 */
+	public static double interpolateRotation(SimulationSnapshot previous, SimulationSnapshot current, int index,
+			double alpha) {
+		int prevIndex = previous == null ? -1 : previous.indexOf(current.units[index]);
+		if (prevIndex < 0) {
+			return current.rotation[index];
+		}
+		double from = previous.rotation[prevIndex];
+		double delta = current.rotation[index] - from;
+		if (delta > 180) {
+			delta -= 360;
+		} else if (delta < -180) {
+			delta += 360;
+		}
+		return (from + delta * alpha + 360) % 360;
+	}
+}
@@ -0,0 +1,180 @@
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.stream.IntStream;
+
+import graphics.GameImage;
+import map.TileConverter;
+import utils.Constants;
+import utils.Logger;
+
+/**
+ * Pre-rotated unit sprites for every unit type, faction and lighting state.
+ *
+ * Built once at startup, in parallel, so drawing a unit is a plain blit of a
+ * frame looked up by integer index instead of rotating its sprite on the fly.
+ * Rotations are quantized to a fixed number of steps around the circle.
+ */
+public class SpriteAtlas {
+    public static final int DEFAULT_ROTATIONS = 72;
+
+    // Unit types indexed by class id, in the order of Constants.UNIT_ID_*
+    private static final int UNIT_TYPES = 3;
+    private static final String[][] TILE_NAMES = {
+        // { player, enemy }
+        { TileConverter.STR_UNIT_LIGHT_PLAYER, TileConverter.STR_UNIT_LIGHT_ENEMY },
+        { TileConverter.STR_UNIT_MEDIUM_PLAYER, TileConverter.STR_UNIT_MEDIUM_ENEMY },
+        { TileConverter.STR_UNIT_HEAVY_PLAYER, TileConverter.STR_UNIT_HEAVY_ENEMY }
+    };
+    // Sprite sheet frame used as the unrotated sprite:
+    // Frame 0 = North, Frame 1 = South, Frame 2 = East, Frame 3 = West
+    private static final int[] BASE_FRAMES = { 2, 0, 2 };
+
+    private final int rotations;
+    private final GameImage[] frames;
+    private final long buildMillis;
+    private final long memoryBytes;
+
+    private SpriteAtlas(int rotations, GameImage[] frames, long buildMillis, long memoryBytes) {
+        this.rotations = rotations;
+        this.frames = frames;
+        this.buildMillis = buildMillis;
+        this.memoryBytes = memoryBytes;
+    }
+
+    /**
+     * Renders every rotation of every unit sprite.
+     *
+     * @param imageService Source of the unit sprite sheets
+     * @param rotations Number of rotation steps around the circle
+     * @return The atlas
+     */
+    public static SpriteAtlas build(ImageService imageService, int rotations) {
+        long start = System.nanoTime();
+
+        // Unrotated sprites, indexed like the frames without the rotation
+        BufferedImage[] bases = new BufferedImage[UNIT_TYPES * 2 * 2];
+        for (int type = 0; type < UNIT_TYPES; type++) {
+            for (int enemy = 0; enemy < 2; enemy++) {
+                for (int night = 0; night < 2; night++) {
+                    BufferedImage sheet = (BufferedImage) imageService
+                            .getTileImage(TILE_NAMES[type][enemy], night == 1).getBackendImage();
+                    bases[variant(type, enemy == 0, night == 1)] = baseFrame(sheet, BASE_FRAMES[type]);
+                }
+            }
+        }
+
+        GameImage[] frames = new GameImage[bases.length * rotations];
+        IntStream.range(0, frames.length).parallel().forEach(i -> frames[i] =
+                new GameImage(rotate(bases[i / rotations], 360.0 * (i % rotations) / rotations)));
+
+        long memoryBytes = 0;
+        for (GameImage frame : frames) {
+            memoryBytes += (long) frame.getWidth() * frame.getHeight() * Integer.BYTES;
+        }
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        Logger.info("Sprite atlas: " + frames.length + " frames (" + rotations + " rotations) built in "
+                + buildMillis + " ms, " + memoryBytes / 1024 + " KB");
+        return new SpriteAtlas(rotations, frames, buildMillis, memoryBytes);
+    }
+
+    /**
+     * Wraps frames rendered earlier, e.g. read back from an asset bundle.
+     *
+     * @param rotations Number of rotation steps the frames were rendered with
+     * @param frames Frames in the order returned by {@link #getFrames()}
+     * @return The atlas
+     */
+    public static SpriteAtlas fromFrames(int rotations, GameImage[] frames) {
+        if (rotations <= 0 || frames.length != UNIT_TYPES * 2 * 2 * rotations) {
+            throw new IllegalArgumentException("Expected " + UNIT_TYPES * 2 * 2 * rotations + " frames for "
+                    + rotations + " rotations, got " + frames.length);
+        }
+        long memoryBytes = 0;
+        for (GameImage frame : frames) {
+            memoryBytes += (long) frame.getWidth() * frame.getHeight() * Integer.BYTES;
+        }
+        return new SpriteAtlas(rotations, frames.clone(), 0, memoryBytes);
+    }
+
+    /**
+     * Gets the frame closest to a rotation.
+     *
+     * @param classType Unit class, one of Constants.UNIT_ID_*
+     * @param isPlayerUnit Whether the unit belongs to the player
+     * @param night Whether to use the night variant
+     * @param rotation Rotation angle in degrees
+     * @return The rotated sprite
+     */
+    public GameImage getFrame(int classType, boolean isPlayerUnit, boolean night, double rotation) {
+        int step = Math.floorMod((int) Math.round(rotation * rotations / 360.0), rotations);
+        return frames[variant(typeIndex(classType), isPlayerUnit, night) * rotations + step];
+    }
+
+    public int getRotations() {
+        return rotations;
+    }
+
+    /**
+     * Gets a copy of all frames, grouped by unit variant and then by rotation.
+     */
+    public GameImage[] getFrames() {
+        return frames.clone();
+    }
+
+    public int getFrameCount() {
+        return frames.length;
+    }
+
+    public long getBuildMillis() {
+        return buildMillis;
+    }
+
+    /**
+     * Gets the size of the frame pixels, assuming 4 bytes per pixel.
+     */
+    public long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    private static int variant(int type, boolean isPlayerUnit, boolean night) {
+        return (type * 2 + (isPlayerUnit ? 0 : 1)) * 2 + (night ? 1 : 0);
+    }
+
+    private static int typeIndex(int classType) {
+        switch (classType) {
+            case Constants.UNIT_ID_MEDIUM:
+                return 1;
+            case Constants.UNIT_ID_HEAVY:
+                return 2;
+            default:
+                return 0;
+        }
+    }
+
+    private static BufferedImage baseFrame(BufferedImage sheet, int frame) {
+        int width = Math.min(Constants.TILE_WIDTH, sheet.getWidth());
+        int height = Math.min(Constants.TILE_HEIGHT, sheet.getHeight());
+        // Sheets without enough frames (e.g. the fallback image) use their first one
+        int x = (frame + 1) * Constants.TILE_WIDTH <= sheet.getWidth() ? frame * Constants.TILE_WIDTH : 0;
+        return sheet.getSubimage(x, 0, width, height);
+    }
+
+    private static BufferedImage rotate(BufferedImage original, double angle) {
+        int width = original.getWidth();
+        int height = original.getHeight();
+        BufferedImage rotated = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = rotated.createGraphics();
+
+        // Set rendering hints for better quality
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        // Rotate around center
+        g2d.rotate(Math.toRadians(angle), width / 2.0, height / 2.0);
+        g2d.drawImage(original, 0, 0, null);
+        g2d.dispose();
+        return rotated;
+    }
+}
@@ -1,180 +1,240 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
-import entities.GameFlag;
 import entities.GameUnit;
 import entities.GameUnitManager;
 import managers.CombatEffectManager;
+import managers.EffectSnapshot;
 import managers.GameFogWar;
-import managers.GameTimer;
-import graphics.Point;
 import input.GameMouseEvent;
-import utils.TileCoordinateConverter;
+import input.PlayerCommand;
+import input.ReplayLog;
+import graphics.Point;
+import map.ChunkedTileMap;
+import utils.Constants;
+import utils.GameConfig;
 import utils.Logger;
+import utils.TileCoordinateConverter;
 
 /**
  * Main game state that handles the game loop and input.
+ * The game rules live in {@link GameSimulation}; this state adds player
+ * selection, rendering and state transitions around it.
+ *
+ * {@link #update()} runs on the game loop thread at a fixed tick rate, while
+ * {@link #run(graphics.IGraphics)} only draws. Mouse commands are queued and
+ * applied at the start of the next tick, and units are drawn from the snapshots
+ * published after each tick.
+ *
+ * Selection changes and move orders are turned into {@link PlayerCommand}s so
+ * that, with replay recording enabled, the match can be played back headless.
+ * With autosave enabled the match is saved periodically for crash recovery.
+ * On maps read in chunks, chunks away from every unit and the camera are
+ * dropped periodically so memory stays bounded on very large maps.
  */
 public class StateGameMain extends StateMachine {
+	private static final int CHUNK_EVICT_TICKS = 5 * GameSimulation.TICKS_PER_SECOND;
+	// Units see and path around this far, so their surroundings stay loaded
+	private static final int CHUNK_KEEP_RADIUS = 2 * ChunkedTileMap.CHUNK_SIZE;
+
 	private final GameStateManager stateManager;
 	private final GameUnitManager unitManager;
-	private final GameFogWar fogWar;
 	private final GraphicsMain graphicsMain;
-	private final GameTimer gameTimer;
+	private final GameSimulation simulation;
+	private final Queue<GameMouseEvent> pendingInput = new ConcurrentLinkedQueue<>();
+	private final ReplayLog replayLog;
+	private final long autosaveTicks;
+
+	// { previous, current } snapshot, replaced as a whole after every tick
+	private volatile SimulationSnapshot[] snapshots = new SimulationSnapshot[2];
 
 	public StateGameMain(GameStateManager stateManager, GameUnitManager unitManager, GameFogWar fogWar,
-			GraphicsMain graphicsMain) {
+			GameFogWar enemyFogWar, GraphicsMain graphicsMain) {
 		this.stateManager = stateManager;
 		this.unitManager = unitManager;
-		this.fogWar = fogWar;
 		this.graphicsMain = graphicsMain;
-		this.gameTimer = new GameTimer(1, 0, stateManager.getFlagManager());
+		this.simulation = new GameSimulation(stateManager.getGameMap().getTileMap(), unitManager,
+				stateManager.getFlagManager(), fogWar, enemyFogWar, stateManager.getCombatEffectManager());
+		this.replayLog = GameConfig.isReplayRecordingEnabled()
+				? new ReplayLog(simulation.getSeed(), stateManager.getGameMap().getNumLevel())
+				: null;
+		this.autosaveTicks = (long) GameConfig.getAutosaveSeconds() * GameSimulation.TICKS_PER_SECOND;
 	}
 
 	@Override
-	public void run(graphics.IGraphics g) {
-		int[][] map = stateManager.getGameMap().getMapData();
-
-		// Initialize components if needed
-		initializeComponentsIfNeeded(map);
+	public void update() {
+		// Apply input received since the last tick
+		GameMouseEvent e;
+		while ((e = pendingInput.poll()) != null) {
+			applyMouseCommand(e);
+		}
 
-		// Render graphics
-		graphicsMain.drawGraphics(g, gameTimer, unitManager);
+		// Select player units from the current selection box
+		updatePlayerSelection();
 
-		// Handle flag spawning
-		handleFlagSpawning(map);
+		// Advance the game by one tick
+		simulation.step();
+		checkTerminatingConditions();
+		if (autosaveTicks > 0 && simulation.getTickCount() % autosaveTicks == 0
+				&& simulation.getOutcome() == GameSimulation.Outcome.RUNNING) {
+			saveGame(Paths.get("saves", "autosave.rtss"));
+		}
+		if (simulation.getTickCount() % CHUNK_EVICT_TICKS == 0
+				&& simulation.getMap() instanceof ChunkedTileMap) {
+			evictColdChunks((ChunkedTileMap) simulation.getMap());
+		}
 
-		// Run faction logic
-		runFaction(map, GameFlag.FACTION_PLAYER);
-		runFaction(map, GameFlag.FACTION_ENEMY);
+		// Publish the new state for rendering
+		CombatEffectManager effects = simulation.getEffectManager();
+		SimulationSnapshot latest = SimulationSnapshot.capture(simulation.getTickCount(),
+				unitManager.getPlayerList(), unitManager.getEnemyList(),
+				effects != null ? effects.snapshot() : EffectSnapshot.EMPTY);
+		snapshots = new SimulationSnapshot[] { snapshots[1], latest };
+	}
 
-		// Update game timer
-		gameTimer.update();
+	@Override
+	public void run(graphics.IGraphics g) {
+		// Render graphics
+		SimulationSnapshot[] pair = snapshots;
+		graphicsMain.setSnapshots(pair[0], pair[1]);
+		graphicsMain.drawGraphics(g, simulation.getGameTimer(), unitManager);
 	}
 
-	private void initializeComponentsIfNeeded(int[][] map) {
-		if (fogWar == null || graphicsMain == null) {
-			// This should ideally be handled in the constructor, but keeping for compatibility
-		}
+	public GameSimulation getSimulation() {
+		return simulation;
 	}
 
-	private void handleFlagSpawning(int[][] map) {
-		Iterator<GameFlag> itrFlag = stateManager.getFlagManager().getFlagList();
-		while (itrFlag.hasNext()) {
-			GameFlag flag = itrFlag.next();
+	/**
+	 * Gets the replay being recorded, or null if recording is disabled.
+	 */
+	public ReplayLog getReplayLog() {
+		return replayLog;
+	}
 
-			// Spawn units at 12:00 hours
-			if (gameTimer.getHour() == GameTimer.SPAWN_HOUR && !unitManager.isSpawned()) {
-				unitManager.spawnUnitsNearFlag(map, flag);
-			}
+	/**
+	 * Gets the enemy faction's fog of war, updated every tick.
+	 */
+	public GameFogWar getEnemyFogWar() {
+		return simulation.getEnemyFogWar();
+	}
 
-			flag.runLogic();
+	/**
+	 * Drops the map chunks far from every unit and the camera center.
+	 */
+	private void evictColdChunks(ChunkedTileMap map) {
+		List<Point> hotTiles = new ArrayList<>();
+		for (GameUnit unit : unitManager.getPlayerList()) {
+			hotTiles.add(TileCoordinateConverter.screenToMap(unit.getCurrentPosition()));
+		}
+		for (GameUnit unit : unitManager.getEnemyList()) {
+			hotTiles.add(TileCoordinateConverter.screenToMap(unit.getCurrentPosition()));
+		}
+		hotTiles.add(TileCoordinateConverter.screenToMap(graphicsMain.getCameraX() + Constants.SCREEN_WIDTH / 2,
+				graphicsMain.getCameraY() + Constants.SCREEN_HEIGHT / 2));
+		int evicted = map.evictColdChunks(hotTiles, CHUNK_KEEP_RADIUS);
+		if (evicted > 0) {
+			Logger.debug("Evicted " + evicted + " map chunks, " + map.getLoadedChunkCount() + " still loaded");
 		}
-
-		// Update spawn state
-		unitManager.updateSpawnState(gameTimer.getHour());
-		
-		// Update combat effects
-		stateManager.getCombatEffectManager().update();
 	}
 
-
-
-	private void runFaction(int[][] map, int factionId) {
-		ArrayList<GameUnit> unitList = unitManager.getUnitList(factionId);
-
-		// Update group destinations to handle collisions (runs once per faction)
-		unitManager.updateGroupDestinations(map);
-
-		// Loop through all units
-		for (int i = 0; i < unitList.size(); i++) {
-			GameUnit unit = unitList.get(i);
-
-			if (factionId == GameFlag.FACTION_PLAYER) {
-				runPlayerLogic(map, unit);
-			} else if (factionId == GameFlag.FACTION_ENEMY) {
-				runEnemyLogic(map, unit);
-			}
-
-			// Determine whether the unit is near the flag
-			stateManager.checkFlagStates(unit, factionId);
-
-			// Remove dead units
-			if (!unit.isAlive()) {
-				unitManager.removeDeadUnits(unitList, i);
+	private void updatePlayerSelection() {
+		ArrayList<GameUnit> playerList = unitManager.getPlayerList();
+		int[] selected = new int[playerList.size()];
+		int count = 0;
+		for (int i = 0; i < playerList.size(); i++) {
+			GameUnit playerUnit = playerList.get(i);
+			if (stateManager.getSelectionManager().isPlayerSelect(
+					playerUnit.getCurrentPosition(),
+					playerUnit.isClickedOn(),
+					graphicsMain.getCameraX(),
+					graphicsMain.getCameraY())) {
+				selected[count++] = i;
 			}
 		}
 
-		// Check terminating conditions
-		checkTerminatingConditions(factionId);
+		// Only issue a command when the selection actually changes
+		selected = Arrays.copyOf(selected, count);
+		if (!Arrays.equals(selected, simulation.getSelectedUnitIndices())) {
+			issueCommand(PlayerCommand.select(simulation.getTickCount(), selected));
+		}
 	}
 
-	private void runPlayerLogic(int[][] map, GameUnit playerUnit) {
-		// Select and move units
-		playerUnit.setPlayerSelected(stateManager.getSelectionManager().isPlayerSelect(
-			playerUnit.getCurrentPosition(), 
-			playerUnit.isClickedOn(),
-			graphicsMain.getCameraX(), 
-			graphicsMain.getCameraY()
-		));
+	private void checkTerminatingConditions() {
+		if (simulation.getOutcome() == GameSimulation.Outcome.PLAYER_LOST) {
+			endLevel(GameState.STATE_GAMEOVER); // Player loses all flags
+		} else if (simulation.getOutcome() == GameSimulation.Outcome.PLAYER_WON) {
+			endLevel(GameState.STATE_NEXTLVL); // Enemy loses all flags
+		}
+	}
 
-		playerUnit.findPath(map);
-		
-		// Update pathfinding failure timer
-		playerUnit.updatePathfindingFailureTimer();
+	private void endLevel(GameState newState) {
+		if (replayLog != null) {
+			replayLog.add(PlayerCommand.stateChange(simulation.getTickCount(), newState.ordinal()));
+			saveReplay();
+		}
+		stateManager.setNewState(newState);
+	}
 
-		// Handle battles using GameUnitManager
-		unitManager.handleUnitInteractions(map);
-		
-		// Handle combat effects
-		handleCombatEffects(playerUnit);
+	private void issueCommand(PlayerCommand command) {
+		simulation.applyCommand(command);
+		if (replayLog != null) {
+			replayLog.add(command);
+		}
 	}
 
-	private void runEnemyLogic(int[][] map, GameUnit enemyUnit) {
-		// Send enemy units to attack the flag every day at around 06:00 hours
-		if (gameTimer.isEnemyAttackTime()) {
-			GameFlag playerFlag = stateManager.getFlagManager().getPlayerFlag();
-			if (playerFlag == null) {
-				Logger.warn("No player flag found!");
-				return;
+	/**
+	 * Saves the match. Runs on the game loop thread between ticks.
+	 *
+	 * @param file Target file
+	 */
+	public void saveGame(Path file) {
+		try {
+			long start = System.nanoTime();
+			if (file.getParent() != null) {
+				Files.createDirectories(file.getParent());
 			}
-			enemyUnit.setDestination(new Point(
-				TileCoordinateConverter.mapToScreen(playerFlag.getMapX() - 1, playerFlag.getMapY()).x,
-				TileCoordinateConverter.mapToScreen(playerFlag.getMapX() - 1, playerFlag.getMapY()).y
-			));
-			enemyUnit.startMoving();
+			SaveGame.write(simulation, stateManager.getGameMap().getNumLevel(), file);
+			Logger.debug("Saved game to " + file + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+		} catch (IOException ex) {
+			Logger.error("Failed to save game: " + ex.getMessage());
 		}
-
-		// Follow the path towards the flag
-		enemyUnit.findPath(map);
-		
-		// Update pathfinding failure timer
-		enemyUnit.updatePathfindingFailureTimer();
-		
-		// Handle combat effects
-		handleCombatEffects(enemyUnit);
 	}
 
-	private void checkTerminatingConditions(int factionId) {
-		if (stateManager.isFlagsListEmpty(factionId)) {
-			if (factionId == GameFlag.FACTION_PLAYER) {
-				stateManager.setNewState(GameState.STATE_GAMEOVER); // Player loses all flags
-			} else if (factionId == GameFlag.FACTION_ENEMY) {
-				stateManager.setNewState(GameState.STATE_NEXTLVL); // Enemy loses all flags
-			}
+	private void saveReplay() {
+		try {
+			Path dir = Paths.get("replays");
+			Files.createDirectories(dir);
+			Path file = dir.resolve("level" + replayLog.getLevel() + "-" + System.currentTimeMillis() + ".rtsr");
+			replayLog.write(file);
+			Logger.info("Replay saved to " + file + " (" + replayLog.getCommandCount() + " commands, "
+					+ replayLog.getSizeInBytes() + " bytes)");
+		} catch (IOException ex) {
+			Logger.error("Failed to save replay: " + ex.getMessage());
 		}
 	}
 
 	@Override
 	public void handleMouseCommand(GameMouseEvent e) {
+		pendingInput.add(e);
+	}
+
+	private void applyMouseCommand(GameMouseEvent e) {
+		// Right mouse click orders the selected units to the clicked position
+		if (isRightClick(e) && e.getType() == Constants.MOUSE_PRESSED && hasSelectedUnits()) {
+			issueCommand(PlayerCommand.move(simulation.getTickCount(),
+				e.getX() + graphicsMain.getCameraX(), e.getY() + graphicsMain.getCameraY()));
+		}
+
 		for (int i = 0; i < unitManager.getPlayerList().size(); i++) {
 			GameUnit player = unitManager.getPlayerList().get(i);
 
-			// Right mouse click dictates player position
-			if (isRightClick(e) && player.isPlayerSelected()) {
-				unitManager.handleUnitMovement(e, graphicsMain.getCameraX(), graphicsMain.getCameraY());
-			}
-
 			// Update unit selection state
 			player.setClickedOn(stateManager.getSelectionManager().isClickOnUnit(
 				e, 
@@ -185,45 +245,16 @@ public class StateGameMain extends StateMachine {
 		}
 	}
 
+	private boolean hasSelectedUnits() {
+		for (GameUnit player : unitManager.getPlayerList()) {
+			if (player.isPlayerSelected()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private boolean isRightClick(GameMouseEvent e) {
 		return e.button == 3; // Right mouse button
 	}
-	
-	/**
-	 * Handles combat effects for a unit including damage numbers, attack animations,
-	 * death animations, and particles.
-	 */
-	private void handleCombatEffects(GameUnit unit) {
-		CombatEffectManager effectManager = stateManager.getCombatEffectManager();
-		
-		// Create attack animation if unit is attacking
-		if (unit.isAttacking()) {
-			effectManager.createAttackAnimation(unit);
-			
-			// Create combat particles
-			effectManager.createCombatParticles(unit.getCurrentPosition(), 5);
-		}
-		
-		// Temporarily disable all damage numbers to reduce distraction
-		// if (unit.getLastDamageDealt() > 0) {
-		// 	if (unit.wasLastHitCritical()) {
-		// 		effectManager.createDamageNumber(
-		// 			unit.getCurrentPosition(), 
-		// 			unit.getLastDamageDealt(), 
-		// 			unit.wasLastHitCritical()
-		// 		);
-		// 	}
-		// 	unit.clearCombatEffects();
-		// }
-		
-		// Clear combat effects without showing damage numbers
-		if (unit.getLastDamageDealt() > 0) {
-			unit.clearCombatEffects();
-		}
-		
-		// Create death animation if unit just died
-		if (!unit.isAlive()) {
-			effectManager.createDeathAnimation(unit);
-		}
-	}
 }
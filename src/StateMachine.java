@@ -5,6 +5,13 @@ import ui.UIComponent;
 public abstract class StateMachine {
 	public abstract void run(IGraphics g);
 
+	/**
+	 * Advances the state by one fixed simulation tick. Called on the game loop
+	 * thread; states without simulation logic do nothing.
+	 */
+	public void update() {
+	}
+
 	public abstract void handleMouseCommand(GameMouseEvent e);
 
 	public UIComponent getRoot() { return null; }
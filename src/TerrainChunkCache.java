@@ -0,0 +1,198 @@
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import graphics.GameImage;
+import graphics.IGraphics;
+import map.ArrayTileNames;
+import map.TileNames;
+import utils.Constants;
+
+/**
+ * Prerendered terrain, split into square chunks of tiles.
+ *
+ * Terrain does not change during play, so instead of drawing every tile each
+ * frame, each chunk is drawn once into an image (separately for day and night)
+ * and the frame only blits the chunks that overlap the viewport. Chunks are
+ * built on first use and the least recently drawn ones are dropped once more
+ * than a few screens' worth are cached, so memory stays bounded on large maps.
+ */
+public class TerrainChunkCache {
+	public static final int DEFAULT_CHUNK_TILES = 8;
+
+	private final ImageService imageService;
+	private final int chunkTiles;
+	private final int chunkWidth;
+	private final int chunkHeight;
+	private final int maxChunks;
+
+	// Chunk images by key, in least recently drawn order
+	private final LinkedHashMap<Long, GameImage> chunks = new LinkedHashMap<>(64, 0.75f, true);
+	private Object boundData;
+	private int chunksBuilt = 0;
+
+	public TerrainChunkCache(ImageService imageService) {
+		this(imageService, DEFAULT_CHUNK_TILES);
+	}
+
+	/**
+	 * @param imageService Source of the tile images
+	 * @param chunkTiles Width and height of a chunk in tiles
+	 */
+	public TerrainChunkCache(ImageService imageService, int chunkTiles) {
+		this.imageService = imageService;
+		this.chunkTiles = chunkTiles;
+		this.chunkWidth = chunkTiles * Constants.TILE_WIDTH;
+		this.chunkHeight = chunkTiles * Constants.TILE_HEIGHT;
+
+		// Room for the chunks of two screens, for both day and night
+		int screenChunks = (Constants.SCREEN_WIDTH / chunkWidth + 2) * (Constants.SCREEN_HEIGHT / chunkHeight + 2);
+		this.maxChunks = screenChunks * 2 * 2;
+	}
+
+	/**
+	 * Draws the terrain visible in a viewport.
+	 *
+	 * @param g Graphics to draw on
+	 * @param drawData Tile names of the map
+	 * @param night Whether to draw the night variant
+	 * @param cameraX World x of the viewport's left edge
+	 * @param cameraY World y of the viewport's top edge
+	 * @param viewWidth Viewport width in pixels
+	 * @param viewHeight Viewport height in pixels
+	 */
+	public void render(IGraphics g, String[][] drawData, boolean night, int cameraX, int cameraY, int viewWidth,
+			int viewHeight) {
+		render(g, new ArrayTileNames(drawData), night, cameraX, cameraY, viewWidth, viewHeight);
+	}
+
+	/**
+	 * Draws the terrain visible in a viewport.
+	 *
+	 * @param g Graphics to draw on
+	 * @param tileNames Tile names of the map
+	 * @param night Whether to draw the night variant
+	 * @param cameraX World x of the viewport's left edge
+	 * @param cameraY World y of the viewport's top edge
+	 * @param viewWidth Viewport width in pixels
+	 * @param viewHeight Viewport height in pixels
+	 */
+	public void render(IGraphics g, TileNames tileNames, boolean night, int cameraX, int cameraY, int viewWidth,
+			int viewHeight) {
+		// Adapters are made per call, so an array map is recognised by its array
+		Object data = tileNames instanceof ArrayTileNames ? ((ArrayTileNames) tileNames).getNames() : tileNames;
+		if (data != boundData) {
+			// A different map, e.g. the next level
+			chunks.clear();
+			boundData = data;
+		}
+		if (tileNames.getHeight() == 0) {
+			return;
+		}
+
+		int rows = tileNames.getHeight();
+		int cols = tileNames.getWidth();
+		int firstX = Math.max(0, Math.floorDiv(cameraX, chunkWidth));
+		int firstY = Math.max(0, Math.floorDiv(cameraY, chunkHeight));
+		int lastX = Math.min((cols - 1) / chunkTiles, Math.floorDiv(cameraX + viewWidth - 1, chunkWidth));
+		int lastY = Math.min((rows - 1) / chunkTiles, Math.floorDiv(cameraY + viewHeight - 1, chunkHeight));
+
+		for (int cy = firstY; cy <= lastY; cy++) {
+			for (int cx = firstX; cx <= lastX; cx++) {
+				GameImage chunk = getChunk(tileNames, cx, cy, night);
+				g.drawImage(chunk, cx * chunkWidth - cameraX, cy * chunkHeight - cameraY,
+						chunk.getWidth(), chunk.getHeight());
+			}
+		}
+	}
+
+	/**
+	 * Marks the chunk containing a tile for rebuilding, in both variants.
+	 *
+	 * @param x Tile x
+	 * @param y Tile y
+	 */
+	public void invalidateTile(int x, int y) {
+		chunks.remove(key(x / chunkTiles, y / chunkTiles, false));
+		chunks.remove(key(x / chunkTiles, y / chunkTiles, true));
+	}
+
+	/**
+	 * Drops every prerendered chunk.
+	 */
+	public void invalidateAll() {
+		chunks.clear();
+	}
+
+	public int getCachedChunkCount() {
+		return chunks.size();
+	}
+
+	/**
+	 * Gets the number of chunk images rendered so far, for diagnostics.
+	 */
+	public int getChunksBuilt() {
+		return chunksBuilt;
+	}
+
+	private GameImage getChunk(TileNames tileNames, int cx, int cy, boolean night) {
+		long key = key(cx, cy, night);
+		GameImage chunk = chunks.get(key);
+		if (chunk == null) {
+			chunk = buildChunk(tileNames, cx, cy, night);
+			chunks.put(key, chunk);
+			evictLeastRecentlyUsed();
+		}
+		return chunk;
+	}
+
+	private GameImage buildChunk(TileNames tileNames, int cx, int cy, boolean night) {
+		int x0 = cx * chunkTiles;
+		int y0 = cy * chunkTiles;
+		int tilesX = Math.min(chunkTiles, tileNames.getWidth() - x0);
+		int tilesY = Math.min(chunkTiles, tileNames.getHeight() - y0);
+
+		BufferedImage image = createImage(tilesX * Constants.TILE_WIDTH, tilesY * Constants.TILE_HEIGHT);
+		Graphics2D g2d = image.createGraphics();
+		try {
+			for (int y = 0; y < tilesY; y++) {
+				for (int x = 0; x < tilesX; x++) {
+					String key = GraphicsMain.getTileImageKey(tileNames.getName(x0 + x, y0 + y));
+					Image tile = (Image) imageService.getTileImage(key, night).getBackendImage();
+					g2d.drawImage(tile, x * Constants.TILE_WIDTH, y * Constants.TILE_HEIGHT,
+							Constants.TILE_WIDTH, Constants.TILE_HEIGHT, null);
+				}
+			}
+		} finally {
+			g2d.dispose();
+		}
+		chunksBuilt++;
+		return new GameImage(image);
+	}
+
+	private static BufferedImage createImage(int width, int height) {
+		if (GraphicsEnvironment.isHeadless()) {
+			return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		}
+		// Match the screen's pixel format so blits can be accelerated
+		return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+				.getDefaultConfiguration().createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+	}
+
+	private void evictLeastRecentlyUsed() {
+		Iterator<Map.Entry<Long, GameImage>> it = chunks.entrySet().iterator();
+		while (chunks.size() > maxChunks && it.hasNext()) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	private static long key(int cx, int cy, boolean night) {
+		return ((long) cy << 32) | ((long) cx << 1) | (night ? 1 : 0);
+	}
+}
@@ -0,0 +1,128 @@
+package entities;
+
+import java.util.List;
+
+/**
+ * Tile to flag lookup for capture zones.
+ *
+ * Built once from the flag list, it stores for every tile inside the bounding box
+ * of all capture zones the ids (indices into the flag list) of the flags whose
+ * zone covers that tile, in compressed sparse row form. A tile is inside a zone
+ * when dx * dx + dy * dy <= FLAG_RADIUS * FLAG_RADIUS, which matches the circular
+ * zone used by {@link GameFlag#shiftToFaction} without any floating point.
+ */
+public class FlagZoneIndex {
+    private static final int[] NO_FLAGS = new int[0];
+
+    private final int originX;
+    private final int originY;
+    private final int width;
+    private final int height;
+    // Flags covering tile i are flagIds[offsets[i] .. offsets[i + 1])
+    private final int[] offsets;
+    private final int[] flagIds;
+
+    public FlagZoneIndex(List<GameFlag> flags, int radius) {
+        if (flags.isEmpty()) {
+            originX = 0;
+            originY = 0;
+            width = 0;
+            height = 0;
+            offsets = new int[1];
+            flagIds = NO_FLAGS;
+            return;
+        }
+
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (GameFlag flag : flags) {
+            minX = Math.min(minX, flag.getMapX() - radius);
+            minY = Math.min(minY, flag.getMapY() - radius);
+            maxX = Math.max(maxX, flag.getMapX() + radius);
+            maxY = Math.max(maxY, flag.getMapY() + radius);
+        }
+        originX = minX;
+        originY = minY;
+        width = maxX - minX + 1;
+        height = maxY - minY + 1;
+        offsets = new int[width * height + 1];
+
+        int radiusSquared = radius * radius;
+
+        // First pass: count the flags covering each tile
+        for (GameFlag flag : flags) {
+            for (int dy = -radius; dy <= radius; dy++) {
+                for (int dx = -radius; dx <= radius; dx++) {
+                    if (dx * dx + dy * dy <= radiusSquared) {
+                        offsets[cellIndex(flag.getMapX() + dx, flag.getMapY() + dy) + 1]++;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < width * height; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        // Second pass: fill in the flag ids
+        flagIds = new int[offsets[width * height]];
+        int[] fill = new int[width * height];
+        for (int id = 0; id < flags.size(); id++) {
+            GameFlag flag = flags.get(id);
+            for (int dy = -radius; dy <= radius; dy++) {
+                for (int dx = -radius; dx <= radius; dx++) {
+                    if (dx * dx + dy * dy <= radiusSquared) {
+                        int cell = cellIndex(flag.getMapX() + dx, flag.getMapY() + dy);
+                        flagIds[offsets[cell] + fill[cell]++] = id;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the position in {@link #getFlagIds()} of the first flag covering a tile.
+     * Tiles outside every zone return the same value as {@link #getEnd(int, int)}.
+     */
+    public int getStart(int x, int y) {
+        int cell = lookupCell(x, y);
+        return cell < 0 ? 0 : offsets[cell];
+    }
+
+    /**
+     * Gets the position in {@link #getFlagIds()} just past the last flag covering a tile.
+     */
+    public int getEnd(int x, int y) {
+        int cell = lookupCell(x, y);
+        return cell < 0 ? 0 : offsets[cell + 1];
+    }
+
+    public int[] getFlagIds() {
+        return flagIds;
+    }
+
+    /**
+     * Counts the flags whose capture zone covers a tile.
+     *
+     * @param x Tile x
+     * @param y Tile y
+     * @return Number of covering flags
+     */
+    public int countFlagsAt(int x, int y) {
+        return getEnd(x, y) - getStart(x, y);
+    }
+
+    private int lookupCell(int x, int y) {
+        int localX = x - originX;
+        int localY = y - originY;
+        if (localX < 0 || localX >= width || localY < 0 || localY >= height) {
+            return -1;
+        }
+        return localY * width + localX;
+    }
+
+    private int cellIndex(int x, int y) {
+        return (y - originY) * width + (x - originX);
+    }
+}
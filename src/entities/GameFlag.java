@@ -69,6 +69,17 @@ public class GameFlag {
         return health;
     }
 
+    /**
+     * Restores capture state, e.g. from a save game.
+     *
+     * @param health Capture progress, -100 to 100
+     * @param controlFaction Controlling faction
+     */
+    public void restoreState(int health, int controlFaction) {
+        this.health = health;
+        this.controlFaction = controlFaction;
+    }
+
     public Color getFlagColor() {
         return flagColor;
     }
@@ -83,26 +94,37 @@ public class GameFlag {
 
     public void shiftToFaction(int unitX, int unitY, int factionId) {
         // Use Euclidean distance for circular capture zone instead of Manhattan
-        // distance
-        double distance = Math.sqrt(Math.pow(unitX - this.mapX, 2) + Math.pow(unitY - this.mapY, 2));
+        // distance (compared squared so no floating point is needed)
+        int dx = unitX - this.mapX;
+        int dy = unitY - this.mapY;
 
-        if (distance <= FLAG_RADIUS) {
+        if (dx * dx + dy * dy <= FLAG_RADIUS * FLAG_RADIUS) {
             // Adjust the health based on the faction's proximity
-            health += (factionId * 2);
-
-            // Ensure the health stays within bounds (-100 to 100)
-            if (health > 100) {
-                health = 100; // Cap health at 100 for player control
-            } else if (health < -100) {
-                health = -100; // Cap health at -100 for enemy control
-            }
-
-            // After adjusting health, call handleControl to check and update the faction
-            // control
-            handleControl();
+            applyCapturePressure(factionId * 2);
         }
     }
 
+    /**
+     * Applies the combined capture pressure of all units inside the zone.
+     * Positive values push towards player control, negative towards enemy control.
+     *
+     * @param pressure Sum of factionId * 2 over the units in the zone
+     */
+    public void applyCapturePressure(int pressure) {
+        health += pressure;
+
+        // Ensure the health stays within bounds (-100 to 100)
+        if (health > 100) {
+            health = 100; // Cap health at 100 for player control
+        } else if (health < -100) {
+            health = -100; // Cap health at -100 for enemy control
+        }
+
+        // After adjusting health, call handleControl to check and update the faction
+        // control
+        handleControl();
+    }
+
     public void handleControl() {
         // Switch flag control to the enemy
         if (health <= -100 && controlFaction != GameFlag.FACTION_ENEMY) {
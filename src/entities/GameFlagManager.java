@@ -8,6 +8,11 @@ public class GameFlagManager {
     private int numFlagsEnemy;
     private ArrayList<GameFlag> flags;
 
+    // Capture zones, rebuilt lazily whenever the flag list changes
+    private FlagZoneIndex zoneIndex;
+    private int[] capturePressure = new int[0];
+    private boolean[] captureTouched = new boolean[0];
+
     public GameFlagManager() {
         numFlagsPlayer = 0;
         numFlagsEnemy = 0;
@@ -25,11 +30,28 @@ public class GameFlagManager {
     public void addPlayerFlag(int x, int y) {
         flags.add(new GameFlag(x, y, GameFlag.FACTION_PLAYER));
         numFlagsPlayer++;
+        zoneIndex = null;
     }
 
     public void addEnemyFlag(int x, int y) {
         flags.add(new GameFlag(x, y, GameFlag.FACTION_ENEMY));
         numFlagsEnemy++;
+        zoneIndex = null;
+    }
+
+    /**
+     * Replaces all flags, e.g. when loading a save game.
+     *
+     * @param newFlags Flags in their saved order
+     * @param numFlagsPlayer Player flag count as of the last reset
+     * @param numFlagsEnemy Enemy flag count as of the last reset
+     */
+    public void restoreFlags(ArrayList<GameFlag> newFlags, int numFlagsPlayer, int numFlagsEnemy) {
+        flags.clear();
+        flags.addAll(newFlags);
+        this.numFlagsPlayer = numFlagsPlayer;
+        this.numFlagsEnemy = numFlagsEnemy;
+        zoneIndex = null;
     }
 
     public GameFlag getPlayerFlag() {
@@ -49,6 +71,7 @@ public class GameFlagManager {
     public boolean isPlayerFlagsEmpty() {
         if (numFlagsPlayer == 0) {
             flags.clear();
+            zoneIndex = null;
             return true;
         } else {
             return false;
@@ -58,6 +81,7 @@ public class GameFlagManager {
     public boolean isEnemyFlagsEmpty() {
         if (numFlagsEnemy == 0) {
             flags.clear();
+            zoneIndex = null;
             return true;
         } else {
             return false;
@@ -76,9 +100,48 @@ public class GameFlagManager {
         }
     }
 
-    public void checkFlagState(int x, int y, int factionId) {
-        for (int j = 0; j < flags.size(); j++) {
-            flags.get(j).shiftToFaction(x, y, factionId);
+    /**
+     * Gets the capture zone index for the current flags.
+     */
+    public FlagZoneIndex getZoneIndex() {
+        if (zoneIndex == null) {
+            zoneIndex = new FlagZoneIndex(flags, GameFlag.FLAG_RADIUS);
+            capturePressure = new int[flags.size()];
+            captureTouched = new boolean[flags.size()];
+        }
+        return zoneIndex;
+    }
+
+    /**
+     * Records a unit standing on a tile. The pressure is applied to the flags
+     * whose zones cover the tile on the next {@link #applyCapturePressure()}.
+     *
+     * @param x Unit tile x
+     * @param y Unit tile y
+     * @param factionId Faction of the unit
+     */
+    public void addCapturePressure(int x, int y, int factionId) {
+        FlagZoneIndex index = getZoneIndex();
+        int[] flagIds = index.getFlagIds();
+        int end = index.getEnd(x, y);
+        for (int i = index.getStart(x, y); i < end; i++) {
+            capturePressure[flagIds[i]] += factionId * 2;
+            captureTouched[flagIds[i]] = true;
+        }
+    }
+
+    /**
+     * Applies the capture pressure accumulated since the last call to every
+     * flag that had units in its zone, then resets the accumulators.
+     */
+    public void applyCapturePressure() {
+        getZoneIndex();
+        for (int id = 0; id < capturePressure.length; id++) {
+            if (captureTouched[id]) {
+                flags.get(id).applyCapturePressure(capturePressure[id]);
+                capturePressure[id] = 0;
+                captureTouched[id] = false;
+            }
         }
     }
 }
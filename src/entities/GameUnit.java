@@ -4,6 +4,8 @@ import java.util.ArrayList;
 
 import managers.CombatSystem;
 import graphics.Point;
+import map.ArrayTileMap;
+import map.TileMap;
 import pathfinding.PathNode;
 import pathfinding.MovementController;
 import utils.Constants;
@@ -218,6 +220,13 @@ public class GameUnit {
 	 * Delegates pathfinding coordination to the movement controller
 	 */
 	public void findPath(int[][] map) {
+		findPath(new ArrayTileMap(map));
+	}
+
+	/**
+	 * Delegates pathfinding coordination to the movement controller
+	 */
+	public void findPath(TileMap map) {
 		Point alternativeDest = movementController.coordinatePathfinding(map, currentPosition, destination);
 		if (alternativeDest != null) {
 			setDestination(alternativeDest);
@@ -233,12 +242,7 @@ public class GameUnit {
 	public void moveToDestination(int[][] map) {
 		// This method now just delegates to the movement controller
 		// The actual movement is handled within coordinatePathfinding
-		Point alternativeDest = movementController.coordinatePathfinding(map, currentPosition, destination);
-		if (alternativeDest != null) {
-			setDestination(alternativeDest);
-		}
-		// Update unit position after movement
-		setCurrentPosition(movementController.getCurrentPosition());
+		findPath(map);
 	}
 
 	// Public setters for testing
@@ -5,11 +5,15 @@ import java.util.Map;
 
 import managers.UnitLifecycleManager;
 import managers.UnitSpawnManager;
+import managers.LineOfSightCache;
 import managers.UnitCombatManager;
 import managers.UnitMovementManager;
 import managers.MultiUnitPathfindingManager;
 import graphics.Point;
-import input.GameMouseEvent;
+import map.ArrayTileMap;
+import map.TileMap;
+import utils.RandomStream;
+import utils.RandomStreams;
 
 /**
  * Coordinates unit management by delegating to specialized managers.
@@ -124,11 +128,11 @@ public class GameUnitManager {
     }
     
     /**
-     * Handles unit movement based on mouse input
+     * Orders the selected units to a world position
      */
-    public void handleUnitMovement(GameMouseEvent e, int cameraX, int cameraY) {
-        movementManager.handleUnitMovement(e, cameraX, cameraY, 
-                                        lifecycleManager.getPlayerList(), 
+    public void moveSelectedUnits(Point target) {
+        movementManager.moveSelectedUnits(target,
+                                        lifecycleManager.getPlayerList(),
                                         lifecycleManager.getEnemyList());
     }
     
@@ -136,6 +140,13 @@ public class GameUnitManager {
      * Spawns units near a flag with flexible configuration
      */
     public void spawnUnitsNearFlag(int[][] map, GameFlag flag) {
+        spawnUnitsNearFlag(new ArrayTileMap(map), flag);
+    }
+    
+    /**
+     * Spawns units near a flag with flexible configuration
+     */
+    public void spawnUnitsNearFlag(TileMap map, GameFlag flag) {
         int factionId = flag.getControlFaction();
         int currentUnitCount = lifecycleManager.getUnitCount(factionId);
         UnitSpawnManager.SpawnConfig config = spawnManager.getSpawnConfig();
@@ -148,7 +159,8 @@ public class GameUnitManager {
      */
     public void spawnUnitsNearFlag(int[][] map, GameFlag flag, int unitCount, int maxDistance, int unitType) {
         int factionId = flag.getControlFaction();
-        ArrayList<Point> spawnPositions = spawnManager.getSpawnPositionsNearFlag(map, flag, unitCount, maxDistance);
+        ArrayList<Point> spawnPositions = spawnManager.getSpawnPositionsNearFlag(new ArrayTileMap(map), flag, unitCount,
+                maxDistance);
         addUnitsAtMapPositions(spawnPositions, factionId, unitType);
     }
     
@@ -156,7 +168,8 @@ public class GameUnitManager {
      * Spawns units in a formation pattern
      */
     public void spawnUnitsInFormation(int[][] map, int centerX, int centerY, int factionId, int unitType, int unitCount) {
-        ArrayList<Point> spawnPositions = spawnManager.getSpawnPositionsInFormation(map, centerX, centerY, unitCount);
+        ArrayList<Point> spawnPositions = spawnManager.getSpawnPositionsInFormation(new ArrayTileMap(map), centerX, centerY,
+                unitCount);
         addUnitsAtMapPositions(spawnPositions, factionId, unitType);
     }
     
@@ -164,7 +177,8 @@ public class GameUnitManager {
      * Spawns units along a path between two points
      */
     public void spawnUnitsAlongPath(int[][] map, Point startPos, Point endPos, int factionId, int unitType, int unitCount) {
-        ArrayList<Point> spawnPositions = spawnManager.getSpawnPositionsAlongPath(map, startPos, endPos, unitCount);
+        ArrayList<Point> spawnPositions = spawnManager.getSpawnPositionsAlongPath(new ArrayTileMap(map), startPos, endPos,
+                unitCount);
         addUnitsAtMapPositions(spawnPositions, factionId, unitType);
     }
 
@@ -186,7 +200,15 @@ public class GameUnitManager {
      * Handles interactions between player units and enemy units
      */
     public void handleUnitInteractions(int[][] map) {
-        combatManager.handleUnitInteractions(map, 
+        handleUnitInteractions(null, new ArrayTileMap(map));
+    }
+    
+    /**
+     * Handles interactions between player units and enemy units, memoizing
+     * line of sight in the simulation's cache (null to trace every time)
+     */
+    public void handleUnitInteractions(LineOfSightCache losCache, TileMap map) {
+        combatManager.handleUnitInteractions(losCache, map, 
                                           lifecycleManager.getPlayerList(), 
                                           lifecycleManager.getEnemyList());
     }
@@ -194,7 +216,7 @@ public class GameUnitManager {
     /**
      * Updates group destinations for units moving to the same destination
      */
-    public void updateGroupDestinations(int[][] map) {
+    public void updateGroupDestinations(TileMap map) {
         pathfindingManager.updateGroupDestinations(map, 
                                                 lifecycleManager.getPlayerList(), 
                                                 lifecycleManager.getEnemyList());
@@ -204,7 +226,7 @@ public class GameUnitManager {
      * Checks if a tile is available for unit placement
      */
     public boolean isTileAvailable(int[][] map, int x, int y) {
-        return spawnManager.isTileAvailable(map, x, y);
+        return spawnManager.isTileAvailable(new ArrayTileMap(map), x, y);
     }
 
     /**
@@ -221,6 +243,50 @@ public class GameUnitManager {
         return lifecycleManager.isSpawned();
     }
     
+    /**
+     * Gives spawning and every unit their own random stream from the match seed
+     */
+    public void setRandomStreams(RandomStreams randomStreams) {
+        spawnManager.setRandom(randomStreams.forSubsystem(RandomStreams.Subsystem.SPAWN));
+        lifecycleManager.setRandomStreams(randomStreams);
+    }
+    
+    /**
+     * Sets the match's random streams while keeping the spawn and unit streams
+     * as they are, for restoring a save that holds their states
+     */
+    public void restoreRandomStreams(RandomStreams randomStreams, long nextUnitSerial) {
+        lifecycleManager.restoreRandomStreams(randomStreams, nextUnitSerial);
+    }
+    
+    /**
+     * Gets the random stream used for spawning
+     */
+    public RandomStream getSpawnRandom() {
+        return spawnManager.getRandom();
+    }
+    
+    /**
+     * Gets the serial the next created unit's random stream is derived from
+     */
+    public long getNextUnitSerial() {
+        return lifecycleManager.getNextUnitSerial();
+    }
+    
+    /**
+     * Restores the daily spawn state, e.g. from a save game
+     */
+    public void setSpawned(boolean isSpawned) {
+        lifecycleManager.setSpawned(isSpawned);
+    }
+    
+    /**
+     * Adds an existing unit to its faction list
+     */
+    public void addUnit(GameUnit unit) {
+        lifecycleManager.addUnit(unit);
+    }
+    
     /**
      * Gets the unit list for a specific faction
      */
@@ -0,0 +1,155 @@
+package entities;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import managers.VisibleRegion;
+import utils.Constants;
+
+/**
+ * Uniform grid over unit positions for region queries.
+ *
+ * Built in one pass from the units' world positions, it buckets unit indices
+ * by the grid cell holding each unit's top-left corner, in compressed sparse
+ * row form like {@link FlagZoneIndex}. Only cells that hold a unit are
+ * stored, found through a small open-addressing hash table, so the index
+ * stays proportional to the number of units however far apart they are. A
+ * query only visits the cells around the region, so units far away cost
+ * nothing.
+ */
+public class UnitSpatialIndex {
+    public static final int DEFAULT_CELL_TILES = 4;
+
+    private static final int EMPTY = -1;
+
+    private final int[] x;
+    private final int[] y;
+    private final int cellWidth;
+    private final int cellHeight;
+    // Occupied cells in the order they were first seen
+    private final int[] cellX;
+    private final int[] cellY;
+    private final int cellCount;
+    // Hash table from cell coordinates to cell id, EMPTY for free slots
+    private final int[] slots;
+    private final int mask;
+    // Units in cell i are unitIds[offsets[i] .. offsets[i + 1])
+    private final int[] offsets;
+    private final int[] unitIds;
+
+    /**
+     * @param x World x of each unit's top-left corner
+     * @param y World y of each unit's top-left corner
+     * @param count Number of units, the first count entries of x and y
+     * @param cellTiles Width and height of a cell in tiles
+     */
+    public UnitSpatialIndex(int[] x, int[] y, int count, int cellTiles) {
+        this.x = x;
+        this.y = y;
+        this.cellWidth = cellTiles * Constants.TILE_WIDTH;
+        this.cellHeight = cellTiles * Constants.TILE_HEIGHT;
+        this.unitIds = new int[count];
+        this.cellX = new int[count];
+        this.cellY = new int[count];
+
+        // At most half full, so probes stay short
+        int capacity = 2;
+        while (capacity < count * 2) {
+            capacity <<= 1;
+        }
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(slots, EMPTY);
+
+        // First pass: find each unit's cell and count the units in it
+        int[] unitCell = new int[count];
+        int[] counts = new int[count + 1];
+        int cells = 0;
+        for (int i = 0; i < count; i++) {
+            int cx = Math.floorDiv(x[i], cellWidth);
+            int cy = Math.floorDiv(y[i], cellHeight);
+            int slot = findSlot(cx, cy);
+            if (slots[slot] == EMPTY) {
+                slots[slot] = cells;
+                cellX[cells] = cx;
+                cellY[cells] = cy;
+                cells++;
+            }
+            unitCell[i] = slots[slot];
+            counts[unitCell[i] + 1]++;
+        }
+        this.cellCount = cells;
+        for (int i = 0; i < cells; i++) {
+            counts[i + 1] += counts[i];
+        }
+        this.offsets = Arrays.copyOf(counts, cells + 1);
+
+        // Second pass: place the units, keeping their order within a cell
+        for (int i = 0; i < count; i++) {
+            unitIds[counts[unitCell[i]]++] = i;
+        }
+    }
+
+    public int size() {
+        return unitIds.length;
+    }
+
+    /**
+     * Calls an action with the index of every unit whose tile-sized bounds
+     * overlap a region.
+     *
+     * @param region The region
+     * @param action Receives unit indices
+     */
+    public void forEachInRegion(VisibleRegion region, IntConsumer action) {
+        if (region.isEmpty() || cellCount == 0) {
+            return;
+        }
+        // A unit overlaps the region when its corner is at most one tile before it
+        int firstX = Math.floorDiv((region.getMinTileX() - 1) * Constants.TILE_WIDTH, cellWidth);
+        int firstY = Math.floorDiv((region.getMinTileY() - 1) * Constants.TILE_HEIGHT, cellHeight);
+        int lastX = Math.floorDiv((region.getMaxTileX() + 1) * Constants.TILE_WIDTH - 1, cellWidth);
+        int lastY = Math.floorDiv((region.getMaxTileY() + 1) * Constants.TILE_HEIGHT - 1, cellHeight);
+
+        if ((long) (lastX - firstX + 1) * (lastY - firstY + 1) <= cellCount) {
+            // Small region: look up each of its cells
+            for (int cy = firstY; cy <= lastY; cy++) {
+                for (int cx = firstX; cx <= lastX; cx++) {
+                    int cell = slots[findSlot(cx, cy)];
+                    if (cell != EMPTY) {
+                        visitCell(cell, region, action);
+                    }
+                }
+            }
+        } else {
+            // Region larger than the occupied area: check the occupied cells instead
+            for (int cell = 0; cell < cellCount; cell++) {
+                if (cellX[cell] >= firstX && cellX[cell] <= lastX && cellY[cell] >= firstY && cellY[cell] <= lastY) {
+                    visitCell(cell, region, action);
+                }
+            }
+        }
+    }
+
+    private void visitCell(int cell, VisibleRegion region, IntConsumer action) {
+        for (int i = offsets[cell]; i < offsets[cell + 1]; i++) {
+            int unit = unitIds[i];
+            if (region.intersects(x[unit], y[unit], Constants.TILE_WIDTH, Constants.TILE_HEIGHT)) {
+                action.accept(unit);
+            }
+        }
+    }
+
+    /**
+     * Gets the hash table slot of a cell: the slot holding it, or the free
+     * slot where it belongs.
+     */
+    private int findSlot(int cx, int cy) {
+        int hash = cx * 0x9E3779B1 + cy * 0x85EBCA77;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (slots[slot] != EMPTY && (cellX[slots[slot]] != cx || cellY[slots[slot]] != cy)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -1,30 +1,20 @@
 package graphics;
 
-import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 
 public class ImageUtils {
+    // Pipelines are stateless once built and shared between calls
+    private static final RasterPipeline DARKEN = new RasterPipeline().darken(3);
+    private static final RasterPipeline GRAYSCALE = new RasterPipeline().grayscale();
+    private static final RasterPipeline PLAYER_TEAM_COLOR = new RasterPipeline()
+            .fillExcept(Color.WHITE.toAwtColor().getRGB(), Color.BLUE.toAwtColor().getRGB());
+    private static final RasterPipeline ENEMY_TEAM_COLOR = new RasterPipeline()
+            .fillExcept(Color.WHITE.toAwtColor().getRGB(), Color.RED.toAwtColor().getRGB());
 
     public static GameImage darken(GameImage img) {
-        java.awt.Image awtImg = (java.awt.Image) img.getBackendImage();
-        BufferedImage bImage = new BufferedImage(
-                awtImg.getWidth(null),
-                awtImg.getHeight(null),
-                BufferedImage.TYPE_INT_RGB);
-
-        Graphics g = bImage.createGraphics();
-        g.drawImage(awtImg, 0, 0, null);
-        g.dispose();
-
-        for (int y = 0; y < bImage.getHeight(); y++) {
-            for (int x = 0; x < bImage.getWidth(); x++) {
-                bImage.setRGB(x, y, darkenRGB(bImage.getRGB(x, y)));
-            }
-        }
-
-        return new GameImage(bImage, img.getPath(), img.getFormat());
+        return DARKEN.apply(img, BufferedImage.TYPE_INT_RGB);
     }
 
     public static int darkenRGB(int rgb) {
@@ -40,29 +30,8 @@ public class ImageUtils {
     }
 
     public static GameImage addTeamColorToUnit(GameImage img, boolean isPlayerUnit) {
-        java.awt.Image awtImg = (java.awt.Image) img.getBackendImage();
-        BufferedImage bImage = new BufferedImage(
-                awtImg.getWidth(null),
-                awtImg.getHeight(null),
-                BufferedImage.TYPE_INT_ARGB);
-
-        Graphics g = bImage.createGraphics();
-        g.drawImage(awtImg, 0, 0, null);
-        g.dispose();
-
-        for (int y = 0; y < bImage.getHeight(); y++) {
-            for (int x = 0; x < bImage.getWidth(); x++) {
-                if (bImage.getRGB(x, y) != Color.WHITE.toAwtColor().getRGB()) {
-                    if (isPlayerUnit) {
-                        bImage.setRGB(x, y, Color.BLUE.toAwtColor().getRGB());
-                    } else {
-                        bImage.setRGB(x, y, Color.RED.toAwtColor().getRGB());
-                    }
-                }
-            }
-        }
-
-        return new GameImage(bImage, img.getPath(), img.getFormat());
+        return isPlayerUnit ? PLAYER_TEAM_COLOR.apply(img, BufferedImage.TYPE_INT_ARGB)
+                : ENEMY_TEAM_COLOR.apply(img, BufferedImage.TYPE_INT_ARGB);
     }
 
     /**
@@ -73,34 +42,7 @@ public class ImageUtils {
      * @return A new tinted GameImage
      */
     public static GameImage tint(GameImage img, Color tintColor, double intensity) {
-        java.awt.Image awtImg = (java.awt.Image) img.getBackendImage();
-        BufferedImage bImage = new BufferedImage(
-                awtImg.getWidth(null),
-                awtImg.getHeight(null),
-                BufferedImage.TYPE_INT_ARGB);
-
-        Graphics g = bImage.createGraphics();
-        g.drawImage(awtImg, 0, 0, null);
-        g.dispose();
-
-        for (int y = 0; y < bImage.getHeight(); y++) {
-            for (int x = 0; x < bImage.getWidth(); x++) {
-                int rgb = bImage.getRGB(x, y);
-                int r = (rgb >> 16) & 255;
-                int g_val = (rgb >> 8) & 255;
-                int b = rgb & 255;
-                int a = (rgb >> 24) & 255;
-
-                // Apply tint
-                r = (int) (r * (1 - intensity) + tintColor.r * intensity);
-                g_val = (int) (g_val * (1 - intensity) + tintColor.g * intensity);
-                b = (int) (b * (1 - intensity) + tintColor.b * intensity);
-
-                bImage.setRGB(x, y, (a << 24) | (r << 16) | (g_val << 8) | b);
-            }
-        }
-
-        return new GameImage(bImage, img.getPath(), img.getFormat());
+        return new RasterPipeline().tint(tintColor, intensity).apply(img, BufferedImage.TYPE_INT_ARGB);
     }
 
     /**
@@ -109,32 +51,7 @@ public class ImageUtils {
      * @return A new grayscale GameImage
      */
     public static GameImage grayscale(GameImage img) {
-        java.awt.Image awtImg = (java.awt.Image) img.getBackendImage();
-        BufferedImage bImage = new BufferedImage(
-                awtImg.getWidth(null),
-                awtImg.getHeight(null),
-                BufferedImage.TYPE_INT_ARGB);
-
-        Graphics g = bImage.createGraphics();
-        g.drawImage(awtImg, 0, 0, null);
-        g.dispose();
-
-        for (int y = 0; y < bImage.getHeight(); y++) {
-            for (int x = 0; x < bImage.getWidth(); x++) {
-                int rgb = bImage.getRGB(x, y);
-                int r = (rgb >> 16) & 255;
-                int g_val = (rgb >> 8) & 255;
-                int b = rgb & 255;
-                int a = (rgb >> 24) & 255;
-
-                // Convert to grayscale using luminance formula
-                int gray = (int) (0.299 * r + 0.587 * g_val + 0.114 * b);
-
-                bImage.setRGB(x, y, (a << 24) | (gray << 16) | (gray << 8) | gray);
-            }
-        }
-
-        return new GameImage(bImage, img.getPath(), img.getFormat());
+        return GRAYSCALE.apply(img, BufferedImage.TYPE_INT_ARGB);
     }
 
     /**
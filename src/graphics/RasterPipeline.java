@@ -0,0 +1,266 @@
+package graphics;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Chain of per-pixel operations applied directly to the int pixel array of an
+ * image, without a color model conversion per pixel.
+ *
+ * Operations run in the order they were added. Consecutive per-channel
+ * operations (darken, tint) are folded into one lookup table per channel, so
+ * a chain of them costs one table lookup per channel. Large images are split
+ * into row ranges processed in parallel.
+ *
+ * Usage: new RasterPipeline().darken(3).grayscale().apply(image)
+ */
+public class RasterPipeline {
+    // Images with fewer pixels than this are not worth splitting up
+    private static final int PARALLEL_PIXELS = 1 << 16;
+    private static final int ROWS_PER_TASK = 64;
+
+    private final List<PixelOp> ops = new ArrayList<>();
+
+    // Per-channel tables still being built up, or null
+    private int[] pendingRed;
+    private int[] pendingGreen;
+    private int[] pendingBlue;
+
+    /**
+     * A step of the pipeline, applied to pixels [from, to) of an ARGB array.
+     */
+    private interface PixelOp {
+        void apply(int[] pixels, int from, int to);
+    }
+
+    /**
+     * Divides every color channel, e.g. by 3 for the night versions of images.
+     */
+    public RasterPipeline darken(int divisor) {
+        if (divisor <= 0) {
+            throw new IllegalArgumentException("Divisor must be positive: " + divisor);
+        }
+        return channelMap(c -> c / divisor, c -> c / divisor, c -> c / divisor);
+    }
+
+    /**
+     * Blends every pixel towards a color, keeping its alpha.
+     *
+     * @param tintColor Color to blend towards
+     * @param intensity Weight of the tint color, from 0.0 to 1.0
+     */
+    public RasterPipeline tint(Color tintColor, double intensity) {
+        return channelMap(
+                c -> (int) (c * (1 - intensity) + tintColor.r * intensity),
+                c -> (int) (c * (1 - intensity) + tintColor.g * intensity),
+                c -> (int) (c * (1 - intensity) + tintColor.b * intensity));
+    }
+
+    /**
+     * Replaces the color channels by their luminance, keeping alpha.
+     */
+    public RasterPipeline grayscale() {
+        return add((pixels, from, to) -> {
+            for (int i = from; i < to; i++) {
+                int argb = pixels[i];
+                int gray = (int) (0.299 * ((argb >> 16) & 255) + 0.587 * ((argb >> 8) & 255) + 0.114 * (argb & 255));
+                pixels[i] = (argb & 0xFF000000) | (gray << 16) | (gray << 8) | gray;
+            }
+        });
+    }
+
+    /**
+     * Replaces exact ARGB colors by others; all other pixels stay as they are.
+     *
+     * @param from Colors to replace
+     * @param to Replacement for the color at the same index
+     */
+    public RasterPipeline paletteSwap(int[] from, int[] to) {
+        if (from.length != to.length) {
+            throw new IllegalArgumentException("Palettes differ in size: " + from.length + " and " + to.length);
+        }
+        // Sorted keys so each pixel is one binary search
+        Integer[] order = new Integer[from.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(from[a], from[b]));
+        int[] keys = new int[from.length];
+        int[] values = new int[from.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = from[order[i]];
+            values[i] = to[order[i]];
+        }
+        return add((pixels, start, end) -> {
+            for (int i = start; i < end; i++) {
+                int index = Arrays.binarySearch(keys, pixels[i]);
+                if (index >= 0) {
+                    pixels[i] = values[index];
+                }
+            }
+        });
+    }
+
+    /**
+     * Paints every pixel that is not exactly one color with another color.
+     *
+     * @param keepArgb Color left as it is
+     * @param argb Color for every other pixel
+     */
+    public RasterPipeline fillExcept(int keepArgb, int argb) {
+        return add((pixels, from, to) -> {
+            for (int i = from; i < to; i++) {
+                if (pixels[i] != keepArgb) {
+                    pixels[i] = argb;
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs the pipeline on an image in place.
+     *
+     * @param image Image of TYPE_INT_RGB or TYPE_INT_ARGB
+     */
+    public void apply(BufferedImage image) {
+        if (image.getType() != BufferedImage.TYPE_INT_RGB && image.getType() != BufferedImage.TYPE_INT_ARGB) {
+            throw new IllegalArgumentException("Unsupported image type: " + image.getType());
+        }
+        apply(((DataBufferInt) image.getRaster().getDataBuffer()).getData(), image.getWidth());
+    }
+
+    /**
+     * Runs the pipeline on a copy of an image.
+     *
+     * @param img The source image
+     * @param imageType TYPE_INT_RGB or TYPE_INT_ARGB, the type of the copy
+     * @return A new GameImage with the same path and format
+     */
+    public GameImage apply(GameImage img, int imageType) {
+        BufferedImage copy = copy((Image) img.getBackendImage(), imageType);
+        apply(copy);
+        return new GameImage(copy, img.getPath(), img.getFormat());
+    }
+
+    /**
+     * Runs the pipeline on an ARGB pixel array in place.
+     *
+     * @param pixels Pixels, row by row
+     * @param width Pixels per row
+     */
+    public void apply(int[] pixels, int width) {
+        List<PixelOp> steps = compile();
+        if (pixels.length < PARALLEL_PIXELS || width <= 0) {
+            for (PixelOp op : steps) {
+                op.apply(pixels, 0, pixels.length);
+            }
+            return;
+        }
+        // Each task runs the whole chain on its rows while they are in cache
+        int chunk = width * ROWS_PER_TASK;
+        int tasks = (pixels.length + chunk - 1) / chunk;
+        IntStream.range(0, tasks).parallel().forEach(task -> {
+            int from = task * chunk;
+            int to = Math.min(pixels.length, from + chunk);
+            for (PixelOp op : steps) {
+                op.apply(pixels, from, to);
+            }
+        });
+    }
+
+    /**
+     * Copies an image into a new image of a given type, reusing the pixel
+     * array as is when the source already has that type.
+     */
+    static BufferedImage copy(Image source, int imageType) {
+        int width = source.getWidth(null);
+        int height = source.getHeight(null);
+        BufferedImage copy = new BufferedImage(width, height, imageType);
+        if (source instanceof BufferedImage && ((BufferedImage) source).getType() == imageType
+                && ((BufferedImage) source).getRaster().getDataBuffer() instanceof DataBufferInt
+                && ((BufferedImage) source).getRaster().getParent() == null) {
+            int[] from = ((DataBufferInt) ((BufferedImage) source).getRaster().getDataBuffer()).getData();
+            int[] to = ((DataBufferInt) copy.getRaster().getDataBuffer()).getData();
+            System.arraycopy(from, 0, to, 0, to.length);
+        } else {
+            Graphics2D g = copy.createGraphics();
+            g.drawImage(source, 0, 0, null);
+            g.dispose();
+        }
+        return copy;
+    }
+
+    private interface ChannelMap {
+        int map(int value);
+    }
+
+    private RasterPipeline channelMap(ChannelMap red, ChannelMap green, ChannelMap blue) {
+        if (pendingRed == null) {
+            pendingRed = identity();
+            pendingGreen = identity();
+            pendingBlue = identity();
+        }
+        // Compose with the tables of the previous channel operations
+        for (int c = 0; c < 256; c++) {
+            pendingRed[c] = clamp(red.map(pendingRed[c]));
+            pendingGreen[c] = clamp(green.map(pendingGreen[c]));
+            pendingBlue[c] = clamp(blue.map(pendingBlue[c]));
+        }
+        return this;
+    }
+
+    private RasterPipeline add(PixelOp op) {
+        flushTables();
+        ops.add(op);
+        return this;
+    }
+
+    private List<PixelOp> compile() {
+        if (pendingRed == null) {
+            return ops;
+        }
+        List<PixelOp> steps = new ArrayList<>(ops);
+        steps.add(tableOp(pendingRed, pendingGreen, pendingBlue));
+        return steps;
+    }
+
+    private void flushTables() {
+        if (pendingRed != null) {
+            ops.add(tableOp(pendingRed, pendingGreen, pendingBlue));
+            pendingRed = null;
+            pendingGreen = null;
+            pendingBlue = null;
+        }
+    }
+
+    private static PixelOp tableOp(int[] red, int[] green, int[] blue) {
+        int[] r = red.clone();
+        int[] g = green.clone();
+        int[] b = blue.clone();
+        return (pixels, from, to) -> {
+            for (int i = from; i < to; i++) {
+                int argb = pixels[i];
+                pixels[i] = (argb & 0xFF000000) | (r[(argb >> 16) & 255] << 16) | (g[(argb >> 8) & 255] << 8)
+                        | b[argb & 255];
+            }
+        };
+    }
+
+    private static int[] identity() {
+        int[] table = new int[256];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = i;
+        }
+        return table;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+}
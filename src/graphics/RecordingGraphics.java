@@ -0,0 +1,622 @@
+package graphics;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Graphics backend that records draw calls into a command buffer instead of
+ * drawing, so a frame can be produced on one thread and painted on another.
+ *
+ * Commands are kept in primitive arrays: an opcode, an offset into a shared
+ * int argument array, and per command the layer, image handle, color index and
+ * font index it was issued with. Colors, images, fonts and strings are stored
+ * once in small tables and referred to by index. {@link #setColor} and
+ * {@link #setFont} record nothing by themselves; the current values are
+ * attached to each draw.
+ *
+ * {@link #replay(IGraphics, boolean)} plays the buffer into any backend,
+ * setting color and font only when they change. Sorted replay additionally
+ * orders draws by layer, image, color and font so equal state is batched.
+ * Transform and state commands (save, restore, translate, clear, ...) are
+ * never moved; sorting only happens between them, one such segment at a
+ * time. Within one layer sorting may change which of two overlapping draws
+ * ends up on top, so draws whose order matters belong in different layers
+ * (see {@link #setLayer}), or are recorded with batching turned off (see
+ * {@link #setBatching}).
+ */
+public class RecordingGraphics implements IGraphics {
+    // Draw commands, which can be reordered within a segment
+    private static final byte OP_DRAW_STRING = 0;
+    private static final byte OP_DRAW_IMAGE = 1;
+    private static final byte OP_DRAW_IMAGE_ROTATED = 2;
+    private static final byte OP_FILL_RECT = 3;
+    private static final byte OP_DRAW_RECT = 4;
+    private static final byte OP_FILL_POLYGON = 5;
+    private static final byte OP_DRAW_POLYGON = 6;
+    private static final byte OP_DRAW_LINE = 7;
+    private static final byte OP_DRAW_CIRCLE = 8;
+    private static final byte OP_DRAW_ELLIPSE = 9;
+    private static final byte OP_DRAW_ROUND_RECT = 10;
+    // State commands, which end a segment
+    private static final byte OP_SAVE = 11;
+    private static final byte OP_RESTORE = 12;
+    private static final byte OP_TRANSLATE = 13;
+    private static final byte OP_SCALE = 14;
+    private static final byte OP_ROTATE = 15;
+    private static final byte OP_ANTI_ALIASING = 16;
+    private static final byte OP_STROKE_WIDTH = 17;
+    private static final byte OP_CLEAR = 18;
+
+    // Bits of the packed sort key: layer | image | color | font | command.
+    // Segments are sorted one at a time, so their number is not limited.
+    private static final int COMMAND_BITS = 20;
+    private static final int FONT_BITS = 6;
+    private static final int COLOR_BITS = 10;
+    private static final int IMAGE_BITS = 10;
+    private static final int LAYER_BITS = 6;
+
+    private static final GameFont DEFAULT_FONT = new GameFont("Arial", GameFont.PLAIN, 12);
+
+    private byte[] ops = new byte[256];
+    private int[] argStart = new int[256];
+    private int[] layers = new int[256];
+    private int[] imageIds = new int[256];
+    private int[] colorIds = new int[256];
+    private int[] fontIds = new int[256];
+    private int[] segments = new int[256];
+    private int count = 0;
+    private int drawCount = 0;
+
+    private int[] args = new int[1024];
+    private int argCount = 0;
+    private double[] doubles = new double[64];
+    private int doubleCount = 0;
+    private String[] strings = new String[64];
+    private int stringCount = 0;
+
+    private GameImage[] images = new GameImage[64];
+    private final Map<GameImage, Integer> imageIndex = new IdentityHashMap<>();
+    private Color[] colors = new Color[64];
+    private final Map<Integer, Integer> colorIndex = new HashMap<>();
+    private GameFont[] fonts = new GameFont[8];
+    private final Map<GameFont, Integer> fontIndex = new HashMap<>();
+
+    private Color currentColor = Color.BLACK;
+    private int currentColorId;
+    private GameFont currentFont = DEFAULT_FONT;
+    private int currentFontId;
+    private int currentLayer = 0;
+    private int currentSegment = 0;
+    private boolean batching = true;
+
+    // Sorted replay order, computed once per recording and shared by replays
+    private long[] sortKeys = new long[0];
+    private int[] sortedOrder = new int[0];
+    private boolean sortedOrderValid = false;
+    private IGraphics metricsSource;
+
+    public RecordingGraphics() {
+        reset();
+    }
+
+    /**
+     * Clears the buffer for the next frame, keeping its capacity.
+     */
+    public void reset() {
+        Arrays.fill(strings, 0, stringCount, null);
+        Arrays.fill(images, 0, imageIndex.size(), null);
+        count = 0;
+        drawCount = 0;
+        argCount = 0;
+        doubleCount = 0;
+        stringCount = 0;
+        imageIndex.clear();
+        colorIndex.clear();
+        fontIndex.clear();
+        currentLayer = 0;
+        currentSegment = 0;
+        batching = true;
+        sortedOrderValid = false;
+        currentColorId = colorId(currentColor);
+        currentFontId = fontId(currentFont);
+    }
+
+    /**
+     * Sets the layer of the following draws. Sorted replay never moves a draw
+     * in front of one from a higher layer.
+     *
+     * @param layer Layer from 0 to 63
+     */
+    public void setLayer(int layer) {
+        if (layer < 0 || layer >= 1 << LAYER_BITS) {
+            throw new IllegalArgumentException("Layer out of range: " + layer);
+        }
+        currentLayer = layer;
+    }
+
+    public int getLayer() {
+        return currentLayer;
+    }
+
+    /**
+     * Sets whether sorted replay may reorder the following draws. With
+     * batching off every draw keeps its recorded position, e.g. for HUD text
+     * drawn over its own background. Batching is on after {@link #reset}.
+     */
+    public void setBatching(boolean enabled) {
+        batching = enabled;
+    }
+
+    public boolean isBatching() {
+        return batching;
+    }
+
+    /**
+     * Gets the number of recorded commands, including state commands.
+     */
+    public int getCommandCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of recorded draw calls.
+     */
+    public int getDrawCount() {
+        return drawCount;
+    }
+
+    /**
+     * Plays the recorded commands into another backend. Replay only reads the
+     * buffer (the sorted order is computed once and then shared), so several
+     * threads may replay it at once.
+     *
+     * @param target Backend to draw on
+     * @param sorted Whether to reorder draws between state commands by layer,
+     *               image, color and font
+     * @return The number of color and font changes issued to the target
+     */
+    public int replay(IGraphics target, boolean sorted) {
+        int[] order = sorted ? getSortedOrder() : null;
+
+        int stateChanges = 0;
+        int lastColor = -1;
+        int lastFont = -1;
+        for (int k = 0; k < count; k++) {
+            int i = order != null ? order[k] : k;
+            if (isStateCommand(ops[i])) {
+                // The target's color and font may change, e.g. on restore
+                lastColor = -1;
+                lastFont = -1;
+            }
+            stateChanges += prepare(target, i, lastColor, lastFont);
+            if (needsColor(ops[i])) {
+                lastColor = colorIds[i];
+            }
+            if (ops[i] == OP_DRAW_STRING) {
+                lastFont = fontIds[i];
+            }
+            execute(target, i);
+        }
+        return stateChanges;
+    }
+
+    // === IGraphics ===
+
+    @Override
+    public void setColor(Color color) {
+        currentColor = color;
+        currentColorId = colorId(color);
+    }
+
+    @Override
+    public void setFont(GameFont font) {
+        currentFont = font;
+        currentFontId = fontId(font);
+    }
+
+    @Override
+    public void drawString(String str, int x, int y) {
+        if (stringCount == strings.length) {
+            strings = Arrays.copyOf(strings, stringCount * 2);
+        }
+        strings[stringCount] = str;
+        addDraw(OP_DRAW_STRING, -1);
+        addArgs(stringCount++, x, y);
+    }
+
+    @Override
+    public void drawImage(GameImage img, int x, int y, int width, int height) {
+        if (img == null) {
+            return;
+        }
+        addDraw(OP_DRAW_IMAGE, imageId(img));
+        addArgs(x, y, width, height);
+    }
+
+    @Override
+    public void drawImage(GameImage img, int x, int y, int width, int height, double rotation) {
+        if (img == null) {
+            return;
+        }
+        addDraw(OP_DRAW_IMAGE_ROTATED, imageId(img));
+        addArgs(x, y, width, height, addDouble(rotation));
+    }
+
+    @Override
+    public void fillRect(int x, int y, int width, int height) {
+        addDraw(OP_FILL_RECT, -1);
+        addArgs(x, y, width, height);
+    }
+
+    @Override
+    public void drawRect(int x, int y, int width, int height) {
+        addDraw(OP_DRAW_RECT, -1);
+        addArgs(x, y, width, height);
+    }
+
+    @Override
+    public void fillPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+        addDraw(OP_FILL_POLYGON, -1);
+        addPolygon(xPoints, yPoints, nPoints);
+    }
+
+    @Override
+    public void drawPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+        addDraw(OP_DRAW_POLYGON, -1);
+        addPolygon(xPoints, yPoints, nPoints);
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        addDraw(OP_DRAW_LINE, -1);
+        addArgs(x1, y1, x2, y2);
+    }
+
+    @Override
+    public IFontMetrics getFontMetrics(GameFont font) {
+        if (metricsSource == null) {
+            // Measure with a private image so recording works on any thread
+            metricsSource = new AwtGraphicsAdapter(
+                    new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics());
+        }
+        return metricsSource.getFontMetrics(font);
+    }
+
+    @Override
+    public void save() {
+        addState(OP_SAVE);
+    }
+
+    @Override
+    public void restore() {
+        addState(OP_RESTORE);
+    }
+
+    @Override
+    public void translate(double dx, double dy) {
+        addState(OP_TRANSLATE);
+        addArgs(addDouble(dx), addDouble(dy));
+    }
+
+    @Override
+    public void scale(double sx, double sy) {
+        addState(OP_SCALE);
+        addArgs(addDouble(sx), addDouble(sy));
+    }
+
+    @Override
+    public void rotate(double angle) {
+        addState(OP_ROTATE);
+        addArgs(addDouble(angle));
+    }
+
+    @Override
+    public void setAntiAliasing(boolean enabled) {
+        addState(OP_ANTI_ALIASING);
+        addArgs(enabled ? 1 : 0);
+    }
+
+    @Override
+    public void drawCircle(int x, int y, int radius, boolean fill) {
+        addDraw(OP_DRAW_CIRCLE, -1);
+        addArgs(x, y, radius, fill ? 1 : 0);
+    }
+
+    @Override
+    public void clear(Color color) {
+        addState(OP_CLEAR);
+        addArgs(colorId(color));
+    }
+
+    @Override
+    public Color getColor() {
+        return currentColor;
+    }
+
+    @Override
+    public GameFont getFont() {
+        return currentFont;
+    }
+
+    @Override
+    public void drawEllipse(int x, int y, int width, int height, boolean fill) {
+        addDraw(OP_DRAW_ELLIPSE, -1);
+        addArgs(x, y, width, height, fill ? 1 : 0);
+    }
+
+    @Override
+    public void drawRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight, boolean fill) {
+        addDraw(OP_DRAW_ROUND_RECT, -1);
+        addArgs(x, y, width, height, arcWidth, arcHeight);
+        addArgs(fill ? 1 : 0);
+    }
+
+    @Override
+    public void setStrokeWidth(float width) {
+        addState(OP_STROKE_WIDTH);
+        addArgs(Float.floatToIntBits(width));
+    }
+
+    // === Recording ===
+
+    private void addDraw(byte op, int imageId) {
+        if (batching) {
+            addCommand(op, imageId);
+        } else {
+            // A segment of its own, like a state command
+            currentSegment++;
+            addCommand(op, imageId);
+            currentSegment++;
+        }
+        drawCount++;
+    }
+
+    private void addState(byte op) {
+        currentSegment++;
+        addCommand(op, -1);
+        // Draws after this one must stay after it
+        currentSegment++;
+    }
+
+    private void addCommand(byte op, int imageId) {
+        if (count == ops.length) {
+            int capacity = count * 2;
+            ops = Arrays.copyOf(ops, capacity);
+            argStart = Arrays.copyOf(argStart, capacity);
+            layers = Arrays.copyOf(layers, capacity);
+            imageIds = Arrays.copyOf(imageIds, capacity);
+            colorIds = Arrays.copyOf(colorIds, capacity);
+            fontIds = Arrays.copyOf(fontIds, capacity);
+            segments = Arrays.copyOf(segments, capacity);
+        }
+        ops[count] = op;
+        argStart[count] = argCount;
+        layers[count] = currentLayer;
+        imageIds[count] = imageId;
+        colorIds[count] = currentColorId;
+        fontIds[count] = currentFontId;
+        segments[count] = currentSegment;
+        count++;
+        sortedOrderValid = false;
+    }
+
+    private void addArgs(int... values) {
+        ensureArgs(values.length);
+        System.arraycopy(values, 0, args, argCount, values.length);
+        argCount += values.length;
+    }
+
+    private void addPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+        ensureArgs(1 + 2 * nPoints);
+        args[argCount++] = nPoints;
+        System.arraycopy(xPoints, 0, args, argCount, nPoints);
+        argCount += nPoints;
+        System.arraycopy(yPoints, 0, args, argCount, nPoints);
+        argCount += nPoints;
+    }
+
+    private void ensureArgs(int extra) {
+        if (argCount + extra > args.length) {
+            args = Arrays.copyOf(args, Math.max(args.length * 2, argCount + extra));
+        }
+    }
+
+    private int addDouble(double value) {
+        if (doubleCount == doubles.length) {
+            doubles = Arrays.copyOf(doubles, doubleCount * 2);
+        }
+        doubles[doubleCount] = value;
+        return doubleCount++;
+    }
+
+    private int imageId(GameImage image) {
+        Integer id = imageIndex.get(image);
+        if (id == null) {
+            id = imageIndex.size();
+            if (id == images.length) {
+                images = Arrays.copyOf(images, id * 2);
+            }
+            images[id] = image;
+            imageIndex.put(image, id);
+        }
+        return id;
+    }
+
+    private int colorId(Color color) {
+        int rgba = (color.r & 0xFF) << 24 | (color.g & 0xFF) << 16 | (color.b & 0xFF) << 8 | (color.a & 0xFF);
+        Integer id = colorIndex.get(rgba);
+        if (id == null) {
+            id = colorIndex.size();
+            if (id == colors.length) {
+                colors = Arrays.copyOf(colors, id * 2);
+            }
+            colors[id] = color;
+            colorIndex.put(rgba, id);
+        }
+        return id;
+    }
+
+    private int fontId(GameFont font) {
+        Integer id = fontIndex.get(font);
+        if (id == null) {
+            id = fontIndex.size();
+            if (id == fonts.length) {
+                fonts = Arrays.copyOf(fonts, id * 2);
+            }
+            fonts[id] = font;
+            fontIndex.put(font, id);
+        }
+        return id;
+    }
+
+    // === Replay ===
+
+    /**
+     * Gets the sorted replay order, or null if the frame has too many images,
+     * colors or fonts to sort and is replayed as recorded.
+     */
+    private synchronized int[] getSortedOrder() {
+        if (count > 1 << COMMAND_BITS || imageIndex.size() >= 1 << IMAGE_BITS
+                || colorIndex.size() > 1 << COLOR_BITS || fontIndex.size() > 1 << FONT_BITS) {
+            return null;
+        }
+        if (sortedOrderValid) {
+            return sortedOrder;
+        }
+        if (sortedOrder.length < count) {
+            sortedOrder = new int[ops.length];
+            sortKeys = new long[ops.length];
+        }
+        // Each run of draws between fixed commands is sorted on its own
+        int start = 0;
+        while (start < count) {
+            int end = start + 1;
+            while (end < count && segments[end] == segments[start]) {
+                end++;
+            }
+            for (int i = start; i < end; i++) {
+                sortKeys[i] = sortKey(i);
+            }
+            Arrays.sort(sortKeys, start, end);
+            for (int k = start; k < end; k++) {
+                sortedOrder[k] = (int) (sortKeys[k] & ((1 << COMMAND_BITS) - 1));
+            }
+            start = end;
+        }
+        sortedOrderValid = true;
+        return sortedOrder;
+    }
+
+    private long sortKey(int i) {
+        // Images do not use the color, so it is left out to batch them by image only
+        long color = needsColor(ops[i]) ? colorIds[i] : 0;
+        long font = ops[i] == OP_DRAW_STRING ? fontIds[i] : 0;
+        long key = layers[i];
+        key = (key << IMAGE_BITS) | (imageIds[i] + 1);
+        key = (key << COLOR_BITS) | color;
+        key = (key << FONT_BITS) | font;
+        return (key << COMMAND_BITS) | i;
+    }
+
+    private static boolean isStateCommand(byte op) {
+        return op >= OP_SAVE;
+    }
+
+    private static boolean needsColor(byte op) {
+        return op != OP_DRAW_IMAGE && op != OP_DRAW_IMAGE_ROTATED && !isStateCommand(op);
+    }
+
+    /**
+     * Sets the color and font a command needs on the target, if they differ.
+     *
+     * @return The number of changes made
+     */
+    private int prepare(IGraphics target, int i, int lastColor, int lastFont) {
+        int changes = 0;
+        if (needsColor(ops[i]) && colorIds[i] != lastColor) {
+            target.setColor(colors[colorIds[i]]);
+            changes++;
+        }
+        if (ops[i] == OP_DRAW_STRING && fontIds[i] != lastFont) {
+            target.setFont(fonts[fontIds[i]]);
+            changes++;
+        }
+        return changes;
+    }
+
+    private void execute(IGraphics target, int i) {
+        int a = argStart[i];
+        switch (ops[i]) {
+            case OP_DRAW_STRING:
+                target.drawString(strings[args[a]], args[a + 1], args[a + 2]);
+                break;
+            case OP_DRAW_IMAGE:
+                target.drawImage(images[imageIds[i]], args[a], args[a + 1], args[a + 2], args[a + 3]);
+                break;
+            case OP_DRAW_IMAGE_ROTATED:
+                target.drawImage(images[imageIds[i]], args[a], args[a + 1], args[a + 2], args[a + 3],
+                        doubles[args[a + 4]]);
+                break;
+            case OP_FILL_RECT:
+                target.fillRect(args[a], args[a + 1], args[a + 2], args[a + 3]);
+                break;
+            case OP_DRAW_RECT:
+                target.drawRect(args[a], args[a + 1], args[a + 2], args[a + 3]);
+                break;
+            case OP_FILL_POLYGON:
+            case OP_DRAW_POLYGON: {
+                int n = args[a];
+                int[] xPoints = Arrays.copyOfRange(args, a + 1, a + 1 + n);
+                int[] yPoints = Arrays.copyOfRange(args, a + 1 + n, a + 1 + 2 * n);
+                if (ops[i] == OP_FILL_POLYGON) {
+                    target.fillPolygon(xPoints, yPoints, n);
+                } else {
+                    target.drawPolygon(xPoints, yPoints, n);
+                }
+                break;
+            }
+            case OP_DRAW_LINE:
+                target.drawLine(args[a], args[a + 1], args[a + 2], args[a + 3]);
+                break;
+            case OP_DRAW_CIRCLE:
+                target.drawCircle(args[a], args[a + 1], args[a + 2], args[a + 3] != 0);
+                break;
+            case OP_DRAW_ELLIPSE:
+                target.drawEllipse(args[a], args[a + 1], args[a + 2], args[a + 3], args[a + 4] != 0);
+                break;
+            case OP_DRAW_ROUND_RECT:
+                target.drawRoundRect(args[a], args[a + 1], args[a + 2], args[a + 3], args[a + 4], args[a + 5],
+                        args[a + 6] != 0);
+                break;
+            case OP_SAVE:
+                target.save();
+                break;
+            case OP_RESTORE:
+                target.restore();
+                break;
+            case OP_TRANSLATE:
+                target.translate(doubles[args[a]], doubles[args[a + 1]]);
+                break;
+            case OP_SCALE:
+                target.scale(doubles[args[a]], doubles[args[a + 1]]);
+                break;
+            case OP_ROTATE:
+                target.rotate(doubles[args[a]]);
+                break;
+            case OP_ANTI_ALIASING:
+                target.setAntiAliasing(args[a] != 0);
+                break;
+            case OP_STROKE_WIDTH:
+                target.setStrokeWidth(Float.intBitsToFloat(args[a]));
+                break;
+            case OP_CLEAR:
+                target.clear(colors[args[a]]);
+                break;
+            default:
+                throw new IllegalStateException("Unknown command: " + ops[i]);
+        }
+    }
+}
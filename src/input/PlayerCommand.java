@@ -0,0 +1,125 @@
+package input;
+
+import java.util.Arrays;
+
+/**
+ * A player action in world coordinates, stamped with the simulation tick it
+ * applies to. Commands are what the replay system records; they do not depend
+ * on the camera or screen size.
+ */
+public final class PlayerCommand {
+    public enum Type {
+        SELECT(1),
+        MOVE(2),
+        STATE_CHANGE(3);
+
+        private final int id;
+
+        Type(int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public static Type fromId(int id) {
+            for (Type type : values()) {
+                if (type.id == id) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown command type: " + id);
+        }
+    }
+
+    private final Type type;
+    private final long tick;
+    private final int x;
+    private final int y;
+    private final int[] unitIndices;
+    private final int state;
+
+    private PlayerCommand(Type type, long tick, int x, int y, int[] unitIndices, int state) {
+        this.type = type;
+        this.tick = tick;
+        this.x = x;
+        this.y = y;
+        this.unitIndices = unitIndices;
+        this.state = state;
+    }
+
+    /**
+     * Replaces the player's selection.
+     *
+     * @param tick Tick the command applies to
+     * @param unitIndices Ascending indices into the player unit list
+     */
+    public static PlayerCommand select(long tick, int[] unitIndices) {
+        return new PlayerCommand(Type.SELECT, tick, 0, 0, unitIndices.clone(), 0);
+    }
+
+    /**
+     * Orders the selected units to a world position.
+     */
+    public static PlayerCommand move(long tick, int worldX, int worldY) {
+        return new PlayerCommand(Type.MOVE, tick, worldX, worldY, new int[0], 0);
+    }
+
+    /**
+     * Marks a game state change, e.g. the end of the level.
+     *
+     * @param state Ordinal of the new game state
+     */
+    public static PlayerCommand stateChange(long tick, int state) {
+        return new PlayerCommand(Type.STATE_CHANGE, tick, 0, 0, new int[0], state);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int[] getUnitIndices() {
+        return unitIndices.clone();
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PlayerCommand)) {
+            return false;
+        }
+        PlayerCommand other = (PlayerCommand) o;
+        return type == other.type && tick == other.tick && x == other.x && y == other.y
+                && state == other.state && Arrays.equals(unitIndices, other.unitIndices);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(new long[] { type.id, tick, x, y, state, Arrays.hashCode(unitIndices) });
+    }
+
+    @Override
+    public String toString() {
+        return type + "@" + tick + (type == Type.MOVE ? " (" + x + ", " + y + ")"
+                : type == Type.SELECT ? " " + Arrays.toString(unitIndices) : " state=" + state);
+    }
+}
@@ -0,0 +1,269 @@
+package input;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary log of player commands for one match.
+ *
+ * Layout: the magic bytes "SRTR", a version byte, the 8-byte match seed and the
+ * level number, followed by one record per command. Each record is the command
+ * type byte, the tick as an unsigned varint delta from the previous record, and
+ * a type-specific payload:
+ * - MOVE: x and y as zigzag varint deltas from the previous move
+ * - SELECT: the number of units, then the ascending unit indices as varint gaps
+ * - STATE_CHANGE: the state as a varint
+ * Commands are encoded as they are added, so a long match stays a few bytes
+ * per command in memory.
+ */
+public class ReplayLog {
+    private static final byte[] MAGIC = { 'S', 'R', 'T', 'R' };
+    private static final int VERSION = 1;
+
+    private final long seed;
+    private final int level;
+
+    private byte[] data = new byte[256];
+    private int length = 0;
+    private int commandCount = 0;
+
+    // Encoder state for deltas
+    private long lastTick = 0;
+    private int lastMoveX = 0;
+    private int lastMoveY = 0;
+
+    public ReplayLog(long seed, int level) {
+        this.seed = seed;
+        this.level = level;
+        for (byte b : MAGIC) {
+            writeByte(b);
+        }
+        writeByte(VERSION);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            writeByte((int) (seed >>> shift));
+        }
+        writeVarint(level);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * Gets the size of the encoded log in bytes.
+     */
+    public int getSizeInBytes() {
+        return length;
+    }
+
+    /**
+     * Appends a command. Commands must be added in tick order.
+     *
+     * @param command The command to record
+     */
+    public void add(PlayerCommand command) {
+        long tickDelta = command.getTick() - lastTick;
+        if (tickDelta < 0) {
+            throw new IllegalArgumentException("Command tick " + command.getTick() + " is before " + lastTick);
+        }
+
+        writeByte(command.getType().getId());
+        writeVarint(tickDelta);
+        lastTick = command.getTick();
+
+        switch (command.getType()) {
+            case MOVE:
+                writeVarint(zigzag(command.getX() - lastMoveX));
+                writeVarint(zigzag(command.getY() - lastMoveY));
+                lastMoveX = command.getX();
+                lastMoveY = command.getY();
+                break;
+            case SELECT:
+                int[] indices = command.getUnitIndices();
+                writeVarint(indices.length);
+                int previous = 0;
+                for (int index : indices) {
+                    writeVarint(index - previous);
+                    previous = index;
+                }
+                break;
+            case STATE_CHANGE:
+                writeVarint(command.getState());
+                break;
+        }
+        commandCount++;
+    }
+
+    /**
+     * Decodes all recorded commands.
+     *
+     * @return The commands in tick order
+     */
+    public List<PlayerCommand> getCommands() {
+        return decode(Arrays.copyOf(data, length)).commands;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(data, length);
+    }
+
+    public void write(Path path) throws IOException {
+        Files.write(path, toByteArray());
+    }
+
+    public static ReplayLog read(Path path) throws IOException {
+        return fromByteArray(Files.readAllBytes(path));
+    }
+
+    /**
+     * Parses an encoded log.
+     *
+     * @param bytes Bytes produced by {@link #toByteArray()}
+     * @return The log, ready for playback or further recording
+     */
+    public static ReplayLog fromByteArray(byte[] bytes) {
+        Decoded decoded = decode(bytes);
+        ReplayLog log = new ReplayLog(decoded.seed, decoded.level);
+        for (PlayerCommand command : decoded.commands) {
+            log.add(command);
+        }
+        return log;
+    }
+
+    private static class Decoded {
+        long seed;
+        int level;
+        List<PlayerCommand> commands = new ArrayList<>();
+    }
+
+    private static Decoded decode(byte[] bytes) {
+        Reader in = new Reader(bytes);
+        for (byte b : MAGIC) {
+            if (in.readByte() != (b & 0xFF)) {
+                throw new IllegalArgumentException("Not a replay file");
+            }
+        }
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported replay version: " + version);
+        }
+
+        Decoded decoded = new Decoded();
+        for (int i = 0; i < 8; i++) {
+            decoded.seed = (decoded.seed << 8) | in.readByte();
+        }
+        decoded.level = (int) in.readVarint();
+
+        long tick = 0;
+        int moveX = 0;
+        int moveY = 0;
+        while (in.hasMore()) {
+            PlayerCommand.Type type = PlayerCommand.Type.fromId(in.readByte());
+            tick += in.readVarint();
+            switch (type) {
+                case MOVE:
+                    moveX += unzigzag(in.readVarint());
+                    moveY += unzigzag(in.readVarint());
+                    decoded.commands.add(PlayerCommand.move(tick, moveX, moveY));
+                    break;
+                case SELECT:
+                    long count = in.readVarint();
+                    // Every index takes at least one byte
+                    if (count > in.remaining()) {
+                        throw new IllegalArgumentException("Invalid unit count in replay: " + count);
+                    }
+                    int[] indices = new int[(int) count];
+                    int previous = 0;
+                    for (int i = 0; i < indices.length; i++) {
+                        previous += (int) in.readVarint();
+                        indices[i] = previous;
+                    }
+                    decoded.commands.add(PlayerCommand.select(tick, indices));
+                    break;
+                case STATE_CHANGE:
+                    decoded.commands.add(PlayerCommand.stateChange(tick, (int) in.readVarint()));
+                    break;
+            }
+        }
+        return decoded;
+    }
+
+    private void writeByte(int b) {
+        if (length == data.length) {
+            data = Arrays.copyOf(data, length * 2);
+        }
+        data[length++] = (byte) b;
+    }
+
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    private static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    private static int unzigzag(long value) {
+        int n = (int) value;
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    /**
+     * Sequential reader over an encoded log.
+     */
+    private static class Reader {
+        private final byte[] bytes;
+        private int position = 0;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        boolean hasMore() {
+            return position < bytes.length;
+        }
+
+        int remaining() {
+            return bytes.length - position;
+        }
+
+        int readByte() {
+            if (position >= bytes.length) {
+                throw new IllegalArgumentException("Truncated replay");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        long readVarint() {
+            long result = 0;
+            int shift = 0;
+            while (true) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+                shift += 7;
+                if (shift > 63) {
+                    throw new IllegalArgumentException("Malformed varint");
+                }
+            }
+        }
+    }
+}
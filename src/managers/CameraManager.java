@@ -20,9 +20,15 @@ public class CameraManager {
     private static final float DECELERATION = 1800.0f; // pixels per second squared
     private static final float MAX_SPEED = 600.0f; // maximum pixels per second
     
-    // Camera bounds (should be configurable based on map size)
-    private static final int MAX_CAMERA_X = 400 + 5; // Keep compatibility with tests
-    private static final int MAX_CAMERA_Y = Constants.SCREEN_HEIGHT;
+    // Camera bounds until the map size is known
+    private static final int DEFAULT_MAX_CAMERA_X = 400 + 5; // Keep compatibility with tests
+    private static final int DEFAULT_MAX_CAMERA_Y = Constants.SCREEN_HEIGHT;
+    
+    // Camera bounds and map size in tiles (0 while unknown)
+    private int maxCameraX = DEFAULT_MAX_CAMERA_X;
+    private int maxCameraY = DEFAULT_MAX_CAMERA_Y;
+    private int mapWidth = 0;
+    private int mapHeight = 0;
     
     // Camera position and velocity
     private float cameraX = 0.0f;
@@ -188,12 +194,12 @@ public class CameraManager {
             cameraY = 0;
             velocityY = 0;
         }
-        if (cameraX > MAX_CAMERA_X) {
-            cameraX = MAX_CAMERA_X;
+        if (cameraX > maxCameraX) {
+            cameraX = maxCameraX;
             velocityX = 0;
         }
-        if (cameraY > MAX_CAMERA_Y) {
-            cameraY = MAX_CAMERA_Y;
+        if (cameraY > maxCameraY) {
+            cameraY = maxCameraY;
             velocityY = 0;
         }
     }
@@ -239,14 +245,31 @@ public class CameraManager {
     }
     
     /**
-     * Updates camera bounds based on map size
+     * Updates camera bounds based on map size, so the camera can scroll to
+     * every edge of the map but not past it.
      * 
-     * @param mapWidth The width of the current map
-     * @param mapHeight The height of the current map
+     * @param mapWidth The width of the current map in tiles
+     * @param mapHeight The height of the current map in tiles
      */
     public void updateCameraBounds(int mapWidth, int mapHeight) {
-        // This method can be used to dynamically adjust camera bounds
-        // based on the actual map size rather than using hard-coded values
+        this.mapWidth = mapWidth;
+        this.mapHeight = mapHeight;
+        this.maxCameraX = Math.max(0, mapWidth * Constants.TILE_WIDTH - Constants.SCREEN_WIDTH);
+        this.maxCameraY = Math.max(0, mapHeight * Constants.TILE_HEIGHT - Constants.SCREEN_HEIGHT);
+        constrainCameraPosition();
+    }
+    
+    /**
+     * Gets the map tiles currently on screen.
+     * 
+     * @param marginTiles Extra tiles to include on every side
+     * @return The visible region, clamped to the map once its size is known
+     */
+    public VisibleRegion getVisibleRegion(int marginTiles) {
+        int width = mapWidth > 0 ? mapWidth : Integer.MAX_VALUE;
+        int height = mapHeight > 0 ? mapHeight : Integer.MAX_VALUE;
+        return VisibleRegion.ofView(getCameraX(), getCameraY(), Constants.SCREEN_WIDTH, Constants.SCREEN_HEIGHT,
+                width, height).expand(marginTiles);
     }
     
     // Keyboard input methods
@@ -1,325 +1,167 @@
 package managers;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Random;
-
 import entities.GameUnit;
-import graphics.Color;
 import graphics.IGraphics;
 import graphics.Point;
+import utils.GameConfig;
+import utils.RandomStream;
 
 /**
  * Manages visual combat effects including damage numbers, attack animations,
  * death effects, and particle systems.
+ *
+ * Each kind of effect lives in a fixed-capacity {@link EffectPool}, so large
+ * battles neither allocate per effect nor grow without bound: once a pool is
+ * full, new effects replace the oldest ones.
  */
 public class CombatEffectManager {
-    private final List<DamageNumber> damageNumbers;
-    private final List<AttackAnimation> attackAnimations;
-    private final List<DeathAnimation> deathAnimations;
-    private final List<CombatParticle> particles;
-    private final Random random;
-    
+    public static final int DEFAULT_MAX_PARTICLES = 4096;
+    private static final int MAX_DAMAGE_NUMBERS = 256;
+    private static final int MAX_ANIMATIONS = 1024;
+
+    // Effect durations in frames
+    private static final int DAMAGE_LIFE = 45;
+    private static final int CRITICAL_DAMAGE_LIFE = 60;
+    private static final int ATTACK_LIFE = 15;
+    private static final int DEATH_LIFE = 60;
+
+    // Damage numbers store the damage in value, negated for critical hits
+    private final EffectPool damageNumbers;
+    private final EffectPool attackAnimations;
+    private final EffectPool deathAnimations;
+    private final EffectPool particles;
+    private RandomStream random;
+
     public CombatEffectManager() {
-        this.damageNumbers = new ArrayList<>();
-        this.attackAnimations = new ArrayList<>();
-        this.deathAnimations = new ArrayList<>();
-        this.particles = new ArrayList<>();
-        this.random = new Random();
+        this(GameConfig.getMaxParticles() > 0 ? GameConfig.getMaxParticles() : DEFAULT_MAX_PARTICLES);
+    }
+
+    /**
+     * @param maxParticles Hard cap on live particles
+     */
+    public CombatEffectManager(int maxParticles) {
+        this.damageNumbers = new EffectPool(MAX_DAMAGE_NUMBERS);
+        this.attackAnimations = new EffectPool(MAX_ANIMATIONS);
+        this.deathAnimations = new EffectPool(MAX_ANIMATIONS);
+        this.particles = new EffectPool(maxParticles);
+        this.random = new RandomStream();
+    }
+
+    /**
+     * Sets the random stream used for particle placement and colors.
+     */
+    public void setRandom(RandomStream random) {
+        this.random = random;
+    }
+
+    /**
+     * Gets the random stream used for particles, e.g. to save its state.
+     */
+    public RandomStream getRandom() {
+        return random;
     }
-    
+
     /**
      * Creates a damage number effect at the specified position.
      */
     public void createDamageNumber(Point position, int damage, boolean isCritical) {
-        damageNumbers.add(new DamageNumber(position, damage, isCritical));
+        damageNumbers.spawn(position.x, position.y, 0, -1, // Float upward
+                isCritical ? CRITICAL_DAMAGE_LIFE : DAMAGE_LIFE, isCritical ? -damage - 1 : damage, null);
     }
-    
+
     /**
      * Creates an attack animation for a unit.
      */
     public void createAttackAnimation(GameUnit unit) {
-        attackAnimations.add(new AttackAnimation(unit));
+        attackAnimations.spawn(0, 0, 0, 0, ATTACK_LIFE, 0, unit);
     }
-    
+
     /**
      * Creates a death animation for a unit.
      */
     public void createDeathAnimation(GameUnit unit) {
-        deathAnimations.add(new DeathAnimation(unit));
+        Point position = unit.getCurrentPosition();
+        deathAnimations.spawn(position.x, position.y, 0, 0, DEATH_LIFE, 0, null);
     }
-    
+
     /**
      * Creates combat particles at the specified position.
      */
     public void createCombatParticles(Point position, int count) {
         for (int i = 0; i < count; i++) {
-            particles.add(new CombatParticle(position, random));
+            int x = position.x + random.nextInt(50);
+            int y = position.y + random.nextInt(50);
+            int vx = random.nextInt(6) - 3; // -3 to 2
+            int vy = random.nextInt(6) - 3;
+            int life = 30 + random.nextInt(30); // 30-60 frames
+            particles.spawn(x, y, vx, vy, life, random.nextInt(EffectSnapshot.PARTICLE_COLOR_COUNT), null);
         }
     }
-    
+
     /**
      * Updates all combat effects.
      */
     public void update() {
-        // Update damage numbers
-        Iterator<DamageNumber> damageIter = damageNumbers.iterator();
-        while (damageIter.hasNext()) {
-            DamageNumber damage = damageIter.next();
-            damage.update();
-            if (damage.isFinished()) {
-                damageIter.remove();
-            }
-        }
-        
-        // Update attack animations
-        Iterator<AttackAnimation> attackIter = attackAnimations.iterator();
-        while (attackIter.hasNext()) {
-            AttackAnimation attack = attackIter.next();
-            attack.update();
-            if (attack.isFinished()) {
-                attackIter.remove();
-            }
-        }
-        
-        // Update death animations
-        Iterator<DeathAnimation> deathIter = deathAnimations.iterator();
-        while (deathIter.hasNext()) {
-            DeathAnimation death = deathIter.next();
-            death.update();
-            if (death.isFinished()) {
-                deathIter.remove();
-            }
-        }
-        
-        // Update particles
-        Iterator<CombatParticle> particleIter = particles.iterator();
-        while (particleIter.hasNext()) {
-            CombatParticle particle = particleIter.next();
-            particle.update();
-            if (particle.isFinished()) {
-                particleIter.remove();
-            }
-        }
+        damageNumbers.update();
+        attackAnimations.update();
+        deathAnimations.update();
+        particles.update();
     }
-    
+
     /**
-     * Renders all combat effects.
+     * Removes all effects, e.g. when a level ends.
      */
-    public void render(IGraphics g, int cameraX, int cameraY) {
-        // Render damage numbers
-        for (DamageNumber damage : damageNumbers) {
-            damage.render(g, cameraX, cameraY);
-        }
-        
-        // Render attack animations
-        for (AttackAnimation attack : attackAnimations) {
-            attack.render(g, cameraX, cameraY);
-        }
-        
-        // Render death animations
-        for (DeathAnimation death : deathAnimations) {
-            death.render(g, cameraX, cameraY);
-        }
-        
-        // Render particles
-        for (CombatParticle particle : particles) {
-            particle.render(g, cameraX, cameraY);
-        }
+    public void clear() {
+        damageNumbers.clear();
+        attackAnimations.clear();
+        deathAnimations.clear();
+        particles.clear();
+    }
+
+    public int getParticleCount() {
+        return particles.size();
     }
-    
+
+    public int getMaxParticles() {
+        return particles.getCapacity();
+    }
+
     /**
-     * Represents a floating damage number.
+     * Gets the number of live effects of all kinds.
      */
-    private static class DamageNumber {
-        private Point position;
-        private int damage;
-        private boolean isCritical;
-        private int life;
-        private int maxLife;
-        private float alpha;
-        
-        public DamageNumber(Point position, int damage, boolean isCritical) {
-            this.position = new Point(position.x, position.y);
-            this.damage = damage;
-            this.isCritical = isCritical;
-            this.maxLife = isCritical ? 60 : 45; // Reduced duration to be less distracting
-            this.life = maxLife;
-            this.alpha = 1.0f;
-        }
-        
-        public void update() {
-            life--;
-            position = new Point(position.x, position.y - 1); // Float upward
-            alpha = (float) life / maxLife;
-        }
-        
-        public boolean isFinished() {
-            return life <= 0;
-        }
-        
-        public void render(IGraphics g, int cameraX, int cameraY) {
-            if (alpha <= 0) return;
-            
-            String text = "-" + damage;
-            Color color = isCritical ? new Color(255, 0, 0) : new Color(255, 255, 255);
-            
-            int screenX = position.x - cameraX;
-            int screenY = position.y - cameraY;
-            
-            // Draw with outline for better visibility
-            g.setColor(new Color(0, 0, 0));
-            g.drawString(text, screenX + 1, screenY + 1);
-            g.setColor(color);
-            g.drawString(text, screenX, screenY);
-        }
+    public int getEffectCount() {
+        return damageNumbers.size() + attackAnimations.size() + deathAnimations.size() + particles.size();
     }
-    
+
     /**
-     * Represents an attack animation for a unit.
+     * Copies the live effects for rendering on another thread.
+     *
+     * @return The effects, in drawing order
      */
-    private static class AttackAnimation {
-        private GameUnit unit;
-        private int duration;
-        private int maxDuration;
-        private Color originalColor;
-        
-        public AttackAnimation(GameUnit unit) {
-            this.unit = unit;
-            this.maxDuration = 15; // 15 frames
-            this.duration = maxDuration;
-        }
-        
-        public void update() {
-            duration--;
-        }
-        
-        public boolean isFinished() {
-            return duration <= 0;
-        }
-        
-        public void render(IGraphics g, int cameraX, int cameraY) {
-            if (duration <= 0) return;
-            
-            // Create attack flash effect
-            float intensity = (float) duration / maxDuration;
-            
-            Point unitPos = unit.getCurrentPosition();
-            int screenX = unitPos.x - cameraX;
-            int screenY = unitPos.y - cameraY;
-            
-            // Draw attack flash (simplified without alpha)
-            if (intensity > 0.3f) { // Only show flash for first 70% of duration
-                g.setColor(new Color(255, 255, 0)); // Yellow flash
-                g.fillRect(screenX, screenY, 50, 50); // TILE_WIDTH, TILE_HEIGHT
-            }
-        }
+    public EffectSnapshot snapshot() {
+        EffectSnapshot snapshot = new EffectSnapshot(getEffectCount());
+        snapshot.add(EffectSnapshot.DAMAGE_NUMBER, damageNumbers);
+        snapshot.add(EffectSnapshot.ATTACK, attackAnimations);
+        snapshot.add(EffectSnapshot.DEATH, deathAnimations);
+        snapshot.add(EffectSnapshot.PARTICLE, particles);
+        return snapshot;
     }
-    
+
     /**
-     * Represents a death animation for a unit.
+     * Renders all combat effects.
      */
-    private static class DeathAnimation {
-        private Point position;
-        private int duration;
-        private int maxDuration;
-        private float alpha;
-        
-        public DeathAnimation(GameUnit unit) {
-            this.position = new Point(unit.getCurrentPosition().x, unit.getCurrentPosition().y);
-            this.maxDuration = 60; // 1 second at 60 FPS
-            this.duration = maxDuration;
-            this.alpha = 1.0f;
-        }
-        
-        public void update() {
-            duration--;
-            alpha = (float) duration / maxDuration;
-        }
-        
-        public boolean isFinished() {
-            return duration <= 0;
-        }
-        
-        public void render(IGraphics g, int cameraX, int cameraY) {
-            if (alpha <= 0) return;
-            
-            // Draw fading unit outline
-            int screenX = position.x - cameraX;
-            int screenY = position.y - cameraY;
-            
-            // Only show death effect for first 50% of duration
-            if (alpha > 0.5f) {
-                g.setColor(new Color(255, 0, 0)); // Red fade
-                g.drawRect(screenX, screenY, 50, 50); // TILE_WIDTH, TILE_HEIGHT
-                
-                // Draw cross for death using rectangles
-                g.setColor(new Color(255, 255, 255));
-                // Draw diagonal line from top-left to bottom-right
-                for (int i = 0; i < 30; i++) {
-                    g.fillRect(screenX + 10 + i, screenY + 10 + i, 1, 1);
-                }
-                // Draw diagonal line from top-right to bottom-left
-                for (int i = 0; i < 30; i++) {
-                    g.fillRect(screenX + 40 - i, screenY + 10 + i, 1, 1);
-                }
-            }
-        }
+    public void render(IGraphics g, int cameraX, int cameraY) {
+        render(g, cameraX, cameraY, null);
     }
-    
+
     /**
-     * Represents a combat particle effect.
+     * Renders the combat effects inside a region, skipping the ones off screen.
+     * Must be called on the thread that updates the effects; other threads
+     * render a {@link #snapshot()} instead.
+     *
+     * @param region Region to draw, or null for all effects
      */
-    private static class CombatParticle {
-        private Point position;
-        private Point velocity;
-        private int life;
-        private int maxLife;
-        private float alpha;
-        private Color color;
-        
-        public CombatParticle(Point position, Random random) {
-            this.position = new Point(position.x + random.nextInt(50), position.y + random.nextInt(50));
-            this.velocity = new Point(
-                random.nextInt(6) - 3, // -3 to 3
-                random.nextInt(6) - 3
-            );
-            this.maxLife = 30 + random.nextInt(30); // 30-60 frames
-            this.life = maxLife;
-            this.alpha = 1.0f;
-            
-            // Random particle color
-            int colorChoice = random.nextInt(3);
-            switch (colorChoice) {
-                case 0: this.color = new Color(255, 255, 0); break; // Yellow
-                case 1: this.color = new Color(255, 100, 0); break; // Orange
-                case 2: this.color = new Color(255, 255, 255); break; // White
-            }
-        }
-        
-        public void update() {
-            position = new Point(position.x + velocity.x, position.y + velocity.y);
-            life--;
-            alpha = (float) life / maxLife;
-        }
-        
-        public boolean isFinished() {
-            return life <= 0;
-        }
-        
-        public void render(IGraphics g, int cameraX, int cameraY) {
-            if (alpha <= 0) return;
-            
-            int screenX = position.x - cameraX;
-            int screenY = position.y - cameraY;
-            
-            // Only show particles for first 70% of their life
-            if (alpha > 0.3f) {
-                g.setColor(color);
-                g.fillRect(screenX, screenY, 2, 2); // Small particle
-            }
-        }
+    public void render(IGraphics g, int cameraX, int cameraY, VisibleRegion region) {
+        snapshot().render(g, cameraX, cameraY, region);
     }
 }
-
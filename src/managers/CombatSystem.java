@@ -2,7 +2,10 @@ package managers;
 
 import entities.GameUnit;
 import graphics.Point;
+import map.ArrayTileMap;
+import map.TileMap;
 import utils.Constants;
+import utils.RandomStream;
 import utils.TileCoordinateConverter;
 
 /**
@@ -14,11 +17,26 @@ public class CombatSystem {
     private int lastDamageDealt = 0;
     private boolean wasCriticalHit = false;
     private GameUnit owner;
+    private RandomStream random = new RandomStream();
     
     public CombatSystem(GameUnit owner) {
         this.owner = owner;
     }
     
+    /**
+     * Sets the unit's own random stream, used for critical hits
+     */
+    public void setRandom(RandomStream random) {
+        this.random = random;
+    }
+    
+    /**
+     * Gets the unit's random stream, e.g. to save its state
+     */
+    public RandomStream getRandom() {
+        return random;
+    }
+    
     /**
      * Checks if the unit is currently attacking
      */
@@ -59,12 +77,20 @@ public class CombatSystem {
      * Checks if this unit can attack the given enemy
      */
     public boolean canAttackEnemy(int[][] map, GameUnit enemy) {
+        return canAttackEnemy(null, new ArrayTileMap(map), enemy);
+    }
+    
+    /**
+     * Checks if this unit can attack the given enemy, memoizing line of sight
+     * in the simulation's cache (null to trace every time)
+     */
+    public boolean canAttackEnemy(LineOfSightCache losCache, TileMap map, GameUnit enemy) {
         final int ATTACK_RADIUS = 8;
         int manhattanDist = TileCoordinateConverter.manhattanDistanceInTiles(
             owner.getCurrentPosition(), enemy.getCurrentPosition());
         // Now includes FOV check - units can only attack enemies they can see within
         // their field of view
-        return manhattanDist <= ATTACK_RADIUS && UnitVisibility.checkVisible(map, owner, enemy);
+        return manhattanDist <= ATTACK_RADIUS && UnitVisibility.checkVisible(losCache, map, owner, enemy);
     }
     
     /**
@@ -91,7 +117,7 @@ public class CombatSystem {
         enemy.getCombatSystem().onTakeDamage(owner);
 
         // Check for critical hits (10% chance)
-        boolean isCriticalHit = Math.random() < 0.1;
+        boolean isCriticalHit = random.nextDouble() < 0.1;
         if (isCriticalHit) {
             damageToEnemy = (int) (damageToEnemy * 1.5); // 50% bonus damage
             enemy.setHealth(enemy.getHealth() - (int) (damageToEnemy * 0.5)); // Apply bonus damage
@@ -0,0 +1,128 @@
+package managers;
+
+import entities.GameUnit;
+
+/**
+ * Fixed-capacity pool of short-lived effects stored as parallel primitive arrays.
+ *
+ * Effects live in a ring buffer in the order they were spawned, so the oldest
+ * effect is always at the head. The buffer is a power of two in size, but at
+ * most the requested capacity is ever live: when full, spawning evicts the
+ * oldest effect instead of growing. {@link #update()} moves and ages every
+ * effect and compacts the survivors in the same pass, keeping their order.
+ *
+ * The arrays are read directly by {@link CombatEffectManager} when rendering:
+ * logical index i (0 = oldest) lives in slot {@code (head + i) & mask}.
+ */
+final class EffectPool {
+    final int[] x;
+    final int[] y;
+    final int[] vx;
+    final int[] vy;
+    final int[] life;
+    final int[] maxLife;
+    final int[] value; // color index, damage amount, ... depending on the effect
+    final GameUnit[] unit; // unit the effect follows, or null
+
+    final int mask;
+    private final int capacity;
+    int head = 0;
+    int size = 0;
+
+    /**
+     * @param capacity Maximum number of live effects
+     */
+    EffectPool(int capacity) {
+        this.capacity = capacity;
+        int slots = 1;
+        while (slots < capacity) {
+            slots <<= 1;
+        }
+        this.mask = slots - 1;
+        this.x = new int[slots];
+        this.y = new int[slots];
+        this.vx = new int[slots];
+        this.vy = new int[slots];
+        this.life = new int[slots];
+        this.maxLife = new int[slots];
+        this.value = new int[slots];
+        this.unit = new GameUnit[slots];
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the array slot of the i-th oldest live effect.
+     */
+    int slot(int i) {
+        return (head + i) & mask;
+    }
+
+    /**
+     * Adds an effect, evicting the oldest one if the pool is full.
+     *
+     * @return The slot the effect was stored in
+     */
+    int spawn(int px, int py, int velocityX, int velocityY, int lifetime, int effectValue, GameUnit target) {
+        if (size == capacity) {
+            unit[head] = null;
+            head = (head + 1) & mask;
+            size--;
+        }
+        int s = (head + size) & mask;
+        x[s] = px;
+        y[s] = py;
+        vx[s] = velocityX;
+        vy[s] = velocityY;
+        life[s] = lifetime;
+        maxLife[s] = lifetime;
+        value[s] = effectValue;
+        unit[s] = target;
+        size++;
+        return s;
+    }
+
+    /**
+     * Moves every effect by its velocity, ages it by one tick and drops the
+     * finished ones.
+     */
+    void update() {
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            int r = (head + read) & mask;
+            int remaining = life[r] - 1;
+            if (remaining <= 0) {
+                unit[r] = null;
+                continue;
+            }
+            int w = (head + write) & mask;
+            x[w] = x[r] + vx[r];
+            y[w] = y[r] + vy[r];
+            life[w] = remaining;
+            if (w != r) {
+                vx[w] = vx[r];
+                vy[w] = vy[r];
+                maxLife[w] = maxLife[r];
+                value[w] = value[r];
+                unit[w] = unit[r];
+                unit[r] = null;
+            }
+            write++;
+        }
+        size = write;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            unit[(head + i) & mask] = null;
+        }
+        head = 0;
+        size = 0;
+    }
+}
@@ -0,0 +1,168 @@
+package managers;
+
+import graphics.Color;
+import graphics.IGraphics;
+import graphics.Point;
+
+/**
+ * Immutable copy of the live combat effects, taken together with a
+ * simulation snapshot so the renderer never reads the effect pools while the
+ * game loop is updating them.
+ *
+ * Effects are stored as parallel arrays in drawing order: damage numbers,
+ * attack flashes, death outlines, then particles, each oldest first. Effects
+ * that follow a unit store the unit's position at the time of the capture.
+ */
+public final class EffectSnapshot {
+    public static final int DAMAGE_NUMBER = 0;
+    public static final int ATTACK = 1;
+    public static final int DEATH = 2;
+    public static final int PARTICLE = 3;
+
+    /** Snapshot without any effects. */
+    public static final EffectSnapshot EMPTY = new EffectSnapshot(0);
+
+    private static final Color[] PARTICLE_COLORS = {
+        new Color(255, 255, 0), // Yellow
+        new Color(255, 100, 0), // Orange
+        new Color(255, 255, 255) // White
+    };
+    static final int PARTICLE_COLOR_COUNT = PARTICLE_COLORS.length;
+    private static final Color OUTLINE_COLOR = new Color(0, 0, 0);
+    private static final Color DAMAGE_COLOR = new Color(255, 255, 255);
+    private static final Color CRITICAL_COLOR = new Color(255, 0, 0);
+    private static final Color ATTACK_COLOR = new Color(255, 255, 0);
+    private static final Color DEATH_COLOR = new Color(255, 0, 0);
+    private static final Color DEATH_CROSS_COLOR = new Color(255, 255, 255);
+
+    private final int[] kind;
+    private final int[] x;
+    private final int[] y;
+    private final int[] age;
+    private final int[] maxLife;
+    private final int[] value; // damage (negated for critical hits) or particle color index
+    private int count;
+
+    EffectSnapshot(int capacity) {
+        this.kind = new int[capacity];
+        this.x = new int[capacity];
+        this.y = new int[capacity];
+        this.age = new int[capacity];
+        this.maxLife = new int[capacity];
+        this.value = new int[capacity];
+    }
+
+    /**
+     * Copies the live effects of a pool; only used while capturing.
+     */
+    void add(int effectKind, EffectPool pool) {
+        for (int i = 0; i < pool.size; i++) {
+            int s = pool.slot(i);
+            int n = count++;
+            kind[n] = effectKind;
+            if (pool.unit[s] != null) {
+                Point position = pool.unit[s].getCurrentPosition();
+                x[n] = position.x;
+                y[n] = position.y;
+            } else {
+                x[n] = pool.x[s];
+                y[n] = pool.y[s];
+            }
+            age[n] = pool.maxLife[s] - pool.life[s];
+            maxLife[n] = pool.maxLife[s];
+            value[n] = pool.value[s];
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getKind(int index) {
+        return kind[index];
+    }
+
+    public int getX(int index) {
+        return x[index];
+    }
+
+    public int getY(int index) {
+        return y[index];
+    }
+
+    /**
+     * Gets the number of ticks the effect has been alive.
+     */
+    public int getAge(int index) {
+        return age[index];
+    }
+
+    /**
+     * Renders the effects inside a region, skipping the ones off screen.
+     *
+     * @param region Region to draw, or null for all effects
+     */
+    public void render(IGraphics g, int cameraX, int cameraY, VisibleRegion region) {
+        int lastColor = -1;
+        for (int i = 0; i < count; i++) {
+            int life = maxLife[i] - age[i];
+            int screenX = x[i] - cameraX;
+            int screenY = y[i] - cameraY;
+            switch (kind[i]) {
+                case DAMAGE_NUMBER:
+                    // Text is drawn above its baseline
+                    if (isOutside(region, x[i], y[i] - 20, 50, 21)) {
+                        break;
+                    }
+                    boolean isCritical = value[i] < 0;
+                    String text = "-" + (isCritical ? -value[i] - 1 : value[i]);
+
+                    // Draw with outline for better visibility
+                    g.setColor(OUTLINE_COLOR);
+                    g.drawString(text, screenX + 1, screenY + 1);
+                    g.setColor(isCritical ? CRITICAL_COLOR : DAMAGE_COLOR);
+                    g.drawString(text, screenX, screenY);
+                    break;
+                case ATTACK:
+                    // Only show flash for first 70% of duration
+                    if (life * 10 <= maxLife[i] * 3 || isOutside(region, x[i], y[i], 50, 50)) {
+                        break;
+                    }
+                    g.setColor(ATTACK_COLOR); // Yellow flash
+                    g.fillRect(screenX, screenY, 50, 50); // TILE_WIDTH, TILE_HEIGHT
+                    break;
+                case DEATH:
+                    // Only show death effect for first 50% of duration
+                    if (life * 2 <= maxLife[i] || isOutside(region, x[i], y[i], 51, 51)) {
+                        break;
+                    }
+                    // Draw fading unit outline
+                    g.setColor(DEATH_COLOR); // Red fade
+                    g.drawRect(screenX, screenY, 50, 50); // TILE_WIDTH, TILE_HEIGHT
+
+                    // Draw cross for death using rectangles
+                    g.setColor(DEATH_CROSS_COLOR);
+                    for (int j = 0; j < 30; j++) {
+                        g.fillRect(screenX + 10 + j, screenY + 10 + j, 1, 1); // top-left to bottom-right
+                        g.fillRect(screenX + 40 - j, screenY + 10 + j, 1, 1); // top-right to bottom-left
+                    }
+                    break;
+                default:
+                    // Only show particles for first 70% of their life
+                    if (life * 10 <= maxLife[i] * 3 || isOutside(region, x[i], y[i], 2, 2)) {
+                        break;
+                    }
+                    if (value[i] != lastColor) {
+                        lastColor = value[i];
+                        g.setColor(PARTICLE_COLORS[lastColor]);
+                    }
+                    g.fillRect(screenX, screenY, 2, 2); // Small particle
+                    break;
+            }
+        }
+    }
+
+    private static boolean isOutside(VisibleRegion region, int x, int y, int width, int height) {
+        return region != null && !region.intersects(x, y, width, height);
+    }
+}
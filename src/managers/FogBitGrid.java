@@ -0,0 +1,216 @@
+package managers;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Bit-packed boolean grid used for fog of war.
+ *
+ * Each row is stored in its own run of 64-bit words (bit x % 64 of word x / 64),
+ * so clearing, copying and merging whole grids work on 64 tiles at a time, and
+ * rectangular queries only have to look at the words they overlap.
+ */
+public class FogBitGrid {
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    private final long[] words;
+
+    public FogBitGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.words = new long[wordsPerRow * height];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * Gets the raw word backing a row segment.
+     *
+     * @param y Row
+     * @param wordIndex Index of the word within the row
+     * @return The 64 tile bits starting at x = wordIndex * 64
+     */
+    public long getWord(int y, int wordIndex) {
+        return words[y * wordsPerRow + wordIndex];
+    }
+
+    public boolean get(int x, int y) {
+        return (words[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    public void set(int x, int y) {
+        words[y * wordsPerRow + (x >>> 6)] |= 1L << x;
+    }
+
+    public void clear(int x, int y) {
+        words[y * wordsPerRow + (x >>> 6)] &= ~(1L << x);
+    }
+
+    public void set(int x, int y, boolean value) {
+        if (value) {
+            set(x, y);
+        } else {
+            clear(x, y);
+        }
+    }
+
+    /**
+     * Clears every tile.
+     */
+    public void clearAll() {
+        Arrays.fill(words, 0L);
+    }
+
+    /**
+     * Sets every tile that is set in another grid of the same size (this |= other).
+     *
+     * @param other Grid to merge in
+     */
+    public void or(FogBitGrid other) {
+        checkSameSize(other);
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    /**
+     * Copies the contents of another grid of the same size.
+     *
+     * @param other Grid to copy from
+     */
+    public void copyFrom(FogBitGrid other) {
+        checkSameSize(other);
+        System.arraycopy(other.words, 0, words, 0, words.length);
+    }
+
+    /**
+     * Writes the raw words to a buffer, row by row.
+     *
+     * @param buffer Buffer with room for {@code getWordsPerRow() * getHeight()} words
+     */
+    public void writeTo(LongBuffer buffer) {
+        buffer.put(words);
+    }
+
+    /**
+     * Replaces the contents with words read from a buffer, as written by
+     * {@link #writeTo(LongBuffer)} for a grid of the same size.
+     *
+     * @param buffer Buffer to read from
+     */
+    public void readFrom(LongBuffer buffer) {
+        buffer.get(words);
+    }
+
+    /**
+     * Counts the set tiles.
+     *
+     * @return Number of tiles that are set
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether any tile in a rectangle is set. The rectangle is clipped
+     * to the grid.
+     *
+     * @param x0 Left tile
+     * @param y0 Top tile
+     * @param w Width in tiles
+     * @param h Height in tiles
+     * @return true if at least one tile in the rectangle is set
+     */
+    public boolean anySet(int x0, int y0, int w, int h) {
+        int x1 = Math.min(width, x0 + w);
+        int y1 = Math.min(height, y0 + h);
+        x0 = Math.max(0, x0);
+        y0 = Math.max(0, y0);
+        if (x0 >= x1 || y0 >= y1) {
+            return false;
+        }
+
+        int firstWord = x0 >>> 6;
+        int lastWord = (x1 - 1) >>> 6;
+        long firstMask = -1L << x0;
+        long lastMask = -1L >>> (63 - ((x1 - 1) & 63));
+
+        for (int y = y0; y < y1; y++) {
+            int base = y * wordsPerRow;
+            for (int wi = firstWord; wi <= lastWord; wi++) {
+                long mask = -1L;
+                if (wi == firstWord) {
+                    mask &= firstMask;
+                }
+                if (wi == lastWord) {
+                    mask &= lastMask;
+                }
+                if ((words[base + wi] & mask) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds a smaller grid where each tile is set if any tile in the matching
+     * factor x factor block of this grid is set. Source rows are OR-ed together
+     * a word at a time before the columns are reduced.
+     *
+     * @param factor Block size in tiles
+     * @return The downsampled grid
+     */
+    public FogBitGrid downsample(int factor) {
+        if (factor < 1) {
+            throw new IllegalArgumentException("factor must be positive: " + factor);
+        }
+        FogBitGrid result = new FogBitGrid((width + factor - 1) / factor, (height + factor - 1) / factor);
+        long[] rowUnion = new long[wordsPerRow];
+
+        for (int outY = 0; outY < result.height; outY++) {
+            Arrays.fill(rowUnion, 0L);
+            int yEnd = Math.min(height, (outY + 1) * factor);
+            for (int y = outY * factor; y < yEnd; y++) {
+                int base = y * wordsPerRow;
+                for (int wi = 0; wi < wordsPerRow; wi++) {
+                    rowUnion[wi] |= words[base + wi];
+                }
+            }
+
+            for (int outX = 0; outX < result.width; outX++) {
+                int xEnd = Math.min(width, (outX + 1) * factor);
+                for (int x = outX * factor; x < xEnd; x++) {
+                    if ((rowUnion[x >>> 6] & (1L << x)) != 0) {
+                        result.set(outX, outY);
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private void checkSameSize(FogBitGrid other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Grid size mismatch: " + other.width + "x" + other.height
+                    + " vs " + width + "x" + height);
+        }
+    }
+}
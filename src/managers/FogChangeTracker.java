@@ -0,0 +1,73 @@
+package managers;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Visibility changes of one {@link GameFogWar}, collected for one consumer.
+ *
+ * The fog adds the tiles changed by every update; the consumer drains them
+ * whenever it gets around to it, possibly from another thread and after any
+ * number of updates. Past a limit only a full redraw is requested, so a
+ * consumer that stops draining costs no memory.
+ */
+public class FogChangeTracker {
+    private int[] tiles = new int[64];
+    private int count = 0;
+    private int limit;
+    private boolean overflow = true;
+
+    FogChangeTracker(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Hands over the tiles whose visibility changed since the last call.
+     * A tile may be reported more than once.
+     *
+     * @param action Receives tile indices, y * width + x
+     * @return false if the changes were not tracked (first call, reset, or too
+     *         many changes) and every tile should be treated as changed
+     */
+    public synchronized boolean drain(IntConsumer action) {
+        boolean tracked = !overflow;
+        if (tracked) {
+            for (int i = 0; i < count; i++) {
+                action.accept(tiles[i]);
+            }
+        }
+        count = 0;
+        overflow = false;
+        return tracked;
+    }
+
+    synchronized void add(int index) {
+        if (overflow) {
+            return;
+        }
+        if (count == limit) {
+            overflow = true;
+            count = 0;
+            return;
+        }
+        if (count == tiles.length) {
+            tiles = Arrays.copyOf(tiles, Math.min(limit, count * 2));
+        }
+        tiles[count++] = index;
+    }
+
+    synchronized void addAll(int[] indices, int length) {
+        for (int i = 0; i < length && !overflow; i++) {
+            add(indices[i]);
+        }
+    }
+
+    /**
+     * Drops the collected tiles and requests a full redraw, e.g. after a reset.
+     */
+    synchronized void invalidate(int newLimit) {
+        limit = newLimit;
+        count = 0;
+        overflow = true;
+    }
+}
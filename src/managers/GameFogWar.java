@@ -1,40 +1,224 @@
 package managers;
 
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import entities.GameUnit;
 import graphics.Point;
+import map.ArrayTileMap;
+import map.TileMap;
 
+/**
+ * Fog of war for one faction.
+ *
+ * Visibility is reference counted: every tile stores how many units currently
+ * see it, and each unit remembers the tiles it contributed. A unit's
+ * contribution is only removed and re-added when it moves to a different tile
+ * (or its sight radius changes), so units standing still cost nothing per frame.
+ * Tiles whose visible or visited state changed during the last update are
+ * collected as dirty tiles for renderers that only want to redraw what changed,
+ * and also handed to {@link FogChangeTracker}s for renderers on other threads.
+ *
+ * Only the visible and visited bits cover the whole map. Observer counts are
+ * kept per 64x64-tile chunk, allocated when a unit first sees into the chunk
+ * and dropped once no unit does, so the rest grows with the area in sight
+ * rather than with the map.
+ */
 public class GameFogWar {
-    private boolean[][] visibleData;
-    private boolean[][] visitedData; // Track areas that have been visited/explored
+    /**
+     * How visibility around each unit is computed.
+     * SQUARE reveals a fixed square ignoring walls; SHADOWCAST uses per-unit-type
+     * sight radii and is blocked by walls.
+     */
+    public enum FogMode {
+        SQUARE,
+        SHADOWCAST
+    }
+
+    private static final int SQUARE_RANGE = 5;
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+    private static final int CHUNK_TILES = 1 << (2 * CHUNK_SHIFT);
+    // Redrawing everything is cheaper than tracking more changes than this
+    private static final int MAX_TRACKED_CHANGES = 1 << 16;
+
+    private FogBitGrid visibleData;
+    private FogBitGrid visitedData; // Track areas that have been visited/explored
+    private int width;
+    private FogMode fogMode = FogMode.SQUARE;
+
+    // Number of units that currently see each tile, per chunk, indexed
+    // [chunk][local y * 64 + local x]; null for chunks no unit sees
+    private int[][] chunkCounts;
+    // Update in which each tile was last marked dirty, laid out like chunkCounts
+    private int[][] chunkStamps;
+    // Number of tiles with a nonzero count in each chunk
+    private int[] chunkObserved;
+    private int chunksX;
+    // Chunks that were allocated or emptied during this update
+    private int[] releaseCandidates = new int[16];
+    private int releaseCount = 0;
+    private final Map<GameUnit, Observer> observers = new IdentityHashMap<>();
+    private TileMap boundMap = null;
+    private int updateId = 0;
+
+    // Tiles changed by the last update, as y * width + x
+    private int[] dirtyTiles = new int[64];
+    private int dirtyCount = 0;
+
+    // Consumers of the changes; registered from the render thread
+    private final List<FogChangeTracker> trackers = new CopyOnWriteArrayList<>();
+    private int trackerLimit;
+
+    // Scratch buffer used while collecting the tiles one unit can see.
+    // Stamps cover only the square around the unit being traced.
+    private int[] scratchTiles = new int[256];
+    private int scratchCount = 0;
+    private int[] scratchStamp = new int[0];
+    private int scratchId = 0;
+    private int scratchLeft;
+    private int scratchTop;
+    private int scratchSize;
+
+    /**
+     * Cached contribution of one unit: where it stood and which tiles it revealed.
+     */
+    private static class Observer {
+        int tileX;
+        int tileY;
+        int radius;
+        int[] tiles;
+        int lastUpdate;
+    }
 
     public GameFogWar(int mapHeight, int mapWidth) {
         reset(mapHeight, mapWidth);
     }
 
-    public boolean[][] getVisibleData() {
+    public FogBitGrid getVisibleData() {
         return visibleData;
     }
 
-    public boolean[][] getVisitedData() {
+    public FogBitGrid getVisitedData() {
         return visitedData;
     }
 
+    public FogMode getFogMode() {
+        return fogMode;
+    }
+
+    public void setFogMode(FogMode fogMode) {
+        if (this.fogMode != fogMode) {
+            this.fogMode = fogMode;
+            // Every cached contribution was computed with the old mode
+            boundMap = null;
+        }
+    }
+
     public boolean isTileVisible(int x, int y) {
-        return visibleData[y][x];
+        return visibleData.get(x, y);
     }
 
     public boolean isTileVisited(int x, int y) {
-        return visitedData[y][x];
+        return visitedData.get(x, y);
+    }
+
+    /**
+     * Overrides the visibility of a single tile; a tile made visible also
+     * counts as visited. Updates only rewrite a tile
+     * when its observer count rises from or drops to zero, so the override
+     * lasts until that happens (or the fog is reset), not just until the next
+     * update.
+     *
+     * @param x Tile x
+     * @param y Tile y
+     * @param visible Whether the tile is visible
+     */
+    public void setTileVisible(int x, int y, boolean visible) {
+        visibleData.set(x, y, visible);
+        if (visible) {
+            visitedData.set(x, y);
+        }
+        for (FogChangeTracker tracker : trackers) {
+            tracker.add(y * width + x);
+        }
+    }
+
+    public void setTileVisited(int x, int y, boolean visited) {
+        visitedData.set(x, y, visited);
+        for (FogChangeTracker tracker : trackers) {
+            tracker.add(y * width + x);
+        }
+    }
+
+    /**
+     * Gets the tiles whose visible or visited state changed during the last
+     * call to {@link #calculateFogOfWar}. Only the first {@link #getDirtyTileCount()}
+     * entries are valid; each entry is y * width + x.
+     *
+     * @return Array of dirty tile indices
+     */
+    public int[] getDirtyTiles() {
+        return dirtyTiles;
+    }
+
+    public int getDirtyTileCount() {
+        return dirtyCount;
+    }
+
+    /**
+     * Starts collecting the tiles whose visible or visited state changes, for
+     * a consumer that drains them at its own pace. Its first drain requests a
+     * full redraw.
+     *
+     * @return The new tracker
+     */
+    public FogChangeTracker trackChanges() {
+        FogChangeTracker tracker = new FogChangeTracker(trackerLimit);
+        trackers.add(tracker);
+        return tracker;
+    }
+
+    public void stopTracking(FogChangeTracker tracker) {
+        trackers.remove(tracker);
+    }
+
+    /**
+     * Gets the number of units that currently see a tile.
+     *
+     * @param x Tile x
+     * @param y Tile y
+     * @return The observer count
+     */
+    public int getObserverCount(int x, int y) {
+        int[] counts = chunkCounts[chunkIndex(x, y)];
+        return counts == null ? 0 : counts[localIndex(x, y)];
     }
 
     public void calculateFogOfWar(List<GameUnit> playerList, int[][] mapdata) {
-        // Clear current visibility
-        for (int y = 0; y < visibleData.length; y++) {
-            for (int x = 0; x < visibleData[y].length; x++) {
-                visibleData[y][x] = false;
-            }
+        // Reuse the adapter so the same array keeps counting as the same map
+        boolean bound = boundMap instanceof ArrayTileMap && ((ArrayTileMap) boundMap).getTiles() == mapdata;
+        calculateFogOfWar(playerList, bound ? boundMap : new ArrayTileMap(mapdata));
+    }
+
+    /**
+     * Updates visibility from the positions of the given units.
+     *
+     * @param playerList Units of this faction
+     * @param mapdata Map tiles; walls block sight in SHADOWCAST mode
+     */
+    public void calculateFogOfWar(List<GameUnit> playerList, TileMap mapdata) {
+        dirtyCount = 0;
+        updateId++;
+
+        if (mapdata != boundMap) {
+            // Contributions computed on another map no longer apply
+            clearObservers();
+            boundMap = mapdata;
         }
 
         for (GameUnit player : playerList) {
@@ -42,41 +226,242 @@ public class GameFogWar {
             Point mapPoint = player.getMapPoint(location);
             int mapX = (int) mapPoint.getX();
             int mapY = (int) mapPoint.getY();
+            int radius = fogMode == FogMode.SHADOWCAST
+                    ? ShadowcastFov.getSightRadius(player.getClassType())
+                    : SQUARE_RANGE;
 
-            int range = 5;
+            Observer observer = observers.get(player);
+            if (observer == null) {
+                observer = new Observer();
+                observers.put(player, observer);
+            } else if (observer.tileX == mapX && observer.tileY == mapY && observer.radius == radius) {
+                observer.lastUpdate = updateId;
+                continue;
+            }
 
-            for (int dy = -range; dy <= range; dy++) {
-                if (mapY + dy < 0 || mapY + dy >= mapdata.length) {
+            // Add the new view before removing the old one so tiles seen from
+            // both positions never drop to zero and are not reported as dirty
+            int[] oldTiles = observer.tiles;
+            observer.tileX = mapX;
+            observer.tileY = mapY;
+            observer.radius = radius;
+            observer.lastUpdate = updateId;
+            observer.tiles = collectVisibleTiles(mapdata, mapX, mapY, radius);
+            addTiles(observer.tiles);
+            if (oldTiles != null) {
+                removeTiles(oldTiles);
+            }
+        }
+
+        // Units that were not in the list this time (dead or removed) stop observing
+        Iterator<Observer> it = observers.values().iterator();
+        while (it.hasNext()) {
+            Observer observer = it.next();
+            if (observer.lastUpdate != updateId) {
+                removeTiles(observer.tiles);
+                it.remove();
+            }
+        }
+
+        // Everything seen now counts as explored; only tiles that changed can
+        // have become visible
+        for (int i = 0; i < dirtyCount; i++) {
+            int x = dirtyTiles[i] % width;
+            int y = dirtyTiles[i] / width;
+            if (visibleData.get(x, y)) {
+                visitedData.set(x, y);
+            }
+        }
+
+        for (FogChangeTracker tracker : trackers) {
+            tracker.addAll(dirtyTiles, dirtyCount);
+        }
+        releaseEmptyChunks();
+    }
+
+    public void reset(int mapHeight, int mapWidth) {
+        visibleData = new FogBitGrid(mapWidth, mapHeight);
+        visitedData = new FogBitGrid(mapWidth, mapHeight);
+        width = mapWidth;
+        chunksX = (mapWidth + CHUNK_MASK) >> CHUNK_SHIFT;
+        int chunks = chunksX * ((mapHeight + CHUNK_MASK) >> CHUNK_SHIFT);
+        chunkCounts = new int[chunks][];
+        chunkStamps = new int[chunks][];
+        chunkObserved = new int[chunks];
+        releaseCount = 0;
+        observers.clear();
+        boundMap = null;
+        dirtyCount = 0;
+        // Redrawing everything is cheaper than tracking more changes than this
+        trackerLimit = (int) Math.max(64, Math.min(MAX_TRACKED_CHANGES, (long) mapHeight * mapWidth / 4));
+        for (FogChangeTracker tracker : trackers) {
+            tracker.invalidate(trackerLimit);
+        }
+    }
+
+    /**
+     * Drops every cached contribution and clears current visibility.
+     * Visited tiles are kept.
+     */
+    private void clearObservers() {
+        observers.clear();
+        for (int chunk = 0; chunk < chunkCounts.length; chunk++) {
+            if (chunkCounts[chunk] != null) {
+                Arrays.fill(chunkCounts[chunk], 0);
+                chunkObserved[chunk] = 0;
+                addReleaseCandidate(chunk);
+            }
+        }
+        for (int y = 0; y < visibleData.getHeight(); y++) {
+            for (int wi = 0; wi < visibleData.getWordsPerRow(); wi++) {
+                long word = visibleData.getWord(y, wi);
+                while (word != 0) {
+                    markDirty((wi << 6) + Long.numberOfTrailingZeros(word), y);
+                    word &= word - 1;
+                }
+            }
+        }
+        visibleData.clearAll();
+    }
+
+    /**
+     * Collects the distinct in-bounds tiles a unit at the given tile can see.
+     */
+    private int[] collectVisibleTiles(TileMap mapdata, int mapX, int mapY, int radius) {
+        scratchCount = 0;
+        scratchLeft = mapX - radius;
+        scratchTop = mapY - radius;
+        scratchSize = 2 * radius + 1;
+        if (scratchStamp.length < scratchSize * scratchSize) {
+            scratchStamp = new int[scratchSize * scratchSize];
+            scratchId = 0;
+        }
+        scratchId++;
+
+        if (fogMode == FogMode.SHADOWCAST) {
+            ShadowcastFov.compute(mapdata, mapX, mapY, radius, this::addScratchTile);
+        } else {
+            for (int dy = -radius; dy <= radius; dy++) {
+                if (mapY + dy < 0 || mapY + dy >= mapdata.getHeight()) {
                     continue;
                 }
 
-                for (int dx = -range; dx <= range; dx++) {
-                    if (mapX + dx < 0 || mapX + dx >= mapdata[0].length) {
+                for (int dx = -radius; dx <= radius; dx++) {
+                    if (mapX + dx < 0 || mapX + dx >= mapdata.getWidth()) {
                         continue;
                     }
 
-                    int targetX = mapX + dx;
-                    int targetY = mapY + dy;
-                    
-                    // Mark as currently visible
-                    visibleData[targetY][targetX] = true;
-                    
-                    // Mark as visited (explored)
-                    visitedData[targetY][targetX] = true;
+                    addScratchTile(mapX + dx, mapY + dy);
                 }
             }
         }
+
+        return Arrays.copyOf(scratchTiles, scratchCount);
     }
 
-    public void reset(int mapHeight, int mapWidth) {
-        visibleData = new boolean[mapHeight][mapWidth];
-        visitedData = new boolean[mapHeight][mapWidth];
-        for (int y = 0; y < mapHeight; y++) {
-            for (int x = 0; x < mapWidth; x++) {
-                visibleData[y][x] = false;
-                visitedData[y][x] = false;
+    private void addScratchTile(int x, int y) {
+        // The map being traced may be larger than the fog grid
+        if (y >= visibleData.getHeight() || x >= width) {
+            return;
+        }
+        int sx = x - scratchLeft;
+        int sy = y - scratchTop;
+        if (sx < 0 || sy < 0 || sx >= scratchSize || sy >= scratchSize) {
+            return;
+        }
+        int stamp = sy * scratchSize + sx;
+        if (scratchStamp[stamp] == scratchId) {
+            return;
+        }
+        scratchStamp[stamp] = scratchId;
+        if (scratchCount == scratchTiles.length) {
+            scratchTiles = Arrays.copyOf(scratchTiles, scratchCount * 2);
+        }
+        scratchTiles[scratchCount++] = y * width + x;
+    }
+
+    private void addTiles(int[] tiles) {
+        for (int index : tiles) {
+            int x = index % width;
+            int y = index / width;
+            int chunk = ensureChunk(chunkIndex(x, y));
+            if (chunkCounts[chunk][localIndex(x, y)]++ == 0) {
+                chunkObserved[chunk]++;
+                visibleData.set(x, y);
+                markDirty(x, y);
             }
         }
     }
-}
 
+    private void removeTiles(int[] tiles) {
+        for (int index : tiles) {
+            int x = index % width;
+            int y = index / width;
+            int chunk = chunkIndex(x, y);
+            if (--chunkCounts[chunk][localIndex(x, y)] == 0) {
+                if (--chunkObserved[chunk] == 0) {
+                    addReleaseCandidate(chunk);
+                }
+                visibleData.clear(x, y);
+                markDirty(x, y);
+            }
+        }
+    }
+
+    private void markDirty(int x, int y) {
+        int[] stamps = chunkStamps[ensureChunk(chunkIndex(x, y))];
+        int local = localIndex(x, y);
+        if (stamps[local] == updateId) {
+            return;
+        }
+        stamps[local] = updateId;
+        if (dirtyCount == dirtyTiles.length) {
+            dirtyTiles = Arrays.copyOf(dirtyTiles, dirtyCount * 2);
+        }
+        dirtyTiles[dirtyCount++] = y * width + x;
+    }
+
+    private int chunkIndex(int x, int y) {
+        return (y >> CHUNK_SHIFT) * chunksX + (x >> CHUNK_SHIFT);
+    }
+
+    private static int localIndex(int x, int y) {
+        return ((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK);
+    }
+
+    /**
+     * Allocates the counts and stamps of a chunk if it has none yet.
+     *
+     * @return The chunk index
+     */
+    private int ensureChunk(int chunk) {
+        if (chunkCounts[chunk] == null) {
+            chunkCounts[chunk] = new int[CHUNK_TILES];
+            chunkStamps[chunk] = new int[CHUNK_TILES];
+            addReleaseCandidate(chunk);
+        }
+        return chunk;
+    }
+
+    private void addReleaseCandidate(int chunk) {
+        if (releaseCount == releaseCandidates.length) {
+            releaseCandidates = Arrays.copyOf(releaseCandidates, releaseCount * 2);
+        }
+        releaseCandidates[releaseCount++] = chunk;
+    }
+
+    /**
+     * Drops the chunks no unit sees at the end of an update. Their stamps
+     * are only needed while the update collects dirty tiles.
+     */
+    private void releaseEmptyChunks() {
+        for (int i = 0; i < releaseCount; i++) {
+            int chunk = releaseCandidates[i];
+            if (chunkObserved[chunk] == 0) {
+                chunkCounts[chunk] = null;
+                chunkStamps[chunk] = null;
+            }
+        }
+        releaseCount = 0;
+    }
+}
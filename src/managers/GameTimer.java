@@ -1,5 +1,7 @@
 package managers;
 
+import java.util.function.LongSupplier;
+
 import entities.GameFlagManager;
 
 /**
@@ -15,8 +17,10 @@ public class GameTimer {
     private int hour;
     private long startTime;
     private long prevRunningTime;
+    private boolean started = false;
     
     private final GameFlagManager flagManager;
+    private final LongSupplier clock; // milliseconds
     
     public GameTimer(int day, int hour) {
         this.day = day;
@@ -24,25 +28,37 @@ public class GameTimer {
         this.startTime = 0;
         this.prevRunningTime = 0;
         this.flagManager = null; // Will be set by GameLoop
+        this.clock = System::currentTimeMillis;
     }
     
     public GameTimer(int day, int hour, GameFlagManager flagManager) {
+        this(day, hour, flagManager, System::currentTimeMillis);
+    }
+    
+    /**
+     * Creates a timer driven by a custom clock, e.g. simulated time when the
+     * game runs faster than real time.
+     */
+    public GameTimer(int day, int hour, GameFlagManager flagManager, LongSupplier clock) {
         this.day = day;
         this.hour = hour;
         this.startTime = 0;
         this.prevRunningTime = 0;
         this.flagManager = flagManager;
+        this.clock = clock;
     }
     
     public void update() {
         // Get the current time
-        if (startTime == 0) {
-            startTime = System.currentTimeMillis();
+        long now = clock.getAsLong();
+        if (!started) {
+            startTime = now;
+            started = true;
         }
 
         // Get the update time
         int numSeconds = 4;
-        long runningTime = (System.currentTimeMillis() - startTime) / (1000 * numSeconds);
+        long runningTime = (now - startTime) / (1000 * numSeconds);
         if (runningTime - prevRunningTime >= 1) {
             addHour(); // every 4 seconds in real life takes an hour in game
         }
@@ -59,6 +75,30 @@ public class GameTimer {
         }
     }
     
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getPrevRunningTime() {
+        return prevRunningTime;
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Restores the timer state, e.g. from a save game. The clock must be
+     * restored to the same time for the timer to continue where it left off.
+     */
+    public void restore(int day, int hour, long startTime, long prevRunningTime, boolean started) {
+        this.day = day;
+        this.hour = hour;
+        this.startTime = startTime;
+        this.prevRunningTime = prevRunningTime;
+        this.started = started;
+    }
+
     public int getHour() {
         return hour % 24;
     }
@@ -0,0 +1,255 @@
+package managers;
+
+import java.util.Arrays;
+
+import map.ArrayTileMap;
+import map.TileMap;
+
+/**
+ * Bounded, symmetric cache of tile-to-tile line-of-sight results.
+ *
+ * Walls never change while a level is running, so the line of sight between two
+ * tiles only has to be traced once. Results are keyed by the unordered tile pair
+ * packed into a long and stored in a primitive open-addressed table (linear probing).
+ * Once the table reaches its entry limit, entries are evicted with the CLOCK
+ * (second-chance) algorithm. The cache binds itself to a map and clears
+ * itself whenever a different map is used.
+ */
+public class LineOfSightCache {
+    /** Lookup result when the pair is not cached. */
+    public static final int MISS = -1;
+    /** Lookup result when the pair is cached as blocked. */
+    public static final int BLOCKED = 0;
+    /** Lookup result when the pair is cached as visible. */
+    public static final int VISIBLE = 1;
+
+    private static final long EMPTY_KEY = -1L;
+    private static final byte FLAG_VISIBLE = 1;
+    private static final byte FLAG_REFERENCED = 2;
+
+    private final long[] keys;
+    private final byte[] flags;
+    private final int mask;
+    private final int maxEntries;
+    private int size = 0;
+    private int clockHand = 0;
+
+    private Object boundMap = null;
+
+    // Statistics
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Creates a cache that holds at most {@code maxEntries} tile pairs.
+     *
+     * @param maxEntries Maximum number of cached pairs
+     */
+    public LineOfSightCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        // Keep the load factor at or below 0.75 so probe sequences stay short,
+        // and always leave at least one empty slot to terminate probing
+        int minCapacity = maxEntries + maxEntries / 3 + 1;
+        int capacity = Integer.highestOneBit(minCapacity * 2 - 1);
+        this.keys = new long[capacity];
+        this.flags = new byte[capacity];
+        this.mask = capacity - 1;
+        this.maxEntries = maxEntries;
+        Arrays.fill(keys, EMPTY_KEY);
+    }
+
+    /**
+     * Packs an unordered pair of tile indices into a single key.
+     * packKey(a, b) == packKey(b, a).
+     *
+     * @param tileA First tile index (y * width + x)
+     * @param tileB Second tile index (y * width + x)
+     * @return The packed key
+     */
+    public static long packKey(int tileA, int tileB) {
+        int low = Math.min(tileA, tileB);
+        int high = Math.max(tileA, tileB);
+        return ((long) low << 32) | (high & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Binds the cache to a map. If the map differs from the one the cached
+     * results were computed for, every entry is discarded.
+     *
+     * @param map The map that subsequent lookups refer to
+     */
+    public void bindMap(int[][] map) {
+        bindTo(map);
+    }
+
+    /**
+     * Binds the cache to a tile map. Array adapters count as the array they
+     * wrap, so two adapters of the same array share cached results.
+     *
+     * @param map The map that subsequent lookups refer to
+     */
+    public void bindMap(TileMap map) {
+        bindTo(map instanceof ArrayTileMap ? ((ArrayTileMap) map).getTiles() : map);
+    }
+
+    private void bindTo(Object map) {
+        if (map != boundMap) {
+            clear();
+            boundMap = map;
+        }
+    }
+
+    /**
+     * Looks up a cached result.
+     *
+     * @param key Key created by {@link #packKey(int, int)}
+     * @return VISIBLE, BLOCKED or MISS
+     */
+    public int lookup(long key) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY_KEY) {
+            if (keys[slot] == key) {
+                flags[slot] |= FLAG_REFERENCED;
+                hits++;
+                return (flags[slot] & FLAG_VISIBLE) != 0 ? VISIBLE : BLOCKED;
+            }
+            slot = (slot + 1) & mask;
+        }
+        misses++;
+        return MISS;
+    }
+
+    /**
+     * Stores a result, evicting an entry first if the cache is full.
+     *
+     * @param key Key created by {@link #packKey(int, int)}
+     * @param visible Whether the two tiles can see each other
+     */
+    public void put(long key, boolean visible) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY_KEY) {
+            if (keys[slot] == key) {
+                flags[slot] = (byte) ((visible ? FLAG_VISIBLE : 0) | FLAG_REFERENCED);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size >= maxEntries) {
+            evictOne();
+            // Eviction may have shifted entries, so find the insertion slot again
+            slot = hash(key) & mask;
+            while (keys[slot] != EMPTY_KEY) {
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        keys[slot] = key;
+        flags[slot] = visible ? FLAG_VISIBLE : 0;
+        size++;
+    }
+
+    /**
+     * Discards all cached results. Statistics are kept.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY_KEY);
+        Arrays.fill(flags, (byte) 0);
+        size = 0;
+        clockHand = 0;
+    }
+
+    /**
+     * Resets the hit, miss and eviction counters.
+     */
+    public void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the fraction of lookups that were answered from the cache.
+     *
+     * @return Hit rate between 0.0 and 1.0, or 0.0 if nothing was looked up yet
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Advances the clock hand until it finds an entry that was not referenced
+     * since the last sweep, and removes it.
+     */
+    private void evictOne() {
+        while (true) {
+            int slot = clockHand;
+            clockHand = (clockHand + 1) & mask;
+            if (keys[slot] == EMPTY_KEY) {
+                continue;
+            }
+            if ((flags[slot] & FLAG_REFERENCED) != 0) {
+                flags[slot] &= ~FLAG_REFERENCED; // second chance
+                continue;
+            }
+            removeAt(slot);
+            evictions++;
+            return;
+        }
+    }
+
+    /**
+     * Removes the entry at a slot using backward-shift deletion so that
+     * linear probe chains stay intact without tombstones.
+     */
+    private void removeAt(int slot) {
+        int hole = slot;
+        int i = slot;
+        while (true) {
+            i = (i + 1) & mask;
+            if (keys[i] == EMPTY_KEY) {
+                break;
+            }
+            int home = hash(keys[i]) & mask;
+            // The entry may fill the hole only if its home slot is not cyclically within (hole, i]
+            boolean canMove = hole <= i ? (home <= hole || home > i) : (home <= hole && home > i);
+            if (canMove) {
+                keys[hole] = keys[i];
+                flags[hole] = flags[i];
+                hole = i;
+            }
+        }
+        keys[hole] = EMPTY_KEY;
+        flags[hole] = 0;
+        size--;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -3,6 +3,7 @@ package managers;
 import java.util.ArrayList;
 import entities.GameUnit;
 import graphics.Point;
+import map.TileMap;
 import pathfinding.PathfindingUtils;
 import utils.DistanceUtils;
 import utils.TileCoordinateConverter;
@@ -19,7 +20,7 @@ public class MultiUnitPathfindingManager {
      * @param playerList List of player units
      * @param enemyList List of enemy units
      */
-    public void updateGroupDestinations(int[][] map, ArrayList<GameUnit> playerList, ArrayList<GameUnit> enemyList) {
+    public void updateGroupDestinations(TileMap map, ArrayList<GameUnit> playerList, ArrayList<GameUnit> enemyList) {
         // Get all units for collision detection
         ArrayList<GameUnit> allUnits = new ArrayList<>();
         allUnits.addAll(playerList);
@@ -45,7 +46,7 @@ public class MultiUnitPathfindingManager {
      * @param unitList The list containing the unit
      * @param allUnits All units for collision detection
      */
-    private void updateUnitGroupDestination(GameUnit unit, int[][] map, ArrayList<GameUnit> unitList, ArrayList<GameUnit> allUnits) {
+    private void updateUnitGroupDestination(GameUnit unit, TileMap map, ArrayList<GameUnit> unitList, ArrayList<GameUnit> allUnits) {
         for (GameUnit other : unitList) {
             if (other == unit) continue;
             if (!other.isAlive()) continue;
@@ -0,0 +1,167 @@
+package managers;
+
+import map.ArrayTileMap;
+import map.TileConverter;
+import map.TileMap;
+import utils.Constants;
+
+/**
+ * Recursive shadowcasting field of view.
+ *
+ * The area around the origin is split into eight octants. Each octant is scanned
+ * row by row outwards, and walls narrow the range of slopes that later rows still
+ * have to scan. Only tiles inside the visible area are ever touched, so the cost
+ * per unit scales with what the unit can actually see rather than with the
+ * square around it. Walls themselves are marked visible but block anything
+ * behind them.
+ */
+public class ShadowcastFov {
+    // Transforms from octant-local (col, row) to map (dx, dy): xx, xy, yx, yy
+    private static final int[][] OCTANTS = {
+            { 1, 0, 0, 1 },
+            { 0, 1, 1, 0 },
+            { 0, -1, 1, 0 },
+            { -1, 0, 0, 1 },
+            { -1, 0, 0, -1 },
+            { 0, -1, -1, 0 },
+            { 0, 1, -1, 0 },
+            { 1, 0, 0, -1 }
+    };
+
+    private ShadowcastFov() {
+        // prevent instantiation
+    }
+
+    /**
+     * Gets the sight radius in tiles for a unit class.
+     *
+     * @param classType Unit class type (Constants.UNIT_ID_*)
+     * @return The sight radius, or the default radius for unknown types
+     */
+    public static int getSightRadius(int classType) {
+        if (classType < 0 || classType >= Constants.FOG_SIGHT_RADIUS.length) {
+            return Constants.FOG_DEFAULT_SIGHT_RADIUS;
+        }
+        return Constants.FOG_SIGHT_RADIUS[classType];
+    }
+
+    /**
+     * Receives each tile that is visible from the origin. A tile may be
+     * reported more than once where octants meet.
+     */
+    public interface TileVisitor {
+        void visit(int x, int y);
+    }
+
+    /**
+     * Marks every tile visible from the origin within the given radius.
+     * Tiles are only ever set to true; clearing the grids is left to the caller.
+     *
+     * @param map Map data indexed [y][x]
+     * @param originX Origin tile x
+     * @param originY Origin tile y
+     * @param radius Sight radius in tiles
+     * @param visible Grid of currently visible tiles, indexed [y][x]
+     * @param visited Grid of explored tiles, indexed [y][x]
+     */
+    public static void compute(int[][] map, int originX, int originY, int radius,
+            boolean[][] visible, boolean[][] visited) {
+        compute(map, originX, originY, radius, (x, y) -> {
+            visible[y][x] = true;
+            visited[y][x] = true;
+        });
+    }
+
+    /**
+     * Reports every tile visible from the origin within the given radius.
+     *
+     * @param map Map data indexed [y][x]
+     * @param originX Origin tile x
+     * @param originY Origin tile y
+     * @param radius Sight radius in tiles
+     * @param visitor Receives each visible tile
+     */
+    public static void compute(int[][] map, int originX, int originY, int radius, TileVisitor visitor) {
+        compute(new ArrayTileMap(map), originX, originY, radius, visitor);
+    }
+
+    /**
+     * Reports every tile visible from the origin within the given radius,
+     * reading walls from any tile storage.
+     *
+     * @param map Map tiles
+     * @param originX Origin tile x
+     * @param originY Origin tile y
+     * @param radius Sight radius in tiles
+     * @param visitor Receives each visible tile
+     */
+    public static void compute(TileMap map, int originX, int originY, int radius, TileVisitor visitor) {
+        if (originY < 0 || originY >= map.getHeight() || originX < 0 || originX >= map.getWidth()) {
+            return;
+        }
+
+        visitor.visit(originX, originY);
+
+        for (int[] octant : OCTANTS) {
+            castLight(map, originX, originY, 1, 1.0, 0.0, radius,
+                    octant[0], octant[1], octant[2], octant[3], visitor);
+        }
+    }
+
+    /**
+     * Scans one octant starting at the given row, between the start and end slopes.
+     */
+    private static void castLight(TileMap map, int originX, int originY, int row,
+            double startSlope, double endSlope, int radius,
+            int xx, int xy, int yx, int yy, TileVisitor visitor) {
+        if (startSlope < endSlope) {
+            return;
+        }
+
+        int radiusSquared = radius * radius;
+        double nextStartSlope = startSlope;
+
+        for (int distance = row; distance <= radius; distance++) {
+            boolean blocked = false;
+            int dy = -distance;
+
+            for (int dx = -distance; dx <= 0; dx++) {
+                int mapX = originX + dx * xx + dy * xy;
+                int mapY = originY + dx * yx + dy * yy;
+                double leftSlope = (dx - 0.5) / (dy + 0.5);
+                double rightSlope = (dx + 0.5) / (dy - 0.5);
+
+                if (startSlope < rightSlope) {
+                    continue;
+                } else if (endSlope > leftSlope) {
+                    break;
+                }
+
+                boolean inBounds = mapY >= 0 && mapY < map.getHeight() && mapX >= 0 && mapX < map.getWidth();
+                if (inBounds && dx * dx + dy * dy <= radiusSquared) {
+                    visitor.visit(mapX, mapY);
+                }
+
+                boolean opaque = !inBounds || map.getTile(mapX, mapY) == TileConverter.TILE_WALL;
+                if (blocked) {
+                    if (opaque) {
+                        nextStartSlope = rightSlope;
+                    } else {
+                        blocked = false;
+                        startSlope = nextStartSlope;
+                    }
+                } else if (opaque && distance < radius) {
+                    // Scan the part of the next rows that this wall does not shadow
+                    blocked = true;
+                    castLight(map, originX, originY, distance + 1, startSlope, leftSlope, radius,
+                            xx, xy, yx, yy, visitor);
+                    nextStartSlope = rightSlope;
+                }
+            }
+
+            if (blocked) {
+                break;
+            }
+        }
+    }
+}
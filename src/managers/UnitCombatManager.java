@@ -2,6 +2,8 @@ package managers;
 
 import java.util.ArrayList;
 import entities.GameUnit;
+import map.ArrayTileMap;
+import map.TileMap;
 import utils.DistanceUtils;
 
 /**
@@ -16,17 +18,29 @@ public class UnitCombatManager {
      * @param enemyList List of enemy units
      */
     public void handleUnitInteractions(int[][] map, ArrayList<GameUnit> playerList, ArrayList<GameUnit> enemyList) {
+        handleUnitInteractions(null, new ArrayTileMap(map), playerList, enemyList);
+    }
+    
+    /**
+     * Handles interactions between player units and enemy units
+     * @param losCache Line-of-sight cache of the simulation, or null to trace every time
+     * @param map The game map
+     * @param playerList List of player units
+     * @param enemyList List of enemy units
+     */
+    public void handleUnitInteractions(LineOfSightCache losCache, TileMap map, ArrayList<GameUnit> playerList,
+            ArrayList<GameUnit> enemyList) {
         // Handle player units attacking enemies
         for (GameUnit playerUnit : playerList) {
             if (playerUnit.isAlive()) {
-                handleUnitEnemyInteraction(playerUnit, map, enemyList);
+                handleUnitEnemyInteraction(playerUnit, losCache, map, enemyList);
             }
         }
         
         // Handle enemy units attacking players
         for (GameUnit enemyUnit : enemyList) {
             if (enemyUnit.isAlive()) {
-                handleUnitEnemyInteraction(enemyUnit, map, playerList);
+                handleUnitEnemyInteraction(enemyUnit, losCache, map, playerList);
             }
         }
     }
@@ -34,14 +48,16 @@ public class UnitCombatManager {
     /**
      * Handles interaction between a single unit and a list of potential enemies
      * @param unit The unit performing the interaction
+     * @param losCache Line-of-sight cache, or null
      * @param map The game map
      * @param enemyList The list of potential enemies
      */
-    private void handleUnitEnemyInteraction(GameUnit unit, int[][] map, ArrayList<GameUnit> enemyList) {
+    private void handleUnitEnemyInteraction(GameUnit unit, LineOfSightCache losCache, TileMap map,
+            ArrayList<GameUnit> enemyList) {
         boolean canAttackAny = false;
         
         for (GameUnit enemy : enemyList) {
-            if (enemy.isAlive() && unit.getCombatSystem().canAttackEnemy(map, enemy)) {
+            if (enemy.isAlive() && unit.getCombatSystem().canAttackEnemy(losCache, map, enemy)) {
                 unit.getCombatSystem().handleAttack(enemy);
                 canAttackAny = true;
             }
@@ -82,11 +98,11 @@ public class UnitCombatManager {
      * @param map The game map
      * @return List of units that can attack the target
      */
-    public ArrayList<GameUnit> getUnitsThatCanAttack(GameUnit targetUnit, ArrayList<GameUnit> potentialAttackers, int[][] map) {
+    public ArrayList<GameUnit> getUnitsThatCanAttack(GameUnit targetUnit, ArrayList<GameUnit> potentialAttackers, TileMap map) {
         ArrayList<GameUnit> attackers = new ArrayList<>();
         
         for (GameUnit attacker : potentialAttackers) {
-            if (attacker.isAlive() && attacker.getCombatSystem().canAttackEnemy(map, targetUnit)) {
+            if (attacker.isAlive() && attacker.getCombatSystem().canAttackEnemy(null, map, targetUnit)) {
                 attackers.add(attacker);
             }
         }
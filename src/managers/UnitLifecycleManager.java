@@ -7,6 +7,7 @@ import entities.GameFlag;
 import entities.GameUnit;
 import graphics.Point;
 import utils.Constants;
+import utils.RandomStreams;
 import utils.TileCoordinateConverter;
 
 /**
@@ -19,6 +20,10 @@ public class UnitLifecycleManager {
     private ArrayList<GameUnit> enemyList;
     private boolean isSpawned = false; // only spawn once per day
 
+    // Per-unit random streams, assigned in creation order
+    private RandomStreams randomStreams;
+    private long nextUnitSerial = 0;
+
     public UnitLifecycleManager() {
         this.playerList = new ArrayList<>();
         this.enemyList = new ArrayList<>();
@@ -38,6 +43,47 @@ public class UnitLifecycleManager {
     public void clearUnits() {
         playerList.clear();
         enemyList.clear();
+        nextUnitSerial = 0;
+    }
+
+    /**
+     * Sets the match's random streams and gives every current unit its own
+     * stream. Units added later get theirs as they are created.
+     */
+    public void setRandomStreams(RandomStreams randomStreams) {
+        this.randomStreams = randomStreams;
+        nextUnitSerial = 0;
+        for (GameUnit unit : playerList) {
+            assignRandom(unit);
+        }
+        for (GameUnit unit : enemyList) {
+            assignRandom(unit);
+        }
+    }
+
+    /**
+     * Sets the match's random streams without touching the streams of current
+     * units, e.g. after loading a save that restored them.
+     *
+     * @param randomStreams Streams of the match
+     * @param nextUnitSerial Serial of the next unit to be created
+     */
+    public void restoreRandomStreams(RandomStreams randomStreams, long nextUnitSerial) {
+        this.randomStreams = randomStreams;
+        this.nextUnitSerial = nextUnitSerial;
+    }
+
+    /**
+     * Gets the serial the next created unit's random stream is derived from.
+     */
+    public long getNextUnitSerial() {
+        return nextUnitSerial;
+    }
+
+    private void assignRandom(GameUnit unit) {
+        if (randomStreams != null) {
+            unit.getCombatSystem().setRandom(randomStreams.forUnit(nextUnitSerial++));
+        }
     }
 
     /**
@@ -66,6 +112,7 @@ public class UnitLifecycleManager {
             Point worldPos = TileCoordinateConverter.mapToScreen(entry.getKey());
             GameUnit unit = new GameUnit(worldPos.x, worldPos.y, isPlayerUnit, entry.getValue());
             unit.setFactionId(factionId);
+            assignRandom(unit);
             unitList.add(unit);
         }
     }
@@ -133,6 +180,10 @@ public class UnitLifecycleManager {
         return isSpawned;
     }
 
+    public void setSpawned(boolean isSpawned) {
+        this.isSpawned = isSpawned;
+    }
+
     /**
      * Updates the spawn state based on current game time
      */
@@ -173,6 +224,7 @@ public class UnitLifecycleManager {
     public void addUnit(GameUnit unit) {
         ArrayList<GameUnit> unitList = listForFaction(unit.getFactionId());
         if (unitList != null) {
+            assignRandom(unit);
             unitList.add(unit);
         }
     }
@@ -3,8 +3,6 @@ package managers;
 import java.util.ArrayList;
 import entities.GameUnit;
 import graphics.Point;
-import input.GameMouseEvent;
-import utils.Constants;
 import utils.DistanceUtils;
 import utils.FormationUtils;
 
@@ -14,51 +12,40 @@ import utils.FormationUtils;
 public class UnitMovementManager {
     
     /**
-     * Handles unit movement based on mouse input
-     * @param e Mouse event
-     * @param cameraX Camera X position
-     * @param cameraY Camera Y position
+     * Orders the selected units to a world position, in formation if more than one is selected
+     * @param targetDestination Target position in world coordinates
      * @param playerList List of player units
      * @param enemyList List of enemy units
      */
-    public void handleUnitMovement(GameMouseEvent e, int cameraX, int cameraY, 
-                                 ArrayList<GameUnit> playerList, ArrayList<GameUnit> enemyList) {
-        if (e.getType() == Constants.MOUSE_PRESSED) {
-            ArrayList<GameUnit> selectedUnits = getSelectedUnits(playerList, enemyList);
-            
-            if (selectedUnits.size() == 1) {
-                handleSingleUnitMovement(e, selectedUnits.get(0), cameraX, cameraY);
-            } else if (selectedUnits.size() > 1) {
-                handleFormationMovement(e, selectedUnits, cameraX, cameraY);
-            }
+    public void moveSelectedUnits(Point targetDestination, ArrayList<GameUnit> playerList, ArrayList<GameUnit> enemyList) {
+        ArrayList<GameUnit> selectedUnits = getSelectedUnits(playerList, enemyList);
+        
+        if (selectedUnits.size() == 1) {
+            handleSingleUnitMovement(targetDestination, selectedUnits.get(0));
+        } else if (selectedUnits.size() > 1) {
+            handleFormationMovement(targetDestination, selectedUnits);
         }
     }
     
     /**
      * Handles movement for a single unit
      */
-    private void handleSingleUnitMovement(GameMouseEvent e, GameUnit unit, int cameraX, int cameraY) {
-        if (e.getType() == Constants.MOUSE_PRESSED) {
-            Point targetPos = new Point(e.getX() + cameraX, e.getY() + cameraY);
-            unit.setDestination(targetPos);
-            unit.startMoving();
-        }
+    private void handleSingleUnitMovement(Point targetPos, GameUnit unit) {
+        unit.setDestination(targetPos);
+        unit.startMoving();
     }
     
     /**
      * Handles movement for multiple units in formation
      */
-    private void handleFormationMovement(GameMouseEvent e, ArrayList<GameUnit> selectedUnits, int cameraX, int cameraY) {
-        if (e.getType() == Constants.MOUSE_PRESSED) {
-            Point targetDestination = new Point(e.getX() + cameraX, e.getY() + cameraY);
-            ArrayList<Point> formationPositions = calculateFormationPositions(targetDestination, selectedUnits.size());
-            
-            for (int i = 0; i < selectedUnits.size() && i < formationPositions.size(); i++) {
-                GameUnit unit = selectedUnits.get(i);
-                Point formationPos = formationPositions.get(i);
-                unit.setDestination(formationPos);
-                unit.startMoving();
-            }
+    private void handleFormationMovement(Point targetDestination, ArrayList<GameUnit> selectedUnits) {
+        ArrayList<Point> formationPositions = calculateFormationPositions(targetDestination, selectedUnits.size());
+        
+        for (int i = 0; i < selectedUnits.size() && i < formationPositions.size(); i++) {
+            GameUnit unit = selectedUnits.get(i);
+            Point formationPos = formationPositions.get(i);
+            unit.setDestination(formationPos);
+            unit.startMoving();
         }
     }
     
@@ -4,8 +4,10 @@ import java.util.ArrayList;
 
 import entities.GameFlag;
 import graphics.Point;
+import map.TileMap;
 import utils.Constants;
 import utils.FormationUtils;
+import utils.RandomStream;
 
 /**
  * Manages unit spawning logic including patterns, formations, and configuration.
@@ -34,6 +36,7 @@ public class UnitSpawnManager {
     }
     
     private final SpawnConfig spawnConfig;
+    private RandomStream random = new RandomStream();
     
     public UnitSpawnManager() {
         this.spawnConfig = new SpawnConfig();
@@ -43,6 +46,20 @@ public class UnitSpawnManager {
         this.spawnConfig = config;
     }
     
+    /**
+     * Sets the random stream used for spawn chance and random placement
+     */
+    public void setRandom(RandomStream random) {
+        this.random = random;
+    }
+    
+    /**
+     * Gets the random stream used for spawning, e.g. to save its state
+     */
+    public RandomStream getRandom() {
+        return random;
+    }
+    
     /**
      * Sets the spawn configuration
      */
@@ -74,7 +91,7 @@ public class UnitSpawnManager {
         }
         
         // Check spawn chance
-        if (Math.random() > spawnConfig.spawnChance) {
+        if (random.nextDouble() > spawnConfig.spawnChance) {
             return false;
         }
         
@@ -84,21 +101,21 @@ public class UnitSpawnManager {
     /**
      * Spawns units near a flag with flexible configuration
      */
-    public int spawnUnitsNearFlag(int[][] map, GameFlag flag, int currentUnitCount) {
+    public int spawnUnitsNearFlag(TileMap map, GameFlag flag, int currentUnitCount) {
         return getSpawnPositionsNearFlag(map, flag, currentUnitCount).size();
     }
     
     /**
      * Spawns units near a flag with custom parameters
      */
-    public int spawnUnitsNearFlag(int[][] map, GameFlag flag, int unitCount, int maxDistance) {
+    public int spawnUnitsNearFlag(TileMap map, GameFlag flag, int unitCount, int maxDistance) {
         return getSpawnPositionsNearFlag(map, flag, unitCount, maxDistance).size();
     }
 
     /**
      * Gets spawn positions near a flag using current configuration.
      */
-    public ArrayList<Point> getSpawnPositionsNearFlag(int[][] map, GameFlag flag, int currentUnitCount) {
+    public ArrayList<Point> getSpawnPositionsNearFlag(TileMap map, GameFlag flag, int currentUnitCount) {
         ArrayList<Point> positions = new ArrayList<>();
 
         if (!canSpawn(currentUnitCount)) {
@@ -111,7 +128,7 @@ public class UnitSpawnManager {
     /**
      * Gets spawn positions near a flag with custom parameters.
      */
-    public ArrayList<Point> getSpawnPositionsNearFlag(int[][] map, GameFlag flag, int unitCount, int maxDistance) {
+    public ArrayList<Point> getSpawnPositionsNearFlag(TileMap map, GameFlag flag, int unitCount, int maxDistance) {
         int flagX = flag.getMapX();
         int flagY = flag.getMapY();
 
@@ -140,7 +157,7 @@ public class UnitSpawnManager {
     /**
      * Spawns units in a ring pattern around a center point
      */
-    private void addPatternPositions(ArrayList<Point> positions, int[][] map, int centerX, int centerY, int distance, int maxUnits) {
+    private void addPatternPositions(ArrayList<Point> positions, TileMap map, int centerX, int centerY, int distance, int maxUnits) {
         int added = 0;
         // Define spawn positions in a ring pattern
         int[][] spawnPositions = {
@@ -167,15 +184,15 @@ public class UnitSpawnManager {
     /**
      * Spawns units at random positions within a given distance
      */
-    private void addRandomPositions(ArrayList<Point> positions, int[][] map, int centerX, int centerY, int maxDistance, int maxUnits) {
+    private void addRandomPositions(ArrayList<Point> positions, TileMap map, int centerX, int centerY, int maxDistance, int maxUnits) {
         int spawned = 0;
         int attempts = 0;
         int maxAttempts = maxUnits * 10; // Prevent infinite loops
         
         while (spawned < maxUnits && attempts < maxAttempts) {
             // Generate random position within maxDistance
-            int offsetX = (int) ((Math.random() - 0.5) * 2 * maxDistance);
-            int offsetY = (int) ((Math.random() - 0.5) * 2 * maxDistance);
+            int offsetX = (int) ((random.nextDouble() - 0.5) * 2 * maxDistance);
+            int offsetY = (int) ((random.nextDouble() - 0.5) * 2 * maxDistance);
             
             int spawnX = centerX + offsetX;
             int spawnY = centerY + offsetY;
@@ -192,14 +209,14 @@ public class UnitSpawnManager {
     /**
      * Spawns units in a formation pattern
      */
-    public int spawnUnitsInFormation(int[][] map, int centerX, int centerY, int unitCount) {
+    public int spawnUnitsInFormation(TileMap map, int centerX, int centerY, int unitCount) {
         return getSpawnPositionsInFormation(map, centerX, centerY, unitCount).size();
     }
 
     /**
      * Gets formation spawn positions.
      */
-    public ArrayList<Point> getSpawnPositionsInFormation(int[][] map, int centerX, int centerY, int unitCount) {
+    public ArrayList<Point> getSpawnPositionsInFormation(TileMap map, int centerX, int centerY, int unitCount) {
         ArrayList<Point> positions = new ArrayList<>();
         int radius = FormationUtils.calculateBaseFormationRadius(unitCount);
 
@@ -216,14 +233,14 @@ public class UnitSpawnManager {
     /**
      * Spawns units along a path between two points
      */
-    public int spawnUnitsAlongPath(int[][] map, Point startPos, Point endPos, int unitCount) {
+    public int spawnUnitsAlongPath(TileMap map, Point startPos, Point endPos, int unitCount) {
         return getSpawnPositionsAlongPath(map, startPos, endPos, unitCount).size();
     }
 
     /**
      * Gets spawn positions along a path.
      */
-    public ArrayList<Point> getSpawnPositionsAlongPath(int[][] map, Point startPos, Point endPos, int unitCount) {
+    public ArrayList<Point> getSpawnPositionsAlongPath(TileMap map, Point startPos, Point endPos, int unitCount) {
         ArrayList<Point> positions = new ArrayList<>();
         double stepX = (endPos.x - startPos.x) / (double) (unitCount + 1);
         double stepY = (endPos.y - startPos.y) / (double) (unitCount + 1);
@@ -243,14 +260,14 @@ public class UnitSpawnManager {
     /**
      * Checks if a tile is available for unit placement
      */
-    public boolean isTileAvailable(int[][] map, int x, int y) {
+    public boolean isTileAvailable(TileMap map, int x, int y) {
         // Check bounds
-        if (x < 0 || y < 0 || y >= map.length || x >= map[0].length) {
+        if (x < 0 || y < 0 || y >= map.getHeight() || x >= map.getWidth()) {
             return false;
         }
         
         // Check if tile is empty
-        if (map[y][x] != 0) {
+        if (map.getTile(x, y) != 0) {
             return false;
         }
         
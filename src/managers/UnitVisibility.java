@@ -2,8 +2,10 @@ package managers;
 
 import entities.GameUnit;
 import graphics.Point;
-import map.TileConverter;
+import map.ArrayTileMap;
 import map.MapValidator;
+import map.TileConverter;
+import map.TileMap;
 import utils.Constants;
 
 /**
@@ -11,6 +13,9 @@ import utils.Constants;
  * Provides efficient algorithms for determining if units can see each other
  * across different types of terrain (horizontal, vertical, and diagonal).
  * Now includes Field of View (FOV) calculations for more realistic visibility.
+ * Line-of-sight results can be memoized per tile pair in a {@link LineOfSightCache},
+ * since walls do not change while a level is running. The cache is owned by
+ * the caller (one per simulation), as it is not safe to share between threads.
  */
 public class UnitVisibility {
     
@@ -23,6 +28,20 @@ public class UnitVisibility {
      * @return true if the target is visible, false otherwise
      */
     public static boolean checkVisible(int[][] map, GameUnit observer, GameUnit target) {
+        return map != null && checkVisible(null, new ArrayTileMap(map), observer, target);
+    }
+    
+    /**
+     * Checks if an enemy unit is visible to this unit, memoizing line of sight.
+     * 
+     * @param losCache Line-of-sight cache of the simulation, or null to trace every time
+     * @param map The game map data
+     * @param observer The unit doing the observing
+     * @param target The unit being observed
+     * @return true if the target is visible, false otherwise
+     */
+    public static boolean checkVisible(LineOfSightCache losCache, TileMap map, GameUnit observer,
+            GameUnit target) {
         if (map == null || observer == null || target == null) {
             return false;
         }
@@ -41,18 +60,72 @@ public class UnitVisibility {
             return false;
         }
 
+        return hasLineOfSight(losCache, map, observerPos, targetPos);
+    }
+    
+    /**
+     * Checks if two tiles can see each other without any caching.
+     * 
+     * @param map The game map data
+     * @param start First tile (map coordinates, must be in bounds)
+     * @param end Second tile (map coordinates, must be in bounds)
+     * @return true if no wall blocks the line between the tiles
+     */
+    public static boolean hasLineOfSight(int[][] map, Point start, Point end) {
+        return hasLineOfSight(null, new ArrayTileMap(map), start, end);
+    }
+    
+    /**
+     * Checks if two tiles can see each other, using a line-of-sight cache.
+     * The result is symmetric: the line is always traced from the tile with the
+     * lower index, so hasLineOfSight(a, b) == hasLineOfSight(b, a).
+     * 
+     * @param losCache Line-of-sight cache of the simulation, or null to trace every time
+     * @param map The game map data
+     * @param start First tile (map coordinates, must be in bounds)
+     * @param end Second tile (map coordinates, must be in bounds)
+     * @return true if no wall blocks the line between the tiles
+     */
+    public static boolean hasLineOfSight(LineOfSightCache losCache, TileMap map, Point start, Point end) {
+        int width = map.getWidth();
+        int startTile = start.y * width + start.x;
+        int endTile = end.y * width + end.x;
+        if (losCache == null) {
+            return startTile <= endTile
+                    ? traceLineOfSight(map, start, end)
+                    : traceLineOfSight(map, end, start);
+        }
+        
+        losCache.bindMap(map);
+        long key = LineOfSightCache.packKey(startTile, endTile);
+        int cached = losCache.lookup(key);
+        if (cached != LineOfSightCache.MISS) {
+            return cached == LineOfSightCache.VISIBLE;
+        }
+        
+        boolean visible = startTile <= endTile
+                ? traceLineOfSight(map, start, end)
+                : traceLineOfSight(map, end, start);
+        losCache.put(key, visible);
+        return visible;
+    }
+    
+    /**
+     * Traces the line of sight between two tiles without consulting the cache.
+     */
+    private static boolean traceLineOfSight(TileMap map, Point start, Point end) {
         // Same row (horizontal line of sight)
-        if (Math.abs(observerPos.y - targetPos.y) <= 1) {
-            return checkHorizontalVisibility(map, observerPos, targetPos);
+        if (Math.abs(start.y - end.y) <= 1) {
+            return checkHorizontalVisibility(map, start, end);
         }
 
         // Same column (vertical line of sight)
-        if (Math.abs(observerPos.x - targetPos.x) <= 1) {
-            return checkVerticalVisibility(map, observerPos, targetPos);
+        if (Math.abs(start.x - end.x) <= 1) {
+            return checkVerticalVisibility(map, start, end);
         }
 
         // Diagonal line of sight using Bresenham's algorithm
-        return checkDiagonalVisibility(map, observerPos, targetPos);
+        return checkDiagonalVisibility(map, start, end);
     }
     
     /**
@@ -120,13 +193,20 @@ public class UnitVisibility {
      * @return true if the line of sight is clear, false if blocked by a wall
      */
     public static boolean checkHorizontalVisibility(int[][] map, Point start, Point end) {
+        return checkHorizontalVisibility(new ArrayTileMap(map), start, end);
+    }
+
+    /**
+     * Same as {@link #checkHorizontalVisibility(int[][], Point, Point)} on any tile storage.
+     */
+    public static boolean checkHorizontalVisibility(TileMap map, Point start, Point end) {
         int minX = Math.min(start.x, end.x);
         int maxX = Math.max(start.x, end.x);
         int y = start.y;
 
         // Check each tile along the horizontal line
         for (int x = minX; x <= maxX; x++) {
-            if (map[y][x] == TileConverter.TILE_WALL) {
+            if (map.getTile(x, y) == TileConverter.TILE_WALL) {
                 return false;
             }
         }
@@ -142,13 +222,20 @@ public class UnitVisibility {
      * @return true if the line of sight is clear, false if blocked by a wall
      */
     public static boolean checkVerticalVisibility(int[][] map, Point start, Point end) {
+        return checkVerticalVisibility(new ArrayTileMap(map), start, end);
+    }
+
+    /**
+     * Same as {@link #checkVerticalVisibility(int[][], Point, Point)} on any tile storage.
+     */
+    public static boolean checkVerticalVisibility(TileMap map, Point start, Point end) {
         int minY = Math.min(start.y, end.y);
         int maxY = Math.max(start.y, end.y);
         int x = start.x;
 
         // Check each tile along the vertical line
         for (int y = minY; y <= maxY; y++) {
-            if (map[y][x] == TileConverter.TILE_WALL) {
+            if (map.getTile(x, y) == TileConverter.TILE_WALL) {
                 return false;
             }
         }
@@ -165,6 +252,13 @@ public class UnitVisibility {
      * @return true if the line of sight is clear, false if blocked by a wall
      */
     public static boolean checkDiagonalVisibility(int[][] map, Point start, Point end) {
+        return checkDiagonalVisibility(new ArrayTileMap(map), start, end);
+    }
+
+    /**
+     * Same as {@link #checkDiagonalVisibility(int[][], Point, Point)} on any tile storage.
+     */
+    public static boolean checkDiagonalVisibility(TileMap map, Point start, Point end) {
         int x0 = start.x, y0 = start.y;
         int x1 = end.x, y1 = end.y;
         
@@ -178,7 +272,7 @@ public class UnitVisibility {
         
         while (true) {
             // Check if current tile is a wall
-            if (map[y][x] == TileConverter.TILE_WALL) {
+            if (map.getTile(x, y) == TileConverter.TILE_WALL) {
                 return false;
             }
             
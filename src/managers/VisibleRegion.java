@@ -0,0 +1,108 @@
+package managers;
+
+import utils.Constants;
+
+/**
+ * Rectangle of map tiles seen by the camera, inclusive on all sides.
+ *
+ * Renderers use it to iterate only over what is on screen instead of drawing
+ * the whole world and relying on clipping. The rectangle is clamped to the
+ * map, so its bounds can be used as array indices directly; an empty region
+ * has max below min.
+ */
+public final class VisibleRegion {
+    private final int minTileX;
+    private final int minTileY;
+    private final int maxTileX;
+    private final int maxTileY;
+    private final int mapWidth;
+    private final int mapHeight;
+
+    private VisibleRegion(int minTileX, int minTileY, int maxTileX, int maxTileY, int mapWidth, int mapHeight) {
+        this.minTileX = Math.max(0, minTileX);
+        this.minTileY = Math.max(0, minTileY);
+        this.maxTileX = Math.min(mapWidth - 1, maxTileX);
+        this.maxTileY = Math.min(mapHeight - 1, maxTileY);
+        this.mapWidth = mapWidth;
+        this.mapHeight = mapHeight;
+    }
+
+    /**
+     * Gets the tiles overlapping a view of the world.
+     *
+     * @param cameraX World x of the view's left edge
+     * @param cameraY World y of the view's top edge
+     * @param viewWidth View width in pixels
+     * @param viewHeight View height in pixels
+     * @param mapWidth Map width in tiles
+     * @param mapHeight Map height in tiles
+     * @return The region
+     */
+    public static VisibleRegion ofView(int cameraX, int cameraY, int viewWidth, int viewHeight, int mapWidth,
+            int mapHeight) {
+        return new VisibleRegion(
+                Math.floorDiv(cameraX, Constants.TILE_WIDTH),
+                Math.floorDiv(cameraY, Constants.TILE_HEIGHT),
+                Math.floorDiv(cameraX + viewWidth - 1, Constants.TILE_WIDTH),
+                Math.floorDiv(cameraY + viewHeight - 1, Constants.TILE_HEIGHT),
+                mapWidth, mapHeight);
+    }
+
+    /**
+     * Grows the region on every side, e.g. for things that extend beyond
+     * their own tile.
+     *
+     * @param tiles Margin in tiles
+     * @return The larger region, still clamped to the map
+     */
+    public VisibleRegion expand(int tiles) {
+        return new VisibleRegion(minTileX - tiles, minTileY - tiles, maxTileX + tiles, maxTileY + tiles,
+                mapWidth, mapHeight);
+    }
+
+    /**
+     * Limits the region to a map of the given size.
+     *
+     * @param width Map width in tiles
+     * @param height Map height in tiles
+     * @return The clamped region
+     */
+    public VisibleRegion clampTo(int width, int height) {
+        return new VisibleRegion(minTileX, minTileY, maxTileX, maxTileY, Math.min(mapWidth, width),
+                Math.min(mapHeight, height));
+    }
+
+    public int getMinTileX() {
+        return minTileX;
+    }
+
+    public int getMinTileY() {
+        return minTileY;
+    }
+
+    public int getMaxTileX() {
+        return maxTileX;
+    }
+
+    public int getMaxTileY() {
+        return maxTileY;
+    }
+
+    public boolean isEmpty() {
+        return maxTileX < minTileX || maxTileY < minTileY;
+    }
+
+    public boolean containsTile(int tileX, int tileY) {
+        return tileX >= minTileX && tileX <= maxTileX && tileY >= minTileY && tileY <= maxTileY;
+    }
+
+    /**
+     * Checks whether a rectangle in world pixels overlaps the region.
+     */
+    public boolean intersects(int worldX, int worldY, int width, int height) {
+        return worldX + width > minTileX * Constants.TILE_WIDTH
+                && worldX < (maxTileX + 1) * Constants.TILE_WIDTH
+                && worldY + height > minTileY * Constants.TILE_HEIGHT
+                && worldY < (maxTileY + 1) * Constants.TILE_HEIGHT;
+    }
+}
@@ -0,0 +1,35 @@
+package map;
+
+/**
+ * Adapter presenting a map array, indexed [y][x], as a {@link TileMap}.
+ * The array is not copied, so changes to it show through.
+ */
+public final class ArrayTileMap implements TileMap {
+    private final int[][] tiles;
+
+    public ArrayTileMap(int[][] tiles) {
+        this.tiles = tiles;
+    }
+
+    /**
+     * Gets the wrapped array.
+     */
+    public int[][] getTiles() {
+        return tiles;
+    }
+
+    @Override
+    public int getWidth() {
+        return tiles.length == 0 ? 0 : tiles[0].length;
+    }
+
+    @Override
+    public int getHeight() {
+        return tiles.length;
+    }
+
+    @Override
+    public int getTile(int x, int y) {
+        return tiles[y][x];
+    }
+}
@@ -0,0 +1,35 @@
+package map;
+
+/**
+ * Adapter presenting an array of tile names, indexed [y][x], as {@link TileNames}.
+ * The array is not copied, so changes to it show through.
+ */
+public final class ArrayTileNames implements TileNames {
+    private final String[][] names;
+
+    public ArrayTileNames(String[][] names) {
+        this.names = names;
+    }
+
+    /**
+     * Gets the wrapped array.
+     */
+    public String[][] getNames() {
+        return names;
+    }
+
+    @Override
+    public int getWidth() {
+        return names.length == 0 ? 0 : names[0].length;
+    }
+
+    @Override
+    public int getHeight() {
+        return names.length;
+    }
+
+    @Override
+    public String getName(int x, int y) {
+        return names[y][x];
+    }
+}
@@ -0,0 +1,343 @@
+package map;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import graphics.Point;
+import utils.AtomicFiles;
+import utils.Logger;
+
+/**
+ * Binary map files, the compact alternative to the JSON maps.
+ *
+ * Terrain takes one byte per tile; units and flags are kept in separate
+ * sparse lists instead of being spelled out in the tiles. Tile strings that
+ * differ from what the tile id and lists imply are stored as overrides, so
+ * converting a JSON map to binary and back gives the same tiles.
+ *
+ * Layout (little-endian):
+ * - header: magic "SRTM", version, width, height
+ * - terrain: width * height tile ids, row by row, one byte each
+ * - units: ally count, then x, y and type per unit; the same for enemies
+ * - flags: count, then x, y and faction per flag
+ * - overrides: count, then x, y and the tile string per tile
+ */
+public final class BinaryMapFormat {
+    public static final String EXTENSION = ".rtsm";
+
+    private static final int MAGIC = 0x4D545253; // "SRTM" read as a little-endian int
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * 4;
+    private static final int UNIT_BYTES = 4 * 3;
+    private static final int FLAG_BYTES = 4 * 3;
+    private static final int OVERRIDE_BYTES = 4 * 2 + 2;
+
+    private BinaryMapFormat() {
+    }
+
+    /**
+     * Writes a map.
+     *
+     * @param map The map, as parsed from JSON
+     * @param path Target file, replaced when the map is complete
+     * @throws IOException If the file could not be written
+     */
+    public static void write(MapParseResult map, Path path) throws IOException {
+        AtomicFiles.writeAtomically(path, encode(map));
+    }
+
+    /**
+     * Reads a map by mapping the file.
+     *
+     * @param path Map file
+     * @return The map, in the same form the JSON parser returns
+     * @throws IOException If the file could not be read
+     * @throws IllegalArgumentException If the file is not a valid map
+     */
+    public static MapParseResult read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(buffer.order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    /**
+     * Opens a map without copying its tiles: the tile ids are read in chunks
+     * through a {@link ChunkedTileMap} and the tile names are derived from
+     * them on demand, so the result has no tile arrays.
+     *
+     * @param path Map file
+     * @return The map
+     * @throws IOException If the file could not be mapped
+     * @throws IllegalArgumentException If the file is not a valid map
+     */
+    public static MapParseResult open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            int[] size = readHeader(buffer);
+            int width = size[0];
+            int height = size[1];
+            ChunkedTileMap tiles = new ChunkedTileMap(buffer, buffer.position(), width, height);
+            buffer.position(buffer.position() + width * height);
+
+            int allyCount = readCount(buffer);
+            int enemyCount = readCount(buffer);
+            Map<Point, Integer> allyUnitPositions = readPositions(buffer, allyCount);
+            Map<Point, Integer> enemyUnitPositions = readPositions(buffer, enemyCount);
+            Map<Point, Integer> flagPositions = readPositions(buffer, readCount(buffer));
+
+            // Later entries win, matching the order canonicalTile checks them in
+            Map<Long, String> specials = new HashMap<>();
+            for (Map.Entry<Point, Integer> flag : flagPositions.entrySet()) {
+                putSpecial(specials, flag.getKey(), width, height, flag.getValue() > 0 ? "Flag +1" : "Flag -1");
+            }
+            for (Map.Entry<Point, Integer> unit : enemyUnitPositions.entrySet()) {
+                putSpecial(specials, unit.getKey(), width, height, "Unit -1 " + unit.getValue());
+            }
+            for (Map.Entry<Point, Integer> unit : allyUnitPositions.entrySet()) {
+                putSpecial(specials, unit.getKey(), width, height, "Unit +1 " + unit.getValue());
+            }
+            specials.putAll(readOverrides(buffer, width, height));
+            return new MapParseResult(tiles, new DerivedTileNames(tiles, specials),
+                    allyUnitPositions, enemyUnitPositions, flagPositions);
+        }
+    }
+
+    private static void putSpecial(Map<Long, String> specials, Point position, int width, int height, String name) {
+        // Entries off the map have no tile to name
+        if (position.x >= 0 && position.y >= 0 && position.x < width && position.y < height) {
+            specials.put((long) position.y * width + position.x, name);
+        }
+    }
+
+    static ByteBuffer encode(MapParseResult map) {
+        int height = map.tileMap.getHeight();
+        int width = map.tileMap.getWidth();
+
+        // Tiles whose string is not the one the id and lists would give back
+        List<Point> overrides = new ArrayList<>();
+        List<byte[]> overrideStrings = new ArrayList<>();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int id = map.tileMap.getTile(x, y);
+                if (id < 0 || id > 255) {
+                    throw new IllegalArgumentException("Tile id " + id + " at " + x + "," + y + " does not fit a byte");
+                }
+                String tile = map.tileNames.getName(x, y);
+                if (tile != null && !tile.equals(canonicalTile(map, x, y))) {
+                    overrides.add(new Point(x, y));
+                    overrideStrings.add(tile.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        long size = HEADER_BYTES + (long) width * height
+                + 4 * 2 + (long) UNIT_BYTES * (map.allyUnitPositions.size() + map.enemyUnitPositions.size())
+                + 4 + (long) FLAG_BYTES * map.flagPositions.size() + 4;
+        for (byte[] bytes : overrideStrings) {
+            size += OVERRIDE_BYTES + bytes.length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Map too large to save: " + size + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+
+        // Header
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(width);
+        buffer.putInt(height);
+
+        // Terrain
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                buffer.put((byte) map.tileMap.getTile(x, y));
+            }
+        }
+
+        // Units and flags
+        buffer.putInt(map.allyUnitPositions.size());
+        buffer.putInt(map.enemyUnitPositions.size());
+        writePositions(buffer, map.allyUnitPositions);
+        writePositions(buffer, map.enemyUnitPositions);
+        buffer.putInt(map.flagPositions.size());
+        writePositions(buffer, map.flagPositions);
+
+        // Overrides
+        buffer.putInt(overrides.size());
+        for (int i = 0; i < overrides.size(); i++) {
+            buffer.putInt(overrides.get(i).x);
+            buffer.putInt(overrides.get(i).y);
+            buffer.putShort((short) overrideStrings.get(i).length);
+            buffer.put(overrideStrings.get(i));
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    static MapParseResult decode(ByteBuffer buffer) {
+        int[] size = readHeader(buffer);
+        int width = size[0];
+        int height = size[1];
+
+        int[][] mapData = new int[height][width];
+        byte[] row = new byte[width];
+        for (int y = 0; y < height; y++) {
+            buffer.get(row);
+            for (int x = 0; x < width; x++) {
+                mapData[y][x] = row[x] & 0xFF;
+            }
+        }
+
+        int allyCount = readCount(buffer);
+        int enemyCount = readCount(buffer);
+        Map<Point, Integer> allyUnitPositions = readPositions(buffer, allyCount);
+        Map<Point, Integer> enemyUnitPositions = readPositions(buffer, enemyCount);
+        Map<Point, Integer> flagPositions = readPositions(buffer, readCount(buffer));
+        MapParseResult map = new MapParseResult(mapData, new String[height][width],
+                allyUnitPositions, enemyUnitPositions, flagPositions);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                map.drawData[y][x] = canonicalTile(map, x, y);
+            }
+        }
+        for (Map.Entry<Long, String> override : readOverrides(buffer, width, height).entrySet()) {
+            long index = override.getKey();
+            map.drawData[(int) (index / width)][(int) (index % width)] = override.getValue();
+        }
+        return map;
+    }
+
+    /**
+     * Reads the overrides.
+     *
+     * @return Tile strings keyed by tile index, y * width + x
+     */
+    private static Map<Long, String> readOverrides(ByteBuffer buffer, int width, int height) {
+        int overrideCount = readCount(buffer);
+        Map<Long, String> overrides = new HashMap<>();
+        for (int i = 0; i < overrideCount; i++) {
+            if (buffer.remaining() < OVERRIDE_BYTES) {
+                throw new IllegalArgumentException("Binary map truncated in overrides");
+            }
+            int x = buffer.getInt();
+            int y = buffer.getInt();
+            int length = buffer.getShort() & 0xFFFF;
+            if (x < 0 || y < 0 || x >= width || y >= height || length > buffer.remaining()) {
+                throw new IllegalArgumentException("Invalid override in binary map at " + x + "," + y);
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            overrides.put((long) y * width + x, new String(bytes, StandardCharsets.UTF_8));
+        }
+        return overrides;
+    }
+
+    /**
+     * Reads and checks the header, leaving the buffer at the first terrain byte.
+     *
+     * @return Map width and height in tiles, in that order
+     * @throws IllegalArgumentException If the buffer does not hold a valid map
+     */
+    static int[] readHeader(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a binary map");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary map version: " + version);
+        }
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        if (width <= 0 || height <= 0 || (long) width * height > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid binary map size: " + width + "x" + height);
+        }
+        return new int[] { width, height };
+    }
+
+    /**
+     * Gets the tile string the JSON maps use for a tile, e.g. "Unit -1 2".
+     */
+    private static String canonicalTile(MapParseResult map, int x, int y) {
+        Point position = new Point(x, y);
+        Integer allyType = map.allyUnitPositions.get(position);
+        if (allyType != null) {
+            return "Unit +1 " + allyType;
+        }
+        Integer enemyType = map.enemyUnitPositions.get(position);
+        if (enemyType != null) {
+            return "Unit -1 " + enemyType;
+        }
+        Integer faction = map.flagPositions.get(position);
+        if (faction != null) {
+            return faction > 0 ? "Flag +1" : "Flag -1";
+        }
+        return map.tileMap.getTile(x, y) == TileConverter.TILE_WALL ? TileConverter.STR_WALL : TileConverter.STR_LAND;
+    }
+
+    private static void writePositions(ByteBuffer buffer, Map<Point, Integer> positions) {
+        for (Map.Entry<Point, Integer> entry : positions.entrySet()) {
+            buffer.putInt(entry.getKey().x);
+            buffer.putInt(entry.getKey().y);
+            buffer.putInt(entry.getValue());
+        }
+    }
+
+    private static int readCount(ByteBuffer buffer) {
+        if (buffer.remaining() < 4) {
+            throw new IllegalArgumentException("Binary map truncated");
+        }
+        return buffer.getInt();
+    }
+
+    private static Map<Point, Integer> readPositions(ByteBuffer buffer, int count) {
+        if (count < 0 || (long) count * UNIT_BYTES > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid entry count in binary map: " + count);
+        }
+        Map<Point, Integer> positions = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            int x = buffer.getInt();
+            int y = buffer.getInt();
+            positions.put(new Point(x, y), buffer.getInt());
+        }
+        return positions;
+    }
+
+    /**
+     * Converts maps between JSON and binary, choosing the direction from the
+     * extension of the input file.
+     *
+     * Usage: BinaryMapFormat <input.json|input.rtsm> <output>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            Logger.error("Usage: BinaryMapFormat <input.json|input" + EXTENSION + "> <output>");
+            return;
+        }
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        if (args[0].endsWith(EXTENSION)) {
+            Files.write(output, MapJsonParser.mapDataToJson(read(input)).getBytes(StandardCharsets.UTF_8));
+        } else {
+            try (Reader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+                write(MapJsonParser.parseMapDataFromJson(reader), output);
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package map;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import graphics.Point;
+
+/**
+ * Tiles of a binary map, loaded in square chunks as they are first read.
+ *
+ * The map file stays memory-mapped and only the chunks that were touched are
+ * copied to the heap, one byte per tile. Chunks away from every unit and the
+ * camera can be dropped again with {@link #evictColdChunks}; they are reloaded
+ * from the mapping the next time one of their tiles is read. Reads and
+ * evictions may happen on different threads: a chunk that is evicted while
+ * being read stays valid for that reader.
+ */
+public final class ChunkedTileMap implements TileMap {
+    /** Chunk edge length in tiles. */
+    public static final int CHUNK_SIZE = 64;
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final ByteBuffer terrain;
+    private final int terrainOffset;
+    private final int width;
+    private final int height;
+    private final int chunksX;
+    private final int chunksY;
+    private final AtomicReferenceArray<byte[]> chunks;
+    private final AtomicInteger loadedChunks = new AtomicInteger();
+
+    /**
+     * @param terrain Map file contents
+     * @param terrainOffset Position of the first terrain byte in the buffer
+     */
+    ChunkedTileMap(ByteBuffer terrain, int terrainOffset, int width, int height) {
+        this.terrain = terrain;
+        this.terrainOffset = terrainOffset;
+        this.width = width;
+        this.height = height;
+        this.chunksX = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunksY = (height + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunks = new AtomicReferenceArray<>(chunksX * chunksY);
+    }
+
+    /**
+     * Maps a binary map file. No tiles are read until they are needed.
+     *
+     * @param path Map file in {@link BinaryMapFormat}
+     * @return The tile map
+     * @throws IOException If the file could not be mapped
+     * @throws IllegalArgumentException If the file is not a valid map
+     */
+    public static ChunkedTileMap open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            int[] size = BinaryMapFormat.readHeader(buffer);
+            return new ChunkedTileMap(buffer, buffer.position(), size[0], size[1]);
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getTile(int x, int y) {
+        int index = (y >> CHUNK_SHIFT) * chunksX + (x >> CHUNK_SHIFT);
+        byte[] chunk = chunks.get(index);
+        if (chunk == null) {
+            chunk = loadChunk(index);
+        }
+        return chunk[((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK)] & 0xFF;
+    }
+
+    /**
+     * Reads the tile from its chunk if that is loaded and from the mapping
+     * otherwise, without loading the chunk.
+     */
+    @Override
+    public int peekTile(int x, int y) {
+        byte[] chunk = chunks.get((y >> CHUNK_SHIFT) * chunksX + (x >> CHUNK_SHIFT));
+        if (chunk != null) {
+            return chunk[((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK)] & 0xFF;
+        }
+        return terrain.get(terrainOffset + y * width + x) & 0xFF;
+    }
+
+    private byte[] loadChunk(int index) {
+        int left = (index % chunksX) << CHUNK_SHIFT;
+        int top = (index / chunksX) << CHUNK_SHIFT;
+        int columns = Math.min(CHUNK_SIZE, width - left);
+        int rows = Math.min(CHUNK_SIZE, height - top);
+
+        byte[] chunk = new byte[CHUNK_SIZE * CHUNK_SIZE];
+        for (int row = 0; row < rows; row++) {
+            // Absolute reads leave the shared buffer's position alone
+            terrain.get(terrainOffset + (top + row) * width + left, chunk, row << CHUNK_SHIFT, columns);
+        }
+
+        // Another thread may have loaded the same chunk meanwhile; keep one copy
+        if (chunks.compareAndSet(index, null, chunk)) {
+            loadedChunks.incrementAndGet();
+            return chunk;
+        }
+        byte[] existing = chunks.get(index);
+        return existing != null ? existing : chunk;
+    }
+
+    /**
+     * Drops every loaded chunk that is further than a radius from all of the
+     * given tiles, e.g. the tiles of all units and the camera center.
+     *
+     * @param hotTiles Tiles whose surroundings stay loaded
+     * @param radius Distance in tiles around each hot tile to keep
+     * @return The number of chunks dropped
+     */
+    public int evictColdChunks(Iterable<Point> hotTiles, int radius) {
+        boolean[] hot = new boolean[chunks.length()];
+        for (Point tile : hotTiles) {
+            int minX = Math.max(0, tile.x - radius) >> CHUNK_SHIFT;
+            int maxX = Math.min(width - 1, tile.x + radius) >> CHUNK_SHIFT;
+            int minY = Math.max(0, tile.y - radius) >> CHUNK_SHIFT;
+            int maxY = Math.min(height - 1, tile.y + radius) >> CHUNK_SHIFT;
+            for (int cy = minY; cy <= maxY; cy++) {
+                for (int cx = minX; cx <= maxX; cx++) {
+                    hot[cy * chunksX + cx] = true;
+                }
+            }
+        }
+
+        int evicted = 0;
+        for (int i = 0; i < hot.length; i++) {
+            if (!hot[i] && chunks.getAndSet(i, null) != null) {
+                evicted++;
+            }
+        }
+        loadedChunks.addAndGet(-evicted);
+        return evicted;
+    }
+
+    /**
+     * Gets the number of chunks currently held on the heap.
+     */
+    public int getLoadedChunkCount() {
+        return loadedChunks.get();
+    }
+}
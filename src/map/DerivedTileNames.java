@@ -0,0 +1,55 @@
+package map;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Tile names of a binary map, derived from its tile ids on demand.
+ *
+ * Plain tiles are named after their id. The few tiles whose name is
+ * something else (units, flags and the stored overrides) are kept in a
+ * sorted table searched by tile index, so no per-tile array is needed.
+ */
+final class DerivedTileNames implements TileNames {
+    private final TileMap tiles;
+    private final long[] specialIndices;
+    private final String[] specialNames;
+
+    /**
+     * @param tiles Tile ids of the map
+     * @param specials Names of the tiles that are not named after their id,
+     *            keyed by tile index (y * width + x)
+     */
+    DerivedTileNames(TileMap tiles, Map<Long, String> specials) {
+        this.tiles = tiles;
+        this.specialIndices = new long[specials.size()];
+        int i = 0;
+        for (Long index : specials.keySet()) {
+            specialIndices[i++] = index;
+        }
+        Arrays.sort(specialIndices);
+        this.specialNames = new String[specialIndices.length];
+        for (i = 0; i < specialIndices.length; i++) {
+            specialNames[i] = specials.get(specialIndices[i]);
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return tiles.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return tiles.getHeight();
+    }
+
+    @Override
+    public String getName(int x, int y) {
+        int special = Arrays.binarySearch(specialIndices, (long) y * tiles.getWidth() + x);
+        if (special >= 0) {
+            return specialNames[special];
+        }
+        return tiles.getTile(x, y) == TileConverter.TILE_WALL ? TileConverter.STR_WALL : TileConverter.STR_LAND;
+    }
+}
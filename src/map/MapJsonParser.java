@@ -1,12 +1,17 @@
 package map;
 
-import java.util.List;
-import java.util.Map;
-import java.util.HashMap;
-import graphics.Point;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.json.JSONException;
+import utils.PathResolver;
 
 public class MapJsonParser {
     
@@ -25,54 +30,30 @@ public class MapJsonParser {
      */
     public static MapParseResult parseMapDataFromJson(String jsonString) {
         try {
-            JSONObject json = new JSONObject(jsonString);
-            
-            int width = json.getInt("width");
-            int height = json.getInt("height");
-            
-            JSONArray tilesArray = json.getJSONArray("tiles");
-            
-            int[][] mapData = new int[height][width];
-            String[][] drawData = new String[height][width];
-            
-            Map<Point, Integer> allyUnitPositions = new HashMap<>();
-            Map<Point, Integer> enemyUnitPositions = new HashMap<>();
-            Map<Point, Integer> flagPositions = new HashMap<>();
-            
-            // Parse tiles array
-            for (int y = 0; y < height; y++) {
-                JSONArray row = tilesArray.getJSONArray(y);
-                for (int x = 0; x < width; x++) {
-                    String tileStr = row.getString(x);
-                    int tileId = parseTile(tileStr, x, y, allyUnitPositions, enemyUnitPositions, flagPositions);
-                    mapData[y][x] = tileId;
-                    drawData[y][x] = tileStr;
-                }
-            }
-            
-            return new MapParseResult(mapData, drawData, allyUnitPositions, enemyUnitPositions, flagPositions);
-            
-        } catch (JSONException e) {
-            throw new RuntimeException("Failed to parse JSON map data: " + e.getMessage(), e);
+            return parseMapDataFromJson(new StringReader(jsonString));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
+
+    /**
+     * Parse map data from a stream of JSON, reading it once without building
+     * a JSON tree
+     */
+    public static MapParseResult parseMapDataFromJson(Reader reader) throws IOException {
+        return new MapJsonReader(reader).read();
+    }
     
     /**
      * Parse map data from JSON file
      */
     public static MapParseResult parseMapDataFromJsonFile(String filename) {
-        List<String> fileContent = FileUtils.parseFile(filename);
-        if (fileContent == null || fileContent.isEmpty()) {
-            throw new RuntimeException("Failed to load JSON file: " + filename);
-        }
-        
-        // Join all lines into a single JSON string
-        StringBuilder jsonBuilder = new StringBuilder();
-        for (String line : fileContent) {
-            jsonBuilder.append(line);
+        Path path = Paths.get(PathResolver.resolveMapPath(filename));
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return parseMapDataFromJson(reader);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load JSON file: " + filename, e);
         }
-        
-        return parseMapDataFromJson(jsonBuilder.toString());
     }
     
     /**
@@ -102,15 +83,4 @@ public class MapJsonParser {
     }
     
     // Text to JSON conversion methods removed - conversion already completed
-    
-    private static int parseTile(
-        String tileStr,
-        int x, int y,
-        Map<Point, Integer> allyUnitPositions,
-        Map<Point, Integer> enemyUnitPositions,
-        Map<Point, Integer> flagPositions
-    ) {
-        // Reuse the existing tile parsing logic from MapParser
-        return MapParser.tileStrToId(tileStr, x, y, allyUnitPositions, enemyUnitPositions, flagPositions);
-    }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,360 @@
+package map;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import graphics.Point;
+
+/**
+ * Streaming reader for JSON maps.
+ *
+ * Reads the map straight from a character stream and fills the map rows as
+ * their tiles go by, without building a JSON tree or holding the whole file
+ * in memory. Tile strings are read into a reusable buffer and looked up in a
+ * small table of the names seen so far, so each distinct name is allocated
+ * once however many tiles use it, and tiles without units or flags reuse the
+ * id parsed for their name.
+ */
+class MapJsonReader {
+    // Distinct tile names remembered; maps rarely have more than a handful
+    private static final int MAX_NAMES = 256;
+    private static final int NO_ID = Integer.MIN_VALUE;
+
+    private final Reader reader;
+    private final char[] input = new char[8192];
+    private int inputLength = 0;
+    private int inputPosition = 0;
+    private int line = 1;
+
+    // Characters of the string token being read
+    private char[] text = new char[64];
+    private int textLength = 0;
+
+    // Tile names seen so far, and the id of those that mean the same everywhere
+    private final List<String> names = new ArrayList<>();
+    private final List<Integer> nameIds = new ArrayList<>();
+
+    private final Map<Point, Integer> allyUnitPositions = new HashMap<>();
+    private final Map<Point, Integer> enemyUnitPositions = new HashMap<>();
+    private final Map<Point, Integer> flagPositions = new HashMap<>();
+
+    MapJsonReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads a whole map object.
+     *
+     * @return The map
+     * @throws IOException If the stream could not be read
+     * @throws IllegalArgumentException If the stream is not a valid map
+     */
+    MapParseResult read() throws IOException {
+        int width = -1;
+        int height = -1;
+        List<int[]> idRows = null;
+        List<String[]> tileRows = null;
+
+        expect('{');
+        if (peek() == '}') {
+            next();
+        } else {
+            do {
+                readString();
+                String key = new String(text, 0, textLength);
+                expect(':');
+                switch (key) {
+                    case "width":
+                        width = readInt();
+                        break;
+                    case "height":
+                        height = readInt();
+                        break;
+                    case "tiles":
+                        idRows = new ArrayList<>(Math.max(height, 16));
+                        tileRows = new ArrayList<>(Math.max(height, 16));
+                        readTiles(idRows, tileRows, width);
+                        break;
+                    default:
+                        skipValue();
+                        break;
+                }
+            } while (nextIs(','));
+            expect('}');
+        }
+
+        if (width < 0 || height < 0 || idRows == null) {
+            throw error("missing width, height or tiles");
+        }
+        if (idRows.size() != height) {
+            throw error("expected " + height + " rows, found " + idRows.size());
+        }
+        for (int[] row : idRows) {
+            if (row.length != width) {
+                throw error("expected rows of " + width + " tiles, found " + row.length);
+            }
+        }
+        return new MapParseResult(idRows.toArray(new int[0][]), tileRows.toArray(new String[0][]),
+                allyUnitPositions, enemyUnitPositions, flagPositions);
+    }
+
+    private void readTiles(List<int[]> idRows, List<String[]> tileRows, int width) throws IOException {
+        expect('[');
+        if (nextIs(']')) {
+            return;
+        }
+        // Rows are sized from the width when it came first, otherwise from the first row
+        int capacity = width > 0 ? width : 16;
+        do {
+            int y = idRows.size();
+            int[] ids = new int[capacity];
+            String[] tiles = new String[capacity];
+            int x = 0;
+            expect('[');
+            if (!nextIs(']')) {
+                do {
+                    if (x == ids.length) {
+                        ids = Arrays.copyOf(ids, x * 2);
+                        tiles = Arrays.copyOf(tiles, x * 2);
+                    }
+                    readString();
+                    int nameIndex = internName();
+                    String tile = names.get(nameIndex);
+                    int id = nameIndex < nameIds.size() ? nameIds.get(nameIndex) : NO_ID;
+                    if (id == NO_ID) {
+                        // Units and flags also record their position
+                        id = MapParser.tileStrToId(tile, x, y, allyUnitPositions, enemyUnitPositions, flagPositions);
+                    }
+                    ids[x] = id;
+                    tiles[x] = tile;
+                    x++;
+                } while (nextIs(','));
+                expect(']');
+            }
+            if (x != ids.length) {
+                ids = Arrays.copyOf(ids, x);
+                tiles = Arrays.copyOf(tiles, x);
+            }
+            capacity = Math.max(1, x);
+            idRows.add(ids);
+            tileRows.add(tiles);
+        } while (nextIs(','));
+        expect(']');
+    }
+
+    /**
+     * Finds the current string token in the table of names, adding it if new.
+     *
+     * @return Index into {@link #names}
+     */
+    private int internName() {
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            if (name.length() == textLength && matches(name)) {
+                return i;
+            }
+        }
+        String name = new String(text, 0, textLength);
+        if (names.size() == MAX_NAMES) {
+            // Too many distinct names to scan; stop remembering new ones
+            names.set(MAX_NAMES - 1, name);
+            nameIds.set(MAX_NAMES - 1, NO_ID);
+            return MAX_NAMES - 1;
+        }
+        names.add(name);
+        boolean positional = name.startsWith("Unit") || name.startsWith("Flag");
+        nameIds.add(positional ? NO_ID : MapParser.tileStrToId(name, 0, 0, null, null, null));
+        return names.size() - 1;
+    }
+
+    private boolean matches(String name) {
+        for (int i = 0; i < textLength; i++) {
+            if (name.charAt(i) != text[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // === Tokens ===
+
+    private void readString() throws IOException {
+        expect('"');
+        textLength = 0;
+        while (true) {
+            int c = readChar();
+            if (c == '"') {
+                return;
+            }
+            if (c < 0) {
+                throw error("unterminated string");
+            }
+            if (c == '\\') {
+                c = readEscape();
+            }
+            if (textLength == text.length) {
+                text = Arrays.copyOf(text, textLength * 2);
+            }
+            text[textLength++] = (char) c;
+        }
+    }
+
+    private int readEscape() throws IOException {
+        int c = readChar();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u': {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(readChar(), 16);
+                    if (digit < 0) {
+                        throw error("invalid unicode escape");
+                    }
+                    value = value * 16 + digit;
+                }
+                return value;
+            }
+            default:
+                throw error("invalid escape");
+        }
+    }
+
+    private int readInt() throws IOException {
+        skipWhitespace();
+        boolean negative = false;
+        if (peekRaw() == '-') {
+            readChar();
+            negative = true;
+        }
+        long value = 0;
+        int digits = 0;
+        while (peekRaw() >= '0' && peekRaw() <= '9') {
+            value = value * 10 + (readChar() - '0');
+            if (value > Integer.MAX_VALUE) {
+                throw error("number too large");
+            }
+            digits++;
+        }
+        if (digits == 0) {
+            throw error("expected a number");
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    private void skipValue() throws IOException {
+        int c = peek();
+        if (c == '"') {
+            readString();
+        } else if (c == '{' || c == '[') {
+            int close = c == '{' ? '}' : ']';
+            next();
+            if (nextIs(close)) {
+                return;
+            }
+            do {
+                if (close == '}') {
+                    readString();
+                    expect(':');
+                }
+                skipValue();
+            } while (nextIs(','));
+            expect(close);
+        } else {
+            // Number or literal: everything up to the next delimiter
+            int length = 0;
+            while (peekRaw() >= 0 && ",}] \t\r\n".indexOf(peekRaw()) < 0) {
+                readChar();
+                length++;
+            }
+            if (length == 0) {
+                throw error("expected a value");
+            }
+        }
+    }
+
+    private void expect(int expected) throws IOException {
+        int c = next();
+        if (c != expected) {
+            throw error("expected '" + (char) expected + "' but found "
+                    + (c < 0 ? "end of input" : "'" + (char) c + "'"));
+        }
+    }
+
+    private boolean nextIs(int expected) throws IOException {
+        if (peek() == expected) {
+            next();
+            return true;
+        }
+        return false;
+    }
+
+    private int next() throws IOException {
+        skipWhitespace();
+        return readChar();
+    }
+
+    private int peek() throws IOException {
+        skipWhitespace();
+        return peekRaw();
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (true) {
+            int c = peekRaw();
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            readChar();
+        }
+    }
+
+    private int peekRaw() throws IOException {
+        if (inputPosition == inputLength && !fill()) {
+            return -1;
+        }
+        return input[inputPosition];
+    }
+
+    private int readChar() throws IOException {
+        if (inputPosition == inputLength && !fill()) {
+            return -1;
+        }
+        char c = input[inputPosition++];
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        inputLength = reader.read(input, 0, input.length);
+        inputPosition = 0;
+        if (inputLength <= 0) {
+            inputLength = 0;
+            return false;
+        }
+        return true;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Failed to parse JSON map data: " + message + " at line " + line);
+    }
+}
@@ -5,8 +5,12 @@ import java.util.Map;
 import graphics.Point;
 
 public class MapParseResult {
+    /** Tile ids indexed [y][x]; null for maps opened with {@link BinaryMapFormat#open}. */
     public final int[][] mapData;
+    /** Tile names indexed [y][x]; null for maps opened with {@link BinaryMapFormat#open}. */
     public final String[][] drawData;
+    public final TileMap tileMap;
+    public final TileNames tileNames;
     public final Map<Point, Integer> allyUnitPositions;
     public final Map<Point, Integer> enemyUnitPositions;
     public final Map<Point, Integer> flagPositions;
@@ -20,6 +24,28 @@ public class MapParseResult {
     ) {
         this.mapData = mapData;
         this.drawData = drawData;
+        this.tileMap = new ArrayTileMap(mapData);
+        this.tileNames = new ArrayTileNames(drawData);
+        this.allyUnitPositions = allyUnitPositions;
+        this.enemyUnitPositions = enemyUnitPositions;
+        this.flagPositions = flagPositions;
+    }
+
+    /**
+     * Creates a map without tile arrays, whose tiles are only reachable
+     * through {@link #tileMap} and {@link #tileNames}.
+     */
+    public MapParseResult(
+        TileMap tileMap,
+        TileNames tileNames,
+        Map<Point, Integer> allyUnitPositions,
+        Map<Point, Integer> enemyUnitPositions,
+        Map<Point, Integer> flagPositions
+    ) {
+        this.mapData = null;
+        this.drawData = null;
+        this.tileMap = tileMap;
+        this.tileNames = tileNames;
         this.allyUnitPositions = allyUnitPositions;
         this.enemyUnitPositions = enemyUnitPositions;
         this.flagPositions = flagPositions;
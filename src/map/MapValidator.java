@@ -67,4 +67,66 @@ public class MapValidator {
     public static boolean isTileType(int[][] map, int x, int y, int tileType) {
         return isValidLocation(map, x, y) && map[y][x] == tileType;
     }
+
+    /**
+     * Checks if the given coordinates are within the bounds of a tile map.
+     * 
+     * @param map The game map
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return true if coordinates are within bounds, false otherwise
+     */
+    public static boolean isValidLocation(TileMap map, int x, int y) {
+        return x >= 0 && y >= 0 && y < map.getHeight() && x < map.getWidth();
+    }
+    
+    /**
+     * Checks if the tile at the given coordinates of a tile map is walkable.
+     * 
+     * @param map The game map
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return true if tile is walkable, false otherwise
+     */
+    public static boolean isWalkable(TileMap map, int x, int y) {
+        return isValidLocation(map, x, y) && map.getTile(x, y) == 0;
+    }
+    
+    /**
+     * Checks if the tile at the given coordinates of a tile map is a wall.
+     * 
+     * @param map The game map
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return true if tile is a wall, false otherwise
+     */
+    public static boolean isWall(TileMap map, int x, int y) {
+        return isValidLocation(map, x, y) && map.getTile(x, y) == TileConverter.TILE_WALL;
+    }
+    
+    /**
+     * Safely retrieves the tile value at the given coordinates of a tile map.
+     * Returns -1 if coordinates are out of bounds.
+     * 
+     * @param map The game map
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return tile value or -1 if out of bounds
+     */
+    public static int getTileSafely(TileMap map, int x, int y) {
+        return isValidLocation(map, x, y) ? map.getTile(x, y) : -1;
+    }
+    
+    /**
+     * Checks if the tile at the given coordinates of a tile map is a specific tile type.
+     * 
+     * @param map The game map
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @param tileType The tile type to check for
+     * @return true if tile matches the specified type, false otherwise
+     */
+    public static boolean isTileType(TileMap map, int x, int y, int tileType) {
+        return isValidLocation(map, x, y) && map.getTile(x, y) == tileType;
+    }
 }
@@ -0,0 +1,35 @@
+package map;
+
+/**
+ * Read access to the tile ids of a map, wherever they are stored.
+ *
+ * Small maps are plain arrays ({@link ArrayTileMap}); very large ones can be
+ * loaded in chunks on demand ({@link ChunkedTileMap}).
+ */
+public interface TileMap {
+    int getWidth();
+
+    int getHeight();
+
+    /**
+     * Gets the tile id at a position. The position must be inside the map;
+     * use {@link MapValidator} for checked access.
+     *
+     * @param x Tile x
+     * @param y Tile y
+     * @return The tile id
+     */
+    int getTile(int x, int y);
+
+    /**
+     * Gets the tile id at a position without keeping anything loaded for it,
+     * for one-off scans over large parts of the map.
+     *
+     * @param x Tile x
+     * @param y Tile y
+     * @return The tile id
+     */
+    default int peekTile(int x, int y) {
+        return getTile(x, y);
+    }
+}
@@ -0,0 +1,23 @@
+package map;
+
+/**
+ * Read access to the tile names of a map, e.g. "Wall" or "Unit +1 2", which
+ * pick the image each tile is drawn with.
+ *
+ * JSON maps keep every name in an array ({@link ArrayTileNames}); binary maps
+ * derive them from the tile ids on demand, so very large maps need no array.
+ */
+public interface TileNames {
+    int getWidth();
+
+    int getHeight();
+
+    /**
+     * Gets the name of the tile at a position inside the map.
+     *
+     * @param x Tile x
+     * @param y Tile y
+     * @return The tile name
+     */
+    String getName(int x, int y);
+}
@@ -1,7 +1,9 @@
 package pathfinding;
 import graphics.Point;
 import utils.TileCoordinateConverter;
+import map.ArrayTileMap;
 import map.MapValidator;
+import map.TileMap;
 
 import java.util.ArrayList;
 
@@ -75,6 +77,42 @@ public class MovementController {
 		return physics.getCurrentY();
 	}
 
+	/**
+	 * Gets the physics component.
+	 * @return The movement physics
+	 */
+	public MovementPhysics getPhysics() {
+		return physics;
+	}
+
+	/**
+	 * Gets the index of the path node the unit is heading to.
+	 * @return Current node index
+	 */
+	public int getNodeCounter() {
+		return nodeCounter;
+	}
+
+	/**
+	 * Restores path-following state, e.g. from a save game.
+	 * Explored nodes are debug output only and are not restored.
+	 * @param path Path being followed, or null
+	 * @param nodeCounter Index of the path node the unit is heading to
+	 * @param isPathCreated Whether the path is current
+	 * @param isMoving Whether the unit is moving
+	 * @param failureTimer Remaining pathfinding failure display frames
+	 */
+	public void restoreState(ArrayList<PathNode> path, int nodeCounter, boolean isPathCreated, boolean isMoving,
+			int failureTimer) {
+		this.movePath = path;
+		this.exploredNodes = null;
+		this.nodeCounter = nodeCounter;
+		this.isPathCreated = isPathCreated;
+		this.isMoving = isMoving;
+		this.pathfindingFailureTimer = failureTimer;
+		this.pathfindingFailed = failureTimer > 0;
+	}
+
 	/**
 	 * Sets the physics properties.
 	 * @param maxVelocity Maximum velocity
@@ -114,7 +152,7 @@ public class MovementController {
 	 * Simplified version that focuses on core functionality.
 	 * @return Alternative destination if pathfinding failed, null otherwise
 	 */
-	public Point coordinatePathfinding(int[][] map, Point currentPosition, Point destination) {
+	public Point coordinatePathfinding(TileMap map, Point currentPosition, Point destination) {
 		Point mapStart = TileCoordinateConverter.screenToMap(currentPosition);
 		Point mapEnd = TileCoordinateConverter.screenToMap(destination);
 		
@@ -153,6 +191,10 @@ public class MovementController {
 	
 
 	public boolean findPath(int map[][], Point start, Point end) {
+		return findPath(new ArrayTileMap(map), start, end);
+	}
+
+	public boolean findPath(TileMap map, Point start, Point end) {
 		if (isPathCreated == true)
 			return false;
 
@@ -169,6 +211,10 @@ public class MovementController {
 	}
 
 	public Point recalculateDest(int map[][], Point playerMapDest) {
+		return recalculateDest(new ArrayTileMap(map), playerMapDest);
+	}
+
+	public Point recalculateDest(TileMap map, Point playerMapDest) {
 		// If we have a valid path, try to find a new destination near the original
 		if (movePath != null && movePath.size() > 0) {
 			// Start from the current waypoint and look for alternative destinations
@@ -130,6 +130,32 @@ public class MovementPhysics {
         this.currentY = y;
     }
 
+    /**
+     * Gets the current X velocity.
+     * @return Current X velocity
+     */
+    public double getVelocityX() {
+        return velocityX;
+    }
+
+    /**
+     * Gets the current Y velocity.
+     * @return Current Y velocity
+     */
+    public double getVelocityY() {
+        return velocityY;
+    }
+
+    /**
+     * Sets the current velocity.
+     * @param velocityX X velocity
+     * @param velocityY Y velocity
+     */
+    public void setVelocity(double velocityX, double velocityY) {
+        this.velocityX = velocityX;
+        this.velocityY = velocityY;
+    }
+
     /**
      * Sets the physics properties.
      * @param maxVelocity Maximum velocity
@@ -5,7 +5,9 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.PriorityQueue;
 import java.util.Comparator;
+import map.ArrayTileMap;
 import map.MapValidator;
+import map.TileMap;
 
 /**
  * A* pathfinding algorithm implementation.
@@ -71,6 +73,20 @@ public class PathAStar {
 	 * @return List of PathNodes representing the path, or null if no path found
 	 */
 	public static ArrayList<PathNode> generatePath(int[][] map, int startX, int startY, int finalX, int finalY) {
+		return generatePath(new ArrayTileMap(map), startX, startY, finalX, finalY);
+	}
+
+	/**
+	 * Generates a path using A* algorithm on any tile storage.
+	 * 
+	 * @param map    The game map
+	 * @param startX Starting X coordinate
+	 * @param startY Starting Y coordinate
+	 * @param finalX Destination X coordinate
+	 * @param finalY Destination Y coordinate
+	 * @return List of PathNodes representing the path, or null if no path found
+	 */
+	public static ArrayList<PathNode> generatePath(TileMap map, int startX, int startY, int finalX, int finalY) {
 		PathfindingResult result = generatePathWithExploredNodes(map, startX, startY, finalX, finalY);
 		return (result != null && result.hasPath()) ? result.path : null;
 	}
@@ -87,6 +103,22 @@ public class PathAStar {
 	 */
 	public static PathfindingResult generatePathWithExploredNodes(int[][] map, int startX, int startY, int finalX,
 			int finalY) {
+		return generatePathWithExploredNodes(new ArrayTileMap(map), startX, startY, finalX, finalY);
+	}
+
+	/**
+	 * Generates a path using A* algorithm on any tile storage and returns both
+	 * path and explored nodes.
+	 * 
+	 * @param map    The game map
+	 * @param startX Starting X coordinate
+	 * @param startY Starting Y coordinate
+	 * @param finalX Destination X coordinate
+	 * @param finalY Destination Y coordinate
+	 * @return PathfindingResult containing path and explored nodes, or null for invalid input
+	 */
+	public static PathfindingResult generatePathWithExploredNodes(TileMap map, int startX, int startY, int finalX,
+			int finalY) {
 		// Validate inputs
 		if (!isValidPathfindingRequest(map, startX, startY, finalX, finalY)) {
 			return null;
@@ -128,7 +160,7 @@ public class PathAStar {
 	/**
 	 * Validates the pathfinding request parameters.
 	 */
-	private static boolean isValidPathfindingRequest(int[][] map, int startX, int startY, int finalX, int finalY) {
+	private static boolean isValidPathfindingRequest(TileMap map, int startX, int startY, int finalX, int finalY) {
 		// Check if coordinates are within bounds
 		if (!MapValidator.isValidLocation(map, startX, startY) || !MapValidator.isValidLocation(map, finalX, finalY)) {
 			return false;
@@ -178,7 +210,7 @@ public class PathAStar {
 	 * neighbors.
 	 */
 	private static void processCurrentNode(PathNode currentNode, HashSet<String> closedSet,
-			PriorityQueue<PathNode> openList, int[][] map, int finalX, int finalY) {
+			PriorityQueue<PathNode> openList, TileMap map, int finalX, int finalY) {
 		// Add to closed set
 		String nodeKey = createNodeKey(currentNode.getX(), currentNode.getY());
 		if (closedSet.contains(nodeKey)) {
@@ -196,7 +228,7 @@ public class PathAStar {
 	 * Explores a neighbor node in the specified direction.
 	 */
 	private static void exploreNeighbor(PathNode currentNode, int[] direction, HashSet<String> closedSet,
-			PriorityQueue<PathNode> openList, int[][] map, int finalX, int finalY) {
+			PriorityQueue<PathNode> openList, TileMap map, int finalX, int finalY) {
 		int newX = currentNode.getX() + direction[0];
 		int newY = currentNode.getY() + direction[1];
 
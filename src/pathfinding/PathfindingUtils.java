@@ -4,6 +4,7 @@ import java.util.ArrayList;
 
 import graphics.Point;
 import map.MapValidator;
+import map.TileMap;
 import utils.TileCoordinateConverter;
 
 /**
@@ -32,7 +33,7 @@ public class PathfindingUtils {
      * @param originalDest The original destination that failed
      * @return An alternative destination, or null if none found
      */
-    public static Point findAlternativeDestination(int[][] map, Point originalDest) {
+    public static Point findAlternativeDestination(TileMap map, Point originalDest) {
         Point closestTile = findClosestWalkableDestination(
             map,
             originalDest,
@@ -50,7 +51,7 @@ public class PathfindingUtils {
      * @param map  The game map
      * @return true if the destination is valid, false otherwise
      */
-    public static boolean isValidDestination(Point dest, int[][] map) {
+    public static boolean isValidDestination(Point dest, TileMap map) {
         if (dest == null)
             return false;
 
@@ -80,7 +81,7 @@ public class PathfindingUtils {
      * @param currentPos The current position in map coordinates
      * @return A fallback destination, or null if none found
      */
-    public static Point findFallbackDestination(int[][] map, Point currentPos) {
+    public static Point findFallbackDestination(TileMap map, Point currentPos) {
         Point closestTile = findClosestWalkableDestination(
             map,
             currentPos,
@@ -111,7 +112,7 @@ public class PathfindingUtils {
     }
 
     private static Point findClosestWalkableDestination(
-        int[][] map,
+        TileMap map,
         Point center,
         int maxRadius,
         int maxDistance,
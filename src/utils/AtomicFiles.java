@@ -0,0 +1,68 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Atomic file writes shared by the binary file formats.
+ */
+public final class AtomicFiles {
+
+    /**
+     * Writes the contents of a file to an open channel.
+     */
+    public interface ChannelWriter {
+        void write(FileChannel channel) throws IOException;
+    }
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Replaces a file with the given buffers, one after another. Readers see
+     * either the old file or the complete new one, never a partial write.
+     *
+     * @param path Target file
+     * @param buffers Contents, written from their positions to their limits
+     * @throws IOException If the file could not be written
+     */
+    public static void writeAtomically(Path path, ByteBuffer... buffers) throws IOException {
+        writeAtomically(path, channel -> {
+            for (ByteBuffer buffer : buffers) {
+                writeFully(channel, buffer);
+            }
+        });
+    }
+
+    /**
+     * Replaces a file with whatever the writer writes, for contents too large
+     * to build in memory at once. The writer's output goes to a temporary file
+     * next to the target that is moved over it once complete.
+     *
+     * @param path Target file
+     * @param writer Writes the contents
+     * @throws IOException If the file could not be written
+     */
+    public static void writeAtomically(Path path, ChannelWriter writer) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writer.write(channel);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes a buffer completely; a single channel write may stop early.
+     */
+    public static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -70,6 +70,10 @@ public class Constants {
     public static final double FOV_HALF_ANGLE = FOV_ANGLE / 2.0; // Half the FOV angle
     public static final int FOV_RENDER_SEGMENTS = 16; // Number of segments for FOV cone rendering
     public static final int FOV_RENDER_RADIUS = 6; // FOV cone radius in tiles for rendering
+
+    // Fog of war sight radius in tiles, indexed by unit class type (index 0 = unknown)
+    public static final int FOG_DEFAULT_SIGHT_RADIUS = 5;
+    public static final int[] FOG_SIGHT_RADIUS = { FOG_DEFAULT_SIGHT_RADIUS, 6, 5, 4 };
     
     private Constants() {
         // prevent instantiation
@@ -20,6 +20,28 @@ public class GameConfig {
             { "fov.show_enemy_units", "false" },
             { "fov.show_selected_only", "true" },
 
+            // Fog of war settings
+            { "fog.shadowcast", "true" },
+
+            // Replay settings
+            { "replay.record", "false" },
+
+            // Combat effects (hard cap on live particles; the oldest are replaced)
+            { "effects.max_particles", "4096" },
+
+            // Unit sprites are pre-rotated in this many steps around the circle
+            { "render.sprite_rotations", "72" },
+
+            // Frames are rasterized in this many horizontal bands in parallel (0 = one per core).
+            // Each band replays the whole frame, so more bands only help with spare cores
+            { "render.bands", "1" },
+
+            // Pre-decoded image bundle written on first run (empty disables it)
+            { "assets.bundle", "cache/assets.bundle" },
+
+            // Save game settings (autosave interval in game seconds, 0 disables)
+            { "save.autosave_seconds", "0" },
+
             // Debug settings
             { "debug.mode", "false" },
             { "debug.show_fps", "false" },
@@ -130,6 +152,47 @@ public class GameConfig {
         setFovShowEnemyUnits(!isFovShowEnemyUnits());
     }
 
+    public static boolean isFogShadowcastEnabled() {
+        return getBoolean("fog.shadowcast");
+    }
+
+    public static void setFogShadowcastEnabled(boolean enabled) {
+        setBoolean("fog.shadowcast", enabled);
+    }
+
+    public static boolean isReplayRecordingEnabled() {
+        return getBoolean("replay.record");
+    }
+
+    public static void setReplayRecordingEnabled(boolean enabled) {
+        setBoolean("replay.record", enabled);
+    }
+
+    public static int getMaxParticles() {
+        return getInt("effects.max_particles");
+    }
+
+    public static int getSpriteRotations() {
+        return getInt("render.sprite_rotations");
+    }
+
+    public static int getRenderBands() {
+        int bands = getInt("render.bands");
+        return bands > 0 ? bands : Runtime.getRuntime().availableProcessors();
+    }
+
+    public static String getAssetBundlePath() {
+        return getString("assets.bundle");
+    }
+
+    public static int getAutosaveSeconds() {
+        return getInt("save.autosave_seconds");
+    }
+
+    public static void setAutosaveSeconds(int seconds) {
+        setInt("save.autosave_seconds", seconds);
+    }
+
     public static boolean isDebugMode() {
         return getBoolean("debug.mode");
     }
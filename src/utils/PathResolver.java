@@ -19,6 +19,24 @@ public class PathResolver {
      * @return The resolved path that exists, or the original filename as fallback
      */
     public static String resolvePath(String filename, String baseDir) {
+        String path = findPath(filename, baseDir);
+        if (path != null) {
+            return path;
+        }
+
+        Logger.warn("Could not find file: " + filename);
+        return filename; // fallback
+    }
+
+    /**
+     * Looks for a file in the same locations as {@link #resolvePath}, for
+     * files that are optional.
+     *
+     * @param filename The original filename or path
+     * @param baseDir  The base directory to search in (e.g., "maps", "img")
+     * @return The resolved path that exists, or null if there is none
+     */
+    public static String findPath(String filename, String baseDir) {
         // Try multiple possible paths
         String[] possiblePaths = {
                 filename,
@@ -35,9 +53,7 @@ public class PathResolver {
                 return path;
             }
         }
-
-        Logger.warn("Could not find file: " + filename);
-        return filename; // fallback
+        return null;
     }
 
     /**
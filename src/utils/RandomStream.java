@@ -0,0 +1,74 @@
+package utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A SplitMix64 random number generator whose whole state is one {@code long}.
+ *
+ * Unlike {@link java.util.SplittableRandom}, the state can be read and set, so
+ * a save game can store every stream exactly where it stopped and a resumed
+ * match draws the same numbers as one that was never interrupted.
+ * Not thread-safe; each stream belongs to one subsystem or unit.
+ */
+public final class RandomStream {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private long state;
+
+    /**
+     * Creates a stream with an arbitrary seed, for code outside a seeded match.
+     */
+    public RandomStream() {
+        this(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * @param state Initial state; streams with the same state draw the same numbers
+     */
+    public RandomStream(long state) {
+        this.state = state;
+    }
+
+    /**
+     * Gets the current state, to be passed to {@link #setState} or the
+     * constructor to continue the stream from here.
+     */
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return RandomStreams.mix64(state);
+    }
+
+    /**
+     * Gets a value in [0, bound).
+     *
+     * @param bound Upper bound, exclusive; must be positive
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Bound must be positive: " + bound);
+        }
+        // Rejects the top values that would make low results more likely
+        long limit = Long.MAX_VALUE - Long.MAX_VALUE % bound;
+        long value;
+        do {
+            value = nextLong() >>> 1;
+        } while (value >= limit);
+        return (int) (value % bound);
+    }
+
+    /**
+     * Gets a value in [0.0, 1.0).
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+}
@@ -0,0 +1,60 @@
+package utils;
+
+/**
+ * Derives independent random number streams from a single match seed.
+ *
+ * Every subsystem and every unit gets its own {@link RandomStream}, seeded
+ * from the match seed and a stable key. Streams do not share state, so a
+ * subsystem draws the same numbers no matter how often the others draw or on
+ * which thread they run, and the same seed replays the same match.
+ */
+public final class RandomStreams {
+    /** Subsystems with their own stream. */
+    public enum Subsystem {
+        SPAWN,
+        EFFECTS
+    }
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long UNIT_SALT = 0x5DEECE66DL;
+
+    private final long seed;
+
+    public RandomStreams(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Creates the stream for a subsystem. Calling this again restarts the stream.
+     *
+     * @param subsystem The subsystem
+     * @return A generator seeded from the match seed and the subsystem
+     */
+    public RandomStream forSubsystem(Subsystem subsystem) {
+        return new RandomStream(mix64(seed + GOLDEN_GAMMA * (subsystem.ordinal() + 1)));
+    }
+
+    /**
+     * Creates the stream for a unit.
+     *
+     * @param unitSerial Number of the unit in creation order
+     * @return A generator seeded from the match seed and the unit
+     */
+    public RandomStream forUnit(long unitSerial) {
+        return new RandomStream(mix64(seed ^ mix64(UNIT_SALT + GOLDEN_GAMMA * unitSerial)));
+    }
+
+    /**
+     * Scrambles a 64-bit value (the SplitMix64 finalizer) so that nearby keys
+     * give unrelated seeds.
+     */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,110 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import graphics.GameImage;
+import map.TileConverter;
+import utils.PathResolver;
+
+public class AssetBundleTest {
+
+    @TempDir
+    Path tempDir;
+
+    private GameImage image(int width, int height, int argb) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, argb + x + y * width);
+            }
+        }
+        return new GameImage(image, "img/test.png", GameImage.ImageFormat.PNG);
+    }
+
+    private void assertSamePixels(GameImage expected, GameImage actual) {
+        BufferedImage a = (BufferedImage) expected.getBackendImage();
+        BufferedImage b = (BufferedImage) actual.getBackendImage();
+        assertEquals(a.getWidth(), b.getWidth());
+        assertEquals(a.getHeight(), b.getHeight());
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                assertEquals(a.getRGB(x, y), b.getRGB(x, y), "pixel " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        AssetBundle.Contents contents = new AssetBundle.Contents();
+        contents.gameImages.put(3, image(7, 5, 0xFF102030));
+        contents.darkGameImages.put(3, image(7, 5, 0xFF050505));
+        contents.tileImages.put("land", image(4, 4, 0xFF204060));
+        contents.darkTileImages.put("land", image(4, 4, 0xFF000000));
+        contents.rotations = 2;
+        contents.atlasFrames = new GameImage[] { image(2, 2, 0xFF000010), image(2, 2, 0xFF000020) };
+        Path path = tempDir.resolve("nested").resolve("assets.bundle");
+
+        AssetBundle.write(path, 1234L, contents);
+        AssetBundle.Contents read = AssetBundle.read(path, 1234L);
+
+        assertNotNull(read);
+        assertEquals(2, read.rotations);
+        assertSamePixels(contents.gameImages.get(3), read.gameImages.get(3));
+        assertSamePixels(contents.darkGameImages.get(3), read.darkGameImages.get(3));
+        assertSamePixels(contents.tileImages.get("land"), read.tileImages.get("land"));
+        assertSamePixels(contents.darkTileImages.get("land"), read.darkTileImages.get("land"));
+        assertEquals(2, read.atlasFrames.length);
+        assertSamePixels(contents.atlasFrames[1], read.atlasFrames[1]);
+        assertEquals("img/test.png", read.gameImages.get(3).getPath());
+        assertEquals(GameImage.ImageFormat.PNG, read.gameImages.get(3).getFormat());
+        assertEquals(BufferedImage.TYPE_INT_ARGB_PRE,
+                ((BufferedImage) read.tileImages.get("land").getBackendImage()).getType());
+        assertFalse(Files.exists(tempDir.resolve("nested").resolve("assets.bundle.tmp")));
+    }
+
+    @Test
+    public void testStaleOrMissingBundleIsIgnored() throws IOException {
+        AssetBundle.Contents contents = new AssetBundle.Contents();
+        contents.tileImages.put("land", image(4, 4, 0xFF204060));
+        Path path = tempDir.resolve("assets.bundle");
+        AssetBundle.write(path, 1L, contents);
+
+        assertNull(AssetBundle.read(path, 2L));
+        assertNull(AssetBundle.read(tempDir.resolve("missing.bundle"), 1L));
+
+        Path garbage = tempDir.resolve("garbage.bundle");
+        Files.write(garbage, new byte[64]);
+        assertThrows(IllegalArgumentException.class, () -> AssetBundle.read(garbage, 1L));
+    }
+
+    @Test
+    public void testImageServiceWritesAndReusesBundle() throws Exception {
+        Path path = tempDir.resolve("assets.bundle");
+        ImageService first = new ImageService(new PathResolver());
+        first.setBundlePath(path);
+        first.loadImages();
+        // The bundle is written in the background after loading
+        for (int i = 0; i < 600 && !Files.exists(path); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(Files.exists(path));
+
+        ImageService second = new ImageService(new PathResolver());
+        second.setBundlePath(path);
+        second.loadImages();
+        GameImage land = second.getTileImage(TileConverter.STR_LAND);
+        assertEquals(BufferedImage.TYPE_INT_ARGB_PRE, ((BufferedImage) land.getBackendImage()).getType());
+        assertSamePixels(first.getTileImage(TileConverter.STR_LAND), land);
+        assertSamePixels(first.getTileImage(TileConverter.STR_WALL, true),
+                second.getTileImage(TileConverter.STR_WALL, true));
+        assertEquals(first.getSpriteAtlas().getFrameCount(), second.getSpriteAtlas().getFrameCount());
+        assertSamePixels(first.getSpriteAtlas().getFrame(1, true, false, 45),
+                second.getSpriteAtlas().getFrame(1, true, false, 45));
+    }
+}
@@ -5,6 +5,7 @@ import static org.mockito.Mockito.*;
 
 import java.awt.Cursor;
 import managers.CameraManager;
+import managers.VisibleRegion;
 import input.MouseListenerRegistrar;
 import utils.Constants;
 
@@ -572,4 +573,51 @@ public class CameraManagerTest {
         
         assertTrue(cameraManager.getCameraX() < 400 + 5, "Camera should be able to move left from maximum");
     }
-} 
\ No newline at end of file
+    
+    // ==================== MAP BOUNDS AND VISIBLE REGION TESTS ====================
+    
+    @Test
+    void testCameraBoundsFollowMapSize() {
+        cameraManager.updateCameraBounds(512, 512);
+        cameraManager.setCameraX(100000);
+        cameraManager.setCameraY(100000);
+        assertEquals(512 * Constants.TILE_WIDTH - Constants.SCREEN_WIDTH, cameraManager.getCameraX());
+        assertEquals(512 * Constants.TILE_HEIGHT - Constants.SCREEN_HEIGHT, cameraManager.getCameraY());
+        
+        // A map smaller than the screen cannot be scrolled
+        cameraManager.updateCameraBounds(10, 10);
+        assertEquals(0, cameraManager.getCameraX());
+        assertEquals(0, cameraManager.getCameraY());
+    }
+    
+    @Test
+    void testVisibleRegionCoversScreenPlusMargin() {
+        cameraManager.updateCameraBounds(512, 512);
+        cameraManager.setCameraX(1000);
+        cameraManager.setCameraY(525);
+        
+        VisibleRegion region = cameraManager.getVisibleRegion(0);
+        assertEquals(1000 / Constants.TILE_WIDTH, region.getMinTileX());
+        assertEquals(525 / Constants.TILE_HEIGHT, region.getMinTileY());
+        assertEquals((1000 + Constants.SCREEN_WIDTH - 1) / Constants.TILE_WIDTH, region.getMaxTileX());
+        assertEquals((525 + Constants.SCREEN_HEIGHT - 1) / Constants.TILE_HEIGHT, region.getMaxTileY());
+        
+        VisibleRegion withMargin = cameraManager.getVisibleRegion(2);
+        assertEquals(region.getMinTileX() - 2, withMargin.getMinTileX());
+        assertEquals(region.getMaxTileY() + 2, withMargin.getMaxTileY());
+    }
+    
+    @Test
+    void testVisibleRegionIsClampedToMap() {
+        cameraManager.updateCameraBounds(30, 32);
+        VisibleRegion region = cameraManager.getVisibleRegion(5);
+        assertEquals(0, region.getMinTileX());
+        assertEquals(0, region.getMinTileY());
+        assertTrue(region.getMaxTileX() <= 29);
+        assertTrue(region.getMaxTileY() <= 31);
+        assertTrue(region.containsTile(0, 0));
+        assertFalse(region.containsTile(30, 0));
+        assertTrue(region.intersects(-10, -10, Constants.TILE_WIDTH, Constants.TILE_HEIGHT));
+        assertFalse(region.intersects(-Constants.TILE_WIDTH, 0, Constants.TILE_WIDTH, Constants.TILE_HEIGHT));
+    }
+}
@@ -0,0 +1,138 @@
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import entities.GameUnit;
+import graphics.IGraphics;
+import graphics.Point;
+import managers.CombatEffectManager;
+import managers.VisibleRegion;
+import utils.Constants;
+import utils.RandomStream;
+
+public class CombatEffectManagerTest {
+
+    @Test
+    public void testParticlesExpire() {
+        CombatEffectManager manager = new CombatEffectManager(64);
+        manager.createCombatParticles(new Point(100, 100), 5);
+        assertEquals(5, manager.getParticleCount());
+
+        // Particles live 30 to 59 frames
+        for (int i = 0; i < 29; i++) {
+            manager.update();
+        }
+        assertEquals(5, manager.getParticleCount());
+        for (int i = 0; i < 30; i++) {
+            manager.update();
+        }
+        assertEquals(0, manager.getParticleCount());
+    }
+
+    @Test
+    public void testParticleCapEvictsOldest() {
+        CombatEffectManager manager = new CombatEffectManager(16);
+        manager.setRandom(new RandomStream(1));
+        for (int i = 0; i < 10; i++) {
+            manager.createCombatParticles(new Point(i * 1000, 0), 5);
+        }
+        assertEquals(16, manager.getParticleCount());
+        assertEquals(16, manager.getMaxParticles());
+
+        // Only the newest 16 of the 50 particles remain: batches 7 to 9 and one from batch 6
+        IGraphics g = mock(IGraphics.class);
+        manager.render(g, 0, 0);
+        verify(g, never()).fillRect(intThat(x -> x < 6000), anyInt(), eq(2), eq(2));
+        verify(g, atLeast(5)).fillRect(intThat(x -> x >= 9000), anyInt(), eq(2), eq(2));
+    }
+
+    @Test
+    public void testParticleCapIsExactForOtherSizes() {
+        CombatEffectManager manager = new CombatEffectManager(1000);
+        for (int i = 0; i < 300; i++) {
+            manager.createCombatParticles(new Point(0, 0), 5);
+        }
+        assertEquals(1000, manager.getParticleCount());
+        assertEquals(1000, manager.getMaxParticles());
+    }
+
+    @Test
+    public void testSameRandomStreamGivesSameParticles() {
+        CombatEffectManager a = new CombatEffectManager(64);
+        CombatEffectManager b = new CombatEffectManager(64);
+        a.setRandom(new RandomStream(7));
+        b.setRandom(new RandomStream(7));
+        a.createCombatParticles(new Point(0, 0), 10);
+        b.createCombatParticles(new Point(0, 0), 10);
+
+        IGraphics ga = mock(IGraphics.class);
+        IGraphics gb = mock(IGraphics.class);
+        a.render(ga, 0, 0);
+        b.render(gb, 0, 0);
+
+        ArgumentCaptor<Integer> xa = ArgumentCaptor.forClass(Integer.class);
+        ArgumentCaptor<Integer> ya = ArgumentCaptor.forClass(Integer.class);
+        ArgumentCaptor<Integer> xb = ArgumentCaptor.forClass(Integer.class);
+        ArgumentCaptor<Integer> yb = ArgumentCaptor.forClass(Integer.class);
+        verify(ga, times(10)).fillRect(xa.capture(), ya.capture(), eq(2), eq(2));
+        verify(gb, times(10)).fillRect(xb.capture(), yb.capture(), eq(2), eq(2));
+        assertEquals(xa.getAllValues(), xb.getAllValues());
+        assertEquals(ya.getAllValues(), yb.getAllValues());
+    }
+
+    @Test
+    public void testAnimationsFollowUnitsAndExpire() {
+        GameUnit unit = mock(GameUnit.class);
+        when(unit.getCurrentPosition()).thenReturn(new Point(200, 300));
+        CombatEffectManager manager = new CombatEffectManager();
+        manager.createAttackAnimation(unit);
+        manager.createDeathAnimation(unit);
+        manager.createDamageNumber(new Point(10, 20), 12, true);
+        assertEquals(3, manager.getEffectCount());
+
+        IGraphics g = mock(IGraphics.class);
+        manager.render(g, 50, 100);
+        verify(g).fillRect(150, 200, 50, 50); // Attack flash at the unit
+        verify(g).drawRect(150, 200, 50, 50); // Death outline
+        verify(g).drawString("-12", -40, -80);
+
+        when(unit.getCurrentPosition()).thenReturn(new Point(250, 300));
+        manager.update();
+        IGraphics moved = mock(IGraphics.class);
+        manager.render(moved, 0, 0);
+        verify(moved).fillRect(250, 300, 50, 50);
+        verify(moved).drawString("-12", 10, 19); // Damage numbers float upward
+
+        for (int i = 0; i < 60; i++) {
+            manager.update();
+        }
+        assertEquals(0, manager.getEffectCount());
+    }
+
+    @Test
+    public void testClearRemovesEverything() {
+        CombatEffectManager manager = new CombatEffectManager(64);
+        manager.createCombatParticles(new Point(0, 0), 20);
+        manager.createDamageNumber(new Point(0, 0), 5, false);
+        manager.clear();
+        assertEquals(0, manager.getEffectCount());
+    }
+
+    @Test
+    public void testRegionSkipsOffscreenEffects() {
+        CombatEffectManager manager = new CombatEffectManager(64);
+        manager.setRandom(new RandomStream(5));
+        manager.createCombatParticles(new Point(100, 100), 5);
+        manager.createCombatParticles(new Point(20000, 20000), 5);
+        manager.createDamageNumber(new Point(20000, 20000), 7, false);
+
+        VisibleRegion region = VisibleRegion.ofView(0, 0, Constants.SCREEN_WIDTH, Constants.SCREEN_HEIGHT, 512, 512);
+        IGraphics g = mock(IGraphics.class);
+        manager.render(g, 0, 0, region);
+        verify(g, times(5)).fillRect(anyInt(), anyInt(), eq(2), eq(2));
+        verify(g, never()).drawString(anyString(), anyInt(), anyInt());
+    }
+}
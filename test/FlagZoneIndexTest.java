@@ -0,0 +1,49 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import entities.FlagZoneIndex;
+import entities.GameFlag;
+
+public class FlagZoneIndexTest {
+
+    @Test
+    public void testZoneMatchesEuclideanRadius() {
+        GameFlag flag = new GameFlag(10, 10, GameFlag.FACTION_NEUTRAL);
+        FlagZoneIndex index = new FlagZoneIndex(List.of(flag), GameFlag.FLAG_RADIUS);
+
+        for (int y = 5; y <= 15; y++) {
+            for (int x = 5; x <= 15; x++) {
+                boolean inZone = Math.sqrt(Math.pow(x - 10, 2) + Math.pow(y - 10, 2)) <= GameFlag.FLAG_RADIUS;
+                assertEquals(inZone ? 1 : 0, index.countFlagsAt(x, y), "tile " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void testOverlappingZonesListEveryFlag() {
+        GameFlag first = new GameFlag(2, 2, GameFlag.FACTION_PLAYER);
+        GameFlag second = new GameFlag(6, 2, GameFlag.FACTION_ENEMY);
+        FlagZoneIndex index = new FlagZoneIndex(List.of(first, second), GameFlag.FLAG_RADIUS);
+
+        assertEquals(2, index.countFlagsAt(4, 2));
+        assertEquals(0, index.getFlagIds()[index.getStart(4, 2)]);
+        assertEquals(1, index.getFlagIds()[index.getStart(4, 2) + 1]);
+        assertEquals(1, index.countFlagsAt(0, 2));
+        assertEquals(0, index.getFlagIds()[index.getStart(0, 2)]);
+        assertEquals(1, index.countFlagsAt(9, 2));
+        assertEquals(1, index.getFlagIds()[index.getStart(9, 2)]);
+    }
+
+    @Test
+    public void testTilesOutsideAllZonesAndEmptyIndex() {
+        FlagZoneIndex index = new FlagZoneIndex(List.of(new GameFlag(0, 0, GameFlag.FACTION_NEUTRAL)), 3);
+        assertEquals(0, index.countFlagsAt(50, 50));
+        assertEquals(0, index.countFlagsAt(-10, 0));
+
+        FlagZoneIndex empty = new FlagZoneIndex(List.of(), 3);
+        assertEquals(0, empty.countFlagsAt(0, 0));
+    }
+}
@@ -0,0 +1,81 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import managers.FogBitGrid;
+
+public class FogBitGridTest {
+
+    @Test
+    public void testSetGetAndClearAcrossWordBoundary() {
+        FogBitGrid grid = new FogBitGrid(130, 3);
+        grid.set(63, 1);
+        grid.set(64, 1);
+        grid.set(129, 2);
+
+        assertTrue(grid.get(63, 1));
+        assertTrue(grid.get(64, 1));
+        assertTrue(grid.get(129, 2));
+        assertFalse(grid.get(65, 1));
+        assertFalse(grid.get(63, 0));
+        assertEquals(3, grid.getWordsPerRow());
+        assertEquals(3, grid.cardinality());
+
+        grid.clear(64, 1);
+        assertFalse(grid.get(64, 1));
+
+        grid.clearAll();
+        assertEquals(0, grid.cardinality());
+    }
+
+    @Test
+    public void testOrMergesGrids() {
+        FogBitGrid visited = new FogBitGrid(10, 10);
+        FogBitGrid visible = new FogBitGrid(10, 10);
+        visited.set(1, 1);
+        visible.set(2, 2);
+
+        visited.or(visible);
+
+        assertTrue(visited.get(1, 1));
+        assertTrue(visited.get(2, 2));
+        assertFalse(visible.get(1, 1));
+    }
+
+    @Test
+    public void testOrRejectsDifferentSizes() {
+        FogBitGrid a = new FogBitGrid(10, 10);
+        FogBitGrid b = new FogBitGrid(11, 10);
+        assertThrows(IllegalArgumentException.class, () -> a.or(b));
+    }
+
+    @Test
+    public void testAnySetIsClippedToRectangle() {
+        FogBitGrid grid = new FogBitGrid(100, 10);
+        grid.set(70, 5);
+
+        assertTrue(grid.anySet(60, 0, 20, 10));
+        assertTrue(grid.anySet(70, 5, 1, 1));
+        assertFalse(grid.anySet(71, 0, 29, 10));
+        assertFalse(grid.anySet(0, 0, 70, 10));
+        assertFalse(grid.anySet(60, 6, 20, 4));
+        assertFalse(grid.anySet(200, 0, 5, 5));
+    }
+
+    @Test
+    public void testDownsampleMarksBlocksWithAnySetTile() {
+        FogBitGrid grid = new FogBitGrid(130, 7);
+        grid.set(0, 0);
+        grid.set(129, 6);
+        grid.set(65, 3);
+
+        FogBitGrid small = grid.downsample(4);
+
+        assertEquals(33, small.getWidth());
+        assertEquals(2, small.getHeight());
+        assertTrue(small.get(0, 0));
+        assertTrue(small.get(32, 1));
+        assertTrue(small.get(16, 0));
+        assertEquals(3, small.cardinality());
+    }
+}
@@ -0,0 +1,90 @@
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import entities.GameUnit;
+import graphics.GameImage;
+import graphics.IGraphics;
+import graphics.Point;
+import managers.GameFogWar;
+import utils.Constants;
+
+public class FogMaskTest {
+
+    private static final int FOG = 0xFFE2E2E2;
+
+    private GameUnit unitAt(int tileX, int tileY) {
+        GameUnit unit = mock(GameUnit.class);
+        Point position = new Point(tileX, tileY);
+        when(unit.getCurrentPosition()).thenReturn(position);
+        when(unit.getMapPoint(position)).thenReturn(position);
+        return unit;
+    }
+
+    private void assertMatchesFog(FogMask mask, GameFogWar fog, int size) {
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                assertEquals(fog.isTileVisible(x, y) ? 0 : FOG, mask.getPixel(x, y), "tile " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void testFogIsOneScaledDraw() {
+        GameFogWar fog = new GameFogWar(40, 30);
+        int[][] map = new int[40][30];
+        fog.calculateFogOfWar(List.of(unitAt(10, 10)), map);
+
+        FogMask mask = new FogMask();
+        IGraphics g = mock(IGraphics.class);
+        mask.render(g, fog, 100, 50);
+
+        verify(g, times(1)).drawImage(any(GameImage.class), eq(-100), eq(-50), eq(30 * Constants.TILE_WIDTH),
+                eq(40 * Constants.TILE_HEIGHT));
+        verify(g, never()).fillRect(anyInt(), anyInt(), anyInt(), anyInt());
+        assertEquals(0, mask.getPixel(10, 10));
+        assertEquals(FOG, mask.getPixel(29, 39));
+    }
+
+    @Test
+    public void testOnlyChangedTilesAreRewritten() {
+        GameFogWar fog = new GameFogWar(60, 60);
+        int[][] map = new int[60][60];
+        FogMask mask = new FogMask();
+        fog.calculateFogOfWar(List.of(unitAt(5, 5)), map);
+        mask.update(fog);
+        assertEquals(1, mask.getFullRebuilds());
+
+        // Several ticks pass between frames
+        fog.calculateFogOfWar(List.of(unitAt(6, 5)), map);
+        fog.calculateFogOfWar(List.of(unitAt(8, 7)), map);
+        fog.calculateFogOfWar(List.of(unitAt(12, 9)), map);
+        mask.update(fog);
+
+        assertEquals(1, mask.getFullRebuilds());
+        assertMatchesFog(mask, fog, 60);
+    }
+
+    @Test
+    public void testResetOrNewFogRebuildsMask() {
+        GameFogWar fog = new GameFogWar(20, 20);
+        FogMask mask = new FogMask();
+        fog.calculateFogOfWar(List.of(unitAt(5, 5)), new int[20][20]);
+        mask.update(fog);
+
+        fog.reset(20, 20);
+        mask.update(fog);
+        assertEquals(2, mask.getFullRebuilds());
+        assertEquals(FOG, mask.getPixel(5, 5));
+
+        GameFogWar next = new GameFogWar(10, 10);
+        next.calculateFogOfWar(List.of(unitAt(1, 1)), new int[10][10]);
+        mask.update(next);
+        assertEquals(3, mask.getFullRebuilds());
+        assertMatchesFog(mask, next, 10);
+    }
+}
@@ -65,16 +65,20 @@ public class GameFlagManagerTest {
         assertEquals(1, flagManager.getNumFlagsEnemy(), "There should be 1 enemy flag after reset");
     }
 
-    /*@Test
-    public void testCheckFlagState() {
+    @Test
+    public void testCapturePressure() {
         flagManager.addPlayerFlag(1, 1);
+        GameFlag flag = flagManager.getPlayerFlag();
 
-        // Change the player's flag to enemy's faction
-        flagManager.checkFlagState(1, 1, GameFlag.FACTION_ENEMY);
+        // An enemy unit standing on the flag for enough ticks takes it over
+        for (int tick = 0; tick < 100; tick++) {
+            flagManager.addCapturePressure(1, 1, GameFlag.FACTION_ENEMY);
+            flagManager.applyCapturePressure();
+        }
 
         // Assert that the flag is now enemy
-        assertTrue(flagManager.getPlayerFlag().isFactionEnemy(), "Player flag should be moved to enemy faction");
-    }*/
+        assertTrue(flag.isFactionEnemy(), "Player flag should be moved to enemy faction");
+    }
 
     @Test
     public void testGetFlagList() {
@@ -96,4 +100,35 @@ public class GameFlagManagerTest {
         assertNotNull(secondFlag, "Second flag should not be null");
         assertTrue(secondFlag.isFactionEnemy(), "Second flag should be an enemy flag");
     }
+
+    @Test
+    public void testCapturePressureAppliedOncePerTick() {
+        flagManager.addPlayerFlag(5, 5);
+        flagManager.addEnemyFlag(20, 20);
+
+        // Three enemy units in the player flag's zone, one far away from every flag
+        flagManager.addCapturePressure(5, 5, GameFlag.FACTION_ENEMY);
+        flagManager.addCapturePressure(6, 6, GameFlag.FACTION_ENEMY);
+        flagManager.addCapturePressure(5, 8, GameFlag.FACTION_ENEMY);
+        flagManager.addCapturePressure(12, 12, GameFlag.FACTION_ENEMY);
+
+        GameFlag playerFlag = flagManager.getPlayerFlag();
+        assertEquals(100, playerFlag.getHealth(), "Pressure should not apply before the tick ends");
+
+        flagManager.applyCapturePressure();
+        assertEquals(94, playerFlag.getHealth());
+
+        // Accumulators are reset after applying
+        flagManager.applyCapturePressure();
+        assertEquals(94, playerFlag.getHealth());
+    }
+
+    @Test
+    public void testZoneIndexRebuiltWhenFlagsAdded() {
+        flagManager.addPlayerFlag(1, 1);
+        assertEquals(0, flagManager.getZoneIndex().countFlagsAt(10, 10));
+
+        flagManager.addEnemyFlag(10, 10);
+        assertEquals(1, flagManager.getZoneIndex().countFlagsAt(10, 10));
+    }
 }
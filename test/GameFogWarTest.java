@@ -1,13 +1,18 @@
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import entities.GameUnit;
+import managers.FogChangeTracker;
 import managers.GameFogWar;
+import map.TileConverter;
+import map.TileMap;
 import graphics.Point;
 
 public class GameFogWarTest {
@@ -21,8 +26,8 @@ public class GameFogWarTest {
 
     @Test
     public void testResetClearsVisibility() {
-        fog.getVisibleData()[2][2] = true;
-        fog.getVisitedData()[2][2] = true;
+        fog.setTileVisible(2, 2, true);
+        fog.setTileVisited(2, 2, true);
         fog.reset(20, 20);
         assertFalse(fog.isTileVisible(2, 2));
         assertFalse(fog.isTileVisited(2, 2));
@@ -117,4 +122,164 @@ public class GameFogWarTest {
         assertTrue(fog.isTileVisible(15, 15)); // New position visible
         assertTrue(fog.isTileVisited(15, 15)); // New position visited
     }
+
+    @Test
+    public void testShadowcastModeRespectsWalls() {
+        GameUnit mockUnit = mock(GameUnit.class);
+        when(mockUnit.getCurrentPosition()).thenReturn(new Point(5, 5));
+        when(mockUnit.getMapPoint(new Point(5, 5))).thenReturn(new Point(5, 5));
+
+        int[][] map = new int[20][20];
+        map[5][7] = TileConverter.TILE_WALL;
+        fog.setFogMode(GameFogWar.FogMode.SHADOWCAST);
+        fog.calculateFogOfWar(List.of(mockUnit), map);
+
+        assertTrue(fog.isTileVisible(5, 5));
+        assertTrue(fog.isTileVisible(7, 5)); // wall
+        assertFalse(fog.isTileVisible(8, 5)); // behind wall
+        assertFalse(fog.isTileVisited(8, 5));
+        assertFalse(fog.isTileVisible(9, 9)); // corner of the old square is outside the radius
+    }
+
+    @Test
+    public void testStationaryUnitsProduceNoDirtyTiles() {
+        GameUnit mockUnit = mock(GameUnit.class);
+        when(mockUnit.getCurrentPosition()).thenReturn(new Point(5, 5));
+        when(mockUnit.getMapPoint(new Point(5, 5))).thenReturn(new Point(5, 5));
+        int[][] map = new int[20][20];
+
+        fog.calculateFogOfWar(List.of(mockUnit), map);
+        assertEquals(121, fog.getDirtyTileCount());
+
+        fog.calculateFogOfWar(List.of(mockUnit), map);
+        assertEquals(0, fog.getDirtyTileCount());
+        assertTrue(fog.isTileVisible(5, 5));
+    }
+
+    @Test
+    public void testMovingUnitOnlyDirtiesChangedTiles() {
+        GameUnit mockUnit = mock(GameUnit.class);
+        when(mockUnit.getCurrentPosition()).thenReturn(new Point(5, 5));
+        when(mockUnit.getMapPoint(new Point(5, 5))).thenReturn(new Point(5, 5));
+        int[][] map = new int[20][20];
+        fog.calculateFogOfWar(List.of(mockUnit), map);
+
+        when(mockUnit.getCurrentPosition()).thenReturn(new Point(6, 5));
+        when(mockUnit.getMapPoint(new Point(6, 5))).thenReturn(new Point(6, 5));
+        fog.calculateFogOfWar(List.of(mockUnit), map);
+
+        // One column of 11 tiles is lost on the left and one is gained on the right
+        assertEquals(22, fog.getDirtyTileCount());
+        assertFalse(fog.isTileVisible(0, 5));
+        assertTrue(fog.isTileVisited(0, 5));
+        assertTrue(fog.isTileVisible(11, 5));
+    }
+
+    @Test
+    public void testOverlappingObserversAreReferenceCounted() {
+        GameUnit unit1 = mock(GameUnit.class);
+        when(unit1.getCurrentPosition()).thenReturn(new Point(5, 5));
+        when(unit1.getMapPoint(new Point(5, 5))).thenReturn(new Point(5, 5));
+        GameUnit unit2 = mock(GameUnit.class);
+        when(unit2.getCurrentPosition()).thenReturn(new Point(8, 5));
+        when(unit2.getMapPoint(new Point(8, 5))).thenReturn(new Point(8, 5));
+        int[][] map = new int[20][20];
+
+        fog.calculateFogOfWar(List.of(unit1, unit2), map);
+        assertEquals(2, fog.getObserverCount(6, 5));
+        assertEquals(1, fog.getObserverCount(0, 5));
+
+        // unit1 is gone (e.g. died): tiles only it could see become fogged
+        fog.calculateFogOfWar(List.of(unit2), map);
+        assertEquals(1, fog.getObserverCount(6, 5));
+        assertTrue(fog.isTileVisible(6, 5));
+        assertFalse(fog.isTileVisible(0, 5));
+        assertTrue(fog.isTileVisited(0, 5));
+    }
+
+    @Test
+    public void testChangedTilesAccumulateUntilDrained() {
+        GameUnit unit = mock(GameUnit.class);
+        when(unit.getCurrentPosition()).thenReturn(new Point(5, 5));
+        when(unit.getMapPoint(new Point(5, 5))).thenReturn(new Point(5, 5));
+        // Large enough for every change to be tracked
+        GameFogWar fog = new GameFogWar(60, 60);
+        int[][] map = new int[60][60];
+
+        // Nothing has been tracked before the first drain
+        FogChangeTracker tracker = fog.trackChanges();
+        assertFalse(tracker.drain(index -> { }));
+
+        fog.calculateFogOfWar(List.of(unit), map);
+        when(unit.getCurrentPosition()).thenReturn(new Point(6, 5));
+        when(unit.getMapPoint(new Point(6, 5))).thenReturn(new Point(6, 5));
+        fog.calculateFogOfWar(List.of(unit), map);
+
+        Set<Integer> changed = new HashSet<>();
+        assertTrue(tracker.drain(changed::add));
+        assertTrue(changed.contains(5 * 60 + 5)); // Revealed by the first update
+        assertTrue(changed.contains(5 * 60 + 11)); // Revealed by the second
+        assertTrue(changed.contains(5 * 60 + 0)); // Hidden again by the second
+
+        assertTrue(tracker.drain(index -> fail("already drained")));
+
+        // Every tracker sees every change
+        FogChangeTracker other = fog.trackChanges();
+        other.drain(index -> { });
+        fog.reset(60, 60);
+        assertFalse(tracker.drain(index -> { }));
+        assertFalse(other.drain(index -> { }));
+    }
+
+    @Test
+    public void testUndrainedChangesAreCapped() {
+        GameUnit unit = mock(GameUnit.class);
+        int[][] map = new int[20][20];
+        FogChangeTracker tracker = fog.trackChanges();
+        tracker.drain(index -> { });
+        for (int i = 0; i < 50; i++) {
+            Point tile = new Point(i % 20, (i * 7) % 20);
+            when(unit.getCurrentPosition()).thenReturn(tile);
+            when(unit.getMapPoint(tile)).thenReturn(tile);
+            fog.calculateFogOfWar(List.of(unit), map);
+        }
+        assertFalse(tracker.drain(index -> { }));
+    }
+
+    @Test
+    public void testUnitsMovingFarAcrossALargeMap() {
+        TileMap map = mock(TileMap.class);
+        when(map.getWidth()).thenReturn(4096);
+        when(map.getHeight()).thenReturn(4096);
+        GameFogWar fog = new GameFogWar(4096, 4096);
+        GameUnit unit = mock(GameUnit.class);
+
+        // Standing on a chunk corner, the unit sees into four chunks
+        when(unit.getCurrentPosition()).thenReturn(new Point(63, 63));
+        when(unit.getMapPoint(new Point(63, 63))).thenReturn(new Point(63, 63));
+        fog.calculateFogOfWar(List.of(unit), map);
+        assertEquals(1, fog.getObserverCount(60, 60));
+        assertEquals(1, fog.getObserverCount(66, 66));
+        assertEquals(121, fog.getDirtyTileCount());
+
+        when(unit.getCurrentPosition()).thenReturn(new Point(3000, 2000));
+        when(unit.getMapPoint(new Point(3000, 2000))).thenReturn(new Point(3000, 2000));
+        fog.calculateFogOfWar(List.of(unit), map);
+        assertEquals(242, fog.getDirtyTileCount());
+        assertEquals(0, fog.getObserverCount(60, 60));
+        assertEquals(0, fog.getObserverCount(66, 66));
+        assertFalse(fog.isTileVisible(66, 66));
+        assertTrue(fog.isTileVisited(66, 66));
+        assertEquals(1, fog.getObserverCount(3005, 2005));
+        assertTrue(fog.isTileVisited(3005, 2005));
+        assertFalse(fog.isTileVisited(3006, 2005));
+
+        // Coming back counts from zero again
+        when(unit.getCurrentPosition()).thenReturn(new Point(63, 63));
+        when(unit.getMapPoint(new Point(63, 63))).thenReturn(new Point(63, 63));
+        fog.calculateFogOfWar(List.of(unit), map);
+        assertEquals(1, fog.getObserverCount(60, 60));
+        assertEquals(0, fog.getObserverCount(3005, 2005));
+        assertEquals(121, fog.getVisibleData().cardinality());
+    }
 }
@@ -0,0 +1,119 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import entities.GameFlag;
+import entities.GameFlagManager;
+import entities.GameUnit;
+import entities.GameUnitManager;
+import graphics.Point;
+import input.PlayerCommand;
+import managers.GameFogWar;
+import utils.Constants;
+
+public class GameSimulationTest {
+
+    private static final int MAP_SIZE = 30;
+
+    private GameSimulation createBattle(long seed) {
+        GameFlagManager flagManager = new GameFlagManager();
+        flagManager.addPlayerFlag(2, 2);
+        flagManager.addEnemyFlag(27, 27);
+        GameSimulation simulation = new GameSimulation(new int[MAP_SIZE][MAP_SIZE], new GameUnitManager(),
+                flagManager, new GameFogWar(MAP_SIZE, MAP_SIZE), new GameFogWar(MAP_SIZE, MAP_SIZE), null, seed);
+
+        // Two lines of units facing each other within attack range
+        for (int i = 0; i < 5; i++) {
+            addUnit(simulation, 10, 10 + i, GameFlag.FACTION_PLAYER);
+            addUnit(simulation, 13, 10 + i, GameFlag.FACTION_ENEMY);
+        }
+        return simulation;
+    }
+
+    private void addUnit(GameSimulation simulation, int tileX, int tileY, int factionId) {
+        GameUnit unit = new GameUnit(tileX * Constants.TILE_WIDTH, tileY * Constants.TILE_HEIGHT,
+                factionId == GameFlag.FACTION_PLAYER, Constants.UNIT_ID_LIGHT);
+        unit.setFactionId(factionId);
+        simulation.getUnitManager().addUnit(unit);
+    }
+
+    private ArrayList<Integer> healthTrace(GameSimulation simulation, int ticks) {
+        ArrayList<Integer> trace = new ArrayList<>();
+        for (int t = 0; t < ticks; t++) {
+            simulation.step();
+            for (GameUnit unit : simulation.getUnitManager().getAllUnits()) {
+                trace.add(unit.getHealth());
+            }
+            trace.add(-1);
+        }
+        return trace;
+    }
+
+    @Test
+    public void testSameSeedReproducesTheMatch() {
+        ArrayList<Integer> first = healthTrace(createBattle(2024L), 40);
+        ArrayList<Integer> second = healthTrace(createBattle(2024L), 40);
+
+        assertEquals(first, second);
+        assertTrue(first.stream().anyMatch(health -> health > 0 && health < 100), "Units should have fought");
+    }
+
+    private GameSimulation createEmptyMatch() {
+        return new GameSimulation(new int[MAP_SIZE][MAP_SIZE], new GameUnitManager(), new GameFlagManager(),
+                new GameFogWar(MAP_SIZE, MAP_SIZE), new GameFogWar(MAP_SIZE, MAP_SIZE), null, 1L);
+    }
+
+    @Test
+    public void testMoveCommandMovesSingleSelectedUnit() {
+        GameSimulation simulation = createEmptyMatch();
+        addUnit(simulation, 2, 2, GameFlag.FACTION_PLAYER);
+        GameUnit unit = simulation.getUnitManager().getPlayerList().get(0);
+
+        simulation.applyCommand(PlayerCommand.select(0, new int[] { 0 }));
+        simulation.applyCommand(PlayerCommand.move(0, 250, 300));
+
+        assertTrue(unit.isMoving());
+        assertEquals(new Point(250, 300), unit.getDestination());
+    }
+
+    @Test
+    public void testMoveCommandSpreadsSelectedUnitsInFormation() {
+        GameSimulation simulation = createEmptyMatch();
+        for (int i = 0; i < 3; i++) {
+            addUnit(simulation, 2 + i, 2, GameFlag.FACTION_PLAYER);
+        }
+        ArrayList<GameUnit> units = simulation.getUnitManager().getPlayerList();
+
+        simulation.applyCommand(PlayerCommand.select(0, new int[] { 0, 1, 2 }));
+        simulation.applyCommand(PlayerCommand.move(0, 500, 500));
+
+        for (GameUnit unit : units) {
+            assertTrue(unit.isMoving());
+            assertNotNull(unit.getDestination());
+        }
+        assertNotEquals(units.get(0).getDestination(), units.get(1).getDestination());
+        assertNotEquals(units.get(1).getDestination(), units.get(2).getDestination());
+        assertNotEquals(units.get(0).getDestination(), units.get(2).getDestination());
+    }
+
+    @Test
+    public void testMoveCommandIgnoresUnselectedUnits() {
+        GameSimulation simulation = createEmptyMatch();
+        addUnit(simulation, 2, 2, GameFlag.FACTION_PLAYER);
+        addUnit(simulation, 3, 2, GameFlag.FACTION_PLAYER);
+        ArrayList<GameUnit> units = simulation.getUnitManager().getPlayerList();
+
+        simulation.applyCommand(PlayerCommand.select(0, new int[] { 1 }));
+        simulation.applyCommand(PlayerCommand.move(0, 200, 200));
+
+        assertFalse(units.get(0).isMoving());
+        assertTrue(units.get(1).isMoving());
+    }
+
+    @Test
+    public void testSeedIsKept() {
+        assertEquals(2024L, createBattle(2024L).getSeed());
+    }
+}
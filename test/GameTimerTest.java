@@ -126,4 +126,19 @@ public class GameTimerTest {
         gameTimer = new GameTimer(1, 10);
         assertFalse(gameTimer.isEnemyAttackTime(), "It should not be enemy attack time at 10:00");
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testCustomClockDrivesHours() {
+        long[] now = { 0 };
+        gameTimer = new GameTimer(1, 10, null, () -> now[0]);
+
+        gameTimer.update(); // starts the clock at 0
+        now[0] = 3999;
+        gameTimer.update();
+        assertEquals(10, gameTimer.getHour(), "Less than 4 simulated seconds should not add an hour");
+
+        now[0] = 4000;
+        gameTimer.update();
+        assertEquals(11, gameTimer.getHour(), "Every 4 simulated seconds should add an hour");
+    }
+}
@@ -8,7 +8,6 @@ import managers.GameTimer;
 import java.util.*;
 
 import graphics.Point;
-import input.GameMouseEvent;
 import utils.Constants;
 import utils.TileCoordinateConverter;
 
@@ -78,123 +77,6 @@ public class GameUnitManagerTest {
         assertEquals(0, unitManager.getPlayerList().size());
     }
 
-
-
-    // ==================== UNIT MOVEMENT TESTS ====================
-
-    @Test
-    public void testHandleUnitMovementSingleUnit() {
-        // Create and select a single unit
-        GameUnit unit = new GameUnit(100, 100, true, Constants.UNIT_ID_LIGHT);
-        unit.setPlayerSelected(true);
-        unitManager.getPlayerList().add(unit);
-        
-        // Create a mouse event for movement
-        GameMouseEvent mouseEvent = new GameMouseEvent(GameMouseEvent.Type.PRESSED, 200, 200, 3); // Right click at (200, 200)
-        
-        // Handle movement
-        unitManager.handleUnitMovement(mouseEvent, 0, 0);
-        
-        // Verify unit is moving and has a destination
-        assertTrue(unit.isMoving());
-        assertNotNull(unit.getDestination());
-    }
-
-    @Test
-    public void testHandleUnitMovementMultipleUnits() {
-        // Create and select multiple units
-        GameUnit unit1 = new GameUnit(100, 100, true, Constants.UNIT_ID_LIGHT);
-        GameUnit unit2 = new GameUnit(110, 110, true, Constants.UNIT_ID_MEDIUM);
-        unit1.setPlayerSelected(true);
-        unit2.setPlayerSelected(true);
-        unitManager.getPlayerList().add(unit1);
-        unitManager.getPlayerList().add(unit2);
-        
-        // Create a mouse event for movement
-        GameMouseEvent mouseEvent = new GameMouseEvent(GameMouseEvent.Type.PRESSED, 300, 300, 3); // Right click at (300, 300)
-        
-        // Handle movement
-        unitManager.handleUnitMovement(mouseEvent, 0, 0);
-        
-        // Verify both units are moving and have destinations
-        assertTrue(unit1.isMoving());
-        assertTrue(unit2.isMoving());
-        assertNotNull(unit1.getDestination());
-        assertNotNull(unit2.getDestination());
-        
-        // Verify they have different destinations (formation)
-        assertNotEquals(unit1.getDestination(), unit2.getDestination());
-    }
-
-    @Test
-    public void testHandleUnitMovementNoSelectedUnits() {
-        // Create a unit but don't select it
-        GameUnit unit = new GameUnit(100, 100, true, Constants.UNIT_ID_LIGHT);
-        unit.setPlayerSelected(false);
-        unitManager.getPlayerList().add(unit);
-        
-        // Create a mouse event for movement
-        GameMouseEvent mouseEvent = new GameMouseEvent(GameMouseEvent.Type.PRESSED, 200, 200, 3);
-        
-        // Handle movement - should not throw exception
-        assertDoesNotThrow(() -> {
-            unitManager.handleUnitMovement(mouseEvent, 0, 0);
-        });
-        
-        // Unit should not be moving since it wasn't selected
-        assertFalse(unit.isMoving());
-    }
-
-    @Test
-    public void testHandleUnitMovementWithCameraOffset() {
-        // Create and select a unit
-        GameUnit unit = new GameUnit(100, 100, true, Constants.UNIT_ID_LIGHT);
-        unit.setPlayerSelected(true);
-        unitManager.getPlayerList().add(unit);
-        
-        // Create a mouse event
-        GameMouseEvent mouseEvent = new GameMouseEvent(GameMouseEvent.Type.PRESSED, 200, 200, 3);
-        
-        // Handle movement with camera offset
-        int cameraX = 50;
-        int cameraY = 50;
-        unitManager.handleUnitMovement(mouseEvent, cameraX, cameraY);
-        
-        // Verify unit is moving
-        assertTrue(unit.isMoving());
-        assertNotNull(unit.getDestination());
-    }
-
-    @Test
-    public void testFormationCalculation() {
-        // Test formation calculation indirectly through movement
-        GameUnit unit1 = new GameUnit(100, 100, true, Constants.UNIT_ID_LIGHT);
-        GameUnit unit2 = new GameUnit(110, 110, true, Constants.UNIT_ID_MEDIUM);
-        GameUnit unit3 = new GameUnit(120, 120, true, Constants.UNIT_ID_HEAVY);
-        
-        unit1.setPlayerSelected(true);
-        unit2.setPlayerSelected(true);
-        unit3.setPlayerSelected(true);
-        
-        unitManager.getPlayerList().add(unit1);
-        unitManager.getPlayerList().add(unit2);
-        unitManager.getPlayerList().add(unit3);
-        
-        // Move to a specific location
-        GameMouseEvent mouseEvent = new GameMouseEvent(GameMouseEvent.Type.PRESSED, 500, 500, 3);
-        unitManager.handleUnitMovement(mouseEvent, 0, 0);
-        
-        // All units should be moving
-        assertTrue(unit1.isMoving());
-        assertTrue(unit2.isMoving());
-        assertTrue(unit3.isMoving());
-        
-        // All should have different destinations
-        assertNotEquals(unit1.getDestination(), unit2.getDestination());
-        assertNotEquals(unit2.getDestination(), unit3.getDestination());
-        		assertNotEquals(unit1.getDestination(), unit3.getDestination());
-	}
-	
 	// ==================== UNIT SPAWNING TESTS ====================
 	
 	@Test
@@ -14,6 +14,7 @@ import graphics.Color;
 import graphics.DrawingInstruction;
 import graphics.Point;
 import graphics.Rect;
+import map.ArrayTileMap;
 import utils.Constants;
 import graphics.IGraphics;
 
@@ -69,10 +70,10 @@ public class GraphicsMainTest {
     @Test
     public void testFogInstructions() {
         GameFogWar fogWar = new GameFogWar(2, 2);
-        fogWar.getVisibleData()[0][0] = false;
-        fogWar.getVisibleData()[0][1] = true;
-        fogWar.getVisibleData()[1][0] = false;
-        fogWar.getVisibleData()[1][1] = false;
+        fogWar.setTileVisible(0, 0, false);
+        fogWar.setTileVisible(1, 0, true);
+        fogWar.setTileVisible(0, 1, false);
+        fogWar.setTileVisible(1, 1, false);
 
         int count = 0;
         for (int y = 0; y < 2; y++) {
@@ -128,7 +129,7 @@ public class GraphicsMainTest {
         // Create a mock GameMap
         GameMap mockGameMap = mock(GameMap.class);
         int[][] mockMapData = new int[5][5]; // 5x5 map
-        when(mockGameMap.getMapData()).thenReturn(mockMapData);
+        when(mockGameMap.getTileMap()).thenReturn(new ArrayTileMap(mockMapData));
         when(mockStateManager.getGameMap()).thenReturn(mockGameMap);
 
         // Create a mock GameUnitManager
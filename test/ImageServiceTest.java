@@ -67,4 +67,26 @@ public class ImageServiceTest {
             assertTrue(victoryImage.isValid());
         });
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testAsyncLoadingAwaitsOnFirstUse() {
+        ImageService asyncService = new ImageService(new PathResolver());
+        asyncService.startLoading();
+        asyncService.awaitMenuImages();
+
+        // Tiles may still be loading; the getter waits for them
+        GameImage land = asyncService.getTileImage(map.TileConverter.STR_LAND);
+        assertNotNull(land);
+        assertFalse(land.getPath().startsWith("fallback"));
+        assertNotSame(land, asyncService.getTileImage(map.TileConverter.STR_LAND, true));
+        assertNotNull(asyncService.getSpriteAtlas());
+    }
+
+    @Test
+    void testStartLoadingTwiceLoadsOnce() {
+        imageService.startLoading();
+        assertSame(imageService.getSpriteAtlas(), imageService.getSpriteAtlas());
+        assertSame(imageService.getGameImage(ImageConstants.IMGID_BG_MENU),
+                imageService.getGameImage(ImageConstants.IMGID_BG_MENU));
+    }
+}
@@ -0,0 +1,125 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import graphics.Point;
+import managers.LineOfSightCache;
+import managers.UnitVisibility;
+import map.ArrayTileMap;
+import map.TileConverter;
+import map.TileMap;
+
+/**
+ * Tests for the LineOfSightCache class and its use in UnitVisibility.
+ */
+public class LineOfSightCacheTest {
+
+    private LineOfSightCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new LineOfSightCache(8);
+    }
+
+    @Test
+    public void testPackKeyIsSymmetric() {
+        assertEquals(LineOfSightCache.packKey(3, 17), LineOfSightCache.packKey(17, 3));
+        assertNotEquals(LineOfSightCache.packKey(3, 17), LineOfSightCache.packKey(3, 18));
+    }
+
+    @Test
+    public void testLookupMissThenHit() {
+        long key = LineOfSightCache.packKey(1, 2);
+        assertEquals(LineOfSightCache.MISS, cache.lookup(key));
+
+        cache.put(key, true);
+        assertEquals(LineOfSightCache.VISIBLE, cache.lookup(key));
+
+        cache.put(LineOfSightCache.packKey(4, 5), false);
+        assertEquals(LineOfSightCache.BLOCKED, cache.lookup(LineOfSightCache.packKey(5, 4)));
+
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(2.0 / 3.0, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void testCacheStaysBoundedAndEntriesRemainFindable() {
+        for (int i = 0; i < 100; i++) {
+            cache.put(LineOfSightCache.packKey(i, i + 1), i % 2 == 0);
+        }
+
+        assertEquals(8, cache.size(), "Cache should never exceed its entry limit");
+        assertEquals(92, cache.getEvictions());
+
+        // Every surviving entry must still be reachable after backward-shift deletions
+        int found = 0;
+        for (int i = 0; i < 100; i++) {
+            int result = cache.lookup(LineOfSightCache.packKey(i, i + 1));
+            if (result != LineOfSightCache.MISS) {
+                assertEquals(i % 2 == 0 ? LineOfSightCache.VISIBLE : LineOfSightCache.BLOCKED, result);
+                found++;
+            }
+        }
+        assertEquals(8, found);
+    }
+
+    @Test
+    public void testClockGivesReferencedEntriesASecondChance() {
+        LineOfSightCache small = new LineOfSightCache(2);
+        long hot = LineOfSightCache.packKey(0, 1);
+        small.put(hot, true);
+        small.put(LineOfSightCache.packKey(2, 3), true);
+
+        // Touch the hot entry, then force an eviction
+        small.lookup(hot);
+        small.put(LineOfSightCache.packKey(4, 5), true);
+
+        assertEquals(LineOfSightCache.VISIBLE, small.lookup(hot), "Recently used entry should survive eviction");
+    }
+
+    @Test
+    public void testBindingNewMapInvalidates() {
+        int[][] mapA = new int[4][4];
+        int[][] mapB = new int[4][4];
+
+        cache.bindMap(mapA);
+        cache.put(LineOfSightCache.packKey(0, 1), true);
+        cache.bindMap(mapA);
+        assertEquals(1, cache.size());
+
+        cache.bindMap(mapB);
+        assertEquals(0, cache.size());
+        assertEquals(LineOfSightCache.MISS, cache.lookup(LineOfSightCache.packKey(0, 1)));
+    }
+
+    @Test
+    public void testUnitVisibilityUsesCacheSymmetrically() {
+        int[][] map = new int[6][6];
+        map[2][3] = TileConverter.TILE_WALL;
+
+        LineOfSightCache cache = new LineOfSightCache(64);
+        TileMap tiles = new ArrayTileMap(map);
+
+        Point a = new Point(0, 0);
+        Point b = new Point(5, 4);
+        boolean forward = UnitVisibility.hasLineOfSight(cache, tiles, a, b);
+        boolean backward = UnitVisibility.hasLineOfSight(cache, tiles, b, a);
+
+        assertEquals(forward, backward, "Line of sight should be symmetric");
+        assertEquals(forward, UnitVisibility.hasLineOfSight(map, a, b), "Cached and uncached traces should agree");
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void testUnitVisibilityCacheResetsWhenMapChanges() {
+        int[][] openMap = new int[1][5];
+        int[][] walledMap = new int[1][5];
+        walledMap[0][2] = TileConverter.TILE_WALL;
+
+        LineOfSightCache cache = new LineOfSightCache(64);
+        assertTrue(UnitVisibility.hasLineOfSight(cache, new ArrayTileMap(openMap), new Point(0, 0), new Point(4, 0)));
+        assertFalse(UnitVisibility.hasLineOfSight(cache, new ArrayTileMap(walledMap), new Point(0, 0), new Point(4, 0)));
+    }
+}
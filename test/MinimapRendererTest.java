@@ -0,0 +1,150 @@
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import entities.GameFlag;
+import entities.GameFlagManager;
+import entities.GameUnit;
+import entities.GameUnitManager;
+import graphics.GameImage;
+import graphics.IGraphics;
+import graphics.Point;
+import managers.GameFogWar;
+import map.ArrayTileMap;
+import map.TileConverter;
+
+public class MinimapRendererTest {
+
+    private static final int UNEXPLORED = 0xFF323232;
+    private static final int EXPLORED = 0xFF8C8C8C;
+    private static final int WALL = 0xFF505050;
+
+    private int[][] mapData;
+    private GameStateManager stateManager;
+    private GameUnitManager unitManager;
+
+    @BeforeEach
+    void setUp() {
+        mapData = new int[100][100];
+        mapData[5][7] = TileConverter.TILE_WALL;
+
+        stateManager = mock(GameStateManager.class);
+        GameMap gameMap = mock(GameMap.class);
+        when(gameMap.getTileMap()).thenAnswer(invocation -> new ArrayTileMap(mapData));
+        when(stateManager.getGameMap()).thenReturn(gameMap);
+
+        unitManager = mock(GameUnitManager.class);
+        when(unitManager.getPlayerList()).thenReturn(new ArrayList<>());
+        when(unitManager.getEnemyList()).thenReturn(new ArrayList<>());
+        when(stateManager.getUnitManager()).thenReturn(unitManager);
+
+        GameFlagManager flagManager = mock(GameFlagManager.class);
+        when(flagManager.getFlagList()).thenAnswer(invocation -> new ArrayList<GameFlag>().iterator());
+        when(stateManager.getFlagManager()).thenReturn(flagManager);
+    }
+
+    private GameUnit unitAt(int tileX, int tileY) {
+        GameUnit unit = mock(GameUnit.class);
+        Point position = new Point(tileX, tileY);
+        when(unit.getCurrentPosition()).thenReturn(position);
+        when(unit.getMapPoint(position)).thenReturn(position);
+        when(unit.isAlive()).thenReturn(true);
+        return unit;
+    }
+
+    @Test
+    public void testTerrainIsOneBlit() {
+        GameFogWar fog = new GameFogWar(100, 100);
+        fog.calculateFogOfWar(List.of(unitAt(5, 5)), mapData);
+        MinimapRenderer minimap = new MinimapRenderer(stateManager);
+
+        IGraphics g = mock(IGraphics.class);
+        minimap.render(g, fog, 0, 0);
+
+        verify(g, times(1)).drawImage(any(GameImage.class), eq(10), anyInt(), eq(200), eq(200));
+        // Background only; no fill per explored tile
+        verify(g, times(1)).fillRect(anyInt(), anyInt(), anyInt(), anyInt());
+        assertEquals(EXPLORED, minimap.getPixel(5, 5));
+        assertEquals(WALL, minimap.getPixel(7, 5));
+        assertEquals(UNEXPLORED, minimap.getPixel(50, 50));
+    }
+
+    @Test
+    public void testExploredAreaIsUpdatedIncrementally() {
+        GameFogWar fog = new GameFogWar(100, 100);
+        MinimapRenderer minimap = new MinimapRenderer(stateManager);
+        fog.calculateFogOfWar(List.of(unitAt(5, 5)), mapData);
+        minimap.updateTerrain(fog);
+        assertEquals(1, minimap.getFullRebuilds());
+
+        fog.calculateFogOfWar(List.of(unitAt(20, 5)), mapData);
+        fog.calculateFogOfWar(List.of(unitAt(40, 5)), mapData);
+        minimap.updateTerrain(fog);
+
+        assertEquals(1, minimap.getFullRebuilds());
+        assertEquals(EXPLORED, minimap.getPixel(5, 5)); // Stays explored after the unit left
+        assertEquals(EXPLORED, minimap.getPixel(20, 5));
+        assertEquals(EXPLORED, minimap.getPixel(45, 5));
+        assertEquals(UNEXPLORED, minimap.getPixel(20, 20));
+
+        // A new map is baked again
+        mapData = new int[100][100];
+        minimap.updateTerrain(fog);
+        assertEquals(2, minimap.getFullRebuilds());
+        assertEquals(EXPLORED, minimap.getPixel(7, 5));
+    }
+
+    @Test
+    public void testUnitsAreDrawnOnTop() {
+        GameFogWar fog = new GameFogWar(100, 100);
+        GameUnit player = unitAt(5, 5);
+        GameUnit visibleEnemy = unitAt(8, 5);
+        GameUnit hiddenEnemy = unitAt(60, 60);
+        when(unitManager.getPlayerList()).thenReturn(new ArrayList<>(List.of(player)));
+        when(unitManager.getEnemyList()).thenReturn(new ArrayList<>(List.of(visibleEnemy, hiddenEnemy)));
+        fog.calculateFogOfWar(List.of(player), mapData);
+
+        IGraphics g = mock(IGraphics.class);
+        new MinimapRenderer(stateManager).render(g, fog, 0, 0);
+
+        // Background plus one dot for the player unit and one for the visible enemy
+        verify(g, times(3)).fillRect(anyInt(), anyInt(), anyInt(), anyInt());
+        verify(g).fillRect(10 + 5 * 2, 558 + 5 * 2, 2, 2);
+        verify(g).fillRect(10 + 8 * 2, 558 + 5 * 2, 2, 2);
+    }
+
+    @Test
+    public void testLargeMapIsDownsampledToMinimapSize() {
+        mapData = new int[1000][1000];
+        for (int x = 0; x < 1000; x++) {
+            mapData[502][x] = TileConverter.TILE_WALL;
+        }
+        GameFogWar fog = new GameFogWar(1000, 1000);
+        fog.setTileVisited(12, 3, true);
+        for (int x = 500; x < 505; x++) {
+            fog.setTileVisited(x, 502, true);
+        }
+        MinimapRenderer minimap = new MinimapRenderer(stateManager);
+        IGraphics g = mock(IGraphics.class);
+        minimap.render(g, fog, 0, 0);
+
+        // Five tiles per pixel: one visited tile is enough to show its block explored
+        verify(g, times(1)).drawImage(any(GameImage.class), eq(10), eq(558), eq(200), eq(200));
+        assertEquals(EXPLORED, minimap.getPixel(12, 3));
+        assertEquals(EXPLORED, minimap.getPixel(14, 4));
+        assertEquals(UNEXPLORED, minimap.getPixel(15, 3));
+        assertEquals(WALL, minimap.getPixel(500, 502));
+
+        // Dirty tiles recolor the pixel of their block
+        fog.setTileVisited(501, 503, true);
+        minimap.updateTerrain(fog);
+        assertEquals(1, minimap.getFullRebuilds());
+        assertEquals(EXPLORED, minimap.getPixel(500, 502));
+    }
+}
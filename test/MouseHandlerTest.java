@@ -1,11 +1,19 @@
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.JPanel;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import entities.GameUnit;
+import entities.GameUnitManager;
 import managers.CameraManager;
 import input.GameMouseListener;
 import input.MouseListenerRegistrar;
+import utils.Constants;
 
 /**
  * Test suite for MouseHandler class.
@@ -17,12 +25,14 @@ public class MouseHandlerTest {
     private MouseListenerRegistrar mockRegistrar;
     private GameStateManager mockStateManager;
     private CameraManager mockCameraManager;
+    private final Object stateLock = new Object();
     
     @BeforeEach
     void setUp() {
         mockRegistrar = mock(MouseListenerRegistrar.class);
         mockStateManager = mock(GameStateManager.class);
         mockCameraManager = mock(CameraManager.class);
+        when(mockStateManager.getStateLock()).thenReturn(stateLock);
         
         mouseHandler = new MouseHandler(mockRegistrar, mockStateManager, mockCameraManager);
     }
@@ -67,4 +77,42 @@ public class MouseHandlerTest {
         // Should not throw any exceptions
         assertDoesNotThrow(() -> mouseHandler.setCurrentState(null));
     }
-} 
\ No newline at end of file
+    
+    @Test
+    void testHoverWhileUnitsAreRemoved() throws InterruptedException {
+        GameUnitManager unitManager = new GameUnitManager();
+        when(mockStateManager.getUnitManager()).thenReturn(unitManager);
+        mouseHandler.setCurrentState(mock(StateGameMain.class));
+        ArrayList<GameUnit> players = unitManager.getPlayerList();
+        for (int i = 0; i < 200; i++) {
+            players.add(new GameUnit(i, 0, true, 0));
+        }
+        
+        // Stands in for the game loop removing dead units and spawning new ones
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread gameLoop = new Thread(() -> {
+            int serial = 0;
+            while (running.get()) {
+                synchronized (stateLock) {
+                    unitManager.removeDeadUnits(players, 0);
+                    players.add(new GameUnit(serial++ % 200, 0, true, 0));
+                }
+            }
+        });
+        gameLoop.start();
+        
+        JPanel panel = new JPanel();
+        panel.setSize(Constants.SCREEN_WIDTH, Constants.SCREEN_HEIGHT);
+        try {
+            for (int i = 0; i < 2000; i++) {
+                MouseEvent moved = new MouseEvent(panel, MouseEvent.MOUSE_MOVED, 0, 0, i % 100, 10, 0, false);
+                mouseHandler.mouseMoved(moved);
+            }
+        } finally {
+            running.set(false);
+            gameLoop.join();
+        }
+        
+        assertEquals(200, players.size());
+    }
+}
@@ -0,0 +1,118 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import graphics.Color;
+import graphics.GameImage;
+import graphics.ImageUtils;
+import graphics.RasterPipeline;
+
+public class RasterPipelineTest {
+
+    private BufferedImage randomImage(int width, int height, int type, long seed) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Random random = new Random(seed);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    @Test
+    public void testDarkenMatchesPerPixelFormula() {
+        BufferedImage source = randomImage(20, 10, BufferedImage.TYPE_INT_RGB, 1);
+        GameImage dark = ImageUtils.darken(new GameImage(source));
+        BufferedImage result = (BufferedImage) dark.getBackendImage();
+
+        assertEquals(BufferedImage.TYPE_INT_RGB, result.getType());
+        for (int y = 0; y < 10; y++) {
+            for (int x = 0; x < 20; x++) {
+                assertEquals(ImageUtils.darkenRGB(source.getRGB(x, y)), result.getRGB(x, y) & 0xFFFFFF);
+            }
+        }
+    }
+
+    @Test
+    public void testTintAndGrayscaleKeepAlpha() {
+        BufferedImage source = randomImage(16, 16, BufferedImage.TYPE_INT_ARGB, 2);
+        Color tintColor = new Color(10, 200, 90);
+        BufferedImage tinted = (BufferedImage) ImageUtils.tint(new GameImage(source), tintColor, 0.25).getBackendImage();
+        BufferedImage gray = (BufferedImage) ImageUtils.grayscale(new GameImage(source)).getBackendImage();
+
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 16; x++) {
+                int argb = source.getRGB(x, y);
+                int r = (argb >> 16) & 255;
+                int g = (argb >> 8) & 255;
+                int b = argb & 255;
+                int expectedTint = (argb & 0xFF000000) | ((int) (r * 0.75 + tintColor.r * 0.25) << 16)
+                        | ((int) (g * 0.75 + tintColor.g * 0.25) << 8) | (int) (b * 0.75 + tintColor.b * 0.25);
+                assertEquals(expectedTint, tinted.getRGB(x, y));
+
+                int luminance = (int) (0.299 * r + 0.587 * g + 0.114 * b);
+                assertEquals((argb & 0xFF000000) | luminance << 16 | luminance << 8 | luminance, gray.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testChannelOperationsCompose() {
+        int[] pixels = { 0xFF808080, 0x40FFFFFF, 0x00000000, 0xFF123456 };
+        int[] expected = pixels.clone();
+        for (int i = 0; i < expected.length; i++) {
+            int once = (expected[i] & 0xFF000000) | ImageUtils.darkenRGB(expected[i]);
+            expected[i] = (once & 0xFF000000) | ImageUtils.darkenRGB(once);
+        }
+
+        new RasterPipeline().darken(3).darken(3).apply(pixels, 2);
+        assertArrayEquals(expected, pixels);
+    }
+
+    @Test
+    public void testPaletteSwapAndFillExcept() {
+        int[] pixels = { 0xFFFF0000, 0xFF00FF00, 0xFF0000FF, 0xFFFFFFFF };
+        new RasterPipeline()
+                .paletteSwap(new int[] { 0xFF0000FF, 0xFFFF0000 }, new int[] { 0xFF111111, 0xFF222222 })
+                .apply(pixels, 4);
+        assertArrayEquals(new int[] { 0xFF222222, 0xFF00FF00, 0xFF111111, 0xFFFFFFFF }, pixels);
+
+        new RasterPipeline().fillExcept(0xFFFFFFFF, 0xFF0000FF).apply(pixels, 4);
+        assertArrayEquals(new int[] { 0xFF0000FF, 0xFF0000FF, 0xFF0000FF, 0xFFFFFFFF }, pixels);
+        assertThrows(IllegalArgumentException.class,
+                () -> new RasterPipeline().paletteSwap(new int[1], new int[2]));
+    }
+
+    @Test
+    public void testLargeImagesMatchSmallOnes() {
+        RasterPipeline pipeline = new RasterPipeline().tint(Color.BLUE, 0.5).grayscale().darken(2);
+        BufferedImage large = randomImage(600, 400, BufferedImage.TYPE_INT_ARGB, 3);
+        int[] expected = large.getRGB(0, 0, 600, 400, null, 0, 600);
+        // Row by row is below the parallel threshold
+        for (int y = 0; y < 400; y++) {
+            int[] row = new int[600];
+            System.arraycopy(expected, y * 600, row, 0, 600);
+            pipeline.apply(row, 600);
+            System.arraycopy(row, 0, expected, y * 600, 600);
+        }
+
+        pipeline.apply(large);
+        assertArrayEquals(expected, large.getRGB(0, 0, 600, 400, null, 0, 600));
+    }
+
+    @Test
+    public void testCopiesLeaveSourceUnchanged() {
+        BufferedImage source = randomImage(8, 8, BufferedImage.TYPE_INT_ARGB, 4);
+        int[] before = source.getRGB(0, 0, 8, 8, null, 0, 8);
+        GameImage team = ImageUtils.addTeamColorToUnit(new GameImage(source), true);
+
+        assertNotSame(source, team.getBackendImage());
+        assertArrayEquals(before, source.getRGB(0, 0, 8, 8, null, 0, 8));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RasterPipeline().apply(new BufferedImage(2, 2, BufferedImage.TYPE_BYTE_GRAY)));
+    }
+}
@@ -0,0 +1,186 @@
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Mockito.*;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import graphics.Color;
+import graphics.GameFont;
+import graphics.GameImage;
+import graphics.IGraphics;
+import graphics.RecordingGraphics;
+
+public class RecordingGraphicsTest {
+
+    private static final Color RED = new Color(255, 0, 0);
+    private static final Color BLUE = new Color(0, 0, 255);
+
+    private GameImage image() {
+        return new GameImage(new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB));
+    }
+
+    @Test
+    public void testUnsortedReplayKeepsOrder() {
+        RecordingGraphics recorder = new RecordingGraphics();
+        GameImage sprite = image();
+        GameFont font = new GameFont("Arial", GameFont.PLAIN, 14);
+        recorder.setColor(RED);
+        recorder.fillRect(1, 2, 3, 4);
+        recorder.drawImage(sprite, 5, 6, 7, 8, 90.0);
+        recorder.setFont(font);
+        recorder.drawString("hello", 9, 10);
+        recorder.fillPolygon(new int[] { 1, 2, 3 }, new int[] { 4, 5, 6 }, 3);
+
+        IGraphics target = mock(IGraphics.class);
+        recorder.replay(target, false);
+
+        InOrder order = inOrder(target);
+        order.verify(target).setColor(RED);
+        order.verify(target).fillRect(1, 2, 3, 4);
+        order.verify(target).drawImage(sprite, 5, 6, 7, 8, 90.0);
+        order.verify(target).setFont(font);
+        order.verify(target).drawString("hello", 9, 10);
+        order.verify(target).fillPolygon(aryEq(new int[] { 1, 2, 3 }), aryEq(new int[] { 4, 5, 6 }), eq(3));
+        assertEquals(4, recorder.getDrawCount());
+    }
+
+    @Test
+    public void testSortedReplayBatchesColors() {
+        RecordingGraphics recorder = new RecordingGraphics();
+        for (int i = 0; i < 10; i++) {
+            recorder.setColor(i % 2 == 0 ? RED : BLUE);
+            recorder.fillRect(i, 0, 1, 1);
+        }
+
+        IGraphics unsorted = mock(IGraphics.class);
+        assertEquals(10, recorder.replay(unsorted, false));
+        IGraphics sorted = mock(IGraphics.class);
+        assertEquals(2, recorder.replay(sorted, true));
+
+        verify(sorted, times(2)).setColor(any(Color.class));
+        verify(sorted, times(10)).fillRect(anyInt(), eq(0), eq(1), eq(1));
+    }
+
+    @Test
+    public void testSortedReplayKeepsLayersAndStateCommands() {
+        RecordingGraphics recorder = new RecordingGraphics();
+        recorder.setLayer(1);
+        recorder.setColor(RED);
+        recorder.fillRect(0, 0, 1, 1);
+        recorder.setLayer(0);
+        recorder.setColor(BLUE);
+        recorder.fillRect(1, 1, 1, 1);
+        recorder.save();
+        recorder.translate(5, 5);
+        recorder.setColor(RED);
+        recorder.fillRect(2, 2, 1, 1);
+        recorder.restore();
+
+        IGraphics target = mock(IGraphics.class);
+        recorder.replay(target, true);
+
+        InOrder order = inOrder(target);
+        order.verify(target).fillRect(1, 1, 1, 1);
+        order.verify(target).fillRect(0, 0, 1, 1);
+        order.verify(target).save();
+        order.verify(target).translate(5, 5);
+        order.verify(target).fillRect(2, 2, 1, 1);
+        order.verify(target).restore();
+    }
+
+    @Test
+    public void testSortedReplayBatchesAfterManyStateCommands() {
+        RecordingGraphics recorder = new RecordingGraphics();
+        for (int i = 0; i < 300; i++) {
+            recorder.translate(1, 0);
+            recorder.setColor(RED);
+            recorder.fillRect(i, 0, 1, 1);
+            recorder.setColor(BLUE);
+            recorder.fillRect(i, 1, 1, 1);
+            recorder.setColor(RED);
+            recorder.fillRect(i, 2, 1, 1);
+        }
+
+        // Each segment needs two color changes sorted and three as recorded
+        assertEquals(900, recorder.replay(mock(IGraphics.class), false));
+        IGraphics target = mock(IGraphics.class);
+        assertEquals(600, recorder.replay(target, true));
+
+        // The last segment is still sorted and still after its translate
+        InOrder order = inOrder(target);
+        order.verify(target).fillRect(299, 0, 1, 1);
+        order.verify(target).fillRect(299, 2, 1, 1);
+        order.verify(target).fillRect(299, 1, 1, 1);
+        verify(target, times(300)).translate(1, 0);
+    }
+
+    @Test
+    public void testDrawsWithoutBatchingKeepTheirOrder() {
+        RecordingGraphics recorder = new RecordingGraphics();
+        recorder.setBatching(false);
+        recorder.setColor(BLUE);
+        recorder.fillRect(0, 0, 10, 10);
+        recorder.setColor(RED);
+        recorder.drawString("hp", 1, 1);
+        recorder.setColor(BLUE);
+        recorder.fillRect(0, 0, 5, 5);
+
+        IGraphics target = mock(IGraphics.class);
+        assertEquals(4, recorder.replay(target, true)); // three colors and the font
+
+        InOrder order = inOrder(target);
+        order.verify(target).fillRect(0, 0, 10, 10);
+        order.verify(target).drawString("hp", 1, 1);
+        order.verify(target).fillRect(0, 0, 5, 5);
+    }
+
+    @Test
+    public void testSortedReplayGroupsImages() {
+        RecordingGraphics recorder = new RecordingGraphics();
+        GameImage first = image();
+        GameImage second = image();
+        recorder.drawImage(first, 0, 0, 4, 4);
+        recorder.drawImage(second, 1, 0, 4, 4);
+        recorder.drawImage(first, 2, 0, 4, 4);
+
+        IGraphics target = mock(IGraphics.class);
+        recorder.replay(target, true);
+
+        InOrder order = inOrder(target);
+        order.verify(target).drawImage(first, 0, 0, 4, 4);
+        order.verify(target).drawImage(first, 2, 0, 4, 4);
+        order.verify(target).drawImage(second, 1, 0, 4, 4);
+        verify(target, never()).setColor(any(Color.class));
+    }
+
+    @Test
+    public void testResetClearsCommands() {
+        RecordingGraphics recorder = new RecordingGraphics();
+        recorder.fillRect(0, 0, 1, 1);
+        recorder.save();
+        assertEquals(2, recorder.getCommandCount());
+
+        recorder.reset();
+        assertEquals(0, recorder.getCommandCount());
+        assertEquals(0, recorder.getDrawCount());
+        IGraphics target = mock(IGraphics.class);
+        recorder.replay(target, true);
+        verifyNoInteractions(target);
+    }
+
+    @Test
+    public void testColorAndFontAreTrackedWithoutCommands() {
+        RecordingGraphics recorder = new RecordingGraphics();
+        GameFont font = new GameFont("Arial", GameFont.PLAIN, 20);
+        recorder.setColor(BLUE);
+        recorder.setFont(font);
+        assertSame(BLUE, recorder.getColor());
+        assertSame(font, recorder.getFont());
+        assertEquals(0, recorder.getCommandCount());
+        assertThrows(IllegalArgumentException.class, () -> recorder.setLayer(64));
+    }
+}
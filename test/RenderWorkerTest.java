@@ -0,0 +1,144 @@
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import graphics.Color;
+import graphics.IGraphics;
+
+public class RenderWorkerTest {
+
+    private GameStateManager stateManager;
+    private Color fill;
+
+    @BeforeEach
+    void setUp() {
+        stateManager = mock(GameStateManager.class);
+        when(stateManager.getStateLock()).thenReturn(new Object());
+        StateMachine state = mock(StateMachine.class);
+        doAnswer(invocation -> {
+            IGraphics g = invocation.getArgument(0);
+            g.setColor(fill);
+            g.fillRect(0, 0, 4, 4);
+            return null;
+        }).when(state).run(any(IGraphics.class));
+        when(stateManager.getCurrentState()).thenReturn(state);
+    }
+
+    @Test
+    public void testNoFrameBeforeFirstRender() {
+        RenderWorker worker = new RenderWorker(stateManager, 8, 8, () -> { });
+        assertNull(worker.getFrame());
+    }
+
+    @Test
+    public void testRenderedFrameIsPublished() {
+        RenderWorker worker = new RenderWorker(stateManager, 8, 8, () -> { });
+        fill = new Color(255, 0, 0);
+        worker.renderFrame();
+
+        BufferedImage frame = worker.getFrame();
+        assertNotNull(frame);
+        assertEquals(0xFF0000, frame.getRGB(1, 1) & 0xFFFFFF);
+        assertEquals(0x000000, frame.getRGB(6, 6) & 0xFFFFFF);
+        verify(stateManager).changeState();
+        assertEquals(1, worker.getDrawCount());
+    }
+
+    @Test
+    public void testShownFrameIsNotReused() {
+        RenderWorker worker = new RenderWorker(stateManager, 8, 8, () -> { });
+        fill = new Color(255, 0, 0);
+        worker.renderFrame();
+        BufferedImage shown = worker.getFrame();
+
+        // The worker keeps drawing while the UI thread holds on to its frame
+        fill = new Color(0, 255, 0);
+        worker.renderFrame();
+        fill = new Color(0, 0, 255);
+        worker.renderFrame();
+        assertEquals(0xFF0000, shown.getRGB(1, 1) & 0xFFFFFF);
+
+        // The next frame shown is the newest one
+        BufferedImage next = worker.getFrame();
+        assertNotSame(shown, next);
+        assertEquals(0x0000FF, next.getRGB(1, 1) & 0xFFFFFF);
+        assertSame(next, worker.getFrame());
+    }
+
+    @Test
+    public void testBandsDrawTheSameFrame() {
+        StateMachine state = stateManager.getCurrentState();
+        doAnswer(invocation -> {
+            IGraphics g = invocation.getArgument(0);
+            g.setColor(new Color(255, 0, 0));
+            g.fillRect(0, 0, 40, 40);
+            g.setColor(new Color(0, 0, 255));
+            g.drawCircle(20, 20, 15, true);
+            g.drawLine(0, 39, 39, 0);
+            return null;
+        }).when(state).run(any(IGraphics.class));
+
+        RenderWorker single = new RenderWorker(stateManager, 40, 40, () -> { });
+        RenderWorker banded = new RenderWorker(stateManager, 40, 40, 4, () -> { });
+        try {
+            assertEquals(4, banded.getBands());
+            single.renderFrame();
+            banded.renderFrame();
+            BufferedImage expected = single.getFrame();
+            BufferedImage actual = banded.getFrame();
+            for (int y = 0; y < 40; y++) {
+                for (int x = 0; x < 40; x++) {
+                    assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "pixel " + x + "," + y);
+                }
+            }
+        } finally {
+            banded.stop();
+        }
+    }
+
+    @Test
+    public void testInterruptedFrameIsNotPublished() {
+        RenderWorker worker = new RenderWorker(stateManager, 8, 8, 2, () -> { });
+        try {
+            fill = new Color(255, 0, 0);
+            worker.renderFrame();
+            BufferedImage shown = worker.getFrame();
+
+            fill = new Color(0, 255, 0);
+            Thread.currentThread().interrupt();
+            try {
+                worker.renderFrame();
+            } finally {
+                assertTrue(Thread.interrupted(), "interrupt should be kept");
+            }
+
+            // The previous frame stays on screen
+            assertSame(shown, worker.getFrame());
+            assertEquals(0xFF0000, shown.getRGB(1, 1) & 0xFFFFFF);
+        } finally {
+            worker.stop();
+        }
+    }
+
+    @Test
+    public void testRequestedFrameIsDrawnOnRenderThread() throws InterruptedException {
+        CountDownLatch drawn = new CountDownLatch(1);
+        RenderWorker worker = new RenderWorker(stateManager, 8, 8, drawn::countDown);
+        fill = new Color(0, 255, 0);
+        worker.start();
+        try {
+            worker.requestFrame();
+            assertTrue(drawn.await(5, TimeUnit.SECONDS));
+            assertEquals(0x00FF00, worker.getFrame().getRGB(1, 1) & 0xFFFFFF);
+        } finally {
+            worker.stop();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import input.PlayerCommand;
+import input.ReplayLog;
+
+public class ReplayLogTest {
+
+    @Test
+    public void testRoundTripPreservesCommands() {
+        ReplayLog log = new ReplayLog(-1234567890123L, 3);
+        log.add(PlayerCommand.select(0, new int[] { 0, 2, 5 }));
+        log.add(PlayerCommand.move(10, 900, 450));
+        log.add(PlayerCommand.move(10, 120, 1600)); // negative x delta, same tick
+        log.add(PlayerCommand.select(300, new int[0]));
+        log.add(PlayerCommand.move(5000, -40, 0));
+        log.add(PlayerCommand.stateChange(70000, 6));
+
+        ReplayLog decoded = ReplayLog.fromByteArray(log.toByteArray());
+
+        assertEquals(-1234567890123L, decoded.getSeed());
+        assertEquals(3, decoded.getLevel());
+        assertEquals(log.getCommands(), decoded.getCommands());
+        assertEquals(6, decoded.getCommandCount());
+        assertArrayEquals(log.toByteArray(), decoded.toByteArray());
+    }
+
+    @Test
+    public void testCommandsMustBeInTickOrder() {
+        ReplayLog log = new ReplayLog(1, 1);
+        log.add(PlayerCommand.move(100, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> log.add(PlayerCommand.move(99, 1, 1)));
+    }
+
+    @Test
+    public void testRejectsInvalidData() {
+        byte[] bytes = new ReplayLog(1, 1).toByteArray();
+        bytes[0] = 'X';
+        assertThrows(IllegalArgumentException.class, () -> ReplayLog.fromByteArray(bytes));
+
+        ReplayLog log = new ReplayLog(1, 1);
+        log.add(PlayerCommand.move(100, 5000, 5000));
+        byte[] data = log.toByteArray();
+        byte[] truncated = Arrays.copyOf(data, data.length - 1);
+        assertThrows(IllegalArgumentException.class, () -> ReplayLog.fromByteArray(truncated));
+    }
+
+    @Test
+    public void testRejectsUnitCountsLargerThanTheData() {
+        ReplayLog log = new ReplayLog(1, 1);
+        log.add(PlayerCommand.select(0, new int[] { 1, 2 }));
+        byte[] data = log.toByteArray();
+        // The count follows the type byte and the one-byte tick delta
+        int countPosition = data.length - 3;
+        assertEquals(2, data[countPosition]);
+
+        byte[] huge = data.clone();
+        huge[countPosition] = 0x7F;
+        assertThrows(IllegalArgumentException.class, () -> ReplayLog.fromByteArray(huge));
+
+        // A count that does not fit an int must not wrap to a negative size
+        byte[] wrapped = Arrays.copyOf(data, countPosition + 5);
+        wrapped[countPosition] = (byte) 0xFF;
+        wrapped[countPosition + 1] = (byte) 0xFF;
+        wrapped[countPosition + 2] = (byte) 0xFF;
+        wrapped[countPosition + 3] = (byte) 0xFF;
+        wrapped[countPosition + 4] = 0x0F;
+        assertThrows(IllegalArgumentException.class, () -> ReplayLog.fromByteArray(wrapped));
+    }
+
+    @Test
+    public void testEncodingIsCompact() {
+        ReplayLog log = new ReplayLog(42, 1);
+        int headerSize = log.getSizeInBytes();
+        for (int i = 0; i < 1000; i++) {
+            // Nearby move orders a few ticks apart, as produced by normal play
+            log.add(PlayerCommand.move(i * 20L, 500 + (i % 7) * 10, 500 - (i % 5) * 10));
+        }
+
+        // Type byte, one-byte tick delta and two small coordinate deltas; only the
+        // first move, encoded relative to the origin, needs longer varints
+        assertTrue(log.getSizeInBytes() - headerSize <= 1000 * 4 + 2,
+                "Expected at most 4 bytes per move, got " + log.getSizeInBytes());
+    }
+
+    @Test
+    public void testWriteAndRead(@TempDir Path dir) throws Exception {
+        ReplayLog log = new ReplayLog(7, 2);
+        log.add(PlayerCommand.select(1, new int[] { 3 }));
+        log.add(PlayerCommand.move(2, 64, 32));
+
+        Path file = dir.resolve("test.rtsr");
+        log.write(file);
+        ReplayLog read = ReplayLog.read(file);
+
+        List<PlayerCommand> commands = read.getCommands();
+        assertEquals(2, commands.size());
+        assertArrayEquals(new int[] { 3 }, commands.get(0).getUnitIndices());
+        assertEquals(64, commands.get(1).getX());
+        assertEquals(32, commands.get(1).getY());
+    }
+}
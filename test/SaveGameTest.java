@@ -0,0 +1,235 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import entities.GameFlag;
+import entities.GameFlagManager;
+import entities.GameUnit;
+import entities.GameUnitManager;
+import graphics.Point;
+import managers.GameFogWar;
+import pathfinding.PathNode;
+import utils.Constants;
+
+public class SaveGameTest {
+
+    private static final int MAP_SIZE = 40;
+
+    private GameSimulation createSimulation(long seed) {
+        int[][] map = new int[MAP_SIZE][MAP_SIZE];
+        GameFlagManager flagManager = new GameFlagManager();
+        flagManager.addPlayerFlag(5, 5);
+        flagManager.addEnemyFlag(30, 30);
+        return new GameSimulation(map, new GameUnitManager(), flagManager,
+                new GameFogWar(MAP_SIZE, MAP_SIZE), new GameFogWar(MAP_SIZE, MAP_SIZE), null, seed);
+    }
+
+    private GameUnit addUnit(GameSimulation simulation, int tileX, int tileY, int factionId) {
+        GameUnit unit = new GameUnit(tileX * Constants.TILE_WIDTH, tileY * Constants.TILE_HEIGHT,
+                factionId == GameFlag.FACTION_PLAYER, 0);
+        unit.setFactionId(factionId);
+        simulation.getUnitManager().addUnit(unit);
+        return unit;
+    }
+
+    private GameSimulation createMatch() {
+        GameSimulation simulation = createSimulation(1234L);
+        GameUnit mover = addUnit(simulation, 3, 3, GameFlag.FACTION_PLAYER);
+        addUnit(simulation, 4, 3, GameFlag.FACTION_PLAYER).setHealth(40);
+        addUnit(simulation, 35, 35, GameFlag.FACTION_ENEMY);
+        mover.setDestination(new Point(20 * Constants.TILE_WIDTH, 8 * Constants.TILE_HEIGHT));
+        mover.startMoving();
+        for (int i = 0; i < 30; i++) {
+            simulation.step();
+        }
+        return simulation;
+    }
+
+    private ArrayList<GameFlag> flags(GameSimulation simulation) {
+        ArrayList<GameFlag> flags = new ArrayList<>();
+        Iterator<GameFlag> it = simulation.getFlagManager().getFlagList();
+        while (it.hasNext()) {
+            flags.add(it.next());
+        }
+        return flags;
+    }
+
+    private void assertSameUnit(GameUnit expected, GameUnit actual) {
+        assertEquals(expected.getCurrentPosition().x, actual.getCurrentPosition().x);
+        assertEquals(expected.getCurrentPosition().y, actual.getCurrentPosition().y);
+        assertEquals(expected.getDestination().x, actual.getDestination().x);
+        assertEquals(expected.getDestination().y, actual.getDestination().y);
+        assertEquals(expected.getHealth(), actual.getHealth());
+        assertEquals(expected.getFactionId(), actual.getFactionId());
+        assertEquals(expected.getRotationAngle(), actual.getRotationAngle());
+        assertEquals(expected.isMoving(), actual.isMoving());
+        assertEquals(expected.isPathCreated(), actual.isPathCreated());
+        assertEquals(expected.getMovementController().getCurrentX(), actual.getMovementController().getCurrentX());
+        assertEquals(expected.getMovementController().getNodeCounter(),
+                actual.getMovementController().getNodeCounter());
+
+        ArrayList<PathNode> expectedPath = expected.getPath();
+        ArrayList<PathNode> actualPath = actual.getPath();
+        assertEquals(expectedPath == null, actualPath == null);
+        if (expectedPath != null) {
+            assertEquals(expectedPath.size(), actualPath.size());
+            for (int i = 0; i < expectedPath.size(); i++) {
+                assertEquals(expectedPath.get(i).getX(), actualPath.get(i).getX());
+                assertEquals(expectedPath.get(i).getY(), actualPath.get(i).getY());
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTripRestoresMatchState(@TempDir Path dir) throws Exception {
+        GameSimulation original = createMatch();
+        flags(original).get(0).restoreState(60, GameFlag.FACTION_NEUTRAL);
+        original.getGameTimer().addHour();
+        assertNotNull(original.getUnitManager().getPlayerList().get(0).getPath());
+
+        Path file = dir.resolve("match.rtss");
+        SaveGame.write(original, 2, file);
+        assertEquals(2, SaveGame.readLevel(file));
+
+        GameSimulation loaded = createSimulation(99L);
+        SaveGame.load(file, loaded);
+
+        assertEquals(1234L, loaded.getSeed());
+        assertEquals(original.getTickCount(), loaded.getTickCount());
+        assertEquals(original.getGameTimer().getHour(), loaded.getGameTimer().getHour());
+        assertEquals(original.getGameTimer().getDay(), loaded.getGameTimer().getDay());
+
+        ArrayList<GameFlag> originalFlags = flags(original);
+        ArrayList<GameFlag> loadedFlags = flags(loaded);
+        assertEquals(originalFlags.size(), loadedFlags.size());
+        for (int i = 0; i < originalFlags.size(); i++) {
+            assertEquals(originalFlags.get(i).getMapX(), loadedFlags.get(i).getMapX());
+            assertEquals(originalFlags.get(i).getHealth(), loadedFlags.get(i).getHealth());
+            assertEquals(originalFlags.get(i).getControlFaction(), loadedFlags.get(i).getControlFaction());
+        }
+
+        assertEquals(2, loaded.getUnitManager().getPlayerList().size());
+        assertEquals(1, loaded.getUnitManager().getEnemyList().size());
+        for (int i = 0; i < 2; i++) {
+            assertSameUnit(original.getUnitManager().getPlayerList().get(i),
+                    loaded.getUnitManager().getPlayerList().get(i));
+        }
+        assertSameUnit(original.getUnitManager().getEnemyList().get(0),
+                loaded.getUnitManager().getEnemyList().get(0));
+
+        assertEquals(original.getFogWar().getVisitedData().cardinality(),
+                loaded.getFogWar().getVisitedData().cardinality());
+        assertTrue(loaded.getFogWar().getVisitedData().get(3, 3));
+        assertEquals(original.getEnemyFogWar().getVisitedData().cardinality(),
+                loaded.getEnemyFogWar().getVisitedData().cardinality());
+        assertFalse(Files.exists(dir.resolve("match.rtss.tmp")));
+    }
+
+    @Test
+    public void testLoadedMatchContinuesLikeTheOriginal() {
+        GameSimulation original = createMatch();
+        ByteBuffer saved = SaveGame.encode(original, 1);
+
+        GameSimulation loaded = createSimulation(99L);
+        SaveGame.decode(saved, loaded);
+
+        for (int i = 0; i < 60; i++) {
+            original.step();
+            loaded.step();
+        }
+        for (int i = 0; i < original.getUnitManager().getPlayerList().size(); i++) {
+            assertSameUnit(original.getUnitManager().getPlayerList().get(i),
+                    loaded.getUnitManager().getPlayerList().get(i));
+        }
+        assertEquals(original.getTickCount(), loaded.getTickCount());
+    }
+
+    @Test
+    public void testRejectsInvalidSaves() {
+        ByteBuffer garbage = ByteBuffer.allocate(64);
+        assertThrows(IllegalArgumentException.class, () -> SaveGame.decode(garbage, createSimulation(1L)));
+
+        // A save for a different map size is not applied
+        GameSimulation other = new GameSimulation(new int[10][10], new GameUnitManager(), new GameFlagManager(),
+                new GameFogWar(10, 10), new GameFogWar(10, 10), null, 1L);
+        ByteBuffer saved = SaveGame.encode(createMatch(), 1);
+        assertThrows(IllegalArgumentException.class, () -> SaveGame.decode(saved, other));
+        assertEquals(1L, other.getSeed());
+    }
+
+    @Test
+    public void testRejectsTruncatedAndCorruptSaves() {
+        ByteBuffer saved = SaveGame.encode(createMatch(), 1);
+
+        for (int length = 0; length < saved.limit(); length++) {
+            ByteBuffer truncated = saved.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            truncated.limit(length);
+            assertThrows(IllegalArgumentException.class, () -> SaveGame.decode(truncated, createSimulation(1L)),
+                    "length " + length);
+        }
+
+        // Outcome after magic, version, level, seed and tick
+        ByteBuffer corrupt = ByteBuffer.allocate(saved.limit()).order(ByteOrder.LITTLE_ENDIAN);
+        corrupt.put(saved.duplicate()).flip();
+        corrupt.put(4 + 4 + 4 + 8 + 8, (byte) 42);
+        assertThrows(IllegalArgumentException.class, () -> SaveGame.decode(corrupt, createSimulation(1L)));
+    }
+
+    private GameSimulation createBattle() {
+        GameSimulation simulation = createSimulation(77L);
+        for (int i = 0; i < 4; i++) {
+            addUnit(simulation, 10, 8 + i, GameFlag.FACTION_PLAYER);
+            addUnit(simulation, 11, 8 + i, GameFlag.FACTION_ENEMY);
+        }
+        return simulation;
+    }
+
+    private void assertSameRandomState(GameSimulation expected, GameSimulation actual) {
+        assertEquals(expected.getUnitManager().getSpawnRandom().getState(),
+                actual.getUnitManager().getSpawnRandom().getState());
+        assertEquals(expected.getUnitManager().getNextUnitSerial(), actual.getUnitManager().getNextUnitSerial());
+        ArrayList<GameUnit> expectedUnits = expected.getUnitManager().getAllUnits();
+        ArrayList<GameUnit> actualUnits = actual.getUnitManager().getAllUnits();
+        assertEquals(expectedUnits.size(), actualUnits.size());
+        for (int i = 0; i < expectedUnits.size(); i++) {
+            assertSameUnit(expectedUnits.get(i), actualUnits.get(i));
+            assertEquals(expectedUnits.get(i).getCombatSystem().getRandom().getState(),
+                    actualUnits.get(i).getCombatSystem().getRandom().getState());
+        }
+    }
+
+    @Test
+    public void testLoadedMatchDrawsTheSameRandomNumbers() {
+        final int savedTick = 40;
+        final int moreTicks = 80;
+
+        GameSimulation uninterrupted = createBattle();
+        for (int i = 0; i < savedTick + moreTicks; i++) {
+            uninterrupted.step();
+        }
+
+        GameSimulation interrupted = createBattle();
+        for (int i = 0; i < savedTick; i++) {
+            interrupted.step();
+        }
+        GameSimulation resumed = createSimulation(5L);
+        SaveGame.decode(SaveGame.encode(interrupted, 1), resumed);
+        for (int i = 0; i < moreTicks; i++) {
+            resumed.step();
+        }
+
+        // The fight has drawn critical hit rolls, so the unit streams have moved on
+        assertNotEquals(new utils.RandomStreams(77L).forUnit(0).getState(),
+                uninterrupted.getUnitManager().getPlayerList().get(0).getCombatSystem().getRandom().getState());
+        assertEquals(uninterrupted.getTickCount(), resumed.getTickCount());
+        assertSameRandomState(uninterrupted, resumed);
+    }
+}
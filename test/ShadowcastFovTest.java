@@ -0,0 +1,76 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import managers.ShadowcastFov;
+import map.TileConverter;
+import utils.Constants;
+
+public class ShadowcastFovTest {
+
+    @Test
+    public void testOpenMapRevealsCircleWithinRadius() {
+        int[][] map = new int[21][21];
+        boolean[][] visible = new boolean[21][21];
+        boolean[][] visited = new boolean[21][21];
+
+        ShadowcastFov.compute(map, 10, 10, 5, visible, visited);
+
+        for (int y = 0; y < 21; y++) {
+            for (int x = 0; x < 21; x++) {
+                int dx = x - 10;
+                int dy = y - 10;
+                boolean inRange = dx * dx + dy * dy <= 25;
+                assertEquals(inRange, visible[y][x], "tile " + x + "," + y);
+                assertEquals(inRange, visited[y][x], "tile " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void testWallBlocksTilesBehindIt() {
+        int[][] map = new int[11][11];
+        map[5][7] = TileConverter.TILE_WALL;
+        boolean[][] visible = new boolean[11][11];
+        boolean[][] visited = new boolean[11][11];
+
+        ShadowcastFov.compute(map, 5, 5, 5, visible, visited);
+
+        assertTrue(visible[5][6]);
+        assertTrue(visible[5][7]); // the wall itself is seen
+        assertFalse(visible[5][8]);
+        assertFalse(visible[5][9]);
+        assertTrue(visible[3][7]); // tiles beside the shadow stay visible
+    }
+
+    @Test
+    public void testOriginOnMapEdgeDoesNotThrow() {
+        int[][] map = new int[5][5];
+        boolean[][] visible = new boolean[5][5];
+        boolean[][] visited = new boolean[5][5];
+
+        assertDoesNotThrow(() -> ShadowcastFov.compute(map, 0, 0, 6, visible, visited));
+        assertTrue(visible[0][0]);
+        assertTrue(visible[4][4]);
+    }
+
+    @Test
+    public void testOriginOutsideMapIsIgnored() {
+        int[][] map = new int[5][5];
+        boolean[][] visible = new boolean[5][5];
+        boolean[][] visited = new boolean[5][5];
+
+        ShadowcastFov.compute(map, 9, 9, 5, visible, visited);
+
+        assertFalse(visible[4][4]);
+    }
+
+    @Test
+    public void testSightRadiusPerUnitType() {
+        assertEquals(6, ShadowcastFov.getSightRadius(Constants.UNIT_ID_LIGHT));
+        assertEquals(5, ShadowcastFov.getSightRadius(Constants.UNIT_ID_MEDIUM));
+        assertEquals(4, ShadowcastFov.getSightRadius(Constants.UNIT_ID_HEAVY));
+        assertEquals(Constants.FOG_DEFAULT_SIGHT_RADIUS, ShadowcastFov.getSightRadius(0));
+        assertEquals(Constants.FOG_DEFAULT_SIGHT_RADIUS, ShadowcastFov.getSightRadius(42));
+    }
+}
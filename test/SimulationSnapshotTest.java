@@ -0,0 +1,111 @@
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import entities.GameUnit;
+import graphics.IGraphics;
+import graphics.Point;
+import managers.CombatEffectManager;
+import managers.EffectSnapshot;
+
+public class SimulationSnapshotTest {
+
+    private GameUnit mockUnit(int x, int y, double rotation, int health, boolean alive) {
+        GameUnit unit = mock(GameUnit.class);
+        when(unit.getCurrentPosition()).thenReturn(new Point(x, y));
+        when(unit.getRotationAngle()).thenReturn(rotation);
+        when(unit.getHealth()).thenReturn(health);
+        when(unit.isAlive()).thenReturn(alive);
+        return unit;
+    }
+
+    @Test
+    public void testCaptureCopiesLiveUnitState() {
+        GameUnit player = mockUnit(10, 20, 90.0, 80, true);
+        GameUnit dead = mockUnit(0, 0, 0.0, 0, false);
+        GameUnit enemy = mockUnit(30, 40, 180.0, 50, true);
+
+        SimulationSnapshot snapshot = SimulationSnapshot.capture(7, List.of(player, dead), List.of(enemy));
+
+        assertEquals(7, snapshot.getTick());
+        assertEquals(2, snapshot.getUnitCount());
+        assertEquals(-1, snapshot.indexOf(dead));
+        int i = snapshot.indexOf(enemy);
+        assertEquals(30, snapshot.getX(i));
+        assertEquals(40, snapshot.getY(i));
+        assertEquals(180.0, snapshot.getRotation(i));
+        assertEquals(50, snapshot.getHealth(i));
+
+        // Later changes to the unit do not affect the snapshot
+        when(enemy.getCurrentPosition()).thenReturn(new Point(99, 99));
+        assertEquals(30, snapshot.getX(i));
+    }
+
+    @Test
+    public void testInterpolatesPositionBetweenTicks() {
+        GameUnit unit = mockUnit(0, 0, 0.0, 100, true);
+        SimulationSnapshot previous = SimulationSnapshot.capture(1, List.of(unit), List.of());
+        when(unit.getCurrentPosition()).thenReturn(new Point(10, 20));
+        SimulationSnapshot current = SimulationSnapshot.capture(2, List.of(unit), List.of());
+
+        assertEquals(new Point(5, 10), SimulationSnapshot.interpolatePosition(previous, current, 0, 0.5));
+        assertEquals(new Point(0, 0), SimulationSnapshot.interpolatePosition(previous, current, 0, 0.0));
+        assertEquals(new Point(10, 20), SimulationSnapshot.interpolatePosition(previous, current, 0, 1.0));
+    }
+
+    @Test
+    public void testNewUnitIsDrawnAtCurrentPosition() {
+        GameUnit unit = mockUnit(10, 20, 45.0, 100, true);
+        SimulationSnapshot previous = SimulationSnapshot.capture(1, List.of(), List.of());
+        SimulationSnapshot current = SimulationSnapshot.capture(2, List.of(unit), List.of());
+
+        assertEquals(new Point(10, 20), SimulationSnapshot.interpolatePosition(previous, current, 0, 0.25));
+        assertEquals(45.0, SimulationSnapshot.interpolateRotation(null, current, 0, 0.25));
+    }
+
+    @Test
+    public void testRotationInterpolatesAlongShorterArc() {
+        GameUnit unit = mockUnit(0, 0, 350.0, 100, true);
+        SimulationSnapshot previous = SimulationSnapshot.capture(1, List.of(unit), List.of());
+        when(unit.getRotationAngle()).thenReturn(10.0);
+        SimulationSnapshot current = SimulationSnapshot.capture(2, List.of(unit), List.of());
+
+        assertEquals(0.0, SimulationSnapshot.interpolateRotation(previous, current, 0, 0.5), 1e-9);
+        assertEquals(355.0, SimulationSnapshot.interpolateRotation(previous, current, 0, 0.25), 1e-9);
+    }
+
+    @Test
+    public void testEffectsAreCopiedAtCapture() {
+        GameUnit unit = mockUnit(200, 300, 0.0, 100, true);
+        CombatEffectManager manager = new CombatEffectManager(64);
+        manager.createDamageNumber(new Point(10, 20), 12, false);
+        manager.createAttackAnimation(unit);
+        manager.update();
+
+        SimulationSnapshot snapshot = SimulationSnapshot.capture(3, List.of(unit), List.of(), manager.snapshot());
+        EffectSnapshot effects = snapshot.getEffects();
+        assertEquals(2, effects.getCount());
+        assertEquals(EffectSnapshot.DAMAGE_NUMBER, effects.getKind(0));
+        assertEquals(19, effects.getY(0));
+        assertEquals(1, effects.getAge(0));
+        assertEquals(EffectSnapshot.ATTACK, effects.getKind(1));
+        assertEquals(200, effects.getX(1));
+
+        // Later changes to the live effects do not reach the snapshot
+        when(unit.getCurrentPosition()).thenReturn(new Point(250, 300));
+        manager.clear();
+        IGraphics g = mock(IGraphics.class);
+        effects.render(g, 0, 0, null);
+        verify(g).fillRect(200, 300, 50, 50);
+        verify(g).drawString("-12", 10, 19);
+    }
+
+    @Test
+    public void testCaptureWithoutEffectsIsEmpty() {
+        SimulationSnapshot snapshot = SimulationSnapshot.capture(1, List.of(), List.of());
+        assertEquals(0, snapshot.getEffects().getCount());
+    }
+}
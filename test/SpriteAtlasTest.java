@@ -0,0 +1,88 @@
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import graphics.GameImage;
+import map.TileConverter;
+import utils.Constants;
+
+public class SpriteAtlasTest {
+
+    private static final int RED = 0xFFFF0000;
+    private static final int BLUE = 0xFF0000FF;
+
+    private ImageService imageService;
+
+    /**
+     * A sheet of four frames; the east frame (2) has a red left half, the others are blue.
+     */
+    private GameImage createSheet() {
+        BufferedImage sheet = new BufferedImage(4 * Constants.TILE_WIDTH, Constants.TILE_HEIGHT,
+                BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < Constants.TILE_HEIGHT; y++) {
+            for (int x = 0; x < sheet.getWidth(); x++) {
+                boolean eastLeftHalf = x >= 2 * Constants.TILE_WIDTH && x < 2 * Constants.TILE_WIDTH + 25;
+                sheet.setRGB(x, y, eastLeftHalf ? RED : BLUE);
+            }
+        }
+        return new GameImage(sheet);
+    }
+
+    @BeforeEach
+    void setUp() {
+        imageService = mock(ImageService.class);
+        when(imageService.getTileImage(anyString(), anyBoolean())).thenAnswer(invocation -> createSheet());
+    }
+
+    private int pixel(GameImage image, int x, int y) {
+        return ((BufferedImage) image.getBackendImage()).getRGB(x, y);
+    }
+
+    @Test
+    public void testHoldsEveryVariantAndRotation() {
+        SpriteAtlas atlas = SpriteAtlas.build(imageService, 72);
+        assertEquals(72, atlas.getRotations());
+        assertEquals(3 * 2 * 2 * 72, atlas.getFrameCount());
+        assertEquals((long) atlas.getFrameCount() * Constants.TILE_WIDTH * Constants.TILE_HEIGHT * 4,
+                atlas.getMemoryBytes());
+        verify(imageService, atLeastOnce()).getTileImage(TileConverter.STR_UNIT_HEAVY_ENEMY, true);
+        verify(imageService, atLeastOnce()).getTileImage(TileConverter.STR_UNIT_LIGHT_PLAYER, false);
+    }
+
+    @Test
+    public void testLookupsReturnTheSameFrame() {
+        SpriteAtlas atlas = SpriteAtlas.build(imageService, 72);
+        GameImage frame = atlas.getFrame(Constants.UNIT_ID_LIGHT, true, false, 0);
+        assertSame(frame, atlas.getFrame(Constants.UNIT_ID_LIGHT, true, false, 0));
+
+        // Angles are rounded to the nearest 5 degree step and wrap around
+        assertSame(frame, atlas.getFrame(Constants.UNIT_ID_LIGHT, true, false, 359));
+        assertSame(frame, atlas.getFrame(Constants.UNIT_ID_LIGHT, true, false, -2));
+        assertNotSame(frame, atlas.getFrame(Constants.UNIT_ID_LIGHT, true, false, 5));
+
+        assertNotSame(frame, atlas.getFrame(Constants.UNIT_ID_LIGHT, true, true, 0));
+        assertNotSame(frame, atlas.getFrame(Constants.UNIT_ID_LIGHT, false, false, 0));
+        assertNotSame(frame, atlas.getFrame(Constants.UNIT_ID_HEAVY, true, false, 0));
+    }
+
+    @Test
+    public void testFramesAreRotatedFromTheBaseFrame() {
+        SpriteAtlas atlas = SpriteAtlas.build(imageService, 4);
+
+        GameImage east = atlas.getFrame(Constants.UNIT_ID_LIGHT, true, false, 0);
+        assertEquals(RED, pixel(east, 5, 25));
+        assertEquals(BLUE, pixel(east, 45, 25));
+
+        GameImage turned = atlas.getFrame(Constants.UNIT_ID_LIGHT, true, false, 180);
+        assertEquals(BLUE, pixel(turned, 5, 25));
+        assertEquals(RED, pixel(turned, 45, 25));
+
+        // Medium units use the first frame of their sheet, which is all blue
+        assertEquals(BLUE, pixel(atlas.getFrame(Constants.UNIT_ID_MEDIUM, true, false, 0), 5, 25));
+    }
+}
@@ -0,0 +1,105 @@
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import graphics.GameImage;
+import graphics.IGraphics;
+import utils.Constants;
+
+public class TerrainChunkCacheTest {
+
+    private ImageService imageService;
+    private TerrainChunkCache cache;
+
+    @BeforeEach
+    void setUp() {
+        imageService = mock(ImageService.class);
+        GameImage tile = new GameImage(new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB));
+        when(imageService.getTileImage(anyString(), anyBoolean())).thenReturn(tile);
+        cache = new TerrainChunkCache(imageService, 8);
+    }
+
+    private String[][] createMap(int width, int height) {
+        String[][] drawData = new String[height][width];
+        for (String[] row : drawData) {
+            Arrays.fill(row, "Land");
+        }
+        return drawData;
+    }
+
+    @Test
+    public void testDrawsOnlyChunksInViewport() {
+        String[][] drawData = createMap(100, 100);
+        IGraphics g = mock(IGraphics.class);
+
+        // 400 px chunks: a 1000x700 view at the origin overlaps 3 x 2 chunks
+        cache.render(g, drawData, false, 0, 0, 1000, 700);
+        verify(g, times(6)).drawImage(any(GameImage.class), anyInt(), anyInt(), anyInt(), anyInt());
+        verify(g).drawImage(any(GameImage.class), eq(800), eq(400), eq(400), eq(400));
+
+        // Tile lookups only for the chunks built, not the whole map
+        verify(imageService, times(6 * 64)).getTileImage(anyString(), anyBoolean());
+    }
+
+    @Test
+    public void testChunksArePositionedRelativeToCamera() {
+        String[][] drawData = createMap(100, 100);
+        IGraphics g = mock(IGraphics.class);
+
+        cache.render(g, drawData, false, 450, 420, 300, 300);
+        // View spans x 450-749 and y 420-719: only chunk (1, 1) at world (400, 400)
+        verify(g).drawImage(any(GameImage.class), eq(-50), eq(-20), eq(400), eq(400));
+        verify(g, times(1)).drawImage(any(GameImage.class), anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    public void testChunksAreReusedAcrossFrames() {
+        String[][] drawData = createMap(20, 20);
+        IGraphics g = mock(IGraphics.class);
+
+        cache.render(g, drawData, false, 0, 0, Constants.SCREEN_WIDTH, Constants.SCREEN_HEIGHT);
+        int built = cache.getChunksBuilt();
+        assertEquals(6, built); // 3 x 2 of the 3 x 3 chunks fit on screen
+
+        cache.render(g, drawData, false, 0, 0, Constants.SCREEN_WIDTH, Constants.SCREEN_HEIGHT);
+        assertEquals(built, cache.getChunksBuilt());
+
+        // Night is a separate variant
+        cache.render(g, drawData, true, 0, 0, Constants.SCREEN_WIDTH, Constants.SCREEN_HEIGHT);
+        assertEquals(built * 2, cache.getChunksBuilt());
+        verify(imageService, atLeastOnce()).getTileImage("Land", true);
+    }
+
+    @Test
+    public void testEdgeChunksAreClipped() {
+        String[][] drawData = createMap(10, 10);
+        IGraphics g = mock(IGraphics.class);
+
+        cache.render(g, drawData, false, 0, 0, Constants.SCREEN_WIDTH, Constants.SCREEN_HEIGHT);
+        verify(g).drawImage(any(GameImage.class), eq(400), eq(400), eq(2 * Constants.TILE_WIDTH),
+                eq(2 * Constants.TILE_HEIGHT));
+    }
+
+    @Test
+    public void testRebuildsWhenTilesChange() {
+        String[][] drawData = createMap(16, 16);
+        IGraphics g = mock(IGraphics.class);
+        cache.render(g, drawData, false, 0, 0, 800, 800);
+        assertEquals(4, cache.getChunksBuilt());
+
+        cache.invalidateTile(9, 2);
+        cache.render(g, drawData, false, 0, 0, 800, 800);
+        assertEquals(5, cache.getChunksBuilt());
+
+        // A new map replaces every chunk
+        cache.render(g, createMap(16, 16), false, 0, 0, 800, 800);
+        assertEquals(9, cache.getChunksBuilt());
+        assertEquals(4, cache.getCachedChunkCount());
+    }
+}
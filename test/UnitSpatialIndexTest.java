@@ -0,0 +1,99 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import entities.UnitSpatialIndex;
+import managers.VisibleRegion;
+import utils.Constants;
+
+public class UnitSpatialIndexTest {
+
+    private static final int MAP_TILES = 512;
+
+    private List<Integer> query(UnitSpatialIndex index, VisibleRegion region) {
+        List<Integer> found = new ArrayList<>();
+        index.forEachInRegion(region, found::add);
+        return found;
+    }
+
+    @Test
+    public void testFindsExactlyTheUnitsOverlappingTheRegion() {
+        SplittableRandom random = new SplittableRandom(3);
+        int count = 5000;
+        int[] x = new int[count];
+        int[] y = new int[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = random.nextInt(MAP_TILES * Constants.TILE_WIDTH);
+            y[i] = random.nextInt(MAP_TILES * Constants.TILE_HEIGHT);
+        }
+        UnitSpatialIndex index = new UnitSpatialIndex(x, y, count, UnitSpatialIndex.DEFAULT_CELL_TILES);
+        assertEquals(count, index.size());
+
+        VisibleRegion region = VisibleRegion.ofView(5000, 7000, Constants.SCREEN_WIDTH, Constants.SCREEN_HEIGHT,
+                MAP_TILES, MAP_TILES);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (region.intersects(x[i], y[i], Constants.TILE_WIDTH, Constants.TILE_HEIGHT)) {
+                expected.add(i);
+            }
+        }
+        List<Integer> found = query(index, region);
+        found.sort(null);
+        assertEquals(expected, found);
+        assertTrue(found.size() < count / 100);
+    }
+
+    @Test
+    public void testIncludesUnitsPartlyOnScreen() {
+        // Corner half a tile left of and above the region
+        int[] x = { 975, 2100 }; // The region ends at x 2099
+        int[] y = { 475, 500 };
+        UnitSpatialIndex index = new UnitSpatialIndex(x, y, 2, 4);
+        VisibleRegion region = VisibleRegion.ofView(1000, 500, Constants.SCREEN_WIDTH, Constants.SCREEN_HEIGHT,
+                MAP_TILES, MAP_TILES);
+        assertEquals(List.of(0), query(index, region));
+        assertEquals(List.of(0, 1), query(index, region.expand(1)));
+    }
+
+    @Test
+    public void testUnitsFarApartOnALargeMap() {
+        int mapTiles = 16384;
+        int far = (mapTiles - 1) * Constants.TILE_WIDTH;
+        int[] x = { 0, far, 0, far, 60 };
+        int[] y = { 0, 0, far, far, 10 };
+        UnitSpatialIndex index = new UnitSpatialIndex(x, y, x.length, UnitSpatialIndex.DEFAULT_CELL_TILES);
+
+        VisibleRegion corner = VisibleRegion.ofView(far - 500, far - 500, Constants.SCREEN_WIDTH,
+                Constants.SCREEN_HEIGHT, mapTiles, mapTiles);
+        assertEquals(List.of(3), query(index, corner));
+        VisibleRegion origin = VisibleRegion.ofView(0, 0, Constants.SCREEN_WIDTH, Constants.SCREEN_HEIGHT,
+                mapTiles, mapTiles);
+        List<Integer> found = query(index, origin);
+        found.sort(null);
+        assertEquals(List.of(0, 4), found);
+
+        // A region covering the whole map visits the occupied cells instead of every cell
+        VisibleRegion whole = VisibleRegion.ofView(0, 0, mapTiles * Constants.TILE_WIDTH,
+                mapTiles * Constants.TILE_HEIGHT, mapTiles, mapTiles);
+        found = query(index, whole);
+        found.sort(null);
+        assertEquals(List.of(0, 1, 2, 3, 4), found);
+    }
+
+    @Test
+    public void testEmptyIndexAndRegion() {
+        UnitSpatialIndex empty = new UnitSpatialIndex(new int[0], new int[0], 0, 4);
+        VisibleRegion region = VisibleRegion.ofView(0, 0, 100, 100, MAP_TILES, MAP_TILES);
+        assertTrue(query(empty, region).isEmpty());
+
+        UnitSpatialIndex index = new UnitSpatialIndex(new int[] { 0 }, new int[] { 0 }, 1, 4);
+        VisibleRegion offMap = VisibleRegion.ofView(MAP_TILES * Constants.TILE_WIDTH, 0, 100, 100,
+                MAP_TILES, MAP_TILES);
+        assertTrue(offMap.isEmpty());
+        assertTrue(query(index, offMap).isEmpty());
+    }
+}
@@ -0,0 +1,167 @@
+package map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import graphics.Point;
+
+public class BinaryMapFormatTest {
+
+    @TempDir
+    Path tempDir;
+
+    private void assertSameMap(MapParseResult expected, MapParseResult actual) {
+        assertEquals(expected.mapData.length, actual.mapData.length);
+        for (int y = 0; y < expected.mapData.length; y++) {
+            assertArrayEquals(expected.mapData[y], actual.mapData[y], "row " + y);
+            assertArrayEquals(expected.drawData[y], actual.drawData[y], "row " + y);
+        }
+        assertEquals(expected.allyUnitPositions, actual.allyUnitPositions);
+        assertEquals(expected.enemyUnitPositions, actual.enemyUnitPositions);
+        assertEquals(expected.flagPositions, actual.flagPositions);
+    }
+
+    @Test
+    void testRoundTripThroughFile() throws Exception {
+        String json = """
+            {
+              "width": 4,
+              "height": 3,
+              "tiles": [
+                ["Wall", "Land", "Wall", "Flag -1"],
+                ["Land", "Unit +1 1", "Unit -1 2", "Land"],
+                ["Flag +1", "Land", "Wall", "Unit +1 0"]
+              ]
+            }
+            """;
+        MapParseResult original = MapJsonParser.parseMapDataFromJson(json);
+        Path path = tempDir.resolve("level" + BinaryMapFormat.EXTENSION);
+
+        BinaryMapFormat.write(original, path);
+        MapParseResult loaded = BinaryMapFormat.read(path);
+
+        assertSameMap(original, loaded);
+        assertEquals(2, loaded.allyUnitPositions.size());
+        assertEquals(-1, loaded.flagPositions.get(new Point(3, 0)));
+        // One byte per tile plus small fixed parts
+        assertTrue(Files.size(path) < 16 + 12 + 4 * 3 * 6 + 64);
+    }
+
+    @Test
+    void testUnusualTileStringsAreKept() {
+        String json = """
+            {
+              "width": 3,
+              "height": 1,
+              "tiles": [["Land", "Water", "Wall "]]
+            }
+            """;
+        MapParseResult original = MapJsonParser.parseMapDataFromJson(json);
+        MapParseResult loaded = BinaryMapFormat.decode(BinaryMapFormat.encode(original));
+
+        assertSameMap(original, loaded);
+        assertEquals("Water", loaded.drawData[0][1]);
+        assertEquals("Wall ", loaded.drawData[0][2]);
+    }
+
+    @Test
+    void testConvertsShippedMapsLosslessly() throws Exception {
+        for (int level = 1; level <= 2; level++) {
+            MapParseResult original = MapJsonParser.parseMapDataFromJsonFile("../maps/newmap" + level + ".json");
+            MapParseResult loaded = BinaryMapFormat.decode(BinaryMapFormat.encode(original));
+            assertSameMap(original, loaded);
+
+            // And back to the same JSON
+            assertEquals(MapJsonParser.mapDataToJson(original), MapJsonParser.mapDataToJson(loaded));
+        }
+    }
+
+    @Test
+    void testOpenDerivesTheSameTilesAsRead() throws Exception {
+        String json = """
+            {
+              "width": 4,
+              "height": 3,
+              "tiles": [
+                ["Wall", "Water", "Wall", "Flag -1"],
+                ["Land", "Unit +1 1", "Unit -1 2", "Land"],
+                ["Flag +1", "Land", "Wall ", "Unit +1 0"]
+              ]
+            }
+            """;
+        MapParseResult original = MapJsonParser.parseMapDataFromJson(json);
+        Path path = tempDir.resolve("level" + BinaryMapFormat.EXTENSION);
+        BinaryMapFormat.write(original, path);
+
+        MapParseResult read = BinaryMapFormat.read(path);
+        MapParseResult opened = BinaryMapFormat.open(path);
+
+        assertNull(opened.mapData);
+        assertNull(opened.drawData);
+        assertTrue(opened.tileMap instanceof ChunkedTileMap);
+        assertEquals(4, opened.tileNames.getWidth());
+        assertEquals(3, opened.tileNames.getHeight());
+        for (int y = 0; y < 3; y++) {
+            for (int x = 0; x < 4; x++) {
+                assertEquals(read.mapData[y][x], opened.tileMap.getTile(x, y), x + "," + y);
+                assertEquals(read.drawData[y][x], opened.tileNames.getName(x, y), x + "," + y);
+            }
+        }
+        assertEquals(read.allyUnitPositions, opened.allyUnitPositions);
+        assertEquals(read.enemyUnitPositions, opened.enemyUnitPositions);
+        assertEquals(read.flagPositions, opened.flagPositions);
+
+        // An opened map can be written again without tile arrays
+        Path copy = tempDir.resolve("copy" + BinaryMapFormat.EXTENSION);
+        BinaryMapFormat.write(opened, copy);
+        assertArrayEquals(Files.readAllBytes(path), Files.readAllBytes(copy));
+    }
+
+    @Test
+    void testConverterMain() throws Exception {
+        Path json = tempDir.resolve("map.json");
+        Files.write(json, "{\"width\": 2, \"height\": 1, \"tiles\": [[\"Wall\", \"Unit -1 1\"]]}"
+                .getBytes(StandardCharsets.UTF_8));
+        Path binary = tempDir.resolve("map" + BinaryMapFormat.EXTENSION);
+        Path back = tempDir.resolve("back.json");
+
+        BinaryMapFormat.main(new String[] { json.toString(), binary.toString() });
+        BinaryMapFormat.main(new String[] { binary.toString(), back.toString() });
+
+        MapParseResult result = MapJsonParser.parseMapDataFromJson(Files.readString(back));
+        assertEquals("Unit -1 1", result.drawData[0][1]);
+        assertEquals(1, result.enemyUnitPositions.get(new Point(1, 0)));
+    }
+
+    @Test
+    void testRejectsOtherFiles() {
+        ByteBuffer garbage = ByteBuffer.allocate(32);
+        assertThrows(IllegalArgumentException.class, () -> BinaryMapFormat.decode(garbage));
+    }
+
+    @Test
+    void testRejectsTruncatedAndCorruptFiles() {
+        MapParseResult original = MapJsonParser.parseMapDataFromJson(
+                "{\"width\": 3, \"height\": 1, \"tiles\": [[\"Land\", \"Water\", \"Flag +1\"]]}");
+        ByteBuffer encoded = BinaryMapFormat.encode(original);
+
+        for (int length = 0; length < encoded.limit(); length++) {
+            ByteBuffer truncated = encoded.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            truncated.limit(length);
+            assertThrows(IllegalArgumentException.class, () -> BinaryMapFormat.decode(truncated),
+                    "length " + length);
+        }
+
+        // Move the "Water" override off the map: header, terrain, unit counts, one flag, override count
+        ByteBuffer corrupt = encoded.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        corrupt.putInt(16 + 3 + 4 * 2 + 4 + 12 + 4, 99);
+        assertThrows(IllegalArgumentException.class, () -> BinaryMapFormat.decode(corrupt));
+    }
+}
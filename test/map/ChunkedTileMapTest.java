@@ -0,0 +1,145 @@
+package map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import graphics.Point;
+import pathfinding.PathAStar;
+import pathfinding.PathNode;
+
+public class ChunkedTileMapTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Not a multiple of the chunk size, so the last chunks are partly outside the map
+    private static final int WIDTH = 150;
+    private static final int HEIGHT = 70;
+
+    private int[][] createTiles() {
+        int[][] tiles = new int[HEIGHT][WIDTH];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                // A wall every few tiles, with gaps so paths exist
+                tiles[y][x] = (x % 10 == 5 && y % 7 != 3) ? TileConverter.TILE_WALL : TileConverter.TILE_LAND;
+            }
+        }
+        tiles[0][0] = 7;
+        tiles[HEIGHT - 1][WIDTH - 1] = 200;
+        return tiles;
+    }
+
+    private ChunkedTileMap openMap(int[][] tiles) throws Exception {
+        Path path = tempDir.resolve("large" + BinaryMapFormat.EXTENSION);
+        BinaryMapFormat.write(new MapParseResult(tiles, new String[HEIGHT][WIDTH],
+                new HashMap<>(), new HashMap<>(), new HashMap<>()), path);
+        return ChunkedTileMap.open(path);
+    }
+
+    @Test
+    void testTilesMatchTheArray() throws Exception {
+        int[][] tiles = createTiles();
+        ChunkedTileMap map = openMap(tiles);
+
+        assertEquals(WIDTH, map.getWidth());
+        assertEquals(HEIGHT, map.getHeight());
+        assertEquals(0, map.getLoadedChunkCount());
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals(tiles[y][x], map.getTile(x, y), "tile " + x + "," + y);
+            }
+        }
+        // 3 x 2 chunks of 64 tiles
+        assertEquals(6, map.getLoadedChunkCount());
+    }
+
+    @Test
+    void testChunksLoadOnDemand() throws Exception {
+        ChunkedTileMap map = openMap(createTiles());
+
+        map.getTile(1, 1);
+        map.getTile(63, 63);
+        assertEquals(1, map.getLoadedChunkCount());
+        map.getTile(64, 0);
+        assertEquals(2, map.getLoadedChunkCount());
+    }
+
+    @Test
+    void testPeekDoesNotLoadChunks() throws Exception {
+        int[][] tiles = createTiles();
+        ChunkedTileMap map = openMap(tiles);
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals(tiles[y][x], map.peekTile(x, y), "tile " + x + "," + y);
+            }
+        }
+        assertEquals(0, map.getLoadedChunkCount());
+        map.getTile(70, 10);
+        assertEquals(tiles[10][71], map.peekTile(71, 10));
+        assertEquals(1, map.getLoadedChunkCount());
+    }
+
+    @Test
+    void testColdChunksAreEvictedAndReloaded() throws Exception {
+        int[][] tiles = createTiles();
+        ChunkedTileMap map = openMap(tiles);
+        for (int y = 0; y < HEIGHT; y += ChunkedTileMap.CHUNK_SIZE) {
+            for (int x = 0; x < WIDTH; x += ChunkedTileMap.CHUNK_SIZE) {
+                map.getTile(x, y);
+            }
+        }
+
+        // Only the chunk around the unit in the top left corner stays
+        int evicted = map.evictColdChunks(List.of(new Point(10, 10)), 5);
+
+        assertEquals(5, evicted);
+        assertEquals(1, map.getLoadedChunkCount());
+        assertEquals(tiles[HEIGHT - 1][WIDTH - 1], map.getTile(WIDTH - 1, HEIGHT - 1));
+        assertEquals(2, map.getLoadedChunkCount());
+
+        // A radius reaching over a chunk border keeps both sides
+        assertEquals(1, map.evictColdChunks(List.of(new Point(62, 10)), 5));
+        assertEquals(1, map.getLoadedChunkCount());
+        map.getTile(70, 0);
+        assertEquals(0, map.evictColdChunks(List.of(new Point(62, 10)), 5));
+
+        assertEquals(2, map.evictColdChunks(Collections.emptyList(), 5));
+        assertEquals(0, map.getLoadedChunkCount());
+    }
+
+    @Test
+    void testReadersAcceptChunkedMaps() throws Exception {
+        int[][] tiles = createTiles();
+        ChunkedTileMap map = openMap(tiles);
+
+        assertTrue(MapValidator.isWall(map, 5, 0));
+        assertFalse(MapValidator.isWalkable(map, 5, 0));
+        assertTrue(MapValidator.isWalkable(map, 6, 0));
+        assertEquals(-1, MapValidator.getTileSafely(map, WIDTH, 0));
+        assertFalse(MapValidator.isValidLocation(map, 0, HEIGHT));
+
+        List<PathNode> expected = PathAStar.generatePath(tiles, 1, 1, 60, 40);
+        List<PathNode> actual = PathAStar.generatePath(map, 1, 1, 60, 40);
+        assertNotNull(actual);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getX(), actual.get(i).getX());
+            assertEquals(expected.get(i).getY(), actual.get(i).getY());
+        }
+    }
+
+    @Test
+    void testRejectsOtherFiles() throws Exception {
+        Path path = tempDir.resolve("bad" + BinaryMapFormat.EXTENSION);
+        java.nio.file.Files.write(path, new byte[32]);
+
+        assertThrows(IllegalArgumentException.class, () -> ChunkedTileMap.open(path));
+    }
+}
@@ -0,0 +1,81 @@
+package map;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+
+import graphics.Point;
+
+public class MapJsonReaderTest {
+
+    private MapParseResult parse(String json) throws Exception {
+        return new MapJsonReader(new StringReader(json)).read();
+    }
+
+    @Test
+    void testTileNamesAreShared() throws Exception {
+        MapParseResult result = parse("{\"width\": 3, \"height\": 2, \"tiles\": "
+                + "[[\"Wall\", \"Land\", \"Wall\"], [\"Land\", \"Land\", \"Flag -1\"]]}");
+
+        assertSame(result.drawData[0][0], result.drawData[0][2]);
+        assertSame(result.drawData[0][1], result.drawData[1][0]);
+        assertSame(result.drawData[1][0], result.drawData[1][1]);
+        assertArrayEquals(new int[] { 1, 0, 1 }, result.mapData[0]);
+        assertEquals(TileConverter.TILE_FLAG_ENEMY, result.mapData[1][2]);
+        assertEquals(-1, result.flagPositions.get(new Point(2, 1)));
+    }
+
+    @Test
+    void testUnitsAreRecordedAtEveryPosition() throws Exception {
+        MapParseResult result = parse("{\"width\": 2, \"height\": 2, \"tiles\": "
+                + "[[\"Unit +1 1\", \"Unit -1 2\"], [\"Unit +1 1\", \"Land\"]]}");
+
+        assertEquals(2, result.allyUnitPositions.size());
+        assertEquals(1, result.allyUnitPositions.get(new Point(0, 0)));
+        assertEquals(1, result.allyUnitPositions.get(new Point(0, 1)));
+        assertEquals(2, result.enemyUnitPositions.get(new Point(1, 0)));
+        assertEquals(2, result.mapData[0][0]);
+        assertEquals(6, result.mapData[0][1]);
+    }
+
+    @Test
+    void testKeysInAnyOrderAndUnknownValuesSkipped() throws Exception {
+        MapParseResult result = parse("{\n  \"tiles\": [[\"Land\", \"W\\u0061ll\"]],\n"
+                + "  \"name\": \"test \\\"map\\\"\", \"meta\": {\"a\": [1, 2.5, true, null], \"b\": {}},\n"
+                + "  \"height\": 1, \"width\": 2\n}");
+
+        assertEquals(1, result.mapData.length);
+        assertEquals("Wall", result.drawData[0][1]);
+        assertEquals(TileConverter.TILE_WALL, result.mapData[0][1]);
+    }
+
+    @Test
+    void testMismatchedSizesAreRejected() {
+        IllegalArgumentException rows = assertThrows(IllegalArgumentException.class,
+                () -> parse("{\"width\": 2, \"height\": 2, \"tiles\": [[\"Land\", \"Land\"]]}"));
+        assertTrue(rows.getMessage().contains("rows"));
+        assertThrows(IllegalArgumentException.class,
+                () -> parse("{\"width\": 3, \"height\": 1, \"tiles\": [[\"Land\", \"Land\"]]}"));
+        IllegalArgumentException truncated = assertThrows(IllegalArgumentException.class,
+                () -> parse("{\"width\": 1,\n\"height\": 1, \"tiles\": [[\"Land"));
+        assertTrue(truncated.getMessage().contains("line 2"));
+    }
+
+    @Test
+    void testShippedMapsMatchDomParse() throws Exception {
+        for (int level = 1; level <= 2; level++) {
+            MapParseResult streamed = MapJsonParser.parseMapDataFromJsonFile("../maps/newmap" + level + ".json");
+            String json = new String(java.nio.file.Files.readAllBytes(java.nio.file.Paths.get(
+                    utils.PathResolver.resolveMapPath("../maps/newmap" + level + ".json"))));
+            org.json.JSONObject dom = new org.json.JSONObject(json);
+            org.json.JSONArray tiles = dom.getJSONArray("tiles");
+            assertEquals(dom.getInt("height"), streamed.mapData.length);
+            for (int y = 0; y < streamed.mapData.length; y++) {
+                for (int x = 0; x < streamed.mapData[y].length; x++) {
+                    assertEquals(tiles.getJSONArray(y).getString(x), streamed.drawData[y][x]);
+                }
+            }
+        }
+    }
+}
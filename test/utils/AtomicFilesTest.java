@@ -0,0 +1,46 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AtomicFilesTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ByteBuffer bytes(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testWritesBuffersInOrderAndReplacesFile() throws IOException {
+        Path path = tempDir.resolve("file.bin");
+        Files.write(path, "old contents".getBytes(StandardCharsets.UTF_8));
+
+        AtomicFiles.writeAtomically(path, bytes("new "), bytes("contents"));
+
+        assertEquals("new contents", Files.readString(path));
+        assertFalse(Files.exists(tempDir.resolve("file.bin.tmp")));
+    }
+
+    @Test
+    public void testFailedWriteKeepsOldFile() throws IOException {
+        Path path = tempDir.resolve("file.bin");
+        Files.write(path, "old contents".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> AtomicFiles.writeAtomically(path, channel -> {
+            AtomicFiles.writeFully(channel, bytes("partial"));
+            throw new IOException("disk full");
+        }));
+
+        assertEquals("old contents", Files.readString(path));
+    }
+}
@@ -0,0 +1,63 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class RandomStreamsTest {
+
+    private long[] draw(RandomStream random, int count) {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = random.nextLong();
+        }
+        return values;
+    }
+
+    @Test
+    public void testSameSeedGivesSameStreams() {
+        RandomStreams a = new RandomStreams(42L);
+        RandomStreams b = new RandomStreams(42L);
+
+        assertArrayEquals(draw(a.forSubsystem(RandomStreams.Subsystem.SPAWN), 16),
+                draw(b.forSubsystem(RandomStreams.Subsystem.SPAWN), 16));
+        assertArrayEquals(draw(a.forUnit(7), 16), draw(b.forUnit(7), 16));
+    }
+
+    @Test
+    public void testStreamsAreIndependent() {
+        RandomStreams streams = new RandomStreams(42L);
+
+        long[] spawn = draw(streams.forSubsystem(RandomStreams.Subsystem.SPAWN), 16);
+        long[] effects = draw(streams.forSubsystem(RandomStreams.Subsystem.EFFECTS), 16);
+        long[] unit0 = draw(streams.forUnit(0), 16);
+        long[] unit1 = draw(streams.forUnit(1), 16);
+
+        assertFalse(Arrays.equals(spawn, effects));
+        assertFalse(Arrays.equals(unit0, unit1));
+        assertFalse(Arrays.equals(spawn, unit0));
+    }
+
+    @Test
+    public void testDifferentSeedsGiveDifferentStreams() {
+        assertNotEquals(new RandomStreams(1L).forUnit(0).nextLong(), new RandomStreams(2L).forUnit(0).nextLong());
+    }
+
+    @Test
+    public void testStreamContinuesFromSavedState() {
+        RandomStream original = new RandomStreams(42L).forSubsystem(RandomStreams.Subsystem.SPAWN);
+        draw(original, 5);
+        RandomStream resumed = new RandomStream(0L);
+        resumed.setState(original.getState());
+
+        assertArrayEquals(draw(original, 16), draw(resumed, 16));
+        for (int i = 0; i < 1000; i++) {
+            int value = resumed.nextInt(7);
+            assertTrue(value >= 0 && value < 7);
+            double fraction = resumed.nextDouble();
+            assertTrue(fraction >= 0.0 && fraction < 1.0);
+        }
+    }
+}